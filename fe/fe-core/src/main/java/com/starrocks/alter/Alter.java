@@ -54,6 +54,7 @@ import com.starrocks.catalog.PartitionType;
 import com.starrocks.catalog.Table;
 import com.starrocks.catalog.Table.TableType;
 import com.starrocks.catalog.View;
+import com.starrocks.clone.DirtyPartitionTracker;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.DdlException;
 import com.starrocks.common.ErrorCode;
@@ -536,6 +537,8 @@ public class Alter {
                             "table " + olapTable.getName() + " is colocate table, cannot change replicationNum");
                 }
                 partitionInfo.setReplicationNum(partition.getId(), newReplicationNum);
+                DirtyPartitionTracker.getInstance().markPartitionDirty(db.getId(), olapTable.getId(),
+                        partition.getId());
                 // update default replication num if this table is unpartitioned table
                 if (partitionInfo.getType() == PartitionType.UNPARTITIONED) {
                     olapTable.setReplicationNum(newReplicationNum);
@@ -0,0 +1,332 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.alter;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.CreateAsyncMaterializedViewStmt;
+import com.starrocks.analysis.PartitionKeyDesc;
+import com.starrocks.analysis.PartitionValue;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.catalog.AsyncMaterializedViewProperty;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.PartitionType;
+import com.starrocks.catalog.RangePartitionInfo;
+import com.starrocks.catalog.Table;
+import com.starrocks.cluster.ClusterNamespace;
+import com.starrocks.common.Config;
+import com.starrocks.common.DdlException;
+import com.starrocks.common.util.MasterDaemon;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.QueryState;
+import com.starrocks.qe.StmtExecutor;
+import com.starrocks.statistic.StatisticExecutor;
+import com.starrocks.statistic.StatisticUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Refresh the asynchronous materialized views whose base tables have changed.
+ * <p>
+ * A materialized view partitioned as its partition base table is refreshed partition by partition: the partitions
+ * are first synchronized with the base table by name and range, then every partition whose base partition has a
+ * new visible version is recomputed into a temporary partition, which replaces the old one atomically.
+ * If any other base table has changed, all partitions are recomputed.
+ * An unpartitioned materialized view is truncated and recomputed as a whole, it is marked out of date before
+ * the truncate, so that queries are not rewritten to it while it is empty.
+ * <p>
+ * The visible versions of the base tables are taken before recomputing, so the changes made during a refresh are
+ * picked up by the next one. The versions are persisted only after a successful refresh, a failed refresh leaves
+ * the materialized view out of date until it is retried.
+ */
+public class AsyncMaterializedViewRefresher extends MasterDaemon {
+    private static final Logger LOG = LogManager.getLogger(AsyncMaterializedViewRefresher.class);
+
+    private static final String TEMP_PARTITION_PREFIX = "tmp_async_mv_";
+
+    // materialized view id -> the time of last refresh attempt, to avoid retrying a failed refresh too often
+    private final Map<Long, Long> lastAttemptTime = Maps.newHashMap();
+
+    public AsyncMaterializedViewRefresher() {
+        super("AsyncMaterializedViewRefresher", Config.async_mv_refresh_check_interval_s * 1000L);
+    }
+
+    @Override
+    protected void runAfterCatalogReady() {
+        if (getInterval() != Config.async_mv_refresh_check_interval_s * 1000L) {
+            setInterval(Config.async_mv_refresh_check_interval_s * 1000L);
+        }
+
+        Catalog catalog = Catalog.getCurrentCatalog();
+        Set<Long> mvIds = Sets.newHashSet();
+        for (Long dbId : catalog.getDbIds()) {
+            Database db = catalog.getDb(dbId);
+            if (db == null) {
+                continue;
+            }
+            for (Table table : db.getTables()) {
+                if (!(table instanceof OlapTable) || !((OlapTable) table).isAsyncMaterializedView()) {
+                    continue;
+                }
+                OlapTable mv = (OlapTable) table;
+                mvIds.add(mv.getId());
+                if (!needRefresh(mv)) {
+                    continue;
+                }
+                lastAttemptTime.put(mv.getId(), System.currentTimeMillis());
+                try {
+                    refresh(db, mv);
+                } catch (Exception e) {
+                    LOG.warn("failed to refresh asynchronous materialized view {}.{}", db.getFullName(),
+                            mv.getName(), e);
+                }
+            }
+        }
+        lastAttemptTime.keySet().retainAll(mvIds);
+    }
+
+    private boolean needRefresh(OlapTable mv) {
+        AsyncMaterializedViewProperty property = mv.getAsyncMaterializedViewProperty();
+        long lastTime = Math.max(property.getLastRefreshTime(), lastAttemptTime.getOrDefault(mv.getId(), 0L));
+        if (System.currentTimeMillis() - lastTime < property.getRefreshIntervalS() * 1000L) {
+            return false;
+        }
+        return !property.isUpToDate();
+    }
+
+    public void refresh(Database db, OlapTable mv) throws Exception {
+        AsyncMaterializedViewProperty property = mv.getAsyncMaterializedViewProperty();
+        Map<Long, Map<Long, Long>> versions = Maps.newHashMap();
+        for (AsyncMaterializedViewProperty.BaseTable baseTable : property.getBaseTables()) {
+            OlapTable table = baseTable.getTable();
+            if (table == null) {
+                throw new DdlException("base table " + baseTable + " does not exist");
+            }
+            Database baseDb = Catalog.getCurrentCatalog().getDb(baseTable.getDbId());
+            baseDb.readLock();
+            try {
+                versions.put(table.getId(), AsyncMaterializedViewProperty.getVisibleVersions(table));
+            } finally {
+                baseDb.readUnlock();
+            }
+        }
+
+        ConnectContext context = StatisticUtils.buildConnectContext();
+        context.setDatabase(db.getFullName());
+        context.getSessionVariable().setEnableAsyncMvRewrite(false);
+        String mvName = toSqlName(db, mv);
+        if (property.getPartitionBaseTable() == null) {
+            // the view is empty from the truncate until the insert is done, forget the refreshed versions first,
+            // so that no query is rewritten to it meanwhile
+            Map<String, String> staleState = Maps.newHashMap();
+            staleState.put(AsyncMaterializedViewProperty.BASE_VERSIONS,
+                    AsyncMaterializedViewProperty.baseVersionsToString(Maps.newHashMap()));
+            modifyState(db, mv, staleState);
+            execute(context, "TRUNCATE TABLE " + mvName);
+            execute(context, "INSERT INTO " + mvName + " SELECT * FROM (" + property.getDefinition() + ") "
+                    + "async_mv_def");
+        } else {
+            refreshPartitions(context, db, mv, property, versions);
+        }
+
+        Map<String, String> state = Maps.newHashMap();
+        state.put(AsyncMaterializedViewProperty.BASE_VERSIONS,
+                AsyncMaterializedViewProperty.baseVersionsToString(versions));
+        state.put(AsyncMaterializedViewProperty.LAST_REFRESH_TIME, String.valueOf(System.currentTimeMillis()));
+        modifyState(db, mv, state);
+        LOG.info("refreshed asynchronous materialized view {}.{}", db.getFullName(), mv.getName());
+    }
+
+    private static void modifyState(Database db, OlapTable mv, Map<String, String> state) throws DdlException {
+        db.writeLock();
+        try {
+            if (db.getTable(mv.getId()) != mv) {
+                throw new DdlException("materialized view " + mv.getName() + " has been dropped");
+            }
+            Catalog.getCurrentCatalog().modifyAsyncMaterializedViewState(db, mv, state);
+        } finally {
+            db.writeUnlock();
+        }
+    }
+
+    private void refreshPartitions(ConnectContext context, Database db, OlapTable mv,
+                                   AsyncMaterializedViewProperty property,
+                                   Map<Long, Map<Long, Long>> versions) throws Exception {
+        AsyncMaterializedViewProperty.BaseTable partitionBaseTable = property.getPartitionBaseTable();
+        OlapTable baseTable = partitionBaseTable.getTable();
+        if (baseTable == null || baseTable.getPartitionInfo().getType() != PartitionType.RANGE) {
+            throw new DdlException("partition base table " + partitionBaseTable + " is not range partitioned");
+        }
+        Map<Long, Long> refreshedVersions = property.getBaseVersions().get(baseTable.getId());
+
+        // a change of other base tables may affect every partition
+        boolean refreshAll = refreshedVersions == null;
+        for (Map.Entry<Long, Map<Long, Long>> entry : versions.entrySet()) {
+            if (entry.getKey() != baseTable.getId()
+                    && !entry.getValue().equals(property.getBaseVersions().get(entry.getKey()))) {
+                refreshAll = true;
+            }
+        }
+
+        // partition name -> range of the base table, only the partitions whose versions are taken
+        Map<String, Range<PartitionKey>> baseRanges = Maps.newHashMap();
+        Map<String, Long> basePartitionIds = Maps.newHashMap();
+        Database baseDb = Catalog.getCurrentCatalog().getDb(partitionBaseTable.getDbId());
+        baseDb.readLock();
+        try {
+            RangePartitionInfo partitionInfo = (RangePartitionInfo) baseTable.getPartitionInfo();
+            for (Long partitionId : versions.get(baseTable.getId()).keySet()) {
+                Partition partition = baseTable.getPartition(partitionId);
+                Range<PartitionKey> range = partitionInfo.getRange(partitionId);
+                if (partition != null && range != null) {
+                    baseRanges.put(partition.getName(), range);
+                    basePartitionIds.put(partition.getName(), partitionId);
+                }
+            }
+        } finally {
+            baseDb.readUnlock();
+        }
+
+        List<String> addedPartitions = syncPartitions(context, db, mv, baseRanges);
+
+        String partitionColumn;
+        db.readLock();
+        try {
+            partitionColumn = ((RangePartitionInfo) mv.getPartitionInfo()).getPartitionColumns().get(0).getName();
+        } finally {
+            db.readUnlock();
+        }
+
+        List<String> partitionsToRefresh = Lists.newArrayList();
+        for (Map.Entry<String, Long> entry : basePartitionIds.entrySet()) {
+            Long version = versions.get(baseTable.getId()).get(entry.getValue());
+            if (refreshAll || addedPartitions.contains(entry.getKey())
+                    || !Objects.equals(version, refreshedVersions.get(entry.getValue()))) {
+                partitionsToRefresh.add(entry.getKey());
+            }
+        }
+        partitionsToRefresh.sort(Comparator.naturalOrder());
+        for (String partitionName : partitionsToRefresh) {
+            refreshPartition(context, db, mv, property.getDefinition(), partitionColumn, partitionName,
+                    baseRanges.get(partitionName));
+        }
+    }
+
+    // make the partitions of the materialized view the same as the base partitions, return the added ones
+    private List<String> syncPartitions(ConnectContext context, Database db, OlapTable mv,
+                                        Map<String, Range<PartitionKey>> baseRanges) throws Exception {
+        List<String> partitionsToDrop = Lists.newArrayList();
+        List<String> partitionsToAdd = Lists.newArrayList();
+        db.readLock();
+        try {
+            RangePartitionInfo partitionInfo = (RangePartitionInfo) mv.getPartitionInfo();
+            for (Partition partition : mv.getPartitions()) {
+                Range<PartitionKey> baseRange = baseRanges.get(partition.getName());
+                if (baseRange == null || !rangeEquals(baseRange, partitionInfo.getRange(partition.getId()))) {
+                    partitionsToDrop.add(partition.getName());
+                }
+            }
+            for (String name : baseRanges.keySet()) {
+                if (mv.getPartition(name) == null || partitionsToDrop.contains(name)) {
+                    partitionsToAdd.add(name);
+                }
+            }
+        } finally {
+            db.readUnlock();
+        }
+
+        String mvName = toSqlName(db, mv);
+        for (String name : partitionsToDrop) {
+            execute(context, "ALTER TABLE " + mvName + " DROP PARTITION IF EXISTS `" + name + "`");
+        }
+        // add in the order of ranges, so that a LESS THAN range is bounded by the previous one
+        partitionsToAdd.sort(Comparator.comparing(name -> baseRanges.get(name).lowerEndpoint()));
+        for (String name : partitionsToAdd) {
+            execute(context, "ALTER TABLE " + mvName + " ADD PARTITION `" + name + "` "
+                    + toValuesSql(baseRanges.get(name)));
+        }
+        return partitionsToAdd;
+    }
+
+    private void refreshPartition(ConnectContext context, Database db, OlapTable mv, String definition,
+                                  String partitionColumn, String partitionName, Range<PartitionKey> range)
+            throws Exception {
+        String mvName = toSqlName(db, mv);
+        String tempPartitionName = TEMP_PARTITION_PREFIX + partitionName;
+        execute(context, "ALTER TABLE " + mvName + " DROP TEMPORARY PARTITION IF EXISTS `" + tempPartitionName + "`");
+        execute(context, "ALTER TABLE " + mvName + " ADD TEMPORARY PARTITION `" + tempPartitionName + "` "
+                + toValuesSql(range));
+
+        StringBuilder insert = new StringBuilder();
+        insert.append("INSERT INTO ").append(mvName).append(" TEMPORARY PARTITION(`").append(tempPartitionName)
+                .append("`) SELECT * FROM (").append(definition).append(") async_mv_def WHERE ");
+        if (!range.lowerEndpoint().isMinValue()) {
+            insert.append("`").append(partitionColumn).append("` >= ")
+                    .append(range.lowerEndpoint().getKeys().get(0).toSql()).append(" AND ");
+        }
+        insert.append("`").append(partitionColumn).append("` < ")
+                .append(range.upperEndpoint().getKeys().get(0).toSql());
+        execute(context, insert.toString());
+
+        execute(context, "ALTER TABLE " + mvName + " REPLACE PARTITION(`" + partitionName
+                + "`) WITH TEMPORARY PARTITION(`" + tempPartitionName + "`)");
+    }
+
+    private static boolean rangeEquals(Range<PartitionKey> left, Range<PartitionKey> right) {
+        return right != null && left.lowerEndpoint().compareTo(right.lowerEndpoint()) == 0
+                && left.upperEndpoint().compareTo(right.upperEndpoint()) == 0;
+    }
+
+    private static String toValuesSql(Range<PartitionKey> range) throws DdlException {
+        PartitionKeyDesc keyDesc = CreateAsyncMaterializedViewStmt.toPartitionKeyDesc(range);
+        if (keyDesc == null) {
+            throw new DdlException("unsupported partition range " + range);
+        }
+        StringBuilder sb = new StringBuilder("VALUES ");
+        if (keyDesc.hasLowerValues()) {
+            sb.append("[").append(toValuesSql(keyDesc.getLowerValues())).append(", ")
+                    .append(toValuesSql(keyDesc.getUpperValues())).append(")");
+        } else {
+            sb.append("LESS THAN ").append(toValuesSql(keyDesc.getUpperValues()));
+        }
+        return sb.toString();
+    }
+
+    private static String toValuesSql(List<PartitionValue> values) {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < values.size(); ++i) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("'").append(values.get(i).getStringValue()).append("'");
+        }
+        return sb.append(")").toString();
+    }
+
+    private static String toSqlName(Database db, OlapTable mv) {
+        return "`" + ClusterNamespace.getNameFromFullName(db.getFullName()) + "`.`" + mv.getName() + "`";
+    }
+
+    static void execute(ConnectContext context, String sql) throws Exception {
+        LOG.debug("refresh asynchronous materialized view: {}", sql);
+        context.getState().reset();
+        StatementBase parsedStmt = StatisticExecutor.parseSQL(sql, context);
+        StmtExecutor executor = new StmtExecutor(context, parsedStmt);
+        executor.execute();
+        if (context.getState().getStateType() == QueryState.MysqlStateType.ERR) {
+            throw new DdlException(context.getState().getErrorMessage() + ", sql: " + sql);
+        }
+    }
+}
@@ -18,6 +18,7 @@ import java.util.regex.PatternSyntaxException;
 // used to add regular expression from sql.
 public class AddSqlBlackListStmt extends StatementBase {
     private static final Logger LOG = LogManager.getLogger(AddSqlBlackListStmt.class);
+    private static final Pattern DIGEST_PATTERN = Pattern.compile("[0-9a-f]{32}");
 
     private String sql;
 
@@ -31,10 +32,24 @@ public class AddSqlBlackListStmt extends StatementBase {
         return sqlPattern;
     }
 
+    // "digest" if the sql is added by "ADD SQLBLACKLIST DIGEST 'xxx'", otherwise null
+    private String kind;
+    // digest of the forbidden sql
+    private String digest;
+
+    public String getDigest() {
+        return digest;
+    }
+
     public AddSqlBlackListStmt(String sql) {
         this.sql = sql;
     }
 
+    public AddSqlBlackListStmt(String kind, String sql) {
+        this.kind = kind;
+        this.sql = sql;
+    }
+
     @Override
     public void analyze(Analyzer analyzer) throws AnalysisException, UserException {
         if (!Catalog.getCurrentCatalog().getAuth().checkGlobalPriv(ConnectContext.get(), PrivPredicate.ADMIN)) {
@@ -43,6 +58,17 @@ public class AddSqlBlackListStmt extends StatementBase {
 
         super.analyze(analyzer);
 
+        if (kind != null) {
+            if (!"digest".equalsIgnoreCase(kind)) {
+                ErrorReport.reportAnalysisException("Unknown sql blacklist type: " + kind);
+            }
+            digest = sql.trim().toLowerCase();
+            if (!DIGEST_PATTERN.matcher(digest).matches()) {
+                ErrorReport.reportAnalysisException("Invalid sql digest: " + digest);
+            }
+            return;
+        }
+
         sql = sql.trim().toLowerCase().replaceAll("\\(", "\\\\(").replaceAll("\\)", "\\\\)").replaceAll(" +", " ");
         if (sql != null && sql.length() > 0) {
             try {
@@ -0,0 +1,250 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.analysis;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.starrocks.catalog.AsyncMaterializedViewProperty;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.PartitionType;
+import com.starrocks.catalog.RangePartitionInfo;
+import com.starrocks.catalog.ScalarType;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.common.ErrorCode;
+import com.starrocks.common.ErrorReport;
+import com.starrocks.common.FeNameFormat;
+import com.starrocks.common.UserException;
+import com.starrocks.common.util.PrintableMap;
+import com.starrocks.mysql.privilege.PrivPredicate;
+import com.starrocks.qe.ConnectContext;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Create an asynchronous materialized view, which is an olap table holding the result of a query over
+ * other olap tables, and refreshed in background when the base tables change.
+ * <p>
+ * Syntax:
+ * CREATE MATERIALIZED VIEW [MV name]
+ * DISTRIBUTED BY HASH (column_name[, column_name ...]) [BUCKETS num]
+ * [PROPERTIES ("refresh_interval" = "seconds", "key" = "value")]
+ * AS query
+ * <p>
+ * If a column of the view is the partition column of a range partitioned base table, the view is
+ * partitioned the same way as that table, so that only the partitions of the changed base partitions
+ * are refreshed. Otherwise the view is not partitioned and refreshed as a whole.
+ */
+public class CreateAsyncMaterializedViewStmt extends DdlStmt {
+    public static final String PROPERTIES_REFRESH_INTERVAL = "refresh_interval";
+
+    private final String mvName;
+    private final List<String> distributionColumns;
+    private final int bucketNum;
+    private final Map<String, String> properties;
+    private final QueryStmt queryStmt;
+
+    private TableName tableName;
+    private CreateTableStmt createTableStmt;
+
+    public CreateAsyncMaterializedViewStmt(String mvName, List<String> distributionColumns, int bucketNum,
+                                           Map<String, String> properties, QueryStmt queryStmt) {
+        this.mvName = mvName;
+        this.distributionColumns = distributionColumns;
+        this.bucketNum = bucketNum;
+        this.properties = properties == null ? Maps.newHashMap() : Maps.newHashMap(properties);
+        this.queryStmt = queryStmt;
+    }
+
+    public String getMvName() {
+        return mvName;
+    }
+
+    public QueryStmt getQueryStmt() {
+        return queryStmt;
+    }
+
+    public CreateTableStmt getCreateTableStmt() {
+        return createTableStmt;
+    }
+
+    @Override
+    public void analyze(Analyzer analyzer) throws UserException {
+        super.analyze(analyzer);
+        FeNameFormat.checkTableName(mvName);
+        tableName = new TableName(null, mvName);
+        tableName.analyze(analyzer);
+        if (!Catalog.getCurrentCatalog().getAuth().checkTblPriv(ConnectContext.get(), tableName.getDb(),
+                tableName.getTbl(), PrivPredicate.CREATE)) {
+            ErrorReport.reportAnalysisException(ErrorCode.ERR_SPECIFIC_ACCESS_DENIED_ERROR, "CREATE");
+        }
+
+        queryStmt.setNeedToSql(true);
+        queryStmt.analyze(new Analyzer(analyzer));
+        if (queryStmt.hasOrderByClause() || queryStmt.hasLimitClause()) {
+            throw new AnalysisException("Asynchronous materialized view does not support ORDER BY or LIMIT");
+        }
+
+        List<TableRef> tableRefs = Lists.newArrayList();
+        queryStmt.collectTableRefs(tableRefs);
+        List<AsyncMaterializedViewProperty.BaseTable> baseTables = Lists.newArrayList();
+        for (TableRef tableRef : tableRefs) {
+            Table table = tableRef.getTable();
+            if (!(table instanceof OlapTable)) {
+                throw new AnalysisException("Asynchronous materialized view only supports olap base tables, but "
+                        + tableRef.getName() + " is not");
+            }
+            if (((OlapTable) table).isAsyncMaterializedView()) {
+                throw new AnalysisException("Asynchronous materialized view can not be defined on another one: "
+                        + table.getName());
+            }
+            Database db = Catalog.getCurrentCatalog().getDb(tableRef.getName().getDb());
+            if (db == null) {
+                ErrorReport.reportAnalysisException(ErrorCode.ERR_BAD_DB_ERROR, tableRef.getName().getDb());
+            }
+            baseTables.add(new AsyncMaterializedViewProperty.BaseTable(db.getId(), table.getId()));
+        }
+        if (baseTables.isEmpty()) {
+            throw new AnalysisException("Asynchronous materialized view must have at least one base table");
+        }
+
+        Map<String, String> tableProperties = Maps.newHashMap(properties);
+        for (String key : tableProperties.keySet()) {
+            if (key.startsWith(AsyncMaterializedViewProperty.PROPERTY_PREFIX)) {
+                throw new AnalysisException("Unknown property: " + key);
+            }
+        }
+        String refreshInterval = tableProperties.remove(PROPERTIES_REFRESH_INTERVAL);
+        if (refreshInterval != null) {
+            try {
+                if (Long.parseLong(refreshInterval) <= 0) {
+                    throw new NumberFormatException();
+                }
+            } catch (NumberFormatException e) {
+                throw new AnalysisException("Invalid refresh_interval: " + refreshInterval);
+            }
+            tableProperties.put(AsyncMaterializedViewProperty.REFRESH_INTERVAL_S, refreshInterval);
+        }
+
+        List<ColumnDef> columnDefs = Lists.newArrayList();
+        List<Expr> resultExprs = queryStmt.getBaseTblResultExprs();
+        List<String> colLabels = queryStmt.getColLabels();
+        for (int i = 0; i < resultExprs.size(); ++i) {
+            Type type = resultExprs.get(i).getType();
+            if (type.isNull() || !type.isScalarType()) {
+                throw new AnalysisException("Unsupported type of column " + colLabels.get(i) + ": " + type);
+            }
+            if (type.isStringType()) {
+                type = ScalarType.createVarcharType(ScalarType.MAX_VARCHAR_LENGTH);
+            }
+            columnDefs.add(new ColumnDef(colLabels.get(i), new TypeDef(type), false, null, true,
+                    ColumnDef.DefaultValue.NOT_SET, ""));
+        }
+
+        PartitionDesc partitionDesc = null;
+        for (int i = 0; i < resultExprs.size() && partitionDesc == null; ++i) {
+            partitionDesc = buildPartitionDesc(colLabels.get(i), resultExprs.get(i), baseTables, tableProperties);
+        }
+
+        tableProperties.put(AsyncMaterializedViewProperty.DEFINITION, queryStmt.toSql());
+        tableProperties.put(AsyncMaterializedViewProperty.BASE_TABLES,
+                AsyncMaterializedViewProperty.baseTablesToString(baseTables));
+        createTableStmt = new CreateTableStmt(false, false, tableName, columnDefs, "olap", null, partitionDesc,
+                new HashDistributionDesc(bucketNum, distributionColumns), tableProperties, null,
+                "asynchronous materialized view");
+        createTableStmt.analyze(analyzer);
+    }
+
+    // Partition the view as the base table if the expression is the range partition column of the table,
+    // the partitions are named after the base partitions, so they are easy to match when refreshing.
+    private PartitionDesc buildPartitionDesc(String colLabel, Expr expr,
+                                             List<AsyncMaterializedViewProperty.BaseTable> baseTables,
+                                             Map<String, String> tableProperties) {
+        if (!(expr instanceof SlotRef) || ((SlotRef) expr).getDesc() == null) {
+            return null;
+        }
+        SlotDescriptor slot = ((SlotRef) expr).getDesc();
+        Column column = slot.getColumn();
+        if (column == null || !(slot.getParent().getTable() instanceof OlapTable)) {
+            return null;
+        }
+        OlapTable table = (OlapTable) slot.getParent().getTable();
+        if (table.getPartitionInfo().getType() != PartitionType.RANGE) {
+            return null;
+        }
+        RangePartitionInfo partitionInfo = (RangePartitionInfo) table.getPartitionInfo();
+        List<Column> partitionColumns = partitionInfo.getPartitionColumns();
+        if (partitionColumns.size() != 1 || !partitionColumns.get(0).getName().equalsIgnoreCase(column.getName())) {
+            return null;
+        }
+        AsyncMaterializedViewProperty.BaseTable baseTable = baseTables.stream()
+                .filter(t -> t.getTableId() == table.getId()).findFirst().orElse(null);
+        if (baseTable == null) {
+            return null;
+        }
+
+        List<Map.Entry<Long, Range<PartitionKey>>> ranges =
+                Lists.newArrayList(partitionInfo.getIdToRange(false).entrySet());
+        ranges.sort(Comparator.comparing(entry -> entry.getValue().lowerEndpoint()));
+        List<PartitionDesc> singleRangePartitionDescs = Lists.newArrayList();
+        for (Map.Entry<Long, Range<PartitionKey>> entry : ranges) {
+            Partition partition = table.getPartition(entry.getKey());
+            PartitionKeyDesc keyDesc = toPartitionKeyDesc(entry.getValue());
+            if (partition == null || keyDesc == null) {
+                return null;
+            }
+            singleRangePartitionDescs.add(new SingleRangePartitionDesc(false, partition.getName(), keyDesc, null));
+        }
+        tableProperties.put(AsyncMaterializedViewProperty.PARTITION_BASE_TABLE, baseTable.toString());
+        return new RangePartitionDesc(Lists.newArrayList(colLabel), singleRangePartitionDescs);
+    }
+
+    /**
+     * @return null if the range can not be described, the MAXVALUE of a fixed range is not supported
+     */
+    public static PartitionKeyDesc toPartitionKeyDesc(Range<PartitionKey> range) {
+        if (range.upperEndpoint().isMaxValue()) {
+            return null;
+        }
+        List<PartitionValue> upper = toPartitionValues(range.upperEndpoint());
+        if (range.lowerEndpoint().isMinValue()) {
+            return new PartitionKeyDesc(upper);
+        }
+        return new PartitionKeyDesc(toPartitionValues(range.lowerEndpoint()), upper);
+    }
+
+    private static List<PartitionValue> toPartitionValues(PartitionKey key) {
+        List<PartitionValue> values = Lists.newArrayList();
+        for (LiteralExpr literal : key.getKeys()) {
+            values.add(new PartitionValue(literal.getStringValue()));
+        }
+        return values;
+    }
+
+    @Override
+    public String toSql() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("CREATE MATERIALIZED VIEW `").append(mvName).append("` DISTRIBUTED BY HASH(");
+        for (int i = 0; i < distributionColumns.size(); ++i) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("`").append(distributionColumns.get(i)).append("`");
+        }
+        sb.append(") BUCKETS ").append(bucketNum);
+        if (!properties.isEmpty()) {
+            sb.append(" PROPERTIES (").append(new PrintableMap<>(properties, " = ", true, false)).append(")");
+        }
+        sb.append(" AS ").append(queryStmt.toSql());
+        return sb.toString();
+    }
+}
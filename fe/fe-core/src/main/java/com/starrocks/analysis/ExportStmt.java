@@ -55,6 +55,7 @@ import java.util.Set;
 // syntax:
 //      EXPORT TABLE tablename [PARTITION (name1[, ...])]
 //          [(col1, col2[, ...])]
+//          [WHERE predicate]
 //          TO 'export_target_path'
 //          [PROPERTIES("key"="value")]
 //          WITH BROKER 'broker_name' [( $broker_attrs)]
@@ -73,6 +74,8 @@ public class ExportStmt extends StatementBase {
     private TableName tblName;
     private List<String> partitions;
     private List<String> columnNames;
+    // filters the exported rows, pushed down to the scan of table
+    private Expr whereExpr;
     // path should include "/"
     private String path;
     private String fileNamePrefix;
@@ -86,8 +89,14 @@ public class ExportStmt extends StatementBase {
 
     public ExportStmt(TableRef tableRef, List<String> columnNames, String path,
                       Map<String, String> properties, BrokerDesc brokerDesc) {
+        this(tableRef, columnNames, null, path, properties, brokerDesc);
+    }
+
+    public ExportStmt(TableRef tableRef, List<String> columnNames, Expr whereExpr, String path,
+                      Map<String, String> properties, BrokerDesc brokerDesc) {
         this.tableRef = tableRef;
         this.columnNames = columnNames;
+        this.whereExpr = whereExpr;
         this.path = path.trim();
         if (properties != null) {
             this.properties = properties;
@@ -110,6 +119,10 @@ public class ExportStmt extends StatementBase {
         return columnNames;
     }
 
+    public Expr getWhereExpr() {
+        return whereExpr;
+    }
+
     public String getPath() {
         return path;
     }
@@ -177,6 +190,10 @@ public class ExportStmt extends StatementBase {
         // check table && partitions && columns whether exist
         checkTable(analyzer.getCatalog());
 
+        if (whereExpr != null) {
+            analyzeWhereExpr(analyzer);
+        }
+
         // check path is valid
         // generate file name prefix
         checkPath();
@@ -261,6 +278,19 @@ public class ExportStmt extends StatementBase {
         }
     }
 
+    private void analyzeWhereExpr(Analyzer analyzer) throws AnalysisException {
+        if (whereExpr.contains(Subquery.class)) {
+            throw new AnalysisException("Subquery is not supported in the WHERE clause of EXPORT");
+        }
+        whereExpr.analyze(analyzer);
+        // the functions are resolved by analyze
+        if (whereExpr.containsAggregate() || whereExpr.contains(AnalyticExpr.class)) {
+            throw new AnalysisException("Aggregate or analytic function is not supported in the WHERE clause of "
+                    + "EXPORT");
+        }
+        whereExpr.checkReturnsBool("WHERE clause", false);
+    }
+
     private void checkPath() throws AnalysisException {
         if (Strings.isNullOrEmpty(path)) {
             throw new AnalysisException("No dest path specified.");
@@ -343,6 +373,14 @@ public class ExportStmt extends StatementBase {
             Joiner.on(", ").appendTo(sb, partitions);
             sb.append(")");
         }
+        if (columnNames != null && !columnNames.isEmpty()) {
+            sb.append(" (");
+            Joiner.on(", ").appendTo(sb, columnNames);
+            sb.append(")");
+        }
+        if (whereExpr != null) {
+            sb.append(" WHERE ").append(whereExpr.toSql());
+        }
         sb.append("\n");
 
         sb.append(" TO ").append("'");
@@ -356,9 +394,12 @@ public class ExportStmt extends StatementBase {
         }
 
         if (brokerDesc != null) {
-            sb.append("\n WITH BROKER '").append(brokerDesc.getName()).append("' (");
-            sb.append(new PrintableMap<String, String>(brokerDesc.getProperties(), "=", true, false, true));
-            sb.append(")");
+            sb.append("\n WITH BROKER '").append(brokerDesc.getName()).append("'");
+            if (brokerDesc.getProperties() != null && !brokerDesc.getProperties().isEmpty()) {
+                sb.append(" (");
+                sb.append(new PrintableMap<String, String>(brokerDesc.getProperties(), "=", true, false, true));
+                sb.append(")");
+            }
         }
 
         return sb.toString();
@@ -23,6 +23,7 @@ package com.starrocks.backup;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.RateLimiter;
 import com.starrocks.backup.Status.ErrCode;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.FsBroker;
@@ -30,6 +31,7 @@ import com.starrocks.common.AnalysisException;
 import com.starrocks.common.ClientPool;
 import com.starrocks.common.Config;
 import com.starrocks.common.Pair;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.io.Text;
 import com.starrocks.common.io.Writable;
 import com.starrocks.common.util.BrokerUtil;
@@ -80,10 +82,20 @@ import java.nio.file.Paths;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 public class BlobStorage implements Writable {
     private static final Logger LOG = LogManager.getLogger(BlobStorage.class);
 
+    // size of a read or write request to broker
+    private static final int TRANSFER_CHUNK_SIZE = 1024 * 1024;
+    // runs the streams of downloading large files
+    private static final ExecutorService TRANSFER_EXECUTOR = ThreadPoolManager.newDaemonFixedThreadPool(
+            32, 1024, "backup-transfer-pool", true);
+    // shared by all the transfers of backup and restore on this frontend
+    private static final RateLimiter TRANSFER_RATE_LIMITER = RateLimiter.create(Double.MAX_VALUE);
+
     private String brokerName;
     private Map<String, String> properties = Maps.newHashMap();
 
@@ -108,6 +120,10 @@ public class BlobStorage implements Writable {
         LOG.debug("download from {} to {}, file size: {}.",
                 remoteFilePath, localFilePath, fileSize);
 
+        if (Config.backup_transfer_stream_num > 1 && fileSize > TRANSFER_CHUNK_SIZE) {
+            return downloadByStreams(remoteFilePath, localFilePath, fileSize);
+        }
+
         long start = System.currentTimeMillis();
 
         // 1. get a proper broker
@@ -143,37 +159,26 @@ public class BlobStorage implements Writable {
         }
         Preconditions.checkNotNull(fd);
 
-        // 3. delete local file if exist
+        // 3. delete local file if exist and create local file
         File localFile = new File(localFilePath);
-        if (localFile.exists()) {
-            try {
-                Files.walk(Paths.get(localFilePath),
-                        FileVisitOption.FOLLOW_LINKS).sorted(Comparator.reverseOrder()).map(Path::toFile)
-                        .forEach(File::delete);
-            } catch (IOException e) {
-                return new Status(ErrCode.COMMON_ERROR, "failed to delete exist local file: " + localFilePath);
-            }
-        }
-
-        // 4. create local file
-        Status status = Status.OK;
-        try {
-            if (!localFile.createNewFile()) {
-                return new Status(ErrCode.COMMON_ERROR, "failed to create local file: " + localFilePath);
-            }
-        } catch (IOException e) {
-            return new Status(ErrCode.COMMON_ERROR, "failed to create local file: "
-                    + localFilePath + ", msg: " + e.getMessage());
+        Status status = createLocalFile(localFile);
+        if (!status.ok()) {
+            closeReaderAndReturnClient(client, address, fd);
+            return status;
         }
 
-        // 5. read remote file with broker and write to local
+        // 4. read remote file with broker and write to local
         String lastErrMsg = null;
+        RateLimiter rateLimiter = getTransferRateLimiter();
         try (BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(localFile))) {
-            final long bufSize = 1024 * 1024; // 1MB
+            final long bufSize = TRANSFER_CHUNK_SIZE;
             long leftSize = fileSize;
             long readOffset = 0;
             while (leftSize > 0) {
                 long readLen = leftSize > bufSize ? bufSize : leftSize;
+                if (rateLimiter != null) {
+                    rateLimiter.acquire((int) readLen);
+                }
                 TBrokerReadResponse rep = null;
                 // We only retry if we encounter a timeout thrift exception.
                 int tryTimes = 0;
@@ -276,6 +281,154 @@ public class BlobStorage implements Writable {
         return status;
     }
 
+    private static Status createLocalFile(File localFile) {
+        String localFilePath = localFile.getPath();
+        if (localFile.exists()) {
+            try {
+                Files.walk(Paths.get(localFilePath),
+                        FileVisitOption.FOLLOW_LINKS).sorted(Comparator.reverseOrder()).map(Path::toFile)
+                        .forEach(File::delete);
+            } catch (IOException e) {
+                return new Status(ErrCode.COMMON_ERROR, "failed to delete exist local file: " + localFilePath);
+            }
+        }
+
+        try {
+            if (!localFile.createNewFile()) {
+                return new Status(ErrCode.COMMON_ERROR, "failed to create local file: " + localFilePath);
+            }
+        } catch (IOException e) {
+            return new Status(ErrCode.COMMON_ERROR, "failed to create local file: "
+                    + localFilePath + ", msg: " + e.getMessage());
+        }
+        return Status.OK;
+    }
+
+    private void closeReaderAndReturnClient(TFileBrokerService.Client client, TNetworkAddress address,
+                                            TBrokerFD fd) {
+        Status closeStatus = closeReader(client, address, fd);
+        if (!closeStatus.ok()) {
+            LOG.warn(closeStatus.getErrMsg());
+            ClientPool.brokerPool.invalidateObject(address, client);
+        } else {
+            ClientPool.brokerPool.returnObject(address, client);
+        }
+    }
+
+    // download a large file by several streams, each of which reads a range of the file with its own broker reader
+    private Status downloadByStreams(String remoteFilePath, String localFilePath, long fileSize) {
+        long start = System.currentTimeMillis();
+        File localFile = new File(localFilePath);
+        Status status = createLocalFile(localFile);
+        if (!status.ok()) {
+            return status;
+        }
+
+        RangeDownloader downloader = new RangeDownloader(() -> new BrokerRangeReader(remoteFilePath),
+                TRANSFER_EXECUTOR, Config.backup_transfer_stream_num, TRANSFER_CHUNK_SIZE, getTransferRateLimiter());
+        try {
+            downloader.download(localFile, fileSize);
+        } catch (IOException e) {
+            return new Status(ErrCode.COMMON_ERROR, "failed to download " + remoteFilePath + " to "
+                    + localFilePath + ". msg: " + e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return new Status(ErrCode.COMMON_ERROR, "failed to download " + remoteFilePath + " to "
+                    + localFilePath + ", too many concurrent transfers. msg: " + e.getMessage());
+        }
+
+        LOG.info("finished to download from {} to {} with size: {} by {} streams. cost {} ms", remoteFilePath,
+                localFilePath, fileSize, Config.backup_transfer_stream_num, (System.currentTimeMillis() - start));
+        return Status.OK;
+    }
+
+    // null if the bandwidth of backup and restore is not limited
+    private static RateLimiter getTransferRateLimiter() {
+        long bytesPerSecond = Config.backup_transfer_max_bytes_per_second;
+        if (bytesPerSecond <= 0) {
+            return null;
+        }
+        if (TRANSFER_RATE_LIMITER.getRate() != bytesPerSecond) {
+            TRANSFER_RATE_LIMITER.setRate(bytesPerSecond);
+        }
+        return TRANSFER_RATE_LIMITER;
+    }
+
+    // a broker reader of a remote file, each stream of RangeDownloader opens its own one
+    private class BrokerRangeReader implements RangeDownloader.RangeReader {
+        private final String remoteFilePath;
+        private final TFileBrokerService.Client client;
+        private final TNetworkAddress address;
+        private TBrokerFD fd;
+        private boolean broken = false;
+
+        BrokerRangeReader(String remoteFilePath) throws IOException {
+            this.remoteFilePath = remoteFilePath;
+            Pair<TFileBrokerService.Client, TNetworkAddress> pair = new Pair<>(null, null);
+            Status st = getBroker(pair);
+            if (!st.ok()) {
+                throw new IOException(st.getErrMsg());
+            }
+            client = pair.first;
+            address = pair.second;
+
+            try {
+                TBrokerOpenReaderRequest req = new TBrokerOpenReaderRequest(TBrokerVersion.VERSION_ONE,
+                        remoteFilePath, 0, clientId(), properties);
+                TBrokerOpenReaderResponse rep = client.openReader(req);
+                TBrokerOperationStatus opst = rep.getOpStatus();
+                if (opst.getStatusCode() != TBrokerOperationStatusCode.OK) {
+                    close();
+                    throw new IOException("failed to open reader on broker "
+                            + BrokerUtil.printBroker(brokerName, address) + " for file: " + remoteFilePath
+                            + ". msg: " + opst.getMessage());
+                }
+                fd = rep.getFd();
+            } catch (TException e) {
+                broken = true;
+                close();
+                throw new IOException("failed to open reader on broker " + BrokerUtil.printBroker(brokerName, address)
+                        + " for file: " + remoteFilePath + ". msg: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public byte[] read(long offset, long length) throws IOException {
+            TBrokerReadResponse rep;
+            try {
+                rep = client.pread(new TBrokerPReadRequest(TBrokerVersion.VERSION_ONE, fd, offset, length));
+            } catch (TException e) {
+                broken = true;
+                throw new IOException(String.format("failed to read via broker %s. current read offset: %d, "
+                                + "read length: %d, file: %s. msg: %s", BrokerUtil.printBroker(brokerName, address),
+                        offset, length, remoteFilePath, e.getMessage()), e);
+            }
+            if (rep.getOpStatus().getStatusCode() != TBrokerOperationStatusCode.OK) {
+                throw new IOException(String.format("failed to read via broker %s. current read offset: %d, "
+                                + "read length: %d, file: %s, err code: %s, msg: %s",
+                        BrokerUtil.printBroker(brokerName, address), offset, length, remoteFilePath,
+                        rep.getOpStatus().getStatusCode(), rep.getOpStatus().getMessage()));
+            }
+            return rep.getData();
+        }
+
+        @Override
+        public void close() {
+            if (fd != null) {
+                Status st = closeReader(client, address, fd);
+                fd = null;
+                if (!st.ok()) {
+                    LOG.warn(st.getErrMsg());
+                    broken = true;
+                }
+            }
+            if (broken) {
+                ClientPool.brokerPool.invalidateObject(address, client);
+            } else {
+                ClientPool.brokerPool.returnObject(address, client);
+            }
+        }
+    }
+
     // directly upload the content to remote file
     public Status directUpload(String content, String remoteFile) {
         Status status = Status.OK;
@@ -351,7 +504,8 @@ public class BlobStorage implements Writable {
         // 3. read local file and write to remote with broker
         File localFile = new File(localPath);
         long fileLength = localFile.length();
-        byte[] readBuf = new byte[1024];
+        byte[] readBuf = new byte[TRANSFER_CHUNK_SIZE];
+        RateLimiter rateLimiter = getTransferRateLimiter();
         try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(localFile))) {
             // save the last err msg
             String lastErrMsg = null;
@@ -360,6 +514,9 @@ public class BlobStorage implements Writable {
             // read local file, 1MB at a time
             int bytesRead = 0;
             while ((bytesRead = in.read(readBuf)) != -1) {
+                if (rateLimiter != null) {
+                    rateLimiter.acquire(bytesRead);
+                }
                 ByteBuffer bb = ByteBuffer.wrap(readBuf, 0, bytesRead);
 
                 // We only retry if we encounter a timeout thrift exception.
@@ -0,0 +1,135 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.backup;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.RateLimiter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/*
+ * Downloads a remote file by several concurrent streams.
+ * The file is split into ranges of about the same size, and each stream reads its range chunk by chunk through its
+ * own reader, writing the chunks to the local file at their offsets. A failed stream reopens its reader and resumes
+ * from the first chunk not written, so the finished chunks are not read again. The bandwidth of all streams is
+ * throttled by the shared rate limiter.
+ */
+class RangeDownloader {
+    private static final Logger LOG = LogManager.getLogger(RangeDownloader.class);
+
+    // max times of consecutive failures of a stream
+    private static final int MAX_RETRY_TIMES = 3;
+
+    interface RangeReader extends Closeable {
+        // read at most length bytes at offset, the returned bytes may be less than length
+        byte[] read(long offset, long length) throws IOException;
+    }
+
+    interface RangeReaderFactory {
+        RangeReader open() throws IOException;
+    }
+
+    private final RangeReaderFactory readerFactory;
+    private final ExecutorService executor;
+    private final int streamNum;
+    private final int chunkSize;
+    // null if the bandwidth is not limited
+    private final RateLimiter rateLimiter;
+
+    RangeDownloader(RangeReaderFactory readerFactory, ExecutorService executor, int streamNum, int chunkSize,
+                    RateLimiter rateLimiter) {
+        this.readerFactory = readerFactory;
+        this.executor = executor;
+        this.streamNum = Math.max(1, streamNum);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.rateLimiter = rateLimiter;
+    }
+
+    void download(File localFile, long fileSize) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(localFile, "rw")) {
+            raf.setLength(fileSize);
+            FileChannel channel = raf.getChannel();
+
+            long chunkNum = (fileSize + chunkSize - 1) / chunkSize;
+            int rangeNum = (int) Math.max(1, Math.min(streamNum, chunkNum));
+            // ranges are aligned to chunks
+            long rangeSize = (chunkNum + rangeNum - 1) / rangeNum * chunkSize;
+            List<Future<Void>> futures = Lists.newArrayList();
+            try {
+                // RejectedExecutionException is thrown if the executor is full, the submitted streams are cancelled
+                for (long start = 0; start < fileSize; start += rangeSize) {
+                    long rangeStart = start;
+                    long rangeEnd = Math.min(fileSize, start + rangeSize);
+                    futures.add(executor.submit(() -> {
+                        downloadRange(channel, rangeStart, rangeEnd);
+                        return null;
+                    }));
+                }
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted when downloading to " + localFile.getPath(), e);
+            } finally {
+                // stop the other streams if one fails
+                for (Future<Void> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    private void downloadRange(FileChannel channel, long start, long end) throws IOException {
+        long offset = start;
+        int failedTimes = 0;
+        while (offset < end) {
+            try (RangeReader reader = readerFactory.open()) {
+                while (offset < end) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IOException("download is cancelled");
+                    }
+                    long length = Math.min(chunkSize, end - offset);
+                    if (rateLimiter != null) {
+                        rateLimiter.acquire((int) length);
+                    }
+                    byte[] data = reader.read(offset, length);
+                    if (data == null || data.length == 0) {
+                        throw new IOException("unexpected end of remote file at offset " + offset);
+                    }
+                    ByteBuffer buffer = ByteBuffer.wrap(data, 0, (int) Math.min(data.length, end - offset));
+                    long position = offset;
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                    offset = position;
+                    failedTimes = 0;
+                }
+            } catch (IOException e) {
+                if (offset >= end) {
+                    // only failed to close the reader
+                    LOG.warn("failed to close reader after downloading range [{}, {})", start, end, e);
+                    break;
+                }
+                if (++failedTimes > MAX_RETRY_TIMES) {
+                    throw e;
+                }
+                LOG.warn("failed to download range [{}, {}) at offset {}, retry times {}", start, end, offset,
+                        failedTimes, e);
+            }
+        }
+    }
+}
@@ -29,6 +29,8 @@ import com.starrocks.thrift.TTypeDesc;
 import com.starrocks.thrift.TTypeNode;
 import com.starrocks.thrift.TTypeNodeType;
 
+import java.util.Objects;
+
 /**
  * Describes an ARRAY type.
  */
@@ -82,6 +84,11 @@ public class ArrayType extends Type {
         return otherArrayType.itemType.equals(itemType);
     }
 
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(itemType);
+    }
+
     @Override
     public void toThrift(TTypeDesc container) {
         TTypeNode node = new TTypeNode();
@@ -0,0 +1,50 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+
+/**
+ * Index from the base tables to the asynchronous materialized views defined on them, so the materialized views
+ * which may answer a query are found without walking all tables of all databases.
+ * <p>
+ * It is maintained when a materialized view is added to or removed from a {@link Database}, including replay and
+ * image loading. An entry may be stale for a moment, so the materialized view must be checked again when read.
+ */
+public class AsyncMaterializedViewIndex {
+    // base table id -> materialized view id -> db id of the materialized view
+    private final Map<Long, Map<Long, Long>> baseTableToMvs = Maps.newConcurrentMap();
+
+    public static boolean isAsyncMaterializedView(Table table) {
+        return table instanceof OlapTable && ((OlapTable) table).isAsyncMaterializedView();
+    }
+
+    public void addMaterializedView(long dbId, OlapTable mv) {
+        for (AsyncMaterializedViewProperty.BaseTable baseTable : mv.getAsyncMaterializedViewProperty()
+                .getBaseTables()) {
+            baseTableToMvs.computeIfAbsent(baseTable.getTableId(), k -> Maps.newConcurrentMap())
+                    .put(mv.getId(), dbId);
+        }
+    }
+
+    public void removeMaterializedView(OlapTable mv) {
+        for (AsyncMaterializedViewProperty.BaseTable baseTable : mv.getAsyncMaterializedViewProperty()
+                .getBaseTables()) {
+            baseTableToMvs.computeIfPresent(baseTable.getTableId(), (k, mvs) -> {
+                mvs.remove(mv.getId());
+                return mvs.isEmpty() ? null : mvs;
+            });
+        }
+    }
+
+    /**
+     * @return materialized view id -> db id of the materialized views defined on the base table
+     */
+    public Map<Long, Long> getMaterializedViews(long baseTableId) {
+        Map<Long, Long> mvs = baseTableToMvs.get(baseTableId);
+        return mvs == null ? ImmutableMap.of() : ImmutableMap.copyOf(mvs);
+    }
+}
@@ -0,0 +1,199 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.reflect.TypeToken;
+import com.starrocks.common.Config;
+import com.starrocks.persist.gson.GsonUtils;
+
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Definition and refresh state of an asynchronous materialized view.
+ * <p>
+ * An asynchronous materialized view is an olap table whose content is the result of a query over other
+ * olap tables, refreshed in background by {@link com.starrocks.alter.AsyncMaterializedViewRefresher}.
+ * All of its metadata are kept in the table properties with prefix "async_mv.", so they are persisted
+ * along with the table.
+ * <p>
+ * The refresh state is the visible version of every partition of the base tables when the materialized
+ * view is refreshed. The materialized view is up to date only if all these versions are still visible,
+ * and only then can it be used to answer queries.
+ */
+public class AsyncMaterializedViewProperty {
+    public static final String PROPERTY_PREFIX = "async_mv.";
+    // the defining query, with fully qualified table names
+    public static final String DEFINITION = "async_mv.definition";
+    // base tables in the form of dbId.tableId, separated by comma
+    public static final String BASE_TABLES = "async_mv.base_tables";
+    // the base table whose partitions are mirrored by the materialized view, in the form of dbId.tableId
+    public static final String PARTITION_BASE_TABLE = "async_mv.partition_base_table";
+    public static final String REFRESH_INTERVAL_S = "async_mv.refresh_interval_s";
+    // json of table id -> partition id -> visible version when last refreshed
+    public static final String BASE_VERSIONS = "async_mv.base_versions";
+    public static final String LAST_REFRESH_TIME = "async_mv.last_refresh_time";
+
+    private static final Type BASE_VERSIONS_TYPE = new TypeToken<Map<Long, Map<Long, Long>>>() {
+    }.getType();
+
+    public static class BaseTable {
+        private final long dbId;
+        private final long tableId;
+
+        public BaseTable(long dbId, long tableId) {
+            this.dbId = dbId;
+            this.tableId = tableId;
+        }
+
+        public long getDbId() {
+            return dbId;
+        }
+
+        public long getTableId() {
+            return tableId;
+        }
+
+        public OlapTable getTable() {
+            Database db = Catalog.getCurrentCatalog().getDb(dbId);
+            if (db == null) {
+                return null;
+            }
+            Table table = db.getTable(tableId);
+            return table instanceof OlapTable ? (OlapTable) table : null;
+        }
+
+        @Override
+        public String toString() {
+            return dbId + "." + tableId;
+        }
+
+        public static BaseTable parse(String value) {
+            List<String> ids = Splitter.on('.').splitToList(value.trim());
+            return new BaseTable(Long.parseLong(ids.get(0)), Long.parseLong(ids.get(1)));
+        }
+    }
+
+    private final String definition;
+    private final List<BaseTable> baseTables;
+    private final BaseTable partitionBaseTable;
+    private final long refreshIntervalS;
+    private final Map<Long, Map<Long, Long>> baseVersions;
+    private final long lastRefreshTime;
+
+    public AsyncMaterializedViewProperty(Map<String, String> properties) {
+        this.definition = properties.get(DEFINITION);
+        List<BaseTable> tables = Lists.newArrayList();
+        for (String value : Splitter.on(',').omitEmptyStrings().split(properties.getOrDefault(BASE_TABLES, ""))) {
+            tables.add(BaseTable.parse(value));
+        }
+        this.baseTables = ImmutableList.copyOf(tables);
+        String partitionBase = properties.get(PARTITION_BASE_TABLE);
+        this.partitionBaseTable = partitionBase == null ? null : BaseTable.parse(partitionBase);
+        this.refreshIntervalS = Long.parseLong(properties.getOrDefault(REFRESH_INTERVAL_S,
+                String.valueOf(Config.async_mv_default_refresh_interval_s)));
+        String versions = properties.get(BASE_VERSIONS);
+        Map<Long, Map<Long, Long>> parsedVersions = versions == null ? null :
+                GsonUtils.GSON.fromJson(versions, BASE_VERSIONS_TYPE);
+        this.baseVersions = parsedVersions == null ? ImmutableMap.of() : parsedVersions;
+        this.lastRefreshTime = Long.parseLong(properties.getOrDefault(LAST_REFRESH_TIME, "0"));
+    }
+
+    /**
+     * Remove the properties of asynchronous materialized view from the given properties
+     */
+    public static Map<String, String> extract(Map<String, String> properties) {
+        Map<String, String> result = Maps.newHashMap();
+        if (properties == null) {
+            return result;
+        }
+        Iterator<Map.Entry<String, String>> iter = properties.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<String, String> entry = iter.next();
+            if (entry.getKey().startsWith(PROPERTY_PREFIX)) {
+                result.put(entry.getKey(), entry.getValue());
+                iter.remove();
+            }
+        }
+        return result;
+    }
+
+    public static String baseTablesToString(List<BaseTable> tables) {
+        return Joiner.on(',').join(tables);
+    }
+
+    public static String baseVersionsToString(Map<Long, Map<Long, Long>> versions) {
+        return GsonUtils.GSON.toJson(versions, BASE_VERSIONS_TYPE);
+    }
+
+    /**
+     * @return partition id -> visible version of the table
+     */
+    public static Map<Long, Long> getVisibleVersions(OlapTable table) {
+        Map<Long, Long> versions = Maps.newHashMap();
+        for (Partition partition : table.getPartitions()) {
+            versions.put(partition.getId(), partition.getVisibleVersion());
+        }
+        return versions;
+    }
+
+    public String getDefinition() {
+        return definition;
+    }
+
+    public List<BaseTable> getBaseTables() {
+        return baseTables;
+    }
+
+    public BaseTable getPartitionBaseTable() {
+        return partitionBaseTable;
+    }
+
+    public long getRefreshIntervalS() {
+        return refreshIntervalS;
+    }
+
+    public Map<Long, Map<Long, Long>> getBaseVersions() {
+        return baseVersions;
+    }
+
+    public long getLastRefreshTime() {
+        return lastRefreshTime;
+    }
+
+    /**
+     * The visible versions of every base table are read under the lock of its own database.
+     *
+     * @return true if no base table has changed since the last refresh
+     */
+    public boolean isUpToDate() {
+        if (baseVersions.isEmpty()) {
+            return false;
+        }
+        for (BaseTable baseTable : baseTables) {
+            Map<Long, Long> refreshedVersions = baseVersions.get(baseTable.getTableId());
+            Database db = Catalog.getCurrentCatalog().getDb(baseTable.getDbId());
+            if (refreshedVersions == null || db == null) {
+                return false;
+            }
+            db.readLock();
+            try {
+                OlapTable table = baseTable.getTable();
+                if (table == null || !refreshedVersions.equals(getVisibleVersions(table))) {
+                    return false;
+                }
+            } finally {
+                db.readUnlock();
+            }
+        }
+        return true;
+    }
+}
@@ -39,6 +39,7 @@ import com.starrocks.alter.Alter;
 import com.starrocks.alter.AlterJob;
 import com.starrocks.alter.AlterJob.JobType;
 import com.starrocks.alter.AlterJobV2;
+import com.starrocks.alter.AsyncMaterializedViewRefresher;
 import com.starrocks.alter.DecommissionBackendJob.DecommissionType;
 import com.starrocks.alter.MaterializedViewHandler;
 import com.starrocks.alter.SchemaChangeHandler;
@@ -115,6 +116,7 @@ import com.starrocks.catalog.Replica.ReplicaState;
 import com.starrocks.catalog.Replica.ReplicaStatus;
 import com.starrocks.catalog.Table.TableType;
 import com.starrocks.clone.ColocateTableBalancer;
+import com.starrocks.clone.DirtyPartitionTracker;
 import com.starrocks.clone.DynamicPartitionScheduler;
 import com.starrocks.clone.TabletChecker;
 import com.starrocks.clone.TabletScheduler;
@@ -175,6 +177,7 @@ import com.starrocks.load.routineload.RoutineLoadScheduler;
 import com.starrocks.load.routineload.RoutineLoadTaskScheduler;
 import com.starrocks.master.Checkpoint;
 import com.starrocks.master.MetaHelper;
+import com.starrocks.master.ReplayLagCheckedOutputStream;
 import com.starrocks.meta.MetaContext;
 import com.starrocks.metric.MetricRepo;
 import com.starrocks.mysql.privilege.Auth;
@@ -248,6 +251,7 @@ import org.apache.logging.log4j.Logger;
 import org.codehaus.jackson.map.ObjectMapper;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
@@ -255,6 +259,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
@@ -274,6 +279,7 @@ import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 public class Catalog {
@@ -283,6 +289,7 @@ public class Catalog {
     private static final int HTTP_TIMEOUT_SECOND = 5;
     private static final int STATE_CHANGE_CHECK_INTERVAL_MS = 100;
     private static final int REPLAY_INTERVAL_MS = 1;
+    private static final int REPLAY_LAG_CHECK_INTERVAL_MS = 1000;
     private static final String BDB_DIR = "/bdb";
     private static final String IMAGE_DIR = "/image";
 
@@ -428,6 +435,10 @@ public class Catalog {
 
     private final StatisticAutoCollector statisticAutoCollector;
 
+    private final AsyncMaterializedViewRefresher asyncMaterializedViewRefresher;
+
+    private final AsyncMaterializedViewIndex asyncMaterializedViewIndex;
+
     private AnalyzeManager analyzeManager;
 
     private StatisticStorage statisticStorage;
@@ -524,6 +535,8 @@ public class Catalog {
         this.updateDbUsedDataQuotaDaemon = new UpdateDbUsedDataQuotaDaemon();
         this.statisticsMetaManager = new StatisticsMetaManager();
         this.statisticAutoCollector = new StatisticAutoCollector();
+        this.asyncMaterializedViewRefresher = new AsyncMaterializedViewRefresher();
+        this.asyncMaterializedViewIndex = new AsyncMaterializedViewIndex();
         this.statisticStorage = new CachedStatisticStorage();
 
         this.replayedJournalId = new AtomicLong(0L);
@@ -717,6 +730,10 @@ public class Catalog {
         return getCurrentCatalog().getAnalyzeManager();
     }
 
+    public AsyncMaterializedViewIndex getAsyncMaterializedViewIndex() {
+        return asyncMaterializedViewIndex;
+    }
+
     public static StatisticStorage getCurrentStatisticStorage() {
         return getCurrentCatalog().statisticStorage;
     }
@@ -1309,6 +1326,7 @@ public class Catalog {
         updateDbUsedDataQuotaDaemon.start();
         statisticsMetaManager.start();
         statisticAutoCollector.start();
+        asyncMaterializedViewRefresher.start();
     }
 
     // start threads that should running on all FE
@@ -1402,11 +1420,10 @@ public class Catalog {
             StorageInfo info = getStorageInfo(infoUrl);
             long version = info.getImageJournalId();
             if (version > localImageVersion) {
-                String url = "http://" + helperNode.first + ":" + Config.http_port
-                        + "/image?version=" + version;
                 String filename = Storage.IMAGE + "." + version;
                 File dir = new File(this.imageDir);
-                MetaHelper.getRemoteFile(url, HTTP_TIMEOUT_SECOND * 1000, MetaHelper.getOutputStream(filename, dir));
+                MetaHelper.getRemoteImage(helperNode.first, Config.http_port, version, HTTP_TIMEOUT_SECOND * 1000,
+                        dir);
                 MetaHelper.complete(filename, dir);
             }
         } catch (Exception e) {
@@ -1911,11 +1928,16 @@ public class Catalog {
 
     // Only called by checkpoint thread
     public void saveImage() throws IOException {
+        saveImage((LongSupplier) null);
+    }
+
+    // replayLag is not null if saved by saveSnapshotImage() with the replay paused
+    private void saveImage(LongSupplier replayLag) throws IOException {
         // Write image.ckpt
         Storage storage = new Storage(this.imageDir);
         File curFile = storage.getImageFile(replayedJournalId.get());
         File ckpt = new File(this.imageDir, Storage.IMAGE_NEW);
-        saveImage(ckpt, replayedJournalId.get());
+        saveImage(ckpt, replayedJournalId.get(), replayLag);
 
         // Move image.ckpt to image.dataVersion
         LOG.info("Move " + ckpt.getAbsolutePath() + " to " + curFile.getAbsolutePath());
@@ -1926,16 +1948,26 @@ public class Catalog {
     }
 
     public void saveImage(File curFile, long replayedJournalId) throws IOException {
+        saveImage(curFile, replayedJournalId, null);
+    }
+
+    private void saveImage(File curFile, long replayedJournalId, LongSupplier replayLag) throws IOException {
         if (!curFile.exists()) {
             curFile.createNewFile();
         }
 
-        // save image does not need any lock. because only checkpoint thread will call this method.
+        // The checkpoint thread saves the image of its own catalog, which needs no lock. The image of the serving
+        // catalog is saved by saveSnapshotImage() with the catalog monitor and the read locks of dbs held.
         LOG.info("start save image to {}. is ckpt: {}", curFile.getAbsolutePath(), Catalog.isCheckpointThread());
 
         long checksum = 0;
         long saveImageStartTime = System.currentTimeMillis();
-        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(curFile))) {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(curFile));
+        if (replayLag != null) {
+            out = new ReplayLagCheckedOutputStream(out, replayLag, Config.checkpoint_on_follower_max_replay_lag,
+                    REPLAY_LAG_CHECK_INTERVAL_MS);
+        }
+        try (DataOutputStream dos = new DataOutputStream(out)) {
             checksum = saveHeader(dos, replayedJournalId, checksum);
             checksum = saveMasterInfo(dos, checksum);
             checksum = saveFrontends(dos, checksum);
@@ -3743,6 +3775,12 @@ public class Catalog {
                 PropertyAnalyzer.analyzeBooleanProp(properties, PropertyAnalyzer.PROPERTIES_INMEMORY, false);
         olapTable.setIsInMemory(isInMemory);
 
+        // set the definition if the table is an asynchronous materialized view
+        Map<String, String> asyncMvProperties = AsyncMaterializedViewProperty.extract(properties);
+        if (!asyncMvProperties.isEmpty()) {
+            olapTable.setAsyncMaterializedViewProperties(asyncMvProperties);
+        }
+
         TTabletType tabletType = TTabletType.TABLET_TYPE_DISK;
         try {
             tabletType = PropertyAnalyzer.analyzeTabletType(properties);
@@ -4400,18 +4438,12 @@ public class Catalog {
             ColocateTableIndex colocateIndex = Catalog.getCurrentColocateIndex();
             List<List<Long>> backendsPerBucketSeq = null;
             GroupId groupId = null;
-            if (colocateIndex.isColocateTable(tabletMeta.getTableId())) {
+            ColocateTableIndex.Snapshot colocateSnapshot = colocateIndex.getSnapshot();
+            if (colocateSnapshot.isColocateTable(tabletMeta.getTableId())) {
                 // if this is a colocate table, try to get backend seqs from colocation index.
-                Database db = Catalog.getCurrentCatalog().getDb(tabletMeta.getDbId());
-                groupId = colocateIndex.getGroup(tabletMeta.getTableId());
-                // Use db write lock here to make sure the backendsPerBucketSeq is consistent when the backendsPerBucketSeq is updating.
-                // This lock will release very fast.
-                db.writeLock();
-                try {
-                    backendsPerBucketSeq = colocateIndex.getBackendsPerBucketSeq(groupId);
-                } finally {
-                    db.writeUnlock();
-                }
+                // The snapshot is immutable, so the backendsPerBucketSeq is consistent even if it is updating.
+                groupId = colocateSnapshot.getGroup(tabletMeta.getTableId());
+                backendsPerBucketSeq = colocateSnapshot.getBackendsPerBucketSeq(groupId);
             }
 
             // chooseBackendsArbitrary is true, means this may be the first table of colocation group,
@@ -5581,6 +5613,7 @@ public class Catalog {
         boolean isInMemory = partitionInfo.getIsInMemory(partition.getId());
         DataProperty newDataProperty = partitionInfo.getDataProperty(partition.getId());
         partitionInfo.setReplicationNum(partition.getId(), replicationNum);
+        DirtyPartitionTracker.getInstance().markPartitionDirty(db.getId(), table.getId(), partition.getId());
 
         // update table default replication num
         table.setReplicationNum(replicationNum);
@@ -5668,6 +5701,16 @@ public class Catalog {
         editLog.logModifyInMemory(info);
     }
 
+    // record the refresh state of an asynchronous materialized view
+    public void modifyAsyncMaterializedViewState(Database db, OlapTable table, Map<String, String> properties) {
+        Preconditions.checkArgument(db.isWriteLockHeldByCurrentThread());
+        table.setAsyncMaterializedViewProperties(properties);
+
+        ModifyTablePropertyOperationLog info =
+                new ModifyTablePropertyOperationLog(db.getId(), table.getId(), properties);
+        editLog.logModifyAsyncMaterializedViewState(info);
+    }
+
     public void replayModifyTableProperty(short opCode, ModifyTablePropertyOperationLog info) {
         long dbId = info.getDbId();
         long tableId = info.getTableId();
@@ -6672,6 +6715,43 @@ public class Catalog {
         return dumpFilePath;
     }
 
+    /*
+     * Save the image of the serving catalog at the replayed journal id, which is used to make checkpoint
+     * without a second catalog. Only for non-master frontends, whose catalog is changed by replaying journals.
+     * replayJournal() is synchronized on the catalog, so holding the monitor pauses the replay and keeps the
+     * catalog consistent with the replayed journal id while saving. The read locks of dbs exclude the other
+     * in-memory changes like the tablet statistics. The saving is aborted once the journals waiting for replay
+     * exceed Config.checkpoint_on_follower_max_replay_lag, so the node does not fall far behind the master.
+     * Return the journal id of the saved image.
+     */
+    public long saveSnapshotImage() throws IOException {
+        if (isMaster()) {
+            throw new IOException("snapshot image is not allowed on master");
+        }
+        synchronized (this) {
+            long journalId = replayedJournalId.get();
+            Map<Long, Database> lockedDbMap = Maps.newTreeMap();
+            for (long dbId : getDbIds()) {
+                Database db = getDb(dbId);
+                if (db != null) {
+                    lockedDbMap.put(dbId, db);
+                }
+            }
+            for (Database db : lockedDbMap.values()) {
+                db.readLock();
+            }
+            try {
+                saveImage(() -> getMaxJournalId() - journalId);
+            } finally {
+                for (Database db : lockedDbMap.values()) {
+                    db.readUnlock();
+                }
+            }
+            setImageJournalId(journalId);
+            return journalId;
+        }
+    }
+
     /*
      * Truncate specified table or partitions.
      * The main idea is:
@@ -7190,6 +7270,7 @@ public class Catalog {
             }
             if (status == ReplicaStatus.BAD || status == ReplicaStatus.OK) {
                 if (replica.setBad(status == ReplicaStatus.BAD)) {
+                    DirtyPartitionTracker.getInstance().markTabletDirty(tabletId);
                     if (!isReplay) {
                         SetReplicaStatusOperationLog log =
                                 new SetReplicaStatusOperationLog(backendId, tabletId, status);
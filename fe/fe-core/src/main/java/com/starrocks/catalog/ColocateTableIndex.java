@@ -25,6 +25,10 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
@@ -46,11 +50,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
  * maintain the colocate table related indexes and meta
+ * <p>
+ * The indexes are modified under the write lock, and each modification publishes a new immutable
+ * {@link Snapshot} of them when the outermost write lock is released. All reads are served by the
+ * current snapshot without locking, so planning and scheduling of queries never wait for the colocate
+ * balancer. Use {@link #getSnapshot()} to make several reads from the same version of the indexes.
  */
 public class ColocateTableIndex implements Writable {
     private static final Logger LOG = LogManager.getLogger(ColocateTableIndex.class);
@@ -120,26 +129,159 @@ public class ColocateTableIndex implements Writable {
     // the colocate group is unstable
     private Set<GroupId> unstableGroups = Sets.newHashSet();
 
-    private transient ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private transient ReentrantLock lock = new ReentrantLock();
+
+    // groups whose backends per bucket seq changed since the last published snapshot
+    private transient Set<GroupId> dirtyGroups = Sets.newHashSet();
+    private transient volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * An immutable version of the colocate indexes.
+     */
+    public static class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(0, ImmutableMap.of(), ImmutableListMultimap.of(),
+                ImmutableMap.of(), ImmutableMap.of(), ImmutableMap.of(), ImmutableSet.of());
+
+        private final long version;
+        private final ImmutableMap<String, GroupId> groupName2Id;
+        private final ImmutableListMultimap<GroupId, Long> group2Tables;
+        private final ImmutableMap<Long, GroupId> table2Group;
+        private final ImmutableMap<GroupId, ColocateGroupSchema> group2Schema;
+        private final ImmutableMap<GroupId, List<List<Long>>> group2BackendsPerBucketSeq;
+        private final ImmutableSet<GroupId> unstableGroups;
+
+        private Snapshot(long version, ImmutableMap<String, GroupId> groupName2Id,
+                         ImmutableListMultimap<GroupId, Long> group2Tables, ImmutableMap<Long, GroupId> table2Group,
+                         ImmutableMap<GroupId, ColocateGroupSchema> group2Schema,
+                         ImmutableMap<GroupId, List<List<Long>>> group2BackendsPerBucketSeq,
+                         ImmutableSet<GroupId> unstableGroups) {
+            this.version = version;
+            this.groupName2Id = groupName2Id;
+            this.group2Tables = group2Tables;
+            this.table2Group = table2Group;
+            this.group2Schema = group2Schema;
+            this.group2BackendsPerBucketSeq = group2BackendsPerBucketSeq;
+            this.unstableGroups = unstableGroups;
+        }
+
+        // increased by one on each modification of the indexes
+        public long getVersion() {
+            return version;
+        }
+
+        public boolean isColocateTable(long tableId) {
+            return table2Group.containsKey(tableId);
+        }
 
-    public ColocateTableIndex() {
+        public boolean isSameGroup(long table1, long table2) {
+            GroupId group1 = table2Group.get(table1);
+            return group1 != null && group1.equals(table2Group.get(table2));
+        }
+
+        // null if the table is not a colocate table
+        public GroupId getGroup(long tableId) {
+            return table2Group.get(tableId);
+        }
+
+        public boolean isGroupExist(GroupId groupId) {
+            return group2Schema.containsKey(groupId);
+        }
+
+        public boolean isGroupUnstable(GroupId groupId) {
+            return unstableGroups.contains(groupId);
+        }
+
+        public Set<GroupId> getUnstableGroupIds() {
+            return unstableGroups;
+        }
+
+        public Set<GroupId> getAllGroupIds() {
+            return group2Tables.keySet();
+        }
+
+        public List<Long> getAllTableIds(GroupId groupId) {
+            return group2Tables.get(groupId);
+        }
+
+        public ColocateGroupSchema getGroupSchema(GroupId groupId) {
+            return group2Schema.get(groupId);
+        }
+
+        public ColocateGroupSchema getGroupSchema(String fullGroupName) {
+            GroupId groupId = groupName2Id.get(fullGroupName);
+            return groupId == null ? null : group2Schema.get(groupId);
+        }
+
+        // empty if the group has no backends per bucket seq, eg, the group is created with empty partitions
+        public List<List<Long>> getBackendsPerBucketSeq(GroupId groupId) {
+            List<List<Long>> backendsPerBucketSeq = group2BackendsPerBucketSeq.get(groupId);
+            return backendsPerBucketSeq == null ? ImmutableList.of() : backendsPerBucketSeq;
+        }
 
+        public List<Set<Long>> getBackendsPerBucketSeqSet(GroupId groupId) {
+            List<Set<Long>> sets = Lists.newArrayList();
+            for (List<Long> backends : getBackendsPerBucketSeq(groupId)) {
+                sets.add(Sets.newHashSet(backends));
+            }
+            return sets;
+        }
     }
 
-    private void readLock() {
-        this.lock.readLock().lock();
+    public ColocateTableIndex() {
+
     }
 
-    private void readUnlock() {
-        this.lock.readLock().unlock();
+    public Snapshot getSnapshot() {
+        return snapshot;
     }
 
     private void writeLock() {
-        this.lock.writeLock().lock();
+        this.lock.lock();
     }
 
     private void writeUnlock() {
-        this.lock.writeLock().unlock();
+        // publish once for nested write locks, eg, changeGroup() calls removeTable() and addTableToGroup()
+        if (this.lock.getHoldCount() == 1) {
+            publishSnapshot();
+        }
+        this.lock.unlock();
+    }
+
+    // Only the backends per bucket seq of the dirty groups are copied, others are shared with the previous
+    // snapshot, so the colocate balancer updating the seq bucket by bucket copies little.
+    private void publishSnapshot() {
+        Snapshot prev = snapshot;
+        ImmutableMap.Builder<GroupId, List<List<Long>>> backendsPerBucketSeqBuilder = ImmutableMap.builder();
+        for (Map.Entry<GroupId, List<List<Long>>> entry : group2BackendsPerBucketSeq.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            List<List<Long>> backendsPerBucketSeq = dirtyGroups.contains(entry.getKey()) ? null
+                    : prev.group2BackendsPerBucketSeq.get(entry.getKey());
+            if (backendsPerBucketSeq == null) {
+                ImmutableList.Builder<List<Long>> builder = ImmutableList.builder();
+                for (List<Long> backends : entry.getValue()) {
+                    builder.add(ImmutableList.copyOf(backends));
+                }
+                backendsPerBucketSeq = builder.build();
+            }
+            backendsPerBucketSeqBuilder.put(entry.getKey(), backendsPerBucketSeq);
+        }
+        dirtyGroups.clear();
+        snapshot = new Snapshot(prev.version + 1, ImmutableMap.copyOf(groupName2Id),
+                ImmutableListMultimap.copyOf(group2Tables), ImmutableMap.copyOf(table2Group),
+                ImmutableMap.copyOf(group2Schema), backendsPerBucketSeqBuilder.build(),
+                ImmutableSet.copyOf(unstableGroups));
+    }
+
+    // keep a private mutable copy, which is modified in place by setBackendsSetByIdxForGroup()
+    private void putBackendsPerBucketSeq(GroupId groupId, List<List<Long>> backendsPerBucketSeq) {
+        List<List<Long>> copy = Lists.newArrayList();
+        for (List<Long> backends : backendsPerBucketSeq) {
+            copy.add(Lists.newArrayList(backends));
+        }
+        group2BackendsPerBucketSeq.put(groupId, copy);
+        dirtyGroups.add(groupId);
     }
 
     // NOTICE: call 'addTableToGroup()' will not modify 'group2BackendsPerBucketSeq'
@@ -177,7 +319,7 @@ public class ColocateTableIndex implements Writable {
     public void addBackendsPerBucketSeq(GroupId groupId, List<List<Long>> backendsPerBucketSeq) {
         writeLock();
         try {
-            group2BackendsPerBucketSeq.put(groupId, backendsPerBucketSeq);
+            putBackendsPerBucketSeq(groupId, backendsPerBucketSeq);
         } finally {
             writeUnlock();
         }
@@ -252,180 +394,80 @@ public class ColocateTableIndex implements Writable {
     }
 
     public boolean isGroupUnstable(GroupId groupId) {
-        readLock();
-        try {
-            return unstableGroups.contains(groupId);
-        } finally {
-            readUnlock();
-        }
+        return snapshot.isGroupUnstable(groupId);
     }
 
     public boolean isColocateTable(long tableId) {
-        readLock();
-        try {
-            return table2Group.containsKey(tableId);
-        } finally {
-            readUnlock();
-        }
+        return snapshot.isColocateTable(tableId);
     }
 
     public boolean isGroupExist(GroupId groupId) {
-        readLock();
-        try {
-            return group2Schema.containsKey(groupId);
-        } finally {
-            readUnlock();
-        }
+        return snapshot.isGroupExist(groupId);
     }
 
     public boolean isSameGroup(long table1, long table2) {
-        readLock();
-        try {
-            if (table2Group.containsKey(table1) && table2Group.containsKey(table2)) {
-                return table2Group.get(table1).equals(table2Group.get(table2));
-            }
-            return false;
-        } finally {
-            readUnlock();
-        }
+        return snapshot.isSameGroup(table1, table2);
     }
 
     public Set<GroupId> getUnstableGroupIds() {
-        readLock();
-        try {
-            return Sets.newHashSet(unstableGroups);
-        } finally {
-            readUnlock();
-        }
+        return Sets.newHashSet(snapshot.getUnstableGroupIds());
     }
 
     public GroupId getGroup(long tableId) {
-        readLock();
-        try {
-            Preconditions.checkState(table2Group.containsKey(tableId));
-            return table2Group.get(tableId);
-        } finally {
-            readUnlock();
-        }
+        GroupId groupId = snapshot.getGroup(tableId);
+        Preconditions.checkState(groupId != null);
+        return groupId;
     }
 
     public Set<GroupId> getAllGroupIds() {
-        readLock();
-        try {
-            return group2Tables.keySet();
-        } finally {
-            readUnlock();
-        }
+        return snapshot.getAllGroupIds();
     }
 
     public Set<Long> getBackendsByGroup(GroupId groupId) {
-        readLock();
-        try {
-            Set<Long> allBackends = new HashSet<>();
-            List<List<Long>> backendsPerBucketSeq = group2BackendsPerBucketSeq.get(groupId);
-            // if create colocate table with empty partition or create colocate table
-            // with dynamic_partition will cause backendsPerBucketSeq == null
-            if (backendsPerBucketSeq != null) {
-                for (List<Long> bes : backendsPerBucketSeq) {
-                    allBackends.addAll(bes);
-                }
-            }
-            return allBackends;
-        } finally {
-            readUnlock();
+        Set<Long> allBackends = new HashSet<>();
+        // if create colocate table with empty partition or create colocate table
+        // with dynamic_partition will cause backendsPerBucketSeq == null
+        for (List<Long> bes : snapshot.getBackendsPerBucketSeq(groupId)) {
+            allBackends.addAll(bes);
         }
+        return allBackends;
     }
 
     public List<Long> getAllTableIds(GroupId groupId) {
-        readLock();
-        try {
-            if (!group2Tables.containsKey(groupId)) {
-                return Lists.newArrayList();
-            }
-            return Lists.newArrayList(group2Tables.get(groupId));
-        } finally {
-            readUnlock();
-        }
+        return Lists.newArrayList(snapshot.getAllTableIds(groupId));
     }
 
+    // the returned list is immutable
     public List<List<Long>> getBackendsPerBucketSeq(GroupId groupId) {
-        readLock();
-        try {
-            List<List<Long>> backendsPerBucketSeq = group2BackendsPerBucketSeq.get(groupId);
-            if (backendsPerBucketSeq == null) {
-                return Lists.newArrayList();
-            }
-            return backendsPerBucketSeq;
-        } finally {
-            readUnlock();
-        }
+        return snapshot.getBackendsPerBucketSeq(groupId);
     }
 
     public List<Set<Long>> getBackendsPerBucketSeqSet(GroupId groupId) {
-        readLock();
-        try {
-            List<List<Long>> backendsPerBucketSeq = group2BackendsPerBucketSeq.get(groupId);
-            if (backendsPerBucketSeq == null) {
-                return Lists.newArrayList();
-            }
-            List<Set<Long>> sets = Lists.newArrayList();
-            for (List<Long> backends : backendsPerBucketSeq) {
-                sets.add(Sets.newHashSet(backends));
-            }
-            return sets;
-        } finally {
-            readUnlock();
-        }
+        return snapshot.getBackendsPerBucketSeqSet(groupId);
     }
 
     public Set<Long> getTabletBackendsByGroup(GroupId groupId, int tabletOrderIdx) {
-        readLock();
-        try {
-            List<List<Long>> backendsPerBucketSeq = group2BackendsPerBucketSeq.get(groupId);
-            if (backendsPerBucketSeq == null) {
-                return Sets.newHashSet();
-            }
-            if (tabletOrderIdx >= backendsPerBucketSeq.size()) {
-                return Sets.newHashSet();
-            }
-
-            return Sets.newHashSet(backendsPerBucketSeq.get(tabletOrderIdx));
-        } finally {
-            readUnlock();
+        List<List<Long>> backendsPerBucketSeq = snapshot.getBackendsPerBucketSeq(groupId);
+        if (tabletOrderIdx >= backendsPerBucketSeq.size()) {
+            return Sets.newHashSet();
         }
+        return Sets.newHashSet(backendsPerBucketSeq.get(tabletOrderIdx));
     }
 
     public ColocateGroupSchema getGroupSchema(String fullGroupName) {
-        readLock();
-        try {
-            if (!groupName2Id.containsKey(fullGroupName)) {
-                return null;
-            }
-            return group2Schema.get(groupName2Id.get(fullGroupName));
-        } finally {
-            readUnlock();
-        }
+        return snapshot.getGroupSchema(fullGroupName);
     }
 
     public ColocateGroupSchema getGroupSchema(GroupId groupId) {
-        readLock();
-        try {
-            return group2Schema.get(groupId);
-        } finally {
-            readUnlock();
-        }
+        return snapshot.getGroupSchema(groupId);
     }
 
     public long getTableIdByGroup(String fullGroupName) {
-        readLock();
-        try {
-            if (groupName2Id.containsKey(fullGroupName)) {
-                GroupId groupId = groupName2Id.get(fullGroupName);
-                Optional<Long> tblId = group2Tables.get(groupId).stream().findFirst();
-                return tblId.isPresent() ? tblId.get() : -1;
-            }
-        } finally {
-            readUnlock();
+        Snapshot current = snapshot;
+        GroupId groupId = current.groupName2Id.get(fullGroupName);
+        if (groupId != null) {
+            Optional<Long> tblId = current.getAllTableIds(groupId).stream().findFirst();
+            return tblId.isPresent() ? tblId.get() : -1;
         }
         return -1;
     }
@@ -451,8 +493,9 @@ public class ColocateTableIndex implements Writable {
 
         writeLock();
         try {
-            if (!group2BackendsPerBucketSeq.containsKey(info.getGroupId())) {
-                group2BackendsPerBucketSeq.put(info.getGroupId(), info.getBackendsPerBucketSeq());
+            if (!group2BackendsPerBucketSeq.containsKey(info.getGroupId())
+                    && info.getBackendsPerBucketSeq() != null) {
+                putBackendsPerBucketSeq(info.getGroupId(), info.getBackendsPerBucketSeq());
             }
 
             addTableToGroup(info.getGroupId().dbId, tbl, tbl.getColocateGroup(), info.getGroupId());
@@ -493,25 +536,21 @@ public class ColocateTableIndex implements Writable {
 
     public List<List<String>> getInfos() {
         List<List<String>> infos = Lists.newArrayList();
-        readLock();
-        try {
-            for (Map.Entry<String, GroupId> entry : groupName2Id.entrySet()) {
-                List<String> info = Lists.newArrayList();
-                GroupId groupId = entry.getValue();
-                info.add(groupId.toString());
-                info.add(entry.getKey());
-                info.add(Joiner.on(", ").join(group2Tables.get(groupId)));
-                ColocateGroupSchema groupSchema = group2Schema.get(groupId);
-                info.add(String.valueOf(groupSchema.getBucketsNum()));
-                info.add(String.valueOf(groupSchema.getReplicationNum()));
-                List<String> cols = groupSchema.getDistributionColTypes().stream().map(
-                        e -> e.toSql()).collect(Collectors.toList());
-                info.add(Joiner.on(", ").join(cols));
-                info.add(String.valueOf(!unstableGroups.contains(groupId)));
-                infos.add(info);
-            }
-        } finally {
-            readUnlock();
+        Snapshot current = snapshot;
+        for (Map.Entry<String, GroupId> entry : current.groupName2Id.entrySet()) {
+            List<String> info = Lists.newArrayList();
+            GroupId groupId = entry.getValue();
+            info.add(groupId.toString());
+            info.add(entry.getKey());
+            info.add(Joiner.on(", ").join(current.getAllTableIds(groupId)));
+            ColocateGroupSchema groupSchema = current.getGroupSchema(groupId);
+            info.add(String.valueOf(groupSchema.getBucketsNum()));
+            info.add(String.valueOf(groupSchema.getReplicationNum()));
+            List<String> cols = groupSchema.getDistributionColTypes().stream().map(
+                    e -> e.toSql()).collect(Collectors.toList());
+            info.add(Joiner.on(", ").join(cols));
+            info.add(String.valueOf(!current.isGroupUnstable(groupId)));
+            infos.add(info);
         }
         return infos;
     }
@@ -639,6 +678,13 @@ public class ColocateTableIndex implements Writable {
                 unstableGroups.add(GroupId.read(in));
             }
         }
+
+        writeLock();
+        try {
+            dirtyGroups.addAll(group2BackendsPerBucketSeq.keySet());
+        } finally {
+            writeUnlock();
+        }
     }
 
     private void convertedToNewMembers(Multimap<Long, Long> tmpGroup2Tables, Map<Long, Long> tmpTable2Group,
@@ -696,6 +742,7 @@ public class ColocateTableIndex implements Writable {
             }
             Preconditions.checkState(tabletOrderIdx < backends.size(), tabletOrderIdx + " vs. " + backends.size());
             backends.set(tabletOrderIdx, Lists.newArrayList(newBackends));
+            dirtyGroups.add(groupId);
             ColocatePersistInfo info = ColocatePersistInfo.createForBackendsPerBucketSeq(groupId, backends);
             Catalog.getCurrentCatalog().getEditLog().logColocateBackendsPerBucketSeq(info);
         } finally {
@@ -27,6 +27,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.starrocks.catalog.Table.TableType;
 import com.starrocks.cluster.ClusterNamespace;
+import com.starrocks.common.Config;
 import com.starrocks.common.DdlException;
 import com.starrocks.common.FeConstants;
 import com.starrocks.common.FeMetaVersion;
@@ -87,6 +88,9 @@ public class Database extends MetaObject implements Writable {
 
     // user define function
     private ConcurrentMap<String, ImmutableList<Function>> name2Function = Maps.newConcurrentMap();
+    // resolution index of user define functions, invalidated on create/drop function
+    private final FunctionResolutionIndex functionIndex =
+            new FunctionResolutionIndex(Config.function_lookup_cache_size);
 
     private volatile long dataQuotaBytes;
 
@@ -288,6 +292,7 @@ public class Database extends MetaObject implements Writable {
             } else {
                 idToTable.put(table.getId(), table);
                 nameToTable.put(table.getName(), table);
+                onAddTable(table);
 
                 if (!isReplay) {
                     // Write edit log
@@ -311,6 +316,7 @@ public class Database extends MetaObject implements Writable {
         } else {
             idToTable.put(table.getId(), table);
             nameToTable.put(table.getName(), table);
+            onAddTable(table);
         }
         return result;
     }
@@ -322,6 +328,7 @@ public class Database extends MetaObject implements Writable {
             if (table != null) {
                 this.nameToTable.remove(tableName);
                 this.idToTable.remove(table.getId());
+                onRemoveTable(table);
             }
         } finally {
             writeUnlock();
@@ -333,6 +340,19 @@ public class Database extends MetaObject implements Writable {
         if (table != null) {
             this.nameToTable.remove(tableName);
             this.idToTable.remove(table.getId());
+            onRemoveTable(table);
+        }
+    }
+
+    private void onAddTable(Table table) {
+        if (AsyncMaterializedViewIndex.isAsyncMaterializedView(table)) {
+            Catalog.getCurrentCatalog().getAsyncMaterializedViewIndex().addMaterializedView(id, (OlapTable) table);
+        }
+    }
+
+    private void onRemoveTable(Table table) {
+        if (AsyncMaterializedViewIndex.isAsyncMaterializedView(table)) {
+            Catalog.getCurrentCatalog().getAsyncMaterializedViewIndex().removeMaterializedView((OlapTable) table);
         }
     }
 
@@ -464,6 +484,7 @@ public class Database extends MetaObject implements Writable {
             Table table = Table.read(in);
             nameToTable.put(table.getName(), table);
             idToTable.put(table.getId(), table);
+            onAddTable(table);
         }
 
         // read quota
@@ -488,6 +509,7 @@ public class Database extends MetaObject implements Writable {
 
                 name2Function.put(name, builder.build());
             }
+            functionIndex.invalidate();
         }
 
         if (Catalog.getCurrentCatalogJournalVersion() >= FeMetaVersion.VERSION_81) {
@@ -594,6 +616,7 @@ public class Database extends MetaObject implements Writable {
         }
         builder.add(function);
         name2Function.put(functionName, builder.build());
+        functionIndex.invalidate();
     }
 
     public synchronized void dropFunction(FunctionSearchDesc function) throws UserException {
@@ -633,6 +656,7 @@ public class Database extends MetaObject implements Writable {
         } else {
             name2Function.put(functionName, newFunctions);
         }
+        functionIndex.invalidate();
     }
 
     public synchronized Function getFunction(Function desc, Function.CompareMode mode) {
@@ -640,7 +664,7 @@ public class Database extends MetaObject implements Writable {
         if (fns == null) {
             return null;
         }
-        return Function.getFunction(fns, desc, mode);
+        return functionIndex.resolve(fns, desc, mode, (d, f) -> true);
     }
 
     public synchronized List<Function> getFunctions() {
@@ -441,8 +441,10 @@ public class EsTable extends Table {
             esMetaStateTracker = new EsMetaStateTracker(client, this);
         }
         try {
-            esMetaStateTracker.run();
-            this.esTablePartitions = esMetaStateTracker.searchContext().tablePartitions();
+            // skip rebuilding the partitions if the remote metadata is unchanged since the last sync
+            if (esMetaStateTracker.run() || this.esTablePartitions == null) {
+                this.esTablePartitions = esMetaStateTracker.searchContext().tablePartitions();
+            }
         } catch (Throwable e) {
             LOG.warn("Exception happens when fetch index [{}] meta data from remote es cluster", this.name, e);
             this.esTablePartitions = null;
@@ -0,0 +1,190 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiPredicate;
+
+/**
+ * Index used to bind a function call to one of the overloads with the same name.
+ * <p>
+ * Overloads are grouped by the number of arguments they accept, so a lookup only compares the candidates
+ * with a matching arity, and the overload resolved for every (name, argument types, compare mode) is memoized.
+ * Resolution keeps the tiers of the linear search: identical, indistinguishable, supertype (promotable)
+ * and non-strict supertype (castable), as well as the registration order inside a tier.
+ * <p>
+ * The owner of the overloads must call {@link #invalidate()} after an overload is added or dropped, and
+ * must not modify the overloads concurrently with lookups.
+ */
+public class FunctionResolutionIndex {
+    // (name, arity) -> overloads which accept this number of arguments, in registration order
+    private final ConcurrentMap<ArityKey, ImmutableList<Function>> arityCandidates = Maps.newConcurrentMap();
+    // (name, argument types, mode) -> resolved overload, before polymorphic type resolution
+    private final Cache<SignatureKey, Optional<Function>> resolved;
+
+    public FunctionResolutionIndex(long maxResolvedSize) {
+        resolved = Caffeine.newBuilder().maximumSize(maxResolvedSize).build();
+    }
+
+    public void invalidate() {
+        arityCandidates.clear();
+        resolved.invalidateAll();
+    }
+
+    /**
+     * @param overloads        all overloads with the name of desc in registration order
+     * @param castMatchAllowed whether the (desc, candidate) pair may be matched by implicit casts
+     * @return the matched overload, or null
+     */
+    public Function resolve(List<Function> overloads, Function desc, Function.CompareMode mode,
+                            BiPredicate<Function, Function> castMatchAllowed) {
+        if (overloads == null) {
+            return null;
+        }
+        if (!SignatureKey.isCacheable(desc)) {
+            return match(overloads, overloads, desc, mode, castMatchAllowed);
+        }
+        return resolved.get(new SignatureKey(desc, mode),
+                k -> Optional.ofNullable(match(getArityCandidates(overloads, desc), overloads, desc, mode,
+                        castMatchAllowed))).orElse(null);
+    }
+
+    private List<Function> getArityCandidates(List<Function> overloads, Function desc) {
+        int arity = desc.getNumArgs();
+        return arityCandidates.computeIfAbsent(new ArityKey(desc.functionName(), arity), k -> {
+            ImmutableList.Builder<Function> builder = ImmutableList.builder();
+            for (Function f : overloads) {
+                if (f.hasVarArgs() ? f.getNumArgs() <= arity : f.getNumArgs() == arity) {
+                    builder.add(f);
+                }
+            }
+            return builder.build();
+        });
+    }
+
+    /**
+     * Only identical, supertype and non-strict supertype matches require the arity of the candidate to
+     * accept the arguments of desc, indistinguishable matches are still checked against all overloads.
+     */
+    private static Function match(List<Function> candidates, List<Function> overloads, Function desc,
+                                  Function.CompareMode mode, BiPredicate<Function, Function> castMatchAllowed) {
+        // First check for identical
+        for (Function f : candidates) {
+            if (f.compare(desc, Function.CompareMode.IS_IDENTICAL)) {
+                return f;
+            }
+        }
+        if (mode == Function.CompareMode.IS_IDENTICAL) {
+            return null;
+        }
+
+        // Next check for indistinguishable
+        for (Function f : overloads) {
+            if (f.compare(desc, Function.CompareMode.IS_INDISTINGUISHABLE)) {
+                return f;
+            }
+        }
+        if (mode == Function.CompareMode.IS_INDISTINGUISHABLE) {
+            return null;
+        }
+
+        // Next check for strict supertypes
+        for (Function f : candidates) {
+            if (f.compare(desc, Function.CompareMode.IS_SUPERTYPE_OF) && castMatchAllowed.test(desc, f)) {
+                return f;
+            }
+        }
+        if (mode == Function.CompareMode.IS_SUPERTYPE_OF) {
+            return null;
+        }
+
+        // Finally check for non-strict supertypes
+        for (Function f : candidates) {
+            if (f.compare(desc, Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF) && castMatchAllowed.test(desc, f)) {
+                return f;
+            }
+        }
+        return null;
+    }
+
+    private static class ArityKey {
+        private final String name;
+        private final int arity;
+
+        ArityKey(String name, int arity) {
+            this.name = name;
+            this.arity = arity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ArityKey that = (ArityKey) o;
+            return arity == that.arity && name.equals(that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, arity);
+        }
+    }
+
+    /**
+     * The resolution only depends on the name, the argument types and the compare mode of a search desc
+     * without var args.
+     */
+    private static class SignatureKey {
+        private final String name;
+        private final ImmutableList<Type> argTypes;
+        private final Function.CompareMode mode;
+
+        SignatureKey(Function desc, Function.CompareMode mode) {
+            this.name = desc.functionName();
+            this.argTypes = ImmutableList.copyOf(desc.getArgs());
+            this.mode = mode;
+        }
+
+        static boolean isCacheable(Function desc) {
+            if (desc.hasVarArgs()) {
+                return false;
+            }
+            // only these types implement hashCode consistent with equals
+            for (Type type : desc.getArgs()) {
+                if (!(type instanceof ScalarType) && !(type instanceof ArrayType)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SignatureKey that = (SignatureKey) o;
+            return mode == that.mode && name.equals(that.name) && argTypes.equals(that.argTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, argTypes, mode);
+        }
+    }
+}
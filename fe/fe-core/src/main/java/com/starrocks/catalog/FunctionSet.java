@@ -34,6 +34,7 @@ import com.starrocks.analysis.IsNullPredicate;
 import com.starrocks.analysis.LikePredicate;
 import com.starrocks.builtins.ScalarBuiltins;
 import com.starrocks.builtins.VectorizedBuiltinFunctions;
+import com.starrocks.common.Config;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -672,9 +673,14 @@ public class FunctionSet {
     // cmy: This does not contain any user defined functions. All UDFs handle null values by themselves.
     private ImmutableSet<String> nonNullResultWithNullParamFunctions;
 
+    // Generated SQL calls the same function with the same argument types again and again,
+    // the index turns binding a call into a hash lookup instead of walking all overloads with Function.compare.
+    private final FunctionResolutionIndex resolutionIndex;
+
     public FunctionSet() {
         functions = Maps.newHashMap();
         vectorizedFunctions = Maps.newHashMap();
+        resolutionIndex = new FunctionResolutionIndex(Config.function_lookup_cache_size);
     }
 
     /**
@@ -761,48 +767,9 @@ public class FunctionSet {
     }
 
     public Function getFunction(Function desc, Function.CompareMode mode) {
-        List<Function> fns = functions.get(desc.functionName());
-        if (fns == null) {
-            return null;
-        }
-
-        // First check for identical
-        for (Function f : fns) {
-            if (f.compare(desc, Function.CompareMode.IS_IDENTICAL)) {
-                return checkPolymorphicFunction(f, desc.getArgs());
-            }
-        }
-        if (mode == Function.CompareMode.IS_IDENTICAL) {
-            return null;
-        }
-
-        // Next check for indistinguishable
-        for (Function f : fns) {
-            if (f.compare(desc, Function.CompareMode.IS_INDISTINGUISHABLE)) {
-                return checkPolymorphicFunction(f, desc.getArgs());
-            }
-        }
-        if (mode == Function.CompareMode.IS_INDISTINGUISHABLE) {
-            return null;
-        }
-
-        // Next check for strict supertypes
-        for (Function f : fns) {
-            if (f.compare(desc, Function.CompareMode.IS_SUPERTYPE_OF) && isCastMatchAllowed(desc, f)) {
-                return checkPolymorphicFunction(f, desc.getArgs());
-            }
-        }
-        if (mode == Function.CompareMode.IS_SUPERTYPE_OF) {
-            return null;
-        }
-
-        // Finally check for non-strict supertypes
-        for (Function f : fns) {
-            if (f.compare(desc, Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF) && isCastMatchAllowed(desc, f)) {
-                return checkPolymorphicFunction(f, desc.getArgs());
-            }
-        }
-        return null;
+        Function f = resolutionIndex.resolve(functions.get(desc.functionName()), desc, mode,
+                FunctionSet::isCastMatchAllowed);
+        return f == null ? null : checkPolymorphicFunction(f, desc.getArgs());
     }
 
     private void addBuiltInFunction(Function fn) {
@@ -812,6 +779,7 @@ public class FunctionSet {
         }
         List<Function> fns = functions.computeIfAbsent(fn.functionName(), k -> Lists.newArrayList());
         fns.add(fn);
+        resolutionIndex.invalidate();
     }
 
     /**
@@ -858,6 +826,7 @@ public class FunctionSet {
             scalarFns.add(fn);
         }
         fns.add(fn);
+        resolutionIndex.invalidate();
     }
 
     private Function findScalarFunction(Function desc) {
@@ -31,10 +31,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 /**
  * The OlapTraditional table is a materialized table which stored as rowcolumnar file or columnar file
@@ -66,10 +63,11 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
     @SerializedName(value = "rowCount")
     private long rowCount;
 
-    private Map<Long, Tablet> idToTablets;
     @SerializedName(value = "tablets")
     // this is for keeping tablet order
     private List<Tablet> tablets;
+    // tablet id -> position in tablets
+    private TabletPositionIndex tabletPositions;
 
     // for push after rollup index finished
     @SerializedName(value = "rollupIndexId")
@@ -79,8 +77,8 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
 
     public MaterializedIndex() {
         this.state = IndexState.NORMAL;
-        this.idToTablets = new HashMap<>();
         this.tablets = new ArrayList<>();
+        this.tabletPositions = new TabletPositionIndex();
     }
 
     public MaterializedIndex(long id, IndexState state) {
@@ -91,8 +89,8 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
             this.state = IndexState.NORMAL;
         }
 
-        this.idToTablets = new HashMap<>();
         this.tablets = new ArrayList<>();
+        this.tabletPositions = new TabletPositionIndex();
 
         this.rowCount = 0;
 
@@ -113,11 +111,12 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
     }
 
     public Tablet getTablet(long tabletId) {
-        return idToTablets.get(tabletId);
+        int position = tabletPositions.get(tabletId);
+        return position < 0 ? null : tablets.get(position);
     }
 
     public void clearTabletsForRestore() {
-        idToTablets.clear();
+        tabletPositions.clear();
         tablets.clear();
     }
 
@@ -126,7 +125,7 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
     }
 
     public void addTablet(Tablet tablet, TabletMeta tabletMeta, boolean isRestore) {
-        idToTablets.put(tablet.getId(), tablet);
+        tabletPositions.put(tablet.getId(), tablets.size());
         tablets.add(tablet);
         if (!isRestore) {
             Catalog.getCurrentInvertedIndex().addTablet(tablet.getId(), tabletMeta);
@@ -192,14 +191,7 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
     }
 
     public int getTabletOrderIdx(long tabletId) {
-        int idx = 0;
-        for (Tablet tablet : tablets) {
-            if (tablet.getId() == tabletId) {
-                return idx;
-            }
-            idx++;
-        }
-        return -1;
+        return tabletPositions.get(tabletId);
     }
 
     @Override
@@ -230,16 +222,34 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
         rowCount = in.readLong();
 
         int tabletCount = in.readInt();
+        tablets = new ArrayList<>(tabletCount);
         for (int i = 0; i < tabletCount; ++i) {
             Tablet tablet = Tablet.read(in);
+            tabletPositions.put(tablet.getId(), tablets.size());
             tablets.add(tablet);
-            idToTablets.put(tablet.getId(), tablet);
         }
+        tabletPositions.trimToSize();
 
         rollupIndexId = in.readLong();
         rollupFinishedVersion = in.readLong();
     }
 
+    // copy of the persistent fields, which is the same as the index serialized and read back
+    public MaterializedIndex copy() {
+        MaterializedIndex copied = new MaterializedIndex(id, state);
+        copied.signature = signature;
+        copied.lastCheckTime = lastCheckTime;
+        copied.rowCount = rowCount;
+        copied.tablets = new ArrayList<>(tablets.size());
+        for (Tablet tablet : tablets) {
+            copied.tablets.add(tablet.copy());
+        }
+        copied.tabletPositions = tabletPositions.copy();
+        copied.rollupIndexId = rollupIndexId;
+        copied.rollupFinishedVersion = rollupFinishedVersion;
+        return copied;
+    }
+
     public static MaterializedIndex read(DataInput in) throws IOException {
         MaterializedIndex materializedIndex = new MaterializedIndex();
         materializedIndex.readFields(in);
@@ -257,19 +267,15 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
 
         MaterializedIndex table = (MaterializedIndex) obj;
 
-        // Check idToTablets
-        if (table.idToTablets == null) {
+        // Check tablets
+        if (table.tabletPositions == null) {
             return false;
         }
-        if (idToTablets.size() != table.idToTablets.size()) {
+        if (tabletPositions.size() != table.tabletPositions.size()) {
             return false;
         }
-        for (Entry<Long, Tablet> entry : idToTablets.entrySet()) {
-            long key = entry.getKey();
-            if (!table.idToTablets.containsKey(key)) {
-                return false;
-            }
-            if (!entry.getValue().equals(table.idToTablets.get(key))) {
+        for (Tablet tablet : tablets) {
+            if (!tablet.equals(table.getTablet(tablet.getId()))) {
                 return false;
             }
         }
@@ -301,9 +307,13 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
 
     @Override
     public void gsonPostProcess() {
-        // build "idToTablets" from "tablets"
-        for (Tablet tablet : tablets) {
-            idToTablets.put(tablet.getId(), tablet);
+        // build "tabletPositions" from "tablets"
+        tabletPositions = new TabletPositionIndex();
+        for (int i = 0; i < tablets.size(); i++) {
+            Tablet tablet = tablets.get(i);
+            tabletPositions.put(tablet.getId(), i);
+            tablet.trimToSize();
         }
+        tabletPositions.trimToSize();
     }
 }
@@ -466,6 +466,7 @@ public class OlapTable extends Table {
                         .put(newPartId, rangePartitionInfo.idToInMemory.remove(entry.getValue()));
                 idToPartition.put(newPartId, idToPartition.remove(entry.getValue()));
             }
+            rangePartitionInfo.invalidateRangeIndex();
         } else {
             // Single partitioned
             long newPartId = catalog.getNextId();
@@ -976,6 +977,11 @@ public class OlapTable extends Table {
 
     @Override
     public void write(DataOutput out) throws IOException {
+        write(out, true);
+    }
+
+    // the partitions and temp partitions are not written if withPartitions is false, see selectiveCopy()
+    private void write(DataOutput out, boolean withPartitions) throws IOException {
         super.write(out);
 
         // state
@@ -999,9 +1005,9 @@ public class OlapTable extends Table {
         defaultDistributionInfo.write(out);
 
         // partitions
-        int partitionCount = idToPartition.size();
-        out.writeInt(partitionCount);
-        for (Partition partition : idToPartition.values()) {
+        Collection<Partition> partitions = withPartitions ? idToPartition.values() : Collections.emptyList();
+        out.writeInt(partitions.size());
+        for (Partition partition : partitions) {
             partition.write(out);
         }
 
@@ -1043,7 +1049,7 @@ public class OlapTable extends Table {
             tableProperty.write(out);
         }
 
-        tempPartitions.write(out);
+        (withPartitions ? tempPartitions : new TempPartitions()).write(out);
     }
 
     @Override
@@ -1198,17 +1204,39 @@ public class OlapTable extends Table {
         return table instanceof OlapTable;
     }
 
+    /*
+     * Copy the table with the reserved partitions, or with all partitions if reservedPartitions is null or empty.
+     * Only the metadata of the table except partitions, which is small, is copied by serialization. The reserved
+     * partitions are copied structurally by Partition.copy() and the others are skipped, so the cost is
+     * proportional to the tablets of the reserved partitions instead of all tablets of the table.
+     */
     public OlapTable selectiveCopy(Collection<String> reservedPartitions, boolean resetState, IndexExtState extState) {
         OlapTable copied = new OlapTable();
-        if (!DeepCopy.copy(this, copied, OlapTable.class)) {
+        if (!DeepCopy.copy(out -> write(out, false), copied, OlapTable.class)) {
             LOG.warn("failed to copy olap table: " + getName());
             return null;
         }
 
+        Set<String> reservedPartitionSet = null;
+        if (reservedPartitions != null && !reservedPartitions.isEmpty()) {
+            reservedPartitionSet = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
+            reservedPartitionSet.addAll(reservedPartitions);
+        }
+        for (Partition partition : idToPartition.values()) {
+            if (reservedPartitionSet == null || reservedPartitionSet.contains(partition.getName())) {
+                copied.addPartition(partition.copy());
+            } else {
+                copied.getPartitionInfo().dropPartition(partition.getId());
+            }
+        }
+        for (Partition partition : tempPartitions.getAllPartitions()) {
+            copied.addTempPartition(partition.copy());
+        }
+
         if (resetState) {
-            // remove shadow index from copied table
+            // remove shadow index from copied table, the copied table may have no partitions
             List<MaterializedIndex> shadowIndex =
-                    copied.getPartitions().stream().findFirst().get().getMaterializedIndices(IndexExtState.SHADOW);
+                    getPartitions().stream().findFirst().get().getMaterializedIndices(IndexExtState.SHADOW);
             for (MaterializedIndex deleteIndex : shadowIndex) {
                 LOG.debug("copied table delete shadow index : {}", deleteIndex.getId());
                 copied.deleteIndexInfo(copied.getIndexNameById(deleteIndex.getId()));
@@ -1232,20 +1260,6 @@ public class OlapTable extends Table {
             }
         }
 
-        if (reservedPartitions == null || reservedPartitions.isEmpty()) {
-            // reserve all
-            return copied;
-        }
-
-        Set<String> reservedPartitionSet = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
-        reservedPartitionSet.addAll(reservedPartitions);
-
-        for (String partName : copied.getPartitionNames()) {
-            if (!reservedPartitionSet.contains(partName)) {
-                copied.dropPartitionAndReserveTablet(partName);
-            }
-        }
-
         return copied;
     }
 
@@ -1599,6 +1613,26 @@ public class OlapTable extends Table {
         return tableProperty.getStorageFormat();
     }
 
+    public void setAsyncMaterializedViewProperties(Map<String, String> properties) {
+        if (tableProperty == null) {
+            tableProperty = new TableProperty(new HashMap<>());
+        }
+        tableProperty.modifyTableProperties(properties);
+        tableProperty.buildAsyncMaterializedViewProperty();
+    }
+
+    // null if the table is not an asynchronous materialized view
+    public AsyncMaterializedViewProperty getAsyncMaterializedViewProperty() {
+        if (tableProperty == null) {
+            return null;
+        }
+        return tableProperty.getAsyncMaterializedViewProperty();
+    }
+
+    public boolean isAsyncMaterializedView() {
+        return getAsyncMaterializedViewProperty() != null;
+    }
+
     @Override
     public void onCreate() {
     }
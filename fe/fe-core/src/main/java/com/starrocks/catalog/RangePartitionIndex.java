@@ -0,0 +1,130 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable index of non-overlapping partition ranges sorted by their lower endpoints, which finds the
+ * partitions intersected with a key range in O(log(n) + k) time by binary search, where n is the number of
+ * partitions and k is the number of partitions found.
+ * <p>
+ * The index is shared by all the queries of a table, and replaced by a new one on adding or dropping a
+ * partition. Since the partitions are usually added to the end and dropped from the start, a change only
+ * costs an array copy, which is much cheaper than sorting all partitions for each query.
+ */
+public class RangePartitionIndex {
+    public static final RangePartitionIndex EMPTY = new RangePartitionIndex(new Entry[0]);
+
+    private static final Comparator<Entry> ENTRY_COMPARATOR = Comparator.comparing(e -> e.range.lowerEndpoint());
+
+    private static class Entry {
+        private final long partitionId;
+        private final Range<PartitionKey> range;
+
+        private Entry(long partitionId, Range<PartitionKey> range) {
+            this.partitionId = partitionId;
+            this.range = range;
+        }
+    }
+
+    private final Entry[] entries;
+
+    private RangePartitionIndex(Entry[] entries) {
+        this.entries = entries;
+    }
+
+    public static RangePartitionIndex create(Map<Long, Range<PartitionKey>> idToRange) {
+        Entry[] entries = new Entry[idToRange.size()];
+        int i = 0;
+        for (Map.Entry<Long, Range<PartitionKey>> entry : idToRange.entrySet()) {
+            entries[i++] = new Entry(entry.getKey(), entry.getValue());
+        }
+        Arrays.sort(entries, ENTRY_COMPARATOR);
+        return new RangePartitionIndex(entries);
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * @return a new index with the partition added, the range must not overlap with the existing ones
+     */
+    public RangePartitionIndex add(long partitionId, Range<PartitionKey> range) {
+        Entry entry = new Entry(partitionId, range);
+        int pos = Arrays.binarySearch(entries, entry, ENTRY_COMPARATOR);
+        pos = pos >= 0 ? pos : -pos - 1;
+        Entry[] newEntries = new Entry[entries.length + 1];
+        System.arraycopy(entries, 0, newEntries, 0, pos);
+        newEntries[pos] = entry;
+        System.arraycopy(entries, pos, newEntries, pos + 1, entries.length - pos);
+        return new RangePartitionIndex(newEntries);
+    }
+
+    /**
+     * @return a new index with the partition of the range removed, or this index if it is not found
+     */
+    public RangePartitionIndex remove(long partitionId, Range<PartitionKey> range) {
+        int pos = Arrays.binarySearch(entries, new Entry(partitionId, range), ENTRY_COMPARATOR);
+        if (pos < 0 || entries[pos].partitionId != partitionId) {
+            return this;
+        }
+        Entry[] newEntries = new Entry[entries.length - 1];
+        System.arraycopy(entries, 0, newEntries, 0, pos);
+        System.arraycopy(entries, pos + 1, newEntries, pos, entries.length - pos - 1);
+        return new RangePartitionIndex(newEntries);
+    }
+
+    /**
+     * @return ids of the partitions whose ranges intersect with the given range, in the order of ranges
+     */
+    public List<Long> query(Range<PartitionKey> range) {
+        List<Long> result = Lists.newArrayList();
+        // the ranges entirely below the given range are a prefix of the sorted entries
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isBelow(entries[mid].range, range)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < entries.length && !isAbove(entries[i].range, range); i++) {
+            Range<PartitionKey> partitionRange = entries[i].range;
+            if (partitionRange.isConnected(range) && !partitionRange.intersection(range).isEmpty()) {
+                result.add(entries[i].partitionId);
+            }
+        }
+        return result;
+    }
+
+    // whether all keys of the partition range are smaller than the keys of the range
+    private static boolean isBelow(Range<PartitionKey> partitionRange, Range<PartitionKey> range) {
+        if (!partitionRange.hasUpperBound() || !range.hasLowerBound()) {
+            return false;
+        }
+        int cmp = partitionRange.upperEndpoint().compareTo(range.lowerEndpoint());
+        return cmp < 0 || (cmp == 0 && (partitionRange.upperBoundType() == BoundType.OPEN
+                || range.lowerBoundType() == BoundType.OPEN));
+    }
+
+    // whether all keys of the partition range are larger than the keys of the range
+    private static boolean isAbove(Range<PartitionKey> partitionRange, Range<PartitionKey> range) {
+        if (!partitionRange.hasLowerBound() || !range.hasUpperBound()) {
+            return false;
+        }
+        int cmp = partitionRange.lowerEndpoint().compareTo(range.upperEndpoint());
+        return cmp > 0 || (cmp == 0 && (partitionRange.lowerBoundType() == BoundType.OPEN
+                || range.upperBoundType() == BoundType.OPEN));
+    }
+}
@@ -51,6 +51,9 @@ public class RangePartitionInfo extends PartitionInfo {
     private Map<Long, Range<PartitionKey>> idToRange = Maps.newHashMap();
     // temp partition id -> partition range
     private Map<Long, Range<PartitionKey>> idToTempRange = Maps.newHashMap();
+    // index of the formal partition ranges for partition pruning, built on first use,
+    // and updated on adding or dropping formal partitions once built
+    private transient volatile RangePartitionIndex rangeIndex = null;
 
     public RangePartitionInfo() {
         // for persist
@@ -70,7 +73,10 @@ public class RangePartitionInfo extends PartitionInfo {
     @Override
     public void dropPartition(long partitionId) {
         super.dropPartition(partitionId);
-        idToRange.remove(partitionId);
+        Range<PartitionKey> range = idToRange.remove(partitionId);
+        if (range != null && rangeIndex != null) {
+            rangeIndex = rangeIndex.remove(partitionId, range);
+        }
         idToTempRange.remove(partitionId);
     }
 
@@ -221,6 +227,23 @@ public class RangePartitionInfo extends PartitionInfo {
         }
     }
 
+    /**
+     * @return the index of formal partition ranges, which must not be modified
+     */
+    public RangePartitionIndex getRangeIndex() {
+        RangePartitionIndex index = rangeIndex;
+        if (index == null) {
+            index = RangePartitionIndex.create(idToRange);
+            rangeIndex = index;
+        }
+        return index;
+    }
+
+    // called after the ranges are modified by getIdToRange() directly
+    void invalidateRangeIndex() {
+        rangeIndex = null;
+    }
+
     public Range<PartitionKey> getRange(long partitionId) {
         Range<PartitionKey> range = idToRange.get(partitionId);
         if (range == null) {
@@ -299,14 +322,25 @@ public class RangePartitionInfo extends PartitionInfo {
         if (isTemp) {
             idToTempRange.put(partitionId, range);
         } else {
-            idToRange.put(partitionId, range);
+            putFormalRange(partitionId, range);
+        }
+    }
+
+    private void putFormalRange(long partitionId, Range<PartitionKey> range) {
+        Range<PartitionKey> oldRange = idToRange.put(partitionId, range);
+        RangePartitionIndex index = rangeIndex;
+        if (index != null) {
+            if (oldRange != null) {
+                index = index.remove(partitionId, oldRange);
+            }
+            rangeIndex = index.add(partitionId, range);
         }
     }
 
     public void moveRangeFromTempToFormal(long tempPartitionId) {
         Range<PartitionKey> range = idToTempRange.remove(tempPartitionId);
         if (range != null) {
-            idToRange.put(tempPartitionId, range);
+            putFormalRange(tempPartitionId, range);
         }
     }
 
@@ -90,8 +90,6 @@ public class Replica implements Writable {
     private long lastFailedVersion = -1L;
     @SerializedName(value = "lastFailedVersionHash")
     private long lastFailedVersionHash = 0L;
-    // not serialized, not very important
-    private long lastFailedTimestamp = 0;
     // the last load successful version
     @SerializedName(value = "lastSuccessVersion")
     private long lastSuccessVersion = -1L;
@@ -105,25 +103,40 @@ public class Replica implements Writable {
     // bad means this Replica is unrecoverable and we will delete it
     private boolean bad = false;
 
-    /*
-     * If set to true, with means this replica need to be repaired. explicitly.
-     * This can happen when this replica is created by a balance clone task, and
-     * when task finished, the version of this replica is behind the partition's visible version.
-     * So this replica need a further repair.
-     * If we do not do this, this replica will be treated as version stale, and will be removed,
-     * so that the balance task is failed, which is unexpected.
-     *
-     * furtherRepairSetTime set alone with needFurtherRepair.
-     * This is an insurance, in case that further repair task always fail. If 20 min passed
-     * since we set needFurtherRepair to true, the 'needFurtherRepair' will be set to false.
-     */
-    private boolean needFurtherRepair = false;
-    private long furtherRepairSetTime = -1;
     private static final long FURTHER_REPAIR_TIMEOUT_MS = 20 * 60 * 1000L; // 20min
 
-    // if this watermarkTxnId is set, which means before deleting a replica,
-    // we should ensure that all txns on this replicas are finished.
-    private long watermarkTxnId = -1;
+    /*
+     * The states which are only set when loading fails or the replica is being repaired or dropped.
+     * They are not serialized, and kept out of the replica until being set, to save memory of the
+     * millions of healthy replicas.
+     */
+    private static class TransientState {
+        // not serialized, not very important
+        private long lastFailedTimestamp = 0;
+
+        /*
+         * If set to true, with means this replica need to be repaired. explicitly.
+         * This can happen when this replica is created by a balance clone task, and
+         * when task finished, the version of this replica is behind the partition's visible version.
+         * So this replica need a further repair.
+         * If we do not do this, this replica will be treated as version stale, and will be removed,
+         * so that the balance task is failed, which is unexpected.
+         *
+         * furtherRepairSetTime set alone with needFurtherRepair.
+         * This is an insurance, in case that further repair task always fail. If 20 min passed
+         * since we set needFurtherRepair to true, the 'needFurtherRepair' will be set to false.
+         */
+        private boolean needFurtherRepair = false;
+        private long furtherRepairSetTime = -1;
+
+        // if this watermarkTxnId is set, which means before deleting a replica,
+        // we should ensure that all txns on this replicas are finished.
+        private long watermarkTxnId = -1;
+    }
+
+    private volatile TransientState transientState;
+    // lastFailedTimestamp is reset to -1 without the transient state, see setLastFailedTime()
+    private boolean lastFailedTimeReset = false;
 
     public Replica() {
     }
@@ -158,7 +171,7 @@ public class Replica implements Writable {
         this.lastFailedVersion = lastFailedVersion;
         this.lastFailedVersionHash = lastFailedVersionHash;
         if (this.lastFailedVersion > 0) {
-            this.lastFailedTimestamp = System.currentTimeMillis();
+            setLastFailedTime(System.currentTimeMillis());
         }
         if (lastSuccessVersion < this.version) {
             this.lastSuccessVersion = this.version;
@@ -169,8 +182,20 @@ public class Replica implements Writable {
         }
     }
 
+    private synchronized TransientState getOrCreateTransientState() {
+        if (transientState == null) {
+            transientState = new TransientState();
+        }
+        return transientState;
+    }
+
     public void setLastFailedTime(long lastFailedTime) {
-        this.lastFailedTimestamp = lastFailedTime;
+        // the timestamp is reset to -1 by every version update of a healthy replica, which does not need the state
+        if ((lastFailedTime == 0 || lastFailedTime == -1) && transientState == null) {
+            lastFailedTimeReset = lastFailedTime == -1;
+            return;
+        }
+        getOrCreateTransientState().lastFailedTimestamp = lastFailedTime;
     }
 
     public long getVersion() {
@@ -215,7 +240,11 @@ public class Replica implements Writable {
     }
 
     public long getLastFailedTimestamp() {
-        return lastFailedTimestamp;
+        TransientState current = transientState;
+        if (current == null) {
+            return lastFailedTimeReset ? -1 : 0;
+        }
+        return current.lastFailedTimestamp;
     }
 
     public long getLastSuccessVersion() {
@@ -247,15 +276,21 @@ public class Replica implements Writable {
     }
 
     public boolean needFurtherRepair() {
-        if (needFurtherRepair && System.currentTimeMillis() - this.furtherRepairSetTime < FURTHER_REPAIR_TIMEOUT_MS) {
+        TransientState current = transientState;
+        if (current != null && current.needFurtherRepair
+                && System.currentTimeMillis() - current.furtherRepairSetTime < FURTHER_REPAIR_TIMEOUT_MS) {
             return true;
         }
         return false;
     }
 
     public void setNeedFurtherRepair(boolean needFurtherRepair) {
-        this.needFurtherRepair = needFurtherRepair;
-        this.furtherRepairSetTime = System.currentTimeMillis();
+        if (!needFurtherRepair && transientState == null) {
+            return;
+        }
+        TransientState current = getOrCreateTransientState();
+        current.needFurtherRepair = needFurtherRepair;
+        current.furtherRepairSetTime = System.currentTimeMillis();
     }
 
     // only update data size and row num
@@ -372,7 +407,7 @@ public class Replica implements Writable {
             if (lastFailedVersion > this.lastFailedVersion) {
                 this.lastFailedVersion = lastFailedVersion;
                 this.lastFailedVersionHash = lastFailedVersionHash;
-                this.lastFailedTimestamp = System.currentTimeMillis();
+                setLastFailedTime(System.currentTimeMillis());
             }
 
             this.lastSuccessVersion = this.version;
@@ -393,7 +428,7 @@ public class Replica implements Writable {
         if (this.version >= this.lastFailedVersion) {
             this.lastFailedVersion = -1;
             this.lastFailedVersionHash = 0;
-            this.lastFailedTimestamp = -1;
+            setLastFailedTime(-1);
             if (this.version < this.lastSuccessVersion) {
                 this.version = this.lastSuccessVersion;
                 this.versionHash = this.lastSuccessVersionHash;
@@ -478,7 +513,7 @@ public class Replica implements Writable {
         strBuffer.append(", lastSuccessVersionHash=");
         strBuffer.append(lastSuccessVersionHash);
         strBuffer.append(", lastFailedTimestamp=");
-        strBuffer.append(lastFailedTimestamp);
+        strBuffer.append(getLastFailedTimestamp());
         strBuffer.append(", schemaHash=");
         strBuffer.append(schemaHash);
         strBuffer.append(", state=");
@@ -519,6 +554,23 @@ public class Replica implements Writable {
         }
     }
 
+    // copy of the persistent fields, which is the same as the replica serialized and read back
+    public Replica copy() {
+        Replica copied = new Replica();
+        copied.id = id;
+        copied.backendId = backendId;
+        copied.version = version;
+        copied.versionHash = versionHash;
+        copied.dataSize = dataSize;
+        copied.rowCount = rowCount;
+        copied.state = state;
+        copied.lastFailedVersion = lastFailedVersion;
+        copied.lastFailedVersionHash = lastFailedVersionHash;
+        copied.lastSuccessVersion = lastSuccessVersion;
+        copied.lastSuccessVersionHash = lastSuccessVersionHash;
+        return copied;
+    }
+
     public static Replica read(DataInput in) throws IOException {
         Replica replica = new Replica();
         replica.readFields(in);
@@ -565,10 +617,14 @@ public class Replica implements Writable {
     }
 
     public void setWatermarkTxnId(long watermarkTxnId) {
-        this.watermarkTxnId = watermarkTxnId;
+        if (watermarkTxnId == -1 && transientState == null) {
+            return;
+        }
+        getOrCreateTransientState().watermarkTxnId = watermarkTxnId;
     }
 
     public long getWatermarkTxnId() {
-        return watermarkTxnId;
+        TransientState current = transientState;
+        return current == null ? -1 : current.watermarkTxnId;
     }
 }
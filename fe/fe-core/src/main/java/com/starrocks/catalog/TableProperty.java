@@ -65,6 +65,9 @@ public class TableProperty implements Writable {
      */
     private TStorageFormat storageFormat = TStorageFormat.DEFAULT;
 
+    // not null only if the table is an asynchronous materialized view
+    private AsyncMaterializedViewProperty asyncMaterializedViewProperty = null;
+
     public TableProperty(Map<String, String> properties) {
         this.properties = properties;
     }
@@ -89,6 +92,9 @@ public class TableProperty implements Writable {
             case OperationType.OP_MODIFY_IN_MEMORY:
                 buildInMemory();
                 break;
+            case OperationType.OP_MODIFY_ASYNC_MV_STATE:
+                buildAsyncMaterializedViewProperty();
+                break;
             default:
                 break;
         }
@@ -123,6 +129,15 @@ public class TableProperty implements Writable {
         return this;
     }
 
+    public TableProperty buildAsyncMaterializedViewProperty() {
+        if (properties.containsKey(AsyncMaterializedViewProperty.DEFINITION)) {
+            asyncMaterializedViewProperty = new AsyncMaterializedViewProperty(properties);
+        } else {
+            asyncMaterializedViewProperty = null;
+        }
+        return this;
+    }
+
     public void modifyTableProperties(Map<String, String> modifyProperties) {
         properties.putAll(modifyProperties);
     }
@@ -151,6 +166,10 @@ public class TableProperty implements Writable {
         return storageFormat;
     }
 
+    public AsyncMaterializedViewProperty getAsyncMaterializedViewProperty() {
+        return asyncMaterializedViewProperty;
+    }
+
     @Override
     public void write(DataOutput out) throws IOException {
         Text.writeString(out, GsonUtils.GSON.toJson(this));
@@ -161,6 +180,7 @@ public class TableProperty implements Writable {
                 .buildDynamicProperty()
                 .buildReplicationNum()
                 .buildInMemory()
-                .buildStorageFormat();
+                .buildStorageFormat()
+                .buildAsyncMaterializedViewProperty();
     }
 }
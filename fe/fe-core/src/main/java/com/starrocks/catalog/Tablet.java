@@ -52,6 +52,9 @@ import java.util.stream.Collectors;
 public class Tablet extends MetaObject implements Writable {
     private static final Logger LOG = LogManager.getLogger(Tablet.class);
 
+    // most tablets have 3 replicas, the default capacity of ArrayList is 10
+    private static final int DEFAULT_REPLICA_CAPACITY = 3;
+
     public enum TabletStatus {
         HEALTHY,
         REPLICA_MISSING, // not enough alive replica num.
@@ -82,11 +85,11 @@ public class Tablet extends MetaObject implements Writable {
     private long lastStatusCheckTime = -1;
 
     public Tablet() {
-        this(0L, new ArrayList<>());
+        this(0L, new ArrayList<>(DEFAULT_REPLICA_CAPACITY));
     }
 
     public Tablet(long tabletId) {
-        this(tabletId, new ArrayList<>());
+        this(tabletId, new ArrayList<>(DEFAULT_REPLICA_CAPACITY));
     }
 
     public Tablet(long tabletId, List<Replica> replicas) {
@@ -162,6 +165,13 @@ public class Tablet extends MetaObject implements Writable {
         return this.replicas;
     }
 
+    // release the spare capacity of the replica list, which is noticeable for millions of tablets
+    void trimToSize() {
+        if (replicas instanceof ArrayList) {
+            ((ArrayList<Replica>) replicas).trimToSize();
+        }
+    }
+
     public Set<Long> getBackendIds() {
         Set<Long> beIds = Sets.newHashSet();
         for (Replica replica : replicas) {
@@ -358,6 +368,7 @@ public class Tablet extends MetaObject implements Writable {
                 replicas.add(replica);
             }
         }
+        trimToSize();
 
         if (Catalog.getCurrentCatalogJournalVersion() >= 6) {
             checkedVersion = in.readLong();
@@ -366,6 +377,21 @@ public class Tablet extends MetaObject implements Writable {
         }
     }
 
+    // copy of the persistent fields, which is the same as the tablet serialized and read back
+    public Tablet copy() {
+        List<Replica> copiedReplicas = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            copiedReplicas.add(replica.copy());
+        }
+        Tablet copied = new Tablet(id, copiedReplicas);
+        copied.signature = signature;
+        copied.lastCheckTime = lastCheckTime;
+        copied.checkedVersion = checkedVersion;
+        copied.checkedVersionHash = checkedVersionHash;
+        copied.isConsistent = isConsistent;
+        return copied;
+    }
+
     public static Tablet read(DataInput in) throws IOException {
         Tablet tablet = new Tablet();
         tablet.readFields(in);
@@ -631,6 +657,10 @@ public class Tablet extends MetaObject implements Writable {
         return ready;
     }
 
+    public long getLastStatusCheckTime() {
+        return lastStatusCheckTime;
+    }
+
     public void setLastStatusCheckTime(long lastStatusCheckTime) {
         this.lastStatusCheckTime = lastStatusCheckTime;
     }
@@ -0,0 +1,83 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import java.util.Arrays;
+
+/**
+ * A compact map from tablet id to the position of the tablet in the tablet list of a materialized index,
+ * which costs 12 bytes per tablet, while an entry of HashMap<Long, Tablet> costs about 64 bytes.
+ * <p>
+ * The ids are kept sorted in a primitive array for binary search. Since the tablets of an index are created
+ * with increasing ids, adding a tablet is an append in most cases.
+ * <p>
+ * Not thread safe, it is protected by the lock of the table like the tablet list.
+ */
+class TabletPositionIndex {
+    private static final long[] EMPTY_IDS = new long[0];
+    private static final int[] EMPTY_POSITIONS = new int[0];
+
+    private long[] ids = EMPTY_IDS;
+    private int[] positions = EMPTY_POSITIONS;
+    private int size = 0;
+
+    /**
+     * @return position of the tablet, or -1 if not found
+     */
+    int get(long tabletId) {
+        int idx = Arrays.binarySearch(ids, 0, size, tabletId);
+        return idx >= 0 ? positions[idx] : -1;
+    }
+
+    void put(long tabletId, int position) {
+        int idx;
+        if (size == 0 || ids[size - 1] < tabletId) {
+            idx = size;
+        } else {
+            idx = Arrays.binarySearch(ids, 0, size, tabletId);
+            if (idx >= 0) {
+                positions[idx] = position;
+                return;
+            }
+            idx = -idx - 1;
+        }
+        if (size == ids.length) {
+            int capacity = Math.max(4, size + (size >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+        System.arraycopy(ids, idx, ids, idx + 1, size - idx);
+        System.arraycopy(positions, idx, positions, idx + 1, size - idx);
+        ids[idx] = tabletId;
+        positions[idx] = position;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        ids = EMPTY_IDS;
+        positions = EMPTY_POSITIONS;
+        size = 0;
+    }
+
+    TabletPositionIndex copy() {
+        TabletPositionIndex copied = new TabletPositionIndex();
+        if (size > 0) {
+            copied.ids = Arrays.copyOf(ids, size);
+            copied.positions = Arrays.copyOf(positions, size);
+            copied.size = size;
+        }
+        return copied;
+    }
+
+    // release the spare capacity after all tablets are added
+    void trimToSize() {
+        if (size < ids.length) {
+            ids = Arrays.copyOf(ids, size);
+            positions = Arrays.copyOf(positions, size);
+        }
+    }
+}
@@ -181,18 +181,20 @@ public class ColocateTableBalancer extends MasterDaemon {
     private void matchGroup() {
         Catalog catalog = Catalog.getCurrentCatalog();
         ColocateTableIndex colocateIndex = catalog.getColocateTableIndex();
+        // check the groups of the same version of colocate index, the concurrent changes are checked next round
+        ColocateTableIndex.Snapshot snapshot = colocateIndex.getSnapshot();
         TabletScheduler tabletScheduler = catalog.getTabletScheduler();
 
         // check each group
-        Set<GroupId> groupIds = colocateIndex.getAllGroupIds();
+        Set<GroupId> groupIds = snapshot.getAllGroupIds();
         for (GroupId groupId : groupIds) {
-            List<Long> tableIds = colocateIndex.getAllTableIds(groupId);
+            List<Long> tableIds = snapshot.getAllTableIds(groupId);
             Database db = catalog.getDbIncludeRecycleBin(groupId.dbId);
             if (db == null) {
                 continue;
             }
 
-            List<Set<Long>> backendBucketsSeq = colocateIndex.getBackendsPerBucketSeqSet(groupId);
+            List<Set<Long>> backendBucketsSeq = snapshot.getBackendsPerBucketSeqSet(groupId);
             if (backendBucketsSeq.isEmpty()) {
                 continue;
             }
@@ -203,7 +205,7 @@ public class ColocateTableBalancer extends MasterDaemon {
                 OUT:
                 for (Long tableId : tableIds) {
                     OlapTable olapTable = (OlapTable) catalog.getTableIncludeRecycleBin(db, tableId);
-                    if (olapTable == null || !colocateIndex.isColocateTable(olapTable.getId())) {
+                    if (olapTable == null || !snapshot.isColocateTable(olapTable.getId())) {
                         continue;
                     }
 
@@ -0,0 +1,110 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.clone;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.catalog.TabletInvertedIndex;
+import com.starrocks.catalog.TabletMeta;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tracks the partitions whose tablets may have changed their health since being checked by TabletChecker,
+ * so that a round of TabletChecker only checks these partitions instead of all tablets.
+ * <p>
+ * A change is reported by tablet id, eg. replica added, dropped, set bad or synced by tablet report, by partition,
+ * eg. load failed on some replicas or tablet scheduling finished, or as a request of full check, eg. status of a
+ * backend changed. Reporting a tablet only adds its id to a concurrent set, which is resolved to partition by
+ * TabletChecker later. Changes are ignored while a full check is pending.
+ */
+public class DirtyPartitionTracker {
+    private static final DirtyPartitionTracker INSTANCE = new DirtyPartitionTracker();
+
+    // bound the memory if the changes are not consumed, eg. on non-master frontends
+    private static final int MAX_DIRTY_NUM = 1000000;
+
+    private final Set<Long> dirtyTabletIds = ConcurrentHashMap.newKeySet();
+    // partition id -> (db id, table id)
+    private final Map<Long, long[]> dirtyPartitions = new ConcurrentHashMap<>();
+    // the first round checks all tablets
+    private final AtomicBoolean fullCheckRequested = new AtomicBoolean(true);
+
+    DirtyPartitionTracker() {
+    }
+
+    public static DirtyPartitionTracker getInstance() {
+        return INSTANCE;
+    }
+
+    public void markTabletDirty(long tabletId) {
+        if (fullCheckRequested.get()) {
+            return;
+        }
+        if (dirtyTabletIds.size() >= MAX_DIRTY_NUM) {
+            requestFullCheck();
+            return;
+        }
+        dirtyTabletIds.add(tabletId);
+    }
+
+    public void markPartitionDirty(long dbId, long tableId, long partitionId) {
+        if (fullCheckRequested.get()) {
+            return;
+        }
+        if (dirtyPartitions.size() >= MAX_DIRTY_NUM) {
+            requestFullCheck();
+            return;
+        }
+        dirtyPartitions.put(partitionId, new long[] {dbId, tableId});
+    }
+
+    public void requestFullCheck() {
+        fullCheckRequested.set(true);
+        dirtyTabletIds.clear();
+        dirtyPartitions.clear();
+    }
+
+    /**
+     * @return whether a full check is requested since last call, the request is cleared
+     */
+    public boolean takeFullCheckRequest() {
+        return fullCheckRequested.getAndSet(false);
+    }
+
+    /**
+     * Removes and returns the dirty partitions, tablets which are already dropped are ignored.
+     *
+     * @return db id -> (table id -> partition ids)
+     */
+    public Map<Long, Map<Long, Set<Long>>> drainDirtyPartitions(TabletInvertedIndex invertedIndex) {
+        Map<Long, Map<Long, Set<Long>>> result = Maps.newHashMap();
+        Iterator<Map.Entry<Long, long[]>> partIter = dirtyPartitions.entrySet().iterator();
+        while (partIter.hasNext()) {
+            Map.Entry<Long, long[]> entry = partIter.next();
+            partIter.remove();
+            addPartition(result, entry.getValue()[0], entry.getValue()[1], entry.getKey());
+        }
+        Iterator<Long> tabletIter = dirtyTabletIds.iterator();
+        while (tabletIter.hasNext()) {
+            long tabletId = tabletIter.next();
+            tabletIter.remove();
+            TabletMeta tabletMeta = invertedIndex.getTabletMeta(tabletId);
+            if (tabletMeta == null) {
+                continue;
+            }
+            addPartition(result, tabletMeta.getDbId(), tabletMeta.getTableId(), tabletMeta.getPartitionId());
+        }
+        return result;
+    }
+
+    static void addPartition(Map<Long, Map<Long, Set<Long>>> partitions, long dbId, long tableId,
+                             long partitionId) {
+        partitions.computeIfAbsent(dbId, k -> Maps.newHashMap())
+                .computeIfAbsent(tableId, k -> Sets.newHashSet()).add(partitionId);
+    }
+}
@@ -48,6 +48,7 @@ import com.starrocks.system.SystemInfoService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -67,6 +68,14 @@ public class TabletChecker extends MasterDaemon {
     private SystemInfoService infoService;
     private TabletScheduler tabletScheduler;
     private TabletSchedulerStat stat;
+    private DirtyPartitionTracker dirtyTracker = DirtyPartitionTracker.getInstance();
+
+    private long lastFullCheckTime = -1;
+    private long lastRoundStartTime = -1;
+    // ids of the tablets found unhealthy or being scheduled, which are not found healthy since then
+    private Set<Long> unhealthyTabletIds = Sets.newHashSet();
+    // unhealthyTabletIds before a full check round
+    private Set<Long> prevUnhealthyTabletIds = Collections.emptySet();
 
     // db id -> (tbl id -> PrioPart)
     // priority of replicas of partitions in this table will be set to VERY_HIGH if not healthy
@@ -166,7 +175,7 @@ public class TabletChecker extends MasterDaemon {
     }
 
     /*
-     * For each cycle, TabletChecker will check all OlapTable's tablet.
+     * For each cycle, TabletChecker will check OlapTable's tablets which may have changed, see checkTablets().
      * If a tablet is not healthy, a TabletInfo will be created and sent to TabletScheduler for repairing.
      */
     @Override
@@ -188,16 +197,40 @@ public class TabletChecker extends MasterDaemon {
         LOG.info(stat.incrementalBrief());
     }
 
+    /*
+     * A round checks all tablets if a full check is requested, eg. the status of some backend changed, or the
+     * full check interval is reached. Otherwise only the partitions reported by DirtyPartitionTracker and the
+     * partitions in 'prios' are checked.
+     */
     private void checkTablets() {
         long start = System.currentTimeMillis();
-        long totalTabletNum = 0;
-        long unhealthyTabletNum = 0;
-        long addToSchedulerTabletNum = 0;
-        long tabletInScheduler = 0;
-        long tabletNotReady = 0;
+        CheckCounter counter = new CheckCounter();
+
+        boolean fullCheck = dirtyTracker.takeFullCheckRequest()
+                || Config.tablet_checker_full_check_interval_second <= 0
+                || start - lastFullCheckTime >= Config.tablet_checker_full_check_interval_second * 1000L;
+        Map<Long, Map<Long, Set<Long>>> dirtyPartitions =
+                dirtyTracker.drainDirtyPartitions(Catalog.getCurrentInvertedIndex());
+        if (fullCheck) {
+            lastFullCheckTime = start;
+            // the unhealthy tablets of dropped partitions are forgotten in a full check
+            prevUnhealthyTabletIds = unhealthyTabletIds;
+            unhealthyTabletIds = Sets.newHashSet();
+            stat.counterTabletFullCheckRound.incrementAndGet();
+        } else {
+            synchronized (prios) {
+                for (Cell<Long, Long, Set<PrioPart>> cell : prios.cellSet()) {
+                    for (PrioPart prioPart : cell.getValue()) {
+                        DirtyPartitionTracker.addPartition(dirtyPartitions, cell.getRowKey(), cell.getColumnKey(),
+                                prioPart.partId);
+                    }
+                }
+            }
+        }
 
-        List<Long> dbIds = catalog.getDbIdsIncludeRecycleBin();
-        OUT:
+        List<Long> dbIds = fullCheck ? catalog.getDbIdsIncludeRecycleBin()
+                : Lists.newArrayList(dirtyPartitions.keySet());
+        long maxLockHoldMs = 0;
         for (Long dbId : dbIds) {
             Database db = catalog.getDbIncludeRecycleBin(dbId);
             if (db == null) {
@@ -208,110 +241,190 @@ public class TabletChecker extends MasterDaemon {
                 continue;
             }
 
+            boolean limitExceeded;
             db.readLock();
+            long lockStart = System.currentTimeMillis();
             try {
-                List<Long> aliveBeIdsInCluster = infoService.getClusterBackendIds(db.getClusterName(), true);
-                for (Table table : catalog.getTablesIncludeRecycleBin(db)) {
-                    if (!table.needSchedule(false)) {
-                        continue;
-                    }
-
-                    OlapTable olapTbl = (OlapTable) table;
-                    for (Partition partition : catalog.getAllPartitionsIncludeRecycleBin(olapTbl)) {
-                        if (partition.getState() != PartitionState.NORMAL) {
-                            // when alter job is in FINISHING state, partition state will be set to NORMAL,
-                            // and we can schedule the tablets in it.
-                            continue;
-                        }
-                        short replicaNum = catalog.getReplicationNumIncludeRecycleBin(olapTbl.getPartitionInfo(),
-                                partition.getId());
-                        if (replicaNum == (short) -1) {
-                            continue;
-                        }
-                        boolean isInPrios = isInPrios(dbId, table.getId(), partition.getId());
-                        boolean prioPartIsHealthy = true;
-                        /*
-                         * Tablet in SHADOW index can not be repaired of balanced
-                         */
-                        for (MaterializedIndex idx : partition.getMaterializedIndices(IndexExtState.VISIBLE)) {
-                            for (Tablet tablet : idx.getTablets()) {
-                                totalTabletNum++;
-
-                                if (tabletScheduler.containsTablet(tablet.getId())) {
-                                    tabletInScheduler++;
-                                    continue;
-                                }
-
-                                Pair<TabletStatus, TabletSchedCtx.Priority> statusWithPrio =
-                                        tablet.getHealthStatusWithPriority(
-                                                infoService,
-                                                db.getClusterName(),
-                                                partition.getVisibleVersion(),
-                                                partition.getVisibleVersionHash(),
-                                                replicaNum,
-                                                aliveBeIdsInCluster);
-
-                                if (statusWithPrio.first == TabletStatus.HEALTHY) {
-                                    // Only set last status check time when status is healthy.
-                                    tablet.setLastStatusCheckTime(start);
-                                    continue;
-                                } else if (isInPrios) {
-                                    statusWithPrio.second = TabletSchedCtx.Priority.VERY_HIGH;
-                                    prioPartIsHealthy = false;
-                                }
-
-                                unhealthyTabletNum++;
-
-                                if (!tablet.readyToBeRepaired(statusWithPrio.second)) {
-                                    tabletNotReady++;
-                                    continue;
-                                }
-
-                                TabletSchedCtx tabletCtx = new TabletSchedCtx(
-                                        TabletSchedCtx.Type.REPAIR,
-                                        db.getClusterName(),
-                                        db.getId(), olapTbl.getId(),
-                                        partition.getId(), idx.getId(), tablet.getId(),
-                                        System.currentTimeMillis());
-                                // the tablet status will be set again when being scheduled
-                                tabletCtx.setTabletStatus(statusWithPrio.first);
-                                tabletCtx.setOrigPriority(statusWithPrio.second);
-
-                                AddResult res = tabletScheduler.addTablet(tabletCtx, false /* not force */);
-                                if (res == AddResult.LIMIT_EXCEED) {
-                                    LOG.info("number of scheduling tablets in tablet scheduler"
-                                            + " exceed to limit. stop tablet checker");
-                                    break OUT;
-                                } else if (res == AddResult.ADDED) {
-                                    addToSchedulerTabletNum++;
-                                }
-                            }
-                        } // indices
-
-                        if (prioPartIsHealthy && isInPrios) {
-                            // if all replicas in this partition are healthy, remove this partition from
-                            // priorities.
-                            LOG.debug("partition is healthy, remove from prios: {}-{}-{}",
-                                    db.getId(), olapTbl.getId(), partition.getId());
-                            removePrios(new RepairTabletInfo(db.getId(),
-                                    olapTbl.getId(), Lists.newArrayList(partition.getId())));
-                        }
-                    } // partitions
-                } // tables
+                limitExceeded = fullCheck ? checkAllTablesOfDb(db, start, counter)
+                        : checkDirtyPartitionsOfDb(db, dirtyPartitions.get(dbId), start, counter);
             } finally {
                 db.readUnlock();
+                long lockHoldMs = System.currentTimeMillis() - lockStart;
+                stat.counterTabletCheckLockHoldMs.addAndGet(lockHoldMs);
+                maxLockHoldMs = Math.max(maxLockHoldMs, lockHoldMs);
+            }
+            if (limitExceeded) {
+                LOG.info("number of scheduling tablets in tablet scheduler exceed to limit. stop tablet checker");
+                // the rest of tablets are not checked, check all of them in next round
+                dirtyTracker.requestFullCheck();
+                break;
             }
         } // end for dbs
+        lastRoundStartTime = start;
+        prevUnhealthyTabletIds = Collections.emptySet();
 
         long cost = System.currentTimeMillis() - start;
 
         stat.counterTabletCheckCostMs.addAndGet(cost);
-        stat.counterTabletChecked.addAndGet(totalTabletNum);
-        stat.counterUnhealthyTabletNum.addAndGet(unhealthyTabletNum);
-        stat.counterTabletAddToBeScheduled.addAndGet(addToSchedulerTabletNum);
+        stat.counterTabletChecked.addAndGet(counter.totalTabletNum);
+        stat.counterUnhealthyTabletNum.addAndGet(counter.unhealthyTabletNum);
+        stat.counterTabletAddToBeScheduled.addAndGet(counter.addToSchedulerTabletNum);
+
+        LOG.info("finished to {} check tablets. unhealth/total/added/in_sched/not_ready: {}/{}/{}/{}/{}, cost: {} ms,"
+                        + " max db lock hold: {} ms", fullCheck ? "full" : "incremental",
+                counter.unhealthyTabletNum, counter.totalTabletNum, counter.addToSchedulerTabletNum,
+                counter.tabletInScheduler, counter.tabletNotReady, cost, maxLockHoldMs);
+    }
+
+    private static class CheckCounter {
+        long totalTabletNum = 0;
+        long unhealthyTabletNum = 0;
+        long addToSchedulerTabletNum = 0;
+        long tabletInScheduler = 0;
+        long tabletNotReady = 0;
+    }
 
-        LOG.info("finished to check tablets. unhealth/total/added/in_sched/not_ready: {}/{}/{}/{}/{}, cost: {} ms",
-                unhealthyTabletNum, totalTabletNum, addToSchedulerTabletNum, tabletInScheduler, tabletNotReady, cost);
+    /**
+     * @return true if the number of tablets in tablet scheduler exceeds the limit
+     */
+    private boolean checkAllTablesOfDb(Database db, long start, CheckCounter counter) {
+        List<Long> aliveBeIdsInCluster = infoService.getClusterBackendIds(db.getClusterName(), true);
+        for (Table table : catalog.getTablesIncludeRecycleBin(db)) {
+            if (!table.needSchedule(false)) {
+                continue;
+            }
+
+            OlapTable olapTbl = (OlapTable) table;
+            for (Partition partition : catalog.getAllPartitionsIncludeRecycleBin(olapTbl)) {
+                if (checkPartition(db, olapTbl, partition, aliveBeIdsInCluster, start, counter)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean checkDirtyPartitionsOfDb(Database db, Map<Long, Set<Long>> tblToPartIds, long start,
+                                             CheckCounter counter) {
+        List<Long> aliveBeIdsInCluster = infoService.getClusterBackendIds(db.getClusterName(), true);
+        for (Map.Entry<Long, Set<Long>> entry : tblToPartIds.entrySet()) {
+            Table table = catalog.getTableIncludeRecycleBin(db, entry.getKey());
+            if (table == null || !table.needSchedule(false)) {
+                continue;
+            }
+
+            OlapTable olapTbl = (OlapTable) table;
+            for (long partId : entry.getValue()) {
+                Partition partition = catalog.getPartitionIncludeRecycleBin(olapTbl, partId);
+                if (partition == null) {
+                    continue;
+                }
+                if (checkPartition(db, olapTbl, partition, aliveBeIdsInCluster, start, counter)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean checkPartition(Database db, OlapTable olapTbl, Partition partition,
+                                   List<Long> aliveBeIdsInCluster, long start, CheckCounter counter) {
+        if (partition.getState() != PartitionState.NORMAL) {
+            // when alter job is in FINISHING state, partition state will be set to NORMAL,
+            // and we can schedule the tablets in it.
+            dirtyTracker.markPartitionDirty(db.getId(), olapTbl.getId(), partition.getId());
+            return false;
+        }
+        short replicaNum = catalog.getReplicationNumIncludeRecycleBin(olapTbl.getPartitionInfo(),
+                partition.getId());
+        if (replicaNum == (short) -1) {
+            return false;
+        }
+        boolean isInPrios = isInPrios(db.getId(), olapTbl.getId(), partition.getId());
+        boolean prioPartIsHealthy = true;
+        boolean hasNotReadyTablet = false;
+        /*
+         * Tablet in SHADOW index can not be repaired of balanced
+         */
+        for (MaterializedIndex idx : partition.getMaterializedIndices(IndexExtState.VISIBLE)) {
+            for (Tablet tablet : idx.getTablets()) {
+                counter.totalTabletNum++;
+
+                if (tabletScheduler.containsTablet(tablet.getId())) {
+                    counter.tabletInScheduler++;
+                    unhealthyTabletIds.add(tablet.getId());
+                    continue;
+                }
+
+                Pair<TabletStatus, TabletSchedCtx.Priority> statusWithPrio =
+                        tablet.getHealthStatusWithPriority(
+                                infoService,
+                                db.getClusterName(),
+                                partition.getVisibleVersion(),
+                                partition.getVisibleVersionHash(),
+                                replicaNum,
+                                aliveBeIdsInCluster);
+
+                if (statusWithPrio.first == TabletStatus.HEALTHY) {
+                    // Only set last status check time when status is healthy.
+                    tablet.setLastStatusCheckTime(start);
+                    unhealthyTabletIds.remove(tablet.getId());
+                    continue;
+                } else if (isInPrios) {
+                    statusWithPrio.second = TabletSchedCtx.Priority.VERY_HIGH;
+                    prioPartIsHealthy = false;
+                }
+
+                counter.unhealthyTabletNum++;
+
+                // A tablet which is not checked in last round was healthy then, otherwise its partition would
+                // be dirty. Delay its repairing from last round like checking all tablets in each round.
+                if (unhealthyTabletIds.add(tablet.getId()) && !prevUnhealthyTabletIds.contains(tablet.getId())
+                        && lastRoundStartTime > 0
+                        && tablet.getLastStatusCheckTime() != -1
+                        && tablet.getLastStatusCheckTime() < lastRoundStartTime) {
+                    tablet.setLastStatusCheckTime(lastRoundStartTime);
+                }
+
+                if (!tablet.readyToBeRepaired(statusWithPrio.second)) {
+                    counter.tabletNotReady++;
+                    hasNotReadyTablet = true;
+                    continue;
+                }
+
+                TabletSchedCtx tabletCtx = new TabletSchedCtx(
+                        TabletSchedCtx.Type.REPAIR,
+                        db.getClusterName(),
+                        db.getId(), olapTbl.getId(),
+                        partition.getId(), idx.getId(), tablet.getId(),
+                        System.currentTimeMillis());
+                // the tablet status will be set again when being scheduled
+                tabletCtx.setTabletStatus(statusWithPrio.first);
+                tabletCtx.setOrigPriority(statusWithPrio.second);
+
+                AddResult res = tabletScheduler.addTablet(tabletCtx, false /* not force */);
+                if (res == AddResult.LIMIT_EXCEED) {
+                    return true;
+                } else if (res == AddResult.ADDED) {
+                    counter.addToSchedulerTabletNum++;
+                }
+            }
+        } // indices
+
+        if (hasNotReadyTablet) {
+            // check again in next round until the tablets are ready to be repaired
+            dirtyTracker.markPartitionDirty(db.getId(), olapTbl.getId(), partition.getId());
+        }
+
+        if (prioPartIsHealthy && isInPrios) {
+            // if all replicas in this partition are healthy, remove this partition from
+            // priorities.
+            LOG.debug("partition is healthy, remove from prios: {}-{}-{}",
+                    db.getId(), olapTbl.getId(), partition.getId());
+            removePrios(new RepairTabletInfo(db.getId(),
+                    olapTbl.getId(), Lists.newArrayList(partition.getId())));
+        }
+        return false;
     }
 
     private boolean isInPrios(long dbId, long tblId, long partId) {
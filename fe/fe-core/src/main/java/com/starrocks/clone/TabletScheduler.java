@@ -1205,6 +1205,9 @@ public class TabletScheduler extends MasterDaemon {
         runningTablets.remove(tabletCtx.getTabletId());
         allTabletIds.remove(tabletCtx.getTabletId());
         schedHistory.add(tabletCtx);
+        // check the tablet again whether it is repaired or not
+        DirtyPartitionTracker.getInstance().markPartitionDirty(tabletCtx.getDbId(), tabletCtx.getTblId(),
+                tabletCtx.getPartitionId());
         LOG.info("remove the tablet {}. because: {}", tabletCtx.getTabletId(), reason);
     }
 
@@ -58,6 +58,10 @@ public class TabletSchedulerStat {
     public AtomicLong counterUnhealthyTabletNum = new AtomicLong(0L);
     @StatField("num of tablet being added to tablet scheduler")
     public AtomicLong counterTabletAddToBeScheduled = new AtomicLong(0L);
+    @StatField("num of tablet check round checking all tablets")
+    public AtomicLong counterTabletFullCheckRound = new AtomicLong(0L);
+    @StatField("time of holding db lock in tablet check(ms)")
+    public AtomicLong counterTabletCheckLockHoldMs = new AtomicLong(0L);
 
     /*
      * TabletScheduler related
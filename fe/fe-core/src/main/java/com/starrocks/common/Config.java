@@ -120,6 +120,26 @@ public class Config extends ConfigBase {
     @ConfField
     public static String audit_log_roll_mode = "TIME-DAY";
 
+    /**
+     * max num of audit events waiting in the queue of each audit plugin.
+     * Events are dropped and counted in the audit_event_dropped metric when the queue is full,
+     * so that a slow plugin never blocks the query threads.
+     */
+    @ConfField
+    public static int audit_event_queue_size = 10000;
+
+    /**
+     * max num of audit events delivered to an audit plugin in one batch.
+     */
+    @ConfField(mutable = true)
+    public static int audit_event_batch_size = 1000;
+
+    /**
+     * max time in milliseconds an audit event waits for its batch to fill before being delivered.
+     */
+    @ConfField(mutable = true)
+    public static long audit_event_batch_interval_ms = 100;
+
     /**
      * dump_log_dir:
      * This specifies FE dump log dir.
@@ -305,6 +325,25 @@ public class Config extends ConfigBase {
     @ConfField(masterOnly = true)
     public static int max_agent_task_threads_num = 4096;
 
+    /**
+     * max num of agent tasks waiting in the queue of each backend to be sent.
+     * Dispatching to a backend whose queue is full waits until the queue has room.
+     */
+    @ConfField(masterOnly = true)
+    public static int agent_task_queue_size_per_backend = 100000;
+
+    /**
+     * max num of submit_tasks rpcs in flight to a single backend.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static int agent_task_max_inflight_rpcs_per_backend = 2;
+
+    /**
+     * max num of queued agent tasks coalesced into a single submit_tasks rpc.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static int agent_task_max_batch_size = 1000;
+
     /**
      * num of thread to handle hive meta load concurrency.
      */
@@ -796,6 +835,20 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = true)
     public static int backup_job_default_timeout_ms = 86400 * 1000; // 1 day
 
+    /**
+     * Number of concurrent streams to download a file larger than 1MB from the repository of backup.
+     * Each stream reads a range of the file with its own broker reader. Set to 1 to download by a single stream.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static int backup_transfer_stream_num = 4;
+
+    /**
+     * Max bandwidth in bytes per second of all the uploads and downloads of backup and restore on frontend.
+     * 0 means no limit.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long backup_transfer_max_bytes_per_second = 0;
+
     /**
      * 'storage_high_watermark_usage_percent' limit the max capacity usage percent of a Backend storage path.
      * 'storage_min_left_capacity_bytes' limit the minimum left capacity of a Backend storage path.
@@ -897,6 +950,26 @@ public class Config extends ConfigBase {
     @ConfField
     public static long es_state_sync_interval_second = 10;
 
+    /**
+     * the number of es tables whose meta data are synced concurrently
+     */
+    @ConfField
+    public static int es_state_sync_parallelism = 4;
+
+    /**
+     * es shards which have more docs than es_scan_max_docs_per_slice are split into several sliced scroll
+     * scan ranges, so that the scan parallelism is not limited by the shard count.
+     * only works for http transport, set to 0 to disable it
+     */
+    @ConfField(mutable = true)
+    public static long es_scan_max_docs_per_slice = 10000000;
+
+    /**
+     * the max number of sliced scroll scan ranges per es shard
+     */
+    @ConfField(mutable = true)
+    public static int es_scan_max_slices_per_shard = 16;
+
     /**
      * the factor of delay time before deciding to repair tablet.
      * if priority is VERY_HIGH, repair it immediately.
@@ -948,6 +1021,14 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = true)
     public static int max_scheduling_tablets = 2000;
 
+    /**
+     * TabletChecker only checks the partitions whose tablets may have changed since last round,
+     * and checks all tablets once in this interval as a safety net.
+     * If set to 0, all tablets are checked in every round.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long tablet_checker_full_check_interval_second = 300;
+
     // if the number of balancing tablets in TabletScheduler exceed max_balancing_tablets,
     // no more balance check
     @ConfField(mutable = true, masterOnly = true)
@@ -1014,6 +1095,30 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = true)
     public static long routine_load_task_timeout_second = 15;
 
+    /**
+     * interval to poll the latest offsets of the kafka partitions of running routine load jobs,
+     * the lag of partitions is used to divide and order the tasks. 0 means not to poll.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long routine_load_lag_poll_interval_second = 10;
+
+    /**
+     * if set to true, the consume time and batch size of a routine load task are adapted to the lag of
+     * its partitions and the throughput of the job, instead of always being
+     * routine_load_task_consume_second and max_routine_load_batch_size.
+     * a job which has caught up commits down to every second then, which means more transactions and
+     * versions to compact, so it is disabled by default.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_routine_load_adaptive_task = false;
+
+    /**
+     * a routine load task falling behind consumes at most max_routine_load_batch_size multiplied by
+     * this factor.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static int routine_load_max_batch_size_scale = 4;
+
     /**
      * The max number of files store in SmallFileMgr
      */
@@ -1072,6 +1177,39 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = true)
     public static boolean force_do_metadata_checkpoint = false;
 
+    /**
+     * If set to true, the checkpoint thread asks an alive observer, or a follower if no observer is available,
+     * to save the image of its serving catalog at its replayed journal id, and downloads the image from it,
+     * instead of loading the last image and replaying the journals into a second catalog in the master.
+     * So neither the master nor the follower needs the double heap of metadata for checkpoint. Falls back to
+     * the checkpoint in the master if no frontend is available or the snapshot fails.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_checkpoint_on_follower = false;
+
+    /**
+     * The replay of a frontend is paused while it saves the image for the checkpoint of master, see
+     * enable_checkpoint_on_follower. The saving is aborted once more journals than this are waiting for replay,
+     * and the master falls back to the checkpoint on itself.
+     */
+    @ConfField(mutable = true)
+    public static long checkpoint_on_follower_max_replay_lag = 10000;
+
+    /**
+     * The image is transferred between frontends in blocks of this size. Each block is verified by its checksum
+     * and retried on failure, so a failed transfer of a large image resumes from the failed block instead of
+     * from the beginning. The http timeout of image transfer applies to each block. Max is 64.
+     */
+    @ConfField(mutable = true)
+    public static int image_transfer_block_size_mb = 16;
+
+    /**
+     * If set to true, the blocks of image are compressed when being transferred between frontends, which saves
+     * the bandwidth of slow links like the cross-AZ ones, at the cost of cpu and the zero-copy file transfer.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_image_transfer_compression = false;
+
     /**
      * The multi cluster feature will be deprecated in version 0.12
      * set this config to true will disable all operations related to cluster feature, include:
@@ -1214,12 +1352,153 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static long max_planner_scalar_rewrite_num = 100000;
 
+    /**
+     * the max number of memoized builtin function lookup results, keyed by function name and argument types
+     */
+    @ConfField
+    public static long function_lookup_cache_size = 100000;
+
     @ConfField(mutable = true)
     public static boolean enable_decimal_v3 = true;
 
+    /**
+     * Reject the queries matching a rule added by ADD SQLBLACKLIST, either a regular expression or a sql digest.
+     * The rules are kept in the memory of the frontend which receives the statement, they are neither
+     * persisted nor synchronized to other frontends, and are lost after a restart.
+     */
     @ConfField(mutable = true)
     public static boolean enable_sql_blacklist = false;
 
+    /**
+     * Compute the digest of each query, which is written to the audit log and used to collect
+     * the runtime statistics of each kind of query. The sql text is scanned again to compute the digest.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_sql_digest = false;
+
+    /**
+     * Max num of digests whose runtime statistics are kept in memory.
+     */
+    @ConfField
+    public static long sql_digest_statistics_capacity = 1000;
+
+    /**
+     * Whether to queue the queries exceeding the concurrency or memory limits of the query queue,
+     * instead of sending them to the backends at once.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_query_queue = false;
+
+    /**
+     * Max num of running queries of the resource groups low, normal and high. 0 means unlimited.
+     */
+    @ConfField(mutable = true)
+    public static int[] query_queue_concurrency_limits = {0, 0, 0};
+
+    /**
+     * Max estimated memory bytes of the running queries of the resource groups low, normal and high.
+     * 0 means unlimited. The memory of a query is estimated by the statistics of its plan,
+     * and a query is always admitted if no other query of the group is running.
+     */
+    @ConfField(mutable = true)
+    public static long[] query_queue_mem_limits = {0, 0, 0};
+
+    /**
+     * Max num of running queries of all resource groups. 0 means unlimited.
+     * The queued queries of a higher priority group are admitted first when the limit is reached.
+     */
+    @ConfField(mutable = true)
+    public static int query_queue_total_concurrency_limit = 0;
+
+    /**
+     * Max estimated memory bytes of the running queries of all resource groups. 0 means unlimited.
+     */
+    @ConfField(mutable = true)
+    public static long query_queue_total_mem_limit = 0;
+
+    /**
+     * Queries waiting in the query queue longer than this are failed.
+     */
+    @ConfField(mutable = true)
+    public static int query_queue_timeout_second = 300;
+
+    /**
+     * Max num of queries waiting in the query queue, more queries are rejected at once.
+     */
+    @ConfField(mutable = true)
+    public static int query_queue_max_queued_queries = 1024;
+
+    /**
+     * Rules to classify queries into the resource groups low, normal and high, in the form of
+     * "digest:<sql digest>=<group>", "user:<user name>=<group>" or "role:<role name>=<group>".
+     * Digest rules take precedence over user rules, which take precedence over role rules.
+     * Digest rules only work if enable_sql_digest is true.
+     * Queries matching no rule are classified by the session variable resource_group.
+     */
+    @ConfField(mutable = true)
+    public static String[] query_queue_classifiers = {};
+
+    /**
+     * Cache the optimized plans of queries planned by the new planner, so a repeated query with the same text,
+     * database, user and session variables skips the analysis and optimization.
+     * A cached plan is replanned if the tables or views it reads are changed by DDL.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_query_plan_cache = false;
+
+    /**
+     * Max num of plans in the query plan cache.
+     */
+    @ConfField
+    public static long query_plan_cache_max_size = 1000;
+
+    /**
+     * A cached plan expires after this time, so it is replanned with the latest statistics.
+     */
+    @ConfField
+    public static long query_plan_cache_expire_sec = 300;
+
+    /**
+     * The weights of the cpu, memory and network costs in the cost of a physical operator.
+     * They could be calibrated for the hardware of a cluster with the estimated and actual rows and time
+     * of operators in show proc "/cost_calibration".
+     */
+    @ConfField(mutable = true)
+    public static double cost_model_cpu_weight = 0.5;
+
+    @ConfField(mutable = true)
+    public static double cost_model_memory_weight = 2;
+
+    @ConfField(mutable = true)
+    public static double cost_model_network_weight = 1.5;
+
+    /**
+     * Max num of operators whose estimated and actual rows and time are kept for cost calibration.
+     * The operators are collected from the profiles of queries planned by the new planner,
+     * set 0 to disable the collection.
+     */
+    @ConfField(mutable = true)
+    public static int cost_calibration_max_samples = 10000;
+
+    /**
+     * Record the actual rows of the olap scans and inner joins of the queries with a profile, and use them
+     * instead of the estimated rows when the same scans and joins are planned again.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_cardinality_feedback = false;
+
+    /**
+     * Max num of scans and joins whose actual rows are recorded for cardinality feedback.
+     */
+    @ConfField
+    public static long cardinality_feedback_max_size = 100000;
+
+    /**
+     * The recorded actual rows of a scan or join expire after this time, since the data is changed by loads.
+     */
+    @ConfField
+    public static long cardinality_feedback_expire_sec = 24 * 60 * 60;
+
     /**
      * a period of create statistics table automatically by the StatisticsMetaManager
      */
@@ -1248,6 +1527,26 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = true)
     public static long statistic_sample_collect_rows = 200000;
 
+    /**
+     * If true, the sample rows of a sample collect job without specified rows grow with the size of the table
+     * and the instability of its collected ndv, from statistic_sample_collect_rows up to
+     * statistic_sample_collect_max_rows. Otherwise statistic_sample_collect_rows are always sampled.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_statistic_adaptive_sample_rows = false;
+
+    /**
+     * The max row number of sample collect if enable_statistic_adaptive_sample_rows is true
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long statistic_sample_collect_max_rows = 10000000;
+
+    /**
+     * The number of tables collected at the same time by the statistic collect thread
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static int statistic_collect_concurrency = 3;
+
     /**
      * statistic collect flag
      */
@@ -1292,5 +1591,17 @@ public class Config extends ConfigBase {
 
     @ConfField
     public static boolean enable_udf = false;
-}
 
+    /**
+     * How often to check whether the asynchronous materialized views need to be refreshed
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long async_mv_refresh_check_interval_s = 30;
+
+    /**
+     * The default refresh interval of asynchronous materialized views,
+     * which can be overridden by the "refresh_interval" property of each view.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long async_mv_default_refresh_interval_s = 300;
+}
@@ -0,0 +1,25 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.common.proc;
+
+import com.google.common.collect.ImmutableList;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.sql.optimizer.cost.CostCalibrationCollector;
+
+/*
+ * show proc "/cost_calibration"
+ * show the estimated and actual rows, bytes and time of the plan nodes of the latest queries with a profile
+ */
+public class CostCalibrationProcNode implements ProcNodeInterface {
+    public static final ImmutableList<String> TITLE_NAMES = new ImmutableList.Builder<String>()
+            .add("QueryId").add("NodeId").add("NodeName").add("EstimatedRows").add("ActualRows")
+            .add("EstimatedBytes").add("ActualBytes").add("LocalTimeNs").add("RowsError").build();
+
+    @Override
+    public ProcResult fetchResult() throws AnalysisException {
+        BaseProcResult result = new BaseProcResult();
+        result.setNames(TITLE_NAMES);
+        result.setRows(CostCalibrationCollector.getInstance().getSamples());
+        return result;
+    }
+}
@@ -53,6 +53,8 @@ public final class ProcService {
         root.register("cluster_balance", new ClusterBalanceProcDir());
         root.register("routine_loads", new RoutineLoadsProcDir());
         root.register("colocation_group", new ColocationGroupProcDir());
+        root.register("query_queue", new QueryQueueProcNode());
+        root.register("cost_calibration", new CostCalibrationProcNode());
     }
 
     // Get the corresponding PROC Node by the specified path
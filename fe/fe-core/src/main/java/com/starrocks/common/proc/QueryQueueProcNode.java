@@ -0,0 +1,25 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.common.proc;
+
+import com.google.common.collect.ImmutableList;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.qe.QueryQueueManager;
+
+/*
+ * show proc "/query_queue"
+ * show the running and waiting queries of each resource group in the query queue of this frontend
+ */
+public class QueryQueueProcNode implements ProcNodeInterface {
+    public static final ImmutableList<String> TITLE_NAMES = new ImmutableList.Builder<String>()
+            .add("Group").add("RunningQueries").add("RunningMemBytes").add("WaitingQueries")
+            .add("ConcurrencyLimit").add("MemLimit").build();
+
+    @Override
+    public ProcResult fetchResult() throws AnalysisException {
+        BaseProcResult result = new BaseProcResult();
+        result.setNames(TITLE_NAMES);
+        result.setRows(QueryQueueManager.getInstance().getGroupInfos());
+        return result;
+    }
+}
@@ -29,18 +29,26 @@ import java.util.List;
 /**
  * It is responsible for this class to schedule all network request sent to remote ES Cluster
  * Request sequence
+ * 0. GET _cluster/state/version
  * 1. GET /
  * 2. GET {index}/_mapping
  * 3. GET {index}/_search_shards
  * <p>
  * note: step 1 is not necessary
+ * if the cluster state version is the same as the last successful sync, step 1-3 are skipped
+ * because mapping and shard routing can not change without bumping the cluster state version,
+ * only the doc counts of the shards are refreshed by GET _cat/shards/{index}
  */
 public class EsMetaStateTracker {
 
     private List<SearchPhase> builtinSearchPhase = new LinkedList<>();
     private SearchContext searchContext;
+    private EsRestClient client;
+    // cluster state version of the last successful sync, -1 means unknown
+    private long lastSyncedStateVersion = -1;
 
     public EsMetaStateTracker(EsRestClient client, EsTable esTable) {
+        this.client = client;
         builtinSearchPhase.add(new VersionPhase(client));
         builtinSearchPhase.add(new MappingPhase(client));
         builtinSearchPhase.add(new PartitionPhase(client));
@@ -51,11 +59,24 @@ public class EsMetaStateTracker {
         return searchContext;
     }
 
-    public void run() throws StarRocksESException {
+    /**
+     * @return false if the mapping and shard routing are unchanged since the last successful run,
+     * only the shard doc counts of the current partitions are refreshed then
+     */
+    public boolean run() throws StarRocksESException {
+        long stateVersion = client.clusterStateVersion();
+        if (stateVersion >= 0 && stateVersion == lastSyncedStateVersion && searchContext.partitions() != null) {
+            PartitionPhase.refreshShardDocCounts(client, searchContext, searchContext.partitions());
+            return false;
+        }
+        // reset it first, so a failed run always leads to a full sync next time
+        lastSyncedStateVersion = -1;
         for (SearchPhase searchPhase : builtinSearchPhase) {
             searchPhase.preProcess(searchContext);
             searchPhase.execute(searchContext);
             searchPhase.postProcess(searchContext);
         }
+        lastSyncedStateVersion = stateVersion;
+        return true;
     }
 }
@@ -21,6 +21,7 @@
 
 package com.starrocks.external.elasticsearch;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.Database;
@@ -28,12 +29,16 @@ import com.starrocks.catalog.EsTable;
 import com.starrocks.catalog.Table;
 import com.starrocks.catalog.Table.TableType;
 import com.starrocks.common.Config;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.util.MasterDaemon;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * It is responsible for loading all ES external table's meta-data such as `fields`, `partitions` periodically,
@@ -47,6 +52,9 @@ public class EsRepository extends MasterDaemon {
 
     private Map<Long, EsRestClient> esClients;
 
+    // tables are synced concurrently, one slow es cluster should not delay the others
+    private ExecutorService syncExecutor;
+
     public EsRepository() {
         super("es repository", Config.es_state_sync_interval_second * 1000);
         esTables = Maps.newConcurrentMap();
@@ -71,18 +79,43 @@ public class EsRepository extends MasterDaemon {
 
     @Override
     protected void runAfterCatalogReady() {
+        if (syncExecutor == null) {
+            syncExecutor = ThreadPoolManager.newDaemonFixedThreadPool(Math.max(1, Config.es_state_sync_parallelism),
+                    Integer.MAX_VALUE, "es-state-sync", true);
+        }
+        List<Future<?>> futures = Lists.newArrayList();
         for (EsTable esTable : esTables.values()) {
+            EsRestClient client = esClients.get(esTable.getId());
+            if (client == null) {
+                // deregistered concurrently
+                continue;
+            }
+            futures.add(syncExecutor.submit(() -> syncTableMetaData(esTable, client)));
+        }
+        // wait for all tables, so that one round never overlaps with the next one
+        for (Future<?> future : futures) {
             try {
-                esTable.syncTableMetaData(esClients.get(esTable.getId()));
-            } catch (Throwable e) {
-                LOG.warn("Exception happens when fetch index [{}] meta data from remote es cluster", esTable.getName(),
-                        e);
-                esTable.setEsTablePartitions(null);
-                esTable.setLastMetaDataSyncException(e);
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                LOG.warn("sync es table meta data failed", e);
             }
         }
     }
 
+    private void syncTableMetaData(EsTable esTable, EsRestClient client) {
+        try {
+            esTable.syncTableMetaData(client);
+        } catch (Throwable e) {
+            LOG.warn("Exception happens when fetch index [{}] meta data from remote es cluster", esTable.getName(),
+                    e);
+            esTable.setEsTablePartitions(null);
+            esTable.setLastMetaDataSyncException(e);
+        }
+    }
+
     // should call this method to init the state store after loading image
     // the rest of tables will be added or removed by replaying edit log
     // when fe is start to load image, should call this method to init the state store
@@ -144,6 +144,42 @@ public class EsRestClient {
         return EsShardPartitions.findShardPartitions(indexName, searchShards);
     }
 
+    /**
+     * Get the version of the remote cluster state. Every mapping, settings or shard routing change
+     * bumps this version, so it is used to skip re-fetching metadata for unchanged indices
+     *
+     * @return the cluster state version, or -1 if it can not be retrieved
+     */
+    public long clusterStateVersion() {
+        try {
+            Map<String, Object> result = get("_cluster/state/version", null);
+            Object version = result.get("version");
+            if (version instanceof Number) {
+                return ((Number) version).longValue();
+            }
+        } catch (Throwable e) {
+            // the user may not have the `monitor` cluster privilege, fall back to a full sync
+            LOG.debug("fetch es cluster state version failure", e);
+        }
+        return -1;
+    }
+
+    /**
+     * Get the doc count of every primary shard of the index
+     *
+     * @param indexName
+     * @return `index/shard` -> doc count
+     * @throws StarRocksESException
+     */
+    public Map<String, Long> getShardDocCounts(String indexName) throws StarRocksESException {
+        String path = "_cat/shards/" + indexName + "?format=json&h=index,shard,prirep,state,docs";
+        String catShards = execute(path);
+        if (catShards == null) {
+            throw new StarRocksESException("request index [" + indexName + "] cat shards failure");
+        }
+        return EsShardPartitions.parseShardDocCounts(catShards);
+    }
+
     /**
      * execute request for specific path, it will try again nodes.length times if it fails
      *
@@ -45,6 +45,9 @@ public class EsShardPartitions {
     private SingleRangePartitionDesc partitionDesc;
     private PartitionKey partitionKey;
     private long partitionId = -1;
+    // `index/shard` -> doc count of the primary shard, used to split big shards into scroll slices
+    // replaced as a whole when refreshed, the scan nodes may read it concurrently
+    private volatile Map<String, Long> shardDocCounts = Maps.newHashMap();
 
     public EsShardPartitions(String indexName) {
         this.indexName = indexName;
@@ -97,6 +100,38 @@ public class EsShardPartitions {
         return partitions;
     }
 
+    /**
+     * Parse primary shard doc counts from the json
+     *
+     * @param catShards the return value of _cat/shards in json format
+     * @return `index/shard` -> doc count
+     */
+    public static Map<String, Long> parseShardDocCounts(String catShards) {
+        Map<String, Long> docCounts = Maps.newHashMap();
+        JSONArray shards = new JSONArray(catShards);
+        for (int i = 0; i < shards.length(); i++) {
+            JSONObject shard = shards.getJSONObject(i);
+            if (!"p".equals(shard.optString("prirep")) || !"STARTED".equalsIgnoreCase(shard.optString("state"))) {
+                continue;
+            }
+            String docs = shard.optString("docs");
+            if (docs == null || docs.isEmpty()) {
+                continue;
+            }
+            try {
+                docCounts.put(shardKey(shard.getString("index"), Integer.parseInt(shard.getString("shard"))),
+                        Long.parseLong(docs));
+            } catch (NumberFormatException e) {
+                LOG.warn("invalid shard doc count [{}]", shard);
+            }
+        }
+        return docCounts;
+    }
+
+    private static String shardKey(String indexName, int shardId) {
+        return indexName + "/" + shardId;
+    }
+
     public void addHttpAddress(Map<String, EsNodeInfo> nodesInfo) {
         for (Map.Entry<Integer, List<EsShardRouting>> entry : shardRoutings.entrySet()) {
             List<EsShardRouting> shardRoutings = entry.getValue();
@@ -122,6 +157,18 @@ public class EsShardPartitions {
         shardRoutings.put(shardId, singleShardRouting);
     }
 
+    public void setShardDocCounts(Map<String, Long> shardDocCounts) {
+        this.shardDocCounts = shardDocCounts;
+    }
+
+    /**
+     * @return doc count of the primary shard, -1 if unknown
+     */
+    public long getShardDocCount(String indexName, int shardId) {
+        Long docCount = shardDocCounts.get(shardKey(indexName, shardId));
+        return docCount == null ? -1 : docCount;
+    }
+
     public String getIndexName() {
         return indexName;
     }
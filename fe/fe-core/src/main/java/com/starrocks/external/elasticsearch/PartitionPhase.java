@@ -22,6 +22,9 @@
 package com.starrocks.external.elasticsearch;
 
 import com.starrocks.catalog.EsTable;
+import com.starrocks.common.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.util.Map;
 
@@ -30,6 +33,8 @@ import java.util.Map;
  */
 public class PartitionPhase implements SearchPhase {
 
+    private static final Logger LOG = LogManager.getLogger(PartitionPhase.class);
+
     private EsRestClient client;
     private EsShardPartitions shardPartitions;
     private Map<String, EsNodeInfo> nodesInfo;
@@ -42,6 +47,22 @@ public class PartitionPhase implements SearchPhase {
     public void execute(SearchContext context) throws StarRocksESException {
         shardPartitions = client.searchShards(context.sourceIndex());
         nodesInfo = client.getHttpNodes();
+        refreshShardDocCounts(client, context, shardPartitions);
+    }
+
+    /**
+     * Doc counts change with indexing and deletes without bumping the cluster state version,
+     * so they are refreshed even if the shard routing is not re-fetched.
+     */
+    static void refreshShardDocCounts(EsRestClient client, SearchContext context, EsShardPartitions shardPartitions) {
+        // doc counts are only a hint for splitting big shards into slices, do not fail the sync for them
+        if (Config.es_scan_max_docs_per_slice > 0 && EsTable.TRANSPORT_HTTP.equals(context.esTable().getTransport())) {
+            try {
+                shardPartitions.setShardDocCounts(client.getShardDocCounts(context.sourceIndex()));
+            } catch (Throwable e) {
+                LOG.warn("fetch index [{}] shard doc counts failure", context.sourceIndex(), e);
+            }
+        }
     }
 
     @Override
@@ -139,6 +139,12 @@ public abstract class BaseAction implements IAction {
     // Object only support File or byte[]
     protected void writeObjectResponse(BaseRequest request, BaseResponse response, HttpResponseStatus status,
                                        Object obj, String fileName, boolean isOctStream) {
+        writeObjectResponse(request, response, status, obj, fileName, isOctStream, 0, -1);
+    }
+
+    // Only the range [offset, offset + length) of File is written, length -1 means to the end of file.
+    protected void writeObjectResponse(BaseRequest request, BaseResponse response, HttpResponseStatus status,
+                                       Object obj, String fileName, boolean isOctStream, long offset, long length) {
         Preconditions.checkState((obj instanceof File) || (obj instanceof byte[]));
 
         HttpResponse responseObj = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status);
@@ -164,13 +170,13 @@ public abstract class BaseAction implements IAction {
             boolean sslEnable = request.getContext().pipeline().get(SslHandler.class) != null;
             if (obj instanceof File) {
                 RandomAccessFile rafFile = new RandomAccessFile((File) obj, "r");
-                contentLen = rafFile.length();
+                contentLen = length < 0 ? rafFile.length() - offset : length;
                 if (!sslEnable) {
                     // use zero-copy file transfer.
-                    writable = new DefaultFileRegion(rafFile.getChannel(), 0, contentLen);
+                    writable = new DefaultFileRegion(rafFile.getChannel(), offset, contentLen);
                 } else {
                     // cannot use zero-copy file transfer.
-                    writable = new ChunkedFile(rafFile, 0, contentLen, 8192);
+                    writable = new ChunkedFile(rafFile, offset, contentLen, 8192);
                 }
             } else if (obj instanceof byte[]) {
                 contentLen = ((byte[]) obj).length;
@@ -42,6 +42,7 @@ import com.starrocks.http.meta.MetaService.InfoAction;
 import com.starrocks.http.meta.MetaService.JournalIdAction;
 import com.starrocks.http.meta.MetaService.PutAction;
 import com.starrocks.http.meta.MetaService.RoleAction;
+import com.starrocks.http.meta.MetaService.SnapshotAction;
 import com.starrocks.http.meta.MetaService.VersionAction;
 import com.starrocks.http.rest.BootstrapFinishAction;
 import com.starrocks.http.rest.CancelStreamLoad;
@@ -59,6 +60,7 @@ import com.starrocks.http.rest.MetricsAction;
 import com.starrocks.http.rest.MigrationAction;
 import com.starrocks.http.rest.ProfileAction;
 import com.starrocks.http.rest.QueryDetailAction;
+import com.starrocks.http.rest.QueryDigestAction;
 import com.starrocks.http.rest.QueryDumpAction;
 import com.starrocks.http.rest.RowCountAction;
 import com.starrocks.http.rest.SetConfigAction;
@@ -152,6 +154,7 @@ public class HttpServer {
         ColocateMetaService.MarkGroupStableAction.registerAction(controller);
         ProfileAction.registerAction(controller);
         QueryDetailAction.registerAction(controller);
+        QueryDigestAction.registerAction(controller);
         ConnectionAction.registerAction(controller);
         ShowDataAction.registerAction(controller);
         QueryDumpAction.registerAction(controller);
@@ -163,6 +166,7 @@ public class HttpServer {
         VersionAction.registerAction(controller, imageDir);
         PutAction.registerAction(controller, imageDir);
         JournalIdAction.registerAction(controller, imageDir);
+        SnapshotAction.registerAction(controller, imageDir);
         CheckAction.registerAction(controller, imageDir);
         DumpAction.registerAction(controller, imageDir);
         RoleAction.registerAction(controller, imageDir);
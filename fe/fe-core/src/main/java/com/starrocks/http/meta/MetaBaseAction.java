@@ -33,6 +33,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
+import java.io.IOException;
 
 public class MetaBaseAction extends WebBaseAction {
     private static final Logger LOG = LogManager.getLogger(MetaBaseAction.class);
@@ -91,6 +92,47 @@ public class MetaBaseAction extends WebBaseAction {
         return;
     }
 
+    /*
+     * Write the block [offset, offset + length) of the file with the checksum of the uncompressed block.
+     * The uncompressed block is sent by zero-copy file transfer, while the compressed one is sent from memory.
+     */
+    protected void writeFileBlockResponse(BaseRequest request, BaseResponse response, File file, long offset,
+                                          long length, boolean compress) {
+        if (file == null || !file.exists()) {
+            response.appendContent("File does not exist.");
+            writeResponse(request, response, HttpResponseStatus.NOT_FOUND);
+            return;
+        }
+        long fileLength = file.length();
+        if (offset < 0 || offset > fileLength || length < 0) {
+            response.appendContent("Invalid offset " + offset + " or length " + length);
+            writeResponse(request, response, HttpResponseStatus.BAD_REQUEST);
+            return;
+        }
+        int blockLength = (int) Math.min(Math.min(length, fileLength - offset), MetaHelper.MAX_BLOCK_BYTES);
+
+        response.updateHeader(CONTENT_DISPOSITION, "attachment; filename=" + file.getName());
+        response.updateHeader(MetaHelper.X_IMAGE_SIZE, String.valueOf(fileLength));
+        response.updateHeader(MetaHelper.X_BLOCK_LENGTH, String.valueOf(blockLength));
+        try {
+            if (compress) {
+                byte[] block = MetaHelper.readBlock(file, offset, blockLength);
+                response.updateHeader(MetaHelper.X_BLOCK_CHECKSUM, String.valueOf(MetaHelper.checksum(block)));
+                response.updateHeader(MetaHelper.X_BLOCK_COMPRESSED, "true");
+                writeObjectResponse(request, response, HttpResponseStatus.OK, MetaHelper.compress(block),
+                        file.getName(), true);
+            } else {
+                response.updateHeader(MetaHelper.X_BLOCK_CHECKSUM,
+                        String.valueOf(MetaHelper.checksum(file, offset, blockLength)));
+                writeObjectResponse(request, response, HttpResponseStatus.OK, file, file.getName(), true,
+                        offset, blockLength);
+            }
+        } catch (IOException e) {
+            LOG.warn("failed to read block of file {} at offset {}", file.getName(), offset, e);
+            writeResponse(request, response, HttpResponseStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     private boolean isFromValidFe(BaseRequest request) {
         String clientHost = request.getHostString();
         Frontend fe = Catalog.getCurrentCatalog().getFeByHost(clientHost);
@@ -30,6 +30,7 @@ import com.starrocks.http.ActionController;
 import com.starrocks.http.BaseRequest;
 import com.starrocks.http.BaseResponse;
 import com.starrocks.http.IllegalArgException;
+import com.starrocks.master.Checkpoint;
 import com.starrocks.master.MetaHelper;
 import com.starrocks.persist.MetaCleaner;
 import com.starrocks.persist.Storage;
@@ -43,13 +44,15 @@ import org.apache.logging.log4j.Logger;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.OutputStream;
 
 public class MetaService {
     private static final int TIMEOUT_SECOND = 10;
 
     public static class ImageAction extends MetaBaseAction {
         private static final String VERSION = "version";
+        private static final String OFFSET = "offset";
+        private static final String LENGTH = "length";
+        private static final String COMPRESS = "compress";
 
         public ImageAction(ActionController controller, File imageDir) {
             super(controller, imageDir);
@@ -81,6 +84,24 @@ public class MetaService {
                 return;
             }
 
+            // the image is requested block by block by MetaHelper.getRemoteImage()
+            String offsetStr = request.getSingleParameter(OFFSET);
+            String lengthStr = request.getSingleParameter(LENGTH);
+            if (!Strings.isNullOrEmpty(offsetStr) && !Strings.isNullOrEmpty(lengthStr)) {
+                long offset;
+                long length;
+                try {
+                    offset = checkLongParam(offsetStr);
+                    length = checkLongParam(lengthStr);
+                } catch (NumberFormatException e) {
+                    writeResponse(request, response, HttpResponseStatus.BAD_REQUEST);
+                    return;
+                }
+                boolean compress = Boolean.parseBoolean(request.getSingleParameter(COMPRESS));
+                writeFileBlockResponse(request, response, imageFile, offset, length, compress);
+                return;
+            }
+
             writeFileResponse(request, response, imageFile);
         }
     }
@@ -195,14 +216,11 @@ public class MetaService {
                 return;
             }
 
-            String url = "http://" + machine + ":" + portStr
-                    + "/image?version=" + versionStr;
             String filename = Storage.IMAGE + "." + versionStr;
 
             File dir = new File(Catalog.getCurrentCatalog().getImageDir());
             try {
-                OutputStream out = MetaHelper.getOutputStream(filename, dir);
-                MetaHelper.getRemoteFile(url, TIMEOUT_SECOND * 1000, out);
+                MetaHelper.getRemoteImage(machine, Integer.parseInt(portStr), version, TIMEOUT_SECOND * 1000, dir);
                 MetaHelper.complete(filename, dir);
                 writeResponse(request, response);
             } catch (FileNotFoundException e) {
@@ -210,7 +228,7 @@ public class MetaService {
                 writeResponse(request, response, HttpResponseStatus.NOT_FOUND);
                 return;
             } catch (IOException e) {
-                LOG.warn("failed to get remote file. url: {}", url, e);
+                LOG.warn("failed to get remote image.{} from {}:{}", versionStr, machine, portStr, e);
                 writeResponse(request, response, HttpResponseStatus.INTERNAL_SERVER_ERROR);
                 return;
             }
@@ -227,6 +245,62 @@ public class MetaService {
         }
     }
 
+    /*
+     * Called by the checkpoint thread of master to make the checkpoint on this node,
+     * see Config.enable_checkpoint_on_follower.
+     * The version of the saved image and the peak heap used while saving are returned in the headers.
+     */
+    public static class SnapshotAction extends MetaBaseAction {
+        private static final Logger LOG = LogManager.getLogger(SnapshotAction.class);
+        public static final String VERSION = "version";
+        public static final String PEAK_HEAP_USED = "peak_heap_used";
+
+        public SnapshotAction(ActionController controller, File imageDir) {
+            super(controller, imageDir);
+        }
+
+        public static void registerAction(ActionController controller, File imageDir)
+                throws IllegalArgException {
+            controller.registerHandler(HttpMethod.GET, "/snapshot", new SnapshotAction(controller, imageDir));
+        }
+
+        @Override
+        public void executeGet(BaseRequest request, BaseResponse response) {
+            if (Catalog.getCurrentCatalog().isMaster()) {
+                response.appendContent("this node is master, reject snapshot");
+                writeResponse(request, response, HttpResponseStatus.BAD_REQUEST);
+                return;
+            }
+
+            long startTime = System.currentTimeMillis();
+            Checkpoint.resetPeakHeapUsed();
+            long version;
+            try {
+                version = Catalog.getCurrentCatalog().saveSnapshotImage();
+            } catch (IOException e) {
+                LOG.warn("failed to save snapshot image", e);
+                writeResponse(request, response, HttpResponseStatus.INTERNAL_SERVER_ERROR);
+                return;
+            }
+            long costMs = System.currentTimeMillis() - startTime;
+            long peakHeapUsed = Checkpoint.getPeakHeapUsed();
+            Checkpoint.setLastCheckpointStats(costMs, peakHeapUsed);
+            LOG.info("finished saving snapshot image.{}, cost {} ms, peak heap used {} bytes",
+                    version, costMs, peakHeapUsed);
+
+            response.updateHeader(VERSION, Long.toString(version));
+            response.updateHeader(PEAK_HEAP_USED, Long.toString(peakHeapUsed));
+            writeResponse(request, response);
+
+            MetaCleaner cleaner = new MetaCleaner(Config.meta_dir + "/image");
+            try {
+                cleaner.clean();
+            } catch (IOException e) {
+                LOG.error("Follower/Observer delete old image file fail.", e);
+            }
+        }
+    }
+
     public static class JournalIdAction extends MetaBaseAction {
         public JournalIdAction(ActionController controller, File imageDir) {
             super(controller, imageDir);
@@ -551,7 +551,8 @@ public class JournalEntity implements Writable {
             }
             case OperationType.OP_DYNAMIC_PARTITION:
             case OperationType.OP_MODIFY_IN_MEMORY:
-            case OperationType.OP_MODIFY_REPLICATION_NUM: {
+            case OperationType.OP_MODIFY_REPLICATION_NUM:
+            case OperationType.OP_MODIFY_ASYNC_MV_STATE: {
                 data = ModifyTablePropertyOperationLog.read(in);
                 isRead = true;
                 break;
@@ -396,9 +396,9 @@ public class DeleteHandler implements Writable {
         for (TabletDeleteInfo tDeleteInfo : job.getTabletDeleteInfo()) {
             for (Replica replica : tDeleteInfo.getFinishedReplicas()) {
                 // the inverted index contains rolling up replica
-                Long tabletId = invertedIndex.getTabletIdByReplica(replica.getId());
-                if (tabletId == null) {
-                    LOG.warn("could not find tablet id for replica {}, the tablet maybe dropped", replica);
+                long tabletId = tDeleteInfo.getTabletId();
+                if (invertedIndex.getReplica(tabletId, replica.getBackendId()) == null) {
+                    LOG.warn("could not find replica {} of tablet {}, the tablet maybe dropped", replica, tabletId);
                     continue;
                 }
                 tabletCommitInfos.add(new TabletCommitInfo(tabletId, replica.getBackendId()));
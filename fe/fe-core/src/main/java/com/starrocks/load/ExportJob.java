@@ -32,6 +32,7 @@ import com.starrocks.analysis.BrokerDesc;
 import com.starrocks.analysis.DescriptorTable;
 import com.starrocks.analysis.ExportStmt;
 import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.ExprSubstitutionMap;
 import com.starrocks.analysis.LoadStmt;
 import com.starrocks.analysis.PartitionNames;
 import com.starrocks.analysis.SlotDescriptor;
@@ -63,10 +64,12 @@ import com.starrocks.planner.DataPartition;
 import com.starrocks.planner.ExportSink;
 import com.starrocks.planner.MysqlScanNode;
 import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.PartitionColumnFilter;
 import com.starrocks.planner.PlanFragment;
 import com.starrocks.planner.PlanFragmentId;
 import com.starrocks.planner.PlanNodeId;
 import com.starrocks.planner.ScanNode;
+import com.starrocks.planner.SingleNodePlanner;
 import com.starrocks.qe.Coordinator;
 import com.starrocks.system.Backend;
 import com.starrocks.task.AgentClient;
@@ -84,7 +87,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -125,6 +128,12 @@ public class ExportJob implements Writable {
     private List<String> partitions;
     private TableName tableName;
     private List<String> columnNames;
+    // analyzed by ExportStmt
+    private Expr whereExpr;
+    // whereExpr bound to exportTupleDesc
+    private List<Expr> conjuncts = Lists.newArrayList();
+    // the first outputSlotNum slots of exportTupleDesc are exported, others are only used by the conjuncts
+    private int outputSlotNum;
     private String sql = "";
     private JobState state;
     private long createTimeMs;
@@ -192,6 +201,7 @@ public class ExportJob implements Writable {
 
         this.partitions = stmt.getPartitions();
         this.columnNames = stmt.getColumnNames();
+        this.whereExpr = stmt.getWhereExpr();
 
         db.readLock();
         try {
@@ -239,15 +249,45 @@ public class ExportJob implements Writable {
             }
         }
 
+        Map<String, SlotDescriptor> nameToSlot = Maps.newTreeMap(String.CASE_INSENSITIVE_ORDER);
         for (Column col : exportColumns) {
-            SlotDescriptor slot = desc.addSlotDescriptor(exportTupleDesc);
-            slot.setIsMaterialized(true);
-            slot.setColumn(col);
-            slot.setIsNullable(col.isAllowNull());
+            nameToSlot.put(col.getName(), addSlot(col));
+        }
+        outputSlotNum = exportColumns.size();
+
+        if (whereExpr != null) {
+            // the columns only referenced by the where clause are scanned but not exported
+            List<SlotRef> slotRefs = Lists.newArrayList();
+            whereExpr.collect(SlotRef.class, slotRefs);
+            ExprSubstitutionMap smap = new ExprSubstitutionMap();
+            for (SlotRef slotRef : slotRefs) {
+                String columnName = slotRef.getColumnName();
+                SlotDescriptor slot = nameToSlot.get(columnName);
+                if (slot == null) {
+                    Column column = nameToColumn.get(columnName);
+                    if (column == null) {
+                        throw new UserException("Column [" + columnName + "] does not exist in table.");
+                    }
+                    slot = addSlot(column);
+                    nameToSlot.put(columnName, slot);
+                }
+                if (!smap.containsMappingFor(slotRef)) {
+                    smap.put(slotRef, new SlotRef(slot));
+                }
+            }
+            conjuncts = whereExpr.clone(smap).getConjuncts();
         }
         desc.computeMemLayout();
     }
 
+    private SlotDescriptor addSlot(Column col) {
+        SlotDescriptor slot = desc.addSlotDescriptor(exportTupleDesc);
+        slot.setIsMaterialized(true);
+        slot.setColumn(col);
+        slot.setIsNullable(col.isAllowNull());
+        return slot;
+    }
+
     private void plan() throws UserException {
         List<PlanFragment> fragments = Lists.newArrayList();
         List<ScanNode> scanNodes = Lists.newArrayList();
@@ -260,38 +300,26 @@ public class ExportJob implements Writable {
             scanNodes.add(scanNode);
             fragments.add(fragment);
         } else {
-            for (TScanRangeLocations tablet : tabletLocations) {
-                List<TScanRangeLocation> locations = tablet.getLocations();
-                Collections.shuffle(locations);
-                tablet.setLocations(locations.subList(0, 1));
-            }
-
-            long maxBytesPerBe = Config.export_max_bytes_per_be_per_task;
             TabletInvertedIndex invertedIndex = Catalog.getCurrentInvertedIndex();
-            List<TScanRangeLocations> copyTabletLocations = Lists.newArrayList(tabletLocations);
-            int taskIdx = 0;
-            while (!copyTabletLocations.isEmpty()) {
-                Map<Long, Long> bytesPerBe = Maps.newHashMap();
-                List<TScanRangeLocations> taskTabletLocations = Lists.newArrayList();
-                Iterator<TScanRangeLocations> iter = copyTabletLocations.iterator();
-                while (iter.hasNext()) {
-                    TScanRangeLocations scanRangeLocations = iter.next();
-                    long tabletId = scanRangeLocations.getScan_range().getInternal_scan_range().getTablet_id();
-                    long backendId = scanRangeLocations.getLocations().get(0).getBackend_id();
-                    Replica replica = invertedIndex.getReplica(tabletId, backendId);
-                    long dataSize = replica != null ? replica.getDataSize() : 0L;
-
-                    Long assignedBytes = bytesPerBe.get(backendId);
-                    if (assignedBytes == null || (assignedBytes != null && assignedBytes < maxBytesPerBe)) {
-                        taskTabletLocations.add(scanRangeLocations);
-                        bytesPerBe.put(backendId, assignedBytes != null ? assignedBytes + dataSize : dataSize);
-                        iter.remove();
+            Map<Long, Long> tabletBytes = Maps.newHashMap();
+            for (TScanRangeLocations tablet : tabletLocations) {
+                long tabletId = tablet.getScan_range().getInternal_scan_range().getTablet_id();
+                long dataSize = 0L;
+                for (TScanRangeLocation location : tablet.getLocations()) {
+                    Replica replica = invertedIndex.getReplica(tabletId, location.getBackend_id());
+                    if (replica != null) {
+                        dataSize = Math.max(dataSize, replica.getDataSize());
                     }
                 }
+                tabletBytes.put(tabletId, dataSize);
+            }
 
-                OlapScanNode taskScanNode = genOlapScanNodeByLocation(taskTabletLocations);
+            List<List<TScanRangeLocations>> tasks = splitTablets(tabletLocations, tabletBytes,
+                    Config.export_max_bytes_per_be_per_task);
+            for (int taskIdx = 0; taskIdx < tasks.size(); taskIdx++) {
+                OlapScanNode taskScanNode = genOlapScanNodeByLocation(tasks.get(taskIdx));
                 scanNodes.add(taskScanNode);
-                PlanFragment fragment = genPlanFragment(exportTable.getType(), taskScanNode, taskIdx++);
+                PlanFragment fragment = genPlanFragment(exportTable.getType(), taskScanNode, taskIdx);
                 fragments.add(fragment);
             }
 
@@ -302,12 +330,82 @@ public class ExportJob implements Writable {
         genCoordinators(fragments, scanNodes);
     }
 
+    /**
+     * Chooses a replica for each tablet and splits the tablets into tasks.
+     * The tablets are assigned from the largest one, each to the backend with the least bytes among its replicas,
+     * so the bytes are balanced among backends. Then the tablets of each backend are spread to the tasks
+     * from the largest one, each to the task with the least bytes on the backend. Each task scans about
+     * maxBytesPerBe bytes at most on a backend.
+     */
+    static List<List<TScanRangeLocations>> splitTablets(List<TScanRangeLocations> tabletLocations,
+                                                        Map<Long, Long> tabletBytes, long maxBytesPerBe) {
+        List<TScanRangeLocations> sortedTablets = Lists.newArrayList(tabletLocations);
+        sortedTablets.sort(Comparator.comparingLong(
+                (TScanRangeLocations tablet) -> tabletBytes.getOrDefault(getTabletId(tablet), 0L)).reversed());
+
+        // backend id -> tablets
+        Map<Long, List<TScanRangeLocations>> tabletsPerBe = Maps.newHashMap();
+        Map<Long, Long> bytesPerBe = Maps.newHashMap();
+        for (TScanRangeLocations tablet : sortedTablets) {
+            List<TScanRangeLocation> locations = Lists.newArrayList(tablet.getLocations());
+            // break the ties randomly
+            Collections.shuffle(locations);
+            TScanRangeLocation selected = locations.stream()
+                    .min(Comparator.comparingLong(location -> bytesPerBe.getOrDefault(location.getBackend_id(), 0L)))
+                    .get();
+            tablet.setLocations(Lists.newArrayList(selected));
+            long backendId = selected.getBackend_id();
+            tabletsPerBe.computeIfAbsent(backendId, k -> Lists.newArrayList()).add(tablet);
+            bytesPerBe.merge(backendId, tabletBytes.getOrDefault(getTabletId(tablet), 0L), Long::sum);
+        }
+
+        int taskNum = 1;
+        for (Map.Entry<Long, Long> entry : bytesPerBe.entrySet()) {
+            int taskNumOfBe = (int) ((entry.getValue() + maxBytesPerBe - 1) / Math.max(1L, maxBytesPerBe));
+            taskNumOfBe = Math.min(taskNumOfBe, tabletsPerBe.get(entry.getKey()).size());
+            taskNum = Math.max(taskNum, taskNumOfBe);
+        }
+
+        List<List<TScanRangeLocations>> tasks = Lists.newArrayList();
+        for (int i = 0; i < taskNum; i++) {
+            tasks.add(Lists.newArrayList());
+        }
+        for (List<TScanRangeLocations> tablets : tabletsPerBe.values()) {
+            long[] taskBytes = new long[taskNum];
+            for (TScanRangeLocations tablet : tablets) {
+                int taskIdx = 0;
+                for (int i = 1; i < taskNum; i++) {
+                    if (taskBytes[i] < taskBytes[taskIdx]) {
+                        taskIdx = i;
+                    }
+                }
+                tasks.get(taskIdx).add(tablet);
+                taskBytes[taskIdx] += tabletBytes.getOrDefault(getTabletId(tablet), 0L);
+            }
+        }
+        tasks.removeIf(List::isEmpty);
+        return tasks;
+    }
+
+    private static long getTabletId(TScanRangeLocations tablet) {
+        return tablet.getScan_range().getInternal_scan_range().getTablet_id();
+    }
+
     private ScanNode genScanNode() throws UserException {
         ScanNode scanNode = null;
         switch (exportTable.getType()) {
             case OLAP:
                 scanNode = new OlapScanNode(new PlanNodeId(0), exportTupleDesc, "OlapScanNodeForExport");
-                scanNode.setColumnFilters(Maps.newHashMap());
+                // prune the partitions and tablets by the where clause
+                Map<String, PartitionColumnFilter> columnFilters = Maps.newHashMap();
+                for (SlotDescriptor slot : exportTupleDesc.getSlots()) {
+                    PartitionColumnFilter filter = SingleNodePlanner.createPartitionFilter(slot, conjuncts);
+                    if (filter != null) {
+                        columnFilters.put(slot.getColumn().getName(), filter);
+                    }
+                }
+                scanNode.setColumnFilters(columnFilters);
+                scanNode.addConjuncts(conjuncts);
                 ((OlapScanNode) scanNode).setIsPreAggregation(false, "This an export operation");
                 ((OlapScanNode) scanNode).setCanTurnOnPreAggr(false);
                 scanNode.init(analyzer);
@@ -315,6 +413,7 @@ public class ExportJob implements Writable {
                 break;
             case MYSQL:
                 scanNode = new MysqlScanNode(new PlanNodeId(0), exportTupleDesc, (MysqlTable) this.exportTable);
+                scanNode.addConjuncts(conjuncts);
                 break;
             default:
                 throw new UserException("Unsupported table type: " + exportTable.getType());
@@ -330,6 +429,8 @@ public class ExportJob implements Writable {
                 exportTupleDesc,
                 "OlapScanNodeForExport",
                 locations);
+        // the conjuncts are evaluated by the scan of each task
+        olapScanNode.addConjuncts(conjuncts);
 
         return olapScanNode;
     }
@@ -368,7 +469,7 @@ public class ExportJob implements Writable {
 
     private List<Expr> createOutputExprs() {
         List<Expr> outputExprs = Lists.newArrayList();
-        for (int i = 0; i < exportTupleDesc.getSlots().size(); ++i) {
+        for (int i = 0; i < outputSlotNum; ++i) {
             SlotDescriptor slotDesc = exportTupleDesc.getSlots().get(i);
             SlotRef slotRef = new SlotRef(slotDesc);
             if (slotDesc.getType().getPrimitiveType() == PrimitiveType.CHAR) {
@@ -88,6 +88,10 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
     // kafka properties, property prefix will be mapped to kafka custom parameters, which can be extended in the future
     private Map<String, String> customProperties = Maps.newHashMap();
     private Map<String, String> convertedCustomProperties = Maps.newHashMap();
+    // kafka partition -> latest offset, which is polled periodically and when the tasks are checked to be ready.
+    // not persisted, the lag is unknown until the first poll after fe restarts
+    private Map<Integer, Long> latestPartitionOffsets = Maps.newConcurrentMap();
+    private volatile long lastLagPollTimeMs = -1;
 
     public KafkaRoutineLoadJob() {
         // for serialization, id is dummy
@@ -165,19 +169,19 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
         try {
             if (state == JobState.NEED_SCHEDULE) {
                 // divide kafkaPartitions into tasks
-                for (int i = 0; i < currentConcurrentTaskNum; i++) {
+                List<List<Integer>> taskPartitions = divideByLag(currentKafkaPartitions, getPartitionLags(),
+                        currentConcurrentTaskNum);
+                for (List<Integer> partitions : taskPartitions) {
                     Map<Integer, Long> taskKafkaProgress = Maps.newHashMap();
-                    for (int j = 0; j < currentKafkaPartitions.size(); j++) {
-                        if (j % currentConcurrentTaskNum == i) {
-                            int kafkaPartition = currentKafkaPartitions.get(j);
-                            taskKafkaProgress.put(kafkaPartition,
-                                    ((KafkaProgress) progress).getOffsetByPartition(kafkaPartition));
-                        }
+                    for (int kafkaPartition : partitions) {
+                        taskKafkaProgress.put(kafkaPartition,
+                                ((KafkaProgress) progress).getOffsetByPartition(kafkaPartition));
                     }
                     long timeToExecuteMs = System.currentTimeMillis() + taskSchedIntervalS * 1000;
                     KafkaTaskInfo kafkaTaskInfo = new KafkaTaskInfo(UUID.randomUUID(), id, clusterName,
                             taskSchedIntervalS * 1000,
                             timeToExecuteMs, taskKafkaProgress);
+                    kafkaTaskInfo.setLag(getTaskLag(partitions));
                     routineLoadTaskInfoList.add(kafkaTaskInfo);
                     result.add(kafkaTaskInfo);
                 }
@@ -195,6 +199,93 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
         }
     }
 
+    /*
+     * Divides the partitions into tasks with balanced lag, so that a lagging partition does not share its task with
+     * other lagging partitions. The partitions are assigned in the order of lag, each to the task with the least
+     * lag, then the least partitions. If the lag is unknown, the partitions are divided evenly in their order.
+     */
+    static List<List<Integer>> divideByLag(List<Integer> partitions, Map<Integer, Long> partitionLags,
+                                           int taskNum) {
+        List<Integer> sortedPartitions = Lists.newArrayList(partitions);
+        // stable sort keeps the order of partitions with the same lag
+        sortedPartitions.sort((p1, p2) -> Long.compare(partitionLags.getOrDefault(p2, 0L),
+                partitionLags.getOrDefault(p1, 0L)));
+        List<List<Integer>> taskPartitions = Lists.newArrayList();
+        long[] taskLags = new long[taskNum];
+        for (int i = 0; i < taskNum; i++) {
+            taskPartitions.add(Lists.newArrayList());
+        }
+        for (Integer partition : sortedPartitions) {
+            int target = 0;
+            for (int i = 1; i < taskNum; i++) {
+                if (taskLags[i] < taskLags[target] || (taskLags[i] == taskLags[target]
+                        && taskPartitions.get(i).size() < taskPartitions.get(target).size())) {
+                    target = i;
+                }
+            }
+            taskPartitions.get(target).add(partition);
+            taskLags[target] += partitionLags.getOrDefault(partition, 0L);
+        }
+        return taskPartitions;
+    }
+
+    public void updateLatestPartitionOffsets(Map<Integer, Long> latestOffsets) {
+        latestPartitionOffsets.putAll(latestOffsets);
+    }
+
+    /**
+     * @return kafka partition -> number of messages not consumed, of partitions whose latest offset is polled
+     */
+    public Map<Integer, Long> getPartitionLags() {
+        Map<Integer, Long> partitionLags = Maps.newHashMap();
+        for (Integer partition : currentKafkaPartitions) {
+            Long latestOffset = latestPartitionOffsets.get(partition);
+            Long consumedOffset = ((KafkaProgress) progress).getOffsetByPartition(partition);
+            // the offset may be OFFSET_BEGINNING or OFFSET_END which is not converted yet
+            if (latestOffset != null && consumedOffset != null && consumedOffset >= 0) {
+                partitionLags.put(partition, Math.max(0L, latestOffset - consumedOffset));
+            }
+        }
+        return partitionLags;
+    }
+
+    private long getTaskLag(List<Integer> partitions) {
+        Map<Integer, Long> partitionLags = getPartitionLags();
+        long lag = 0;
+        for (Integer partition : partitions) {
+            lag += partitionLags.getOrDefault(partition, 0L);
+        }
+        return lag;
+    }
+
+    // rows consumed per second by a task, 0 if no task is committed
+    public long getConsumeRowsPerSecond() {
+        return totalRows * 1000 / totalTaskExcutionTimeMs;
+    }
+
+    @Override
+    public void update() throws UserException {
+        super.update();
+        pollLatestOffsetsIfNecessary();
+    }
+
+    private void pollLatestOffsetsIfNecessary() {
+        long now = System.currentTimeMillis();
+        if (state != JobState.RUNNING || Config.routine_load_lag_poll_interval_second <= 0
+                || now - lastLagPollTimeMs < Config.routine_load_lag_poll_interval_second * 1000) {
+            return;
+        }
+        lastLagPollTimeMs = now;
+        try {
+            updateLatestPartitionOffsets(KafkaUtil.getLatestOffsets(brokerList, topic,
+                    ImmutableMap.copyOf(convertedCustomProperties), Lists.newArrayList(currentKafkaPartitions)));
+        } catch (Exception e) {
+            LOG.warn(new LogBuilder(LogKey.ROUTINE_LOAD_JOB, id)
+                    .add("error_msg", "failed to poll latest offsets of kafka partitions: " + e.getMessage())
+                    .build());
+        }
+    }
+
     @Override
     public int calculateCurrentConcurrentTaskNum() throws MetaNotFoundException {
         SystemInfoService systemInfoService = Catalog.getCurrentSystemInfo();
@@ -261,6 +352,7 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
         // add new task
         KafkaTaskInfo kafkaTaskInfo = new KafkaTaskInfo(timeToExecuteMs, oldKafkaTaskInfo,
                 ((KafkaProgress) progress).getPartitionIdToOffset(oldKafkaTaskInfo.getPartitions()));
+        kafkaTaskInfo.setLag(getTaskLag(oldKafkaTaskInfo.getPartitions()));
         // remove old task
         routineLoadTaskInfoList.remove(routineLoadTaskInfo);
         // add new task
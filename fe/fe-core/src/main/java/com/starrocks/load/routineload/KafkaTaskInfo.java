@@ -87,6 +87,8 @@ public class KafkaTaskInfo extends RoutineLoadTaskInfo {
                 kafkaRoutineLoadJob.getTopic(),
                 ImmutableMap.copyOf(kafkaRoutineLoadJob.getConvertedCustomProperties()),
                 new ArrayList<>(partitionIdToOffset.keySet()));
+        kafkaRoutineLoadJob.updateLatestPartitionOffsets(latestOffsets);
+        this.lag = computeLag(partitionIdToOffset, latestOffsets);
         for (Map.Entry<Integer, Long> entry : partitionIdToOffset.entrySet()) {
             int partitionId = entry.getKey();
             Long latestOffset = latestOffsets.get(partitionId);
@@ -156,9 +158,10 @@ public class KafkaTaskInfo extends RoutineLoadTaskInfo {
         tRoutineLoadTask.setKafka_load_info(tKafkaLoadInfo);
         tRoutineLoadTask.setType(TLoadSourceType.KAFKA);
         tRoutineLoadTask.setParams(plan(routineLoadJob));
-        tRoutineLoadTask.setMax_interval_s(Config.routine_load_task_consume_second);
+        long rowsPerSecond = routineLoadJob.getConsumeRowsPerSecond();
+        tRoutineLoadTask.setMax_interval_s(adaptConsumeSecond(lag, rowsPerSecond));
         tRoutineLoadTask.setMax_batch_rows(routineLoadJob.getMaxBatchRows());
-        tRoutineLoadTask.setMax_batch_size(Config.max_routine_load_batch_size);
+        tRoutineLoadTask.setMax_batch_size(adaptBatchSize(lag, rowsPerSecond));
         if (!routineLoadJob.getFormat().isEmpty() && routineLoadJob.getFormat().equalsIgnoreCase("json")) {
             tRoutineLoadTask.setFormat(TFileFormatType.FORMAT_JSON);
         } else {
@@ -167,6 +170,46 @@ public class KafkaTaskInfo extends RoutineLoadTaskInfo {
         return tRoutineLoadTask;
     }
 
+    // number of messages between the begin offsets and the latest offsets
+    static long computeLag(Map<Integer, Long> partitionIdToOffset, Map<Integer, Long> latestOffsets) {
+        long lag = 0;
+        for (Map.Entry<Integer, Long> entry : partitionIdToOffset.entrySet()) {
+            Long latestOffset = latestOffsets.get(entry.getKey());
+            // the begin offset may be OFFSET_BEGINNING or OFFSET_END which is not converted yet
+            if (latestOffset != null && entry.getValue() >= 0 && latestOffset > entry.getValue()) {
+                lag += latestOffset - entry.getValue();
+            }
+        }
+        return lag;
+    }
+
+    /*
+     * A task nearly caught up consumes just long enough for its lag at the throughput of the job,
+     * so that the data is committed sooner. A task falling behind consumes for the whole interval.
+     */
+    static long adaptConsumeSecond(long lag, long rowsPerSecond) {
+        long consumeSecond = Config.routine_load_task_consume_second;
+        if (!Config.enable_routine_load_adaptive_task || lag <= 0 || rowsPerSecond <= 0) {
+            return consumeSecond;
+        }
+        long needSecond = (lag + rowsPerSecond - 1) / rowsPerSecond;
+        return Math.max(1, Math.min(needSecond, consumeSecond));
+    }
+
+    /*
+     * A task falling behind more than one interval of consuming gets a larger batch size,
+     * to catch up with fewer transactions.
+     */
+    static long adaptBatchSize(long lag, long rowsPerSecond) {
+        long batchSize = Config.max_routine_load_batch_size;
+        if (!Config.enable_routine_load_adaptive_task || lag <= 0 || rowsPerSecond <= 0) {
+            return batchSize;
+        }
+        long rowsPerTask = Math.max(1, rowsPerSecond * Config.routine_load_task_consume_second);
+        long scale = Math.min((lag + rowsPerTask - 1) / rowsPerTask, Config.routine_load_max_batch_size_scale);
+        return batchSize * Math.max(1, scale);
+    }
+
     @Override
     protected String getTaskDataSourceProperties() {
         Gson gson = new Gson();
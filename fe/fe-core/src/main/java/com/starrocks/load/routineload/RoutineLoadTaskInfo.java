@@ -84,6 +84,10 @@ public abstract class RoutineLoadTaskInfo {
     // record task schedule info
     protected String msg;
 
+    // number of messages not consumed in the data source when the task is created or checked to be ready,
+    // the task falling further behind is scheduled first
+    protected volatile long lag = 0;
+
     public RoutineLoadTaskInfo(UUID id, long jobId, String clusterName, long taskScheduleIntervalMs,
                                long timeToExecuteMs) {
         this.id = id;
@@ -137,6 +141,14 @@ public abstract class RoutineLoadTaskInfo {
         return executeStartTimeMs > 0;
     }
 
+    public long getLag() {
+        return lag;
+    }
+
+    public void setLag(long lag) {
+        this.lag = lag;
+    }
+
     public long getLastScheduledTime() {
         return lastScheduledTime;
     }
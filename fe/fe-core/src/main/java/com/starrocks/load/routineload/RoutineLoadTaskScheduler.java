@@ -23,7 +23,6 @@ package com.starrocks.load.routineload;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Queues;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.common.ClientPool;
 import com.starrocks.common.Config;
@@ -45,10 +44,12 @@ import com.starrocks.thrift.TStatusCode;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -59,6 +60,9 @@ import java.util.concurrent.TimeUnit;
  * Step3: take a task from queue and schedule this task
  * <p>
  * The scheduler will be blocked in step3 till the queue receive a new task
+ * <p>
+ * The task falling further behind the data source is taken first, so that a lagging partition is not starved
+ * by the tasks of partitions which have caught up.
  */
 public class RoutineLoadTaskScheduler extends MasterDaemon {
 
@@ -68,7 +72,13 @@ public class RoutineLoadTaskScheduler extends MasterDaemon {
     private static final long SLOT_FULL_SLEEP_MS = 10000; // 10s
 
     private final RoutineLoadManager routineLoadManager;
-    private final LinkedBlockingQueue<RoutineLoadTaskInfo> needScheduleTasksQueue = Queues.newLinkedBlockingQueue();
+    // larger lag first, then the task scheduled earlier first
+    private static final Comparator<RoutineLoadTaskInfo> TASK_ORDER =
+            Comparator.comparingLong(RoutineLoadTaskInfo::getLag).reversed()
+                    .thenComparingLong(RoutineLoadTaskInfo::getLastScheduledTime);
+
+    private final BlockingQueue<RoutineLoadTaskInfo> needScheduleTasksQueue =
+            new PriorityBlockingQueue<>(11, TASK_ORDER);
     private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
     private final ExecutorService threadPool = Executors.newFixedThreadPool(10);
 
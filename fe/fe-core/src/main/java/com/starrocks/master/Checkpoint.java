@@ -25,6 +25,8 @@ import com.starrocks.catalog.Catalog;
 import com.starrocks.common.Config;
 import com.starrocks.common.FeConstants;
 import com.starrocks.common.util.MasterDaemon;
+import com.starrocks.ha.FrontendNodeType;
+import com.starrocks.http.meta.MetaService.SnapshotAction;
 import com.starrocks.metric.MetricRepo;
 import com.starrocks.monitor.jvm.JvmService;
 import com.starrocks.monitor.jvm.JvmStats;
@@ -36,8 +38,12 @@ import com.starrocks.system.Frontend;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.Iterator;
@@ -52,6 +58,10 @@ public class Checkpoint extends MasterDaemon {
     private static final int CONNECT_TIMEOUT_SECOND = 1;
     private static final int READ_TIMEOUT_SECOND = 1;
 
+    // cost and peak heap used of the last checkpoint made by this node
+    private static volatile long lastCheckpointCostMs = 0;
+    private static volatile long lastCheckpointPeakHeapUsed = 0;
+
     private Catalog catalog;
     private String imageDir;
     private EditLog editLog;
@@ -90,40 +100,28 @@ public class Checkpoint extends MasterDaemon {
             return;
         }
 
-        if (!checkMemoryEnoughToDoCheckpoint()) {
-            return;
-        }
-
         long replayedJournalId = -1;
-        // generate new image file
-        LOG.info("begin to generate new image: image.{}", checkPointVersion);
-        catalog = Catalog.getCurrentCatalog();
-        catalog.setEditLog(editLog);
-        try {
-            catalog.loadImage(imageDir);
-            catalog.replayJournal(checkPointVersion);
-            if (catalog.getReplayedJournalId() != checkPointVersion) {
-                LOG.error("checkpoint version should be {}, actual replayed journal id is {}",
-                        checkPointVersion, catalog.getReplayedJournalId());
+        if (Config.enable_checkpoint_on_follower) {
+            replayedJournalId = createImageOnFollower(imageVersion);
+        }
+        if (replayedJournalId < 0) {
+            if (!checkMemoryEnoughToDoCheckpoint()) {
                 return;
             }
-
-            catalog.saveImage();
-            replayedJournalId = catalog.getReplayedJournalId();
-            if (MetricRepo.isInit) {
-                MetricRepo.COUNTER_IMAGE_WRITE.increase(1L);
+            long startTime = System.currentTimeMillis();
+            resetPeakHeapUsed();
+            replayedJournalId = createImage(checkPointVersion);
+            if (replayedJournalId < 0) {
+                return;
             }
-            Catalog.getServingCatalog().setImageJournalId(checkPointVersion);
-            LOG.info("checkpoint finished save image.{}", replayedJournalId);
-        } catch (Exception e) {
-            e.printStackTrace();
-            LOG.error("Exception when generate new image file", e);
-            return;
-        } finally {
-            // destroy checkpoint catalog, reclaim memory
-            catalog = null;
-            Catalog.destroyCheckpoint();
+            setLastCheckpointStats(System.currentTimeMillis() - startTime, getPeakHeapUsed());
+            LOG.info("checkpoint finished save image.{}, cost {} ms, peak heap used {} bytes",
+                    replayedJournalId, lastCheckpointCostMs, lastCheckpointPeakHeapUsed);
         }
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_IMAGE_WRITE.increase(1L);
+        }
+        Catalog.getServingCatalog().setImageJournalId(replayedJournalId);
 
         // push image file to all the other non master nodes
         // DO NOT get other nodes from HaProtocol, because node may not in bdbje replication group yet.
@@ -159,7 +157,8 @@ public class Checkpoint extends MasterDaemon {
         // Delete old journals
         if (successPushed == otherNodesCount) {
             long minOtherNodesJournalId = Long.MAX_VALUE;
-            long deleteVersion = checkPointVersion;
+            // the image made by other node may be older than the finalized journal id
+            long deleteVersion = Math.min(checkPointVersion, replayedJournalId);
             if (successPushed > 0) {
                 for (Frontend fe : allFrontends) {
                     String host = fe.getHost();
@@ -197,7 +196,7 @@ public class Checkpoint extends MasterDaemon {
                         }
                     }
                 }
-                deleteVersion = Math.min(minOtherNodesJournalId, checkPointVersion);
+                deleteVersion = Math.min(minOtherNodesJournalId, deleteVersion);
             }
             editLog.deleteJournals(deleteVersion + 1);
             if (MetricRepo.isInit) {
@@ -217,6 +216,157 @@ public class Checkpoint extends MasterDaemon {
 
     }
 
+    /*
+     * Load the last image and replay the journals to checkPointVersion into the checkpoint catalog,
+     * and save it as the new image.
+     * Return the version of the new image, or -1 if failed.
+     */
+    private long createImage(long checkPointVersion) {
+        // generate new image file
+        LOG.info("begin to generate new image: image.{}", checkPointVersion);
+        catalog = Catalog.getCurrentCatalog();
+        catalog.setEditLog(editLog);
+        try {
+            catalog.loadImage(imageDir);
+            catalog.replayJournal(checkPointVersion);
+            if (catalog.getReplayedJournalId() != checkPointVersion) {
+                LOG.error("checkpoint version should be {}, actual replayed journal id is {}",
+                        checkPointVersion, catalog.getReplayedJournalId());
+                return -1;
+            }
+
+            catalog.saveImage();
+            return catalog.getReplayedJournalId();
+        } catch (Exception e) {
+            e.printStackTrace();
+            LOG.error("Exception when generate new image file", e);
+            return -1;
+        } finally {
+            // destroy checkpoint catalog, reclaim memory
+            catalog = null;
+            Catalog.destroyCheckpoint();
+        }
+    }
+
+    /*
+     * Ask the alive non-master node selected by selectSnapshotFrontend() to save the image of its serving catalog,
+     * and download the image. The image may be newer than the finalized journal id of master, which is fine
+     * because the journals of the image have been committed.
+     * Return the version of the new image, or -1 if failed.
+     */
+    private long createImageOnFollower(long imageVersion) {
+        Frontend fe = selectSnapshotFrontend(Catalog.getServingCatalog().getFrontends(null),
+                Catalog.getServingCatalog().getMasterIp(), imageVersion);
+        if (fe == null) {
+            LOG.info("no frontend has replayed journals newer than image.{}, checkpoint on master", imageVersion);
+            return -1;
+        }
+
+        long startTime = System.currentTimeMillis();
+        String snapshotUrl = "http://" + fe.getHost() + ":" + Config.http_port + "/snapshot";
+        LOG.info("begin to generate new image on {}", snapshotUrl);
+        long version;
+        long peakHeapUsed;
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection) new URL(snapshotUrl).openConnection();
+            conn.setConnectTimeout(CONNECT_TIMEOUT_SECOND * 1000);
+            conn.setReadTimeout(PUT_TIMEOUT_SECOND * 1000);
+            if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                LOG.warn("failed to generate new image on {}, response code {}", snapshotUrl,
+                        conn.getResponseCode());
+                return -1;
+            }
+            version = Long.parseLong(conn.getHeaderField(SnapshotAction.VERSION));
+            peakHeapUsed = Long.parseLong(conn.getHeaderField(SnapshotAction.PEAK_HEAP_USED));
+        } catch (IOException | NumberFormatException e) {
+            LOG.warn("failed to generate new image on {}", snapshotUrl, e);
+            return -1;
+        } finally {
+            if (conn != null) {
+                conn.disconnect();
+            }
+        }
+
+        String filename = Storage.IMAGE + "." + version;
+        File dir = new File(imageDir);
+        try {
+            MetaHelper.getRemoteImage(fe.getHost(), Config.http_port, version, PUT_TIMEOUT_SECOND * 1000, dir);
+            MetaHelper.complete(filename, dir);
+        } catch (IOException e) {
+            LOG.warn("failed to download image.{} from {}", version, fe.getHost(), e);
+            return -1;
+        }
+
+        setLastCheckpointStats(System.currentTimeMillis() - startTime, peakHeapUsed);
+        LOG.info("checkpoint finished download image.{} from {}, cost {} ms, peak heap used of {} {} bytes",
+                version, fe.getHost(), lastCheckpointCostMs, fe.getHost(), peakHeapUsed);
+        return version;
+    }
+
+    /*
+     * The alive non-master frontend with the max replayed journal id, which must be newer than the image.
+     * Observers are preferred, since the replay of the selected node is paused while saving the image,
+     * and a paused observer does not delay the followers which may be elected as the next master.
+     */
+    public static Frontend selectSnapshotFrontend(List<Frontend> frontends, String masterIp, long imageVersion) {
+        Frontend selected = null;
+        for (Frontend fe : frontends) {
+            if (fe.getHost().equals(masterIp) || !fe.isAlive() || fe.getReplayedJournalId() <= imageVersion) {
+                continue;
+            }
+            if (selected == null) {
+                selected = fe;
+                continue;
+            }
+            boolean isObserver = fe.getRole() == FrontendNodeType.OBSERVER;
+            boolean isSelectedObserver = selected.getRole() == FrontendNodeType.OBSERVER;
+            if (isObserver != isSelectedObserver) {
+                if (isObserver) {
+                    selected = fe;
+                }
+            } else if (fe.getReplayedJournalId() > selected.getReplayedJournalId()) {
+                selected = fe;
+            }
+        }
+        return selected;
+    }
+
+    public static long getLastCheckpointCostMs() {
+        return lastCheckpointCostMs;
+    }
+
+    public static long getLastCheckpointPeakHeapUsed() {
+        return lastCheckpointPeakHeapUsed;
+    }
+
+    public static void setLastCheckpointStats(long costMs, long peakHeapUsed) {
+        lastCheckpointCostMs = costMs;
+        lastCheckpointPeakHeapUsed = peakHeapUsed;
+    }
+
+    public static void resetPeakHeapUsed() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /*
+     * Sum of the peak usage of the heap pools since last reset, which is an upper bound of the peak heap used,
+     * because the pools may reach their peaks at different times.
+     */
+    public static long getPeakHeapUsed() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                used += pool.getPeakUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
     /*
      * Check whether can we do the checkpoint due to the memory used percent.
      */
@@ -52,6 +52,7 @@ import com.starrocks.catalog.TableProperty;
 import com.starrocks.catalog.Tablet;
 import com.starrocks.catalog.TabletInvertedIndex;
 import com.starrocks.catalog.TabletMeta;
+import com.starrocks.clone.DirtyPartitionTracker;
 import com.starrocks.cluster.ClusterNamespace;
 import com.starrocks.common.MetaNotFoundException;
 import com.starrocks.common.UserException;
@@ -308,6 +309,7 @@ public class MasterImpl {
                          * So we set replica back to good.
                          */
                         replica.setBad(false);
+                        DirtyPartitionTracker.getInstance().markTabletDirty(tabletId);
                         LOG.info(
                                 "finish recover create replica task. set replica to good. tablet {}, replica {}, backend {}",
                                 tabletId, task.getBackendId(), replica.getId());
@@ -22,20 +22,43 @@
 package com.starrocks.master;
 
 import com.starrocks.catalog.Catalog;
+import com.starrocks.common.Config;
 import com.starrocks.common.io.IOUtils;
+import com.starrocks.persist.Storage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 public class MetaHelper {
+    private static final Logger LOG = LogManager.getLogger(MetaHelper.class);
+
     private static final String PART_SUFFIX = ".part";
     public static final String X_IMAGE_SIZE = "X-Image-Size";
+    // headers of the response of an image block
+    public static final String X_BLOCK_LENGTH = "X-Block-Length";
+    public static final String X_BLOCK_CHECKSUM = "X-Block-Checksum";
+    public static final String X_BLOCK_COMPRESSED = "X-Block-Compressed";
+    // bound the memory of compressing and receiving a block
+    public static final int MAX_BLOCK_BYTES = 64 * 1024 * 1024;
+    private static final int MAX_BLOCK_RETRY_TIMES = 3;
     private static final int BUFFER_BYTES = 8 * 1024;
     private static final int CHECKPOINT_LIMIT_BYTES = 30 * 1024 * 1024;
 
@@ -74,30 +97,202 @@ public class MetaHelper {
             conn = (HttpURLConnection) url.openConnection();
             conn.setConnectTimeout(timeout);
             conn.setReadTimeout(timeout);
+            copyRemoteFile(conn, out);
+        } finally {
+            if (conn != null) {
+                conn.disconnect();
+            }
+            if (out != null) {
+                out.close();
+            }
+        }
+    }
+
+    private static void copyRemoteFile(HttpURLConnection conn, OutputStream out) throws IOException {
+        // Get image size
+        long imageSize = -1;
+        String imageSizeStr = conn.getHeaderField(X_IMAGE_SIZE);
+        if (imageSizeStr != null) {
+            imageSize = Long.parseLong(imageSizeStr);
+        }
+
+        BufferedInputStream bin = new BufferedInputStream(conn.getInputStream());
+
+        // Do not limit speed in client side.
+        long bytes = IOUtils.copyBytes(bin, out, BUFFER_BYTES, CHECKPOINT_LIMIT_BYTES, true);
+
+        if ((imageSize > 0) && (bytes != imageSize)) {
+            throw new IOException("Unexpected image size, expected: " + imageSize + ", actual: " + bytes);
+        }
+    }
 
-            // Get image size
+    /*
+     * Download the image of the version from the node into the .part file block by block.
+     * Each block is verified by its checksum, and a failed block is retried without downloading the finished
+     * blocks again. The timeout applies to each block. Falls back to download the whole file if the node
+     * does not support blocks.
+     */
+    public static void getRemoteImage(String host, int port, long version, int timeout, File dir)
+            throws IOException {
+        String urlPrefix = "http://" + host + ":" + port + "/image?version=" + version;
+        int blockSize = (int) Math.max(1, Math.min(Config.image_transfer_block_size_mb * 1024L * 1024L,
+                MAX_BLOCK_BYTES));
+        File file = new File(dir, Storage.IMAGE + "." + version + PART_SUFFIX);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(0);
+            long offset = 0;
             long imageSize = -1;
-            String imageSizeStr = conn.getHeaderField(X_IMAGE_SIZE);
-            if (imageSizeStr != null) {
-                imageSize = Long.parseLong(imageSizeStr);
+            int failedTimes = 0;
+            while (imageSize < 0 || offset < imageSize) {
+                String url = urlPrefix + "&offset=" + offset + "&length=" + blockSize
+                        + "&compress=" + Config.enable_image_transfer_compression;
+                HttpURLConnection conn = null;
+                try {
+                    conn = (HttpURLConnection) new URL(url).openConnection();
+                    conn.setConnectTimeout(timeout);
+                    conn.setReadTimeout(timeout);
+                    if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                        throw new IOException("Unexpected response code " + conn.getResponseCode());
+                    }
+                    if (conn.getHeaderField(X_BLOCK_CHECKSUM) == null) {
+                        // the whole file is returned by the node of old version
+                        raf.setLength(0);
+                        raf.seek(0);
+                        copyRemoteFile(conn, Channels.newOutputStream(raf.getChannel()));
+                        return;
+                    }
+                    imageSize = Long.parseLong(conn.getHeaderField(X_IMAGE_SIZE));
+                    byte[] block = readBlock(conn);
+                    if (block.length == 0 && offset < imageSize) {
+                        throw new IOException("Empty block at offset " + offset + " of image size " + imageSize);
+                    }
+                    raf.seek(offset);
+                    raf.write(block);
+                    offset += block.length;
+                    failedTimes = 0;
+                } catch (IOException | NumberFormatException | DataFormatException e) {
+                    if (++failedTimes > MAX_BLOCK_RETRY_TIMES) {
+                        throw new IOException("Failed to get image block from " + url, e);
+                    }
+                    LOG.warn("failed to get image block from {}, retry times {}", url, failedTimes, e);
+                    try {
+                        Thread.sleep(1000L * failedTimes);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted when getting image from " + url, e);
+                    }
+                } finally {
+                    if (conn != null) {
+                        conn.disconnect();
+                    }
+                }
             }
+        }
+    }
+
+    // read the block in the response, and verify its length and checksum
+    private static byte[] readBlock(HttpURLConnection conn) throws IOException, DataFormatException {
+        int blockLength = Integer.parseInt(conn.getHeaderField(X_BLOCK_LENGTH));
+        long expectedChecksum = Long.parseLong(conn.getHeaderField(X_BLOCK_CHECKSUM));
+        int contentLength = conn.getContentLength();
+        // the compressed block may be a little larger than the block
+        if (blockLength < 0 || blockLength > MAX_BLOCK_BYTES || contentLength < 0
+                || contentLength > 2 * MAX_BLOCK_BYTES) {
+            throw new IOException("Invalid block length " + blockLength + ", content length " + contentLength);
+        }
+        byte[] content = new byte[contentLength];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(conn.getInputStream()))) {
+            in.readFully(content);
+        }
+        byte[] block = Boolean.parseBoolean(conn.getHeaderField(X_BLOCK_COMPRESSED))
+                ? decompress(content, blockLength) : content;
+        if (block.length != blockLength) {
+            throw new IOException("Unexpected block length, expected: " + blockLength + ", actual: " + block.length);
+        }
+        long checksum = checksum(block);
+        if (checksum != expectedChecksum) {
+            throw new IOException("Unexpected block checksum, expected: " + expectedChecksum
+                    + ", actual: " + checksum);
+        }
+        return block;
+    }
 
-            BufferedInputStream bin = new BufferedInputStream(conn.getInputStream());
+    public static byte[] readBlock(File file, long offset, int length) throws IOException {
+        byte[] block = new byte[length];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(offset);
+            raf.readFully(block);
+        }
+        return block;
+    }
 
-            // Do not limit speed in client side.
-            long bytes = IOUtils.copyBytes(bin, out, BUFFER_BYTES, CHECKPOINT_LIMIT_BYTES, true);
+    public static long checksum(byte[] block) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(block, 0, block.length);
+        return crc32.getValue();
+    }
+
+    // checksum of the range of file, without loading the range into heap
+    public static long checksum(File file, long offset, long length) throws IOException {
+        CRC32 crc32 = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_BYTES, end - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of file " + file.getName() + " at " + position);
+                }
+                buffer.flip();
+                crc32.update(buffer);
+                position += read;
+            }
+        }
+        return crc32.getValue();
+    }
 
-            if ((imageSize > 0) && (bytes != imageSize)) {
-                throw new IOException("Unexpected image size, expected: " + imageSize + ", actual: " + bytes);
+    public static byte[] compress(byte[] block) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(block);
+            deflater.finish();
+            byte[] buf = new byte[BUFFER_BYTES];
+            ByteArrayOutputStream out = new ByteArrayOutputStream(block.length / 2 + 1);
+            while (!deflater.finished()) {
+                int len = deflater.deflate(buf);
+                out.write(buf, 0, len);
             }
+            return out.toByteArray();
         } finally {
-            if (conn != null) {
-                conn.disconnect();
+            deflater.end();
+        }
+    }
+
+    public static byte[] decompress(byte[] content, int blockLength) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(content);
+            byte[] block = new byte[blockLength];
+            // more data than the block length is inflated into the overflow buffer
+            byte[] overflow = new byte[1];
+            int len = 0;
+            while (!inflater.finished()) {
+                int n = len < blockLength ? inflater.inflate(block, len, blockLength - len)
+                        : inflater.inflate(overflow);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                len += n;
             }
-            if (out != null) {
-                out.close();
+            if (len != blockLength || !inflater.finished()) {
+                throw new DataFormatException("Unexpected decompressed length " + len + ", expected " + blockLength);
             }
+            return block;
+        } finally {
+            inflater.end();
         }
     }
-
 }
@@ -0,0 +1,53 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.master;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.LongSupplier;
+
+/**
+ * Aborts writing the snapshot image of a non-master frontend by throwing IOException once the journals waiting
+ * for replay exceed the bound, since the replay is paused while saving, see Catalog.saveSnapshotImage().
+ * The lag is checked at most once per check interval.
+ */
+public class ReplayLagCheckedOutputStream extends FilterOutputStream {
+    private final LongSupplier replayLag;
+    private final long maxReplayLag;
+    private final long checkIntervalMs;
+    private long lastCheckTime = 0;
+
+    public ReplayLagCheckedOutputStream(OutputStream out, LongSupplier replayLag, long maxReplayLag,
+                                        long checkIntervalMs) {
+        super(out);
+        this.replayLag = replayLag;
+        this.maxReplayLag = maxReplayLag;
+        this.checkIntervalMs = checkIntervalMs;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkReplayLag();
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkReplayLag();
+        out.write(b, off, len);
+    }
+
+    private void checkReplayLag() throws IOException {
+        long now = System.currentTimeMillis();
+        if (now - lastCheckTime < checkIntervalMs) {
+            return;
+        }
+        lastCheckTime = now;
+        long lag = replayLag.getAsLong();
+        if (lag > maxReplayLag) {
+            throw new IOException("abort saving snapshot image, " + lag + " journals are waiting for replay, "
+                    + "exceeds " + maxReplayLag);
+        }
+    }
+}
@@ -40,6 +40,7 @@ import com.starrocks.catalog.Tablet;
 import com.starrocks.catalog.Tablet.TabletStatus;
 import com.starrocks.catalog.TabletInvertedIndex;
 import com.starrocks.catalog.TabletMeta;
+import com.starrocks.clone.DirtyPartitionTracker;
 import com.starrocks.clone.TabletSchedCtx;
 import com.starrocks.common.Config;
 import com.starrocks.common.MetaNotFoundException;
@@ -278,6 +279,12 @@ public class ReportHandler extends Daemon {
                 tabletRecoveryMap,
                 tabletWithoutPartitionId);
 
+        // the health of these tablets may change, let TabletChecker check them
+        DirtyPartitionTracker dirtyTracker = DirtyPartitionTracker.getInstance();
+        tabletSyncMap.values().forEach(dirtyTracker::markTabletDirty);
+        tabletDeleteFromMeta.values().forEach(dirtyTracker::markTabletDirty);
+        tabletRecoveryMap.values().forEach(dirtyTracker::markTabletDirty);
+
         // 2. sync
         sync(backendTablets, tabletSyncMap, backendId, backendReportVersion);
 
@@ -609,6 +616,7 @@ public class ReportHandler extends Daemon {
                                 } else {
                                     // just set this replica as bad
                                     if (replica.setBad(true)) {
+                                        DirtyPartitionTracker.getInstance().markTabletDirty(tabletId);
                                         LOG.warn("tablet {} has only one replica {} on backend {}"
                                                         + " and it is lost, set it as bad",
                                                 tabletId, replica.getId(), backendId);
@@ -832,6 +840,7 @@ public class ReportHandler extends Daemon {
                         if (tTabletInfo.getSchema_hash() == schemaHash) {
                             if (tTabletInfo.isSetUsed() && !tTabletInfo.isUsed()) {
                                 if (replica.setBad(true)) {
+                                    DirtyPartitionTracker.getInstance().markTabletDirty(tabletId);
                                     LOG.warn("set bad for replica {} of tablet {} on backend {}",
                                             replica.getId(), tabletId, backendId);
                                     ReplicaPersistInfo replicaPersistInfo = ReplicaPersistInfo.createForReport(
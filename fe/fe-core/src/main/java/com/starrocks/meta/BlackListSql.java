@@ -9,6 +9,13 @@ public class BlackListSql {
         this.id = id;
     }
 
+    public BlackListSql(String digest, long id) {
+        this.digest = digest;
+        this.id = id;
+    }
+
     public Pattern pattern;
+    // digest of the forbidden sql, see SqlDigest. Only one of pattern and digest is set.
+    public String digest;
     public long id;
 }
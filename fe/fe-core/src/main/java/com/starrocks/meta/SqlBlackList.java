@@ -13,7 +13,9 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-// Used by sql's blacklist
+// Used by sql's blacklist.
+// The regular expression and digest rules are volatile: they are only kept in the memory of this frontend,
+// and have to be added again to each frontend after it is restarted.
 public class SqlBlackList {
     private static final SqlBlackList instance = new SqlBlackList();
 
@@ -22,6 +24,14 @@ public class SqlBlackList {
     }
 
     public static void verifying(String sql) throws AnalysisException {
+        verifying(sql, null);
+    }
+
+    // digest rules are checked by a single lookup, regular expression rules have to be matched one by one
+    public static void verifying(String sql, String digest) throws AnalysisException {
+        if (digest != null && getInstance().digestBlackListMap.containsKey(digest)) {
+            ErrorReport.reportAnalysisException(ErrorCode.ERR_SQL_IN_BLACKLIST_ERROR);
+        }
         for (BlackListSql patternAndId : getInstance().sqlBlackListMap.values()) {
             Matcher m = patternAndId.pattern.matcher(sql);
             if (m.find()) {
@@ -38,19 +48,35 @@ public class SqlBlackList {
         }
     }
 
-    // we delete sql's regular expression use id, so we iterate this map.
+    // we use digest as key, and (digest, id) as value.
+    public void putDigest(String digest) {
+        if (!digestBlackListMap.containsKey(digest)) {
+            long id = ids.getAndIncrement();
+            digestBlackListMap.putIfAbsent(digest, new BlackListSql(digest, id));
+        }
+    }
+
+    // we delete sql's regular expression or digest use id, so we iterate these maps.
     public void delete(long id) {
         for (Map.Entry<String, BlackListSql> entry : sqlBlackListMap.entrySet()) {
             if (entry.getValue().id == id) {
                 sqlBlackListMap.remove(entry.getKey());
             }
         }
+        for (Map.Entry<String, BlackListSql> entry : digestBlackListMap.entrySet()) {
+            if (entry.getValue().id == id) {
+                digestBlackListMap.remove(entry.getKey());
+            }
+        }
     }
 
     // sqlBlackListMap: key is String(sql), value is BlackListSql.
     // BlackListSql is (Pattern, id). Pattern is the regular expression, id marks this sql, and is show with "show sqlblacklist";
     public ConcurrentMap<String, BlackListSql> sqlBlackListMap = new ConcurrentHashMap<>();
 
+    // digestBlackListMap: key is the digest of forbidden sql, value is BlackListSql with the digest.
+    public ConcurrentMap<String, BlackListSql> digestBlackListMap = new ConcurrentHashMap<>();
+
     // ids used in sql blacklist
     public AtomicLong ids = new AtomicLong();
 }
@@ -35,15 +35,19 @@ import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.load.EtlJobType;
 import com.starrocks.load.loadv2.JobState;
 import com.starrocks.load.loadv2.LoadManager;
+import com.starrocks.load.routineload.KafkaRoutineLoadJob;
 import com.starrocks.load.routineload.RoutineLoadJob;
 import com.starrocks.load.routineload.RoutineLoadManager;
+import com.starrocks.master.Checkpoint;
 import com.starrocks.metric.Metric.MetricType;
 import com.starrocks.metric.Metric.MetricUnit;
 import com.starrocks.monitor.jvm.JvmService;
 import com.starrocks.monitor.jvm.JvmStats;
+import com.starrocks.qe.QueryQueueManager;
 import com.starrocks.service.ExecuteEnv;
 import com.starrocks.system.Backend;
 import com.starrocks.system.SystemInfoService;
+import com.starrocks.task.AgentTaskDispatcher;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -70,6 +74,8 @@ public final class MetricRepo {
     public static LongCounterMetric COUNTER_QUERY_ERR;
     public static LongCounterMetric COUNTER_QUERY_TIMEOUT;
     public static LongCounterMetric COUNTER_QUERY_SUCCESS;
+    public static LongCounterMetric COUNTER_PLAN_CACHE_HIT;
+    public static LongCounterMetric COUNTER_PLAN_CACHE_MISS;
     public static LongCounterMetric COUNTER_SLOW_QUERY;
     public static LongCounterMetric COUNTER_LOAD_ADD;
     public static LongCounterMetric COUNTER_LOAD_FINISHED;
@@ -86,9 +92,15 @@ public final class MetricRepo {
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_RECEIVED_BYTES;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_ERROR_ROWS;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_PAUSED;
+    public static LongCounterMetric COUNTER_AUDIT_EVENT_DROPPED;
+    public static LongCounterMetric COUNTER_QUERY_QUEUED;
+    public static LongCounterMetric COUNTER_QUERY_QUEUE_TIMEOUT;
 
     public static Histogram HISTO_QUERY_LATENCY;
     public static Histogram HISTO_EDIT_LOG_WRITE_LATENCY;
+    public static Histogram HISTO_AGENT_TASK_DISPATCH_LATENCY;
+    // the q-error of the estimated output rows of plan nodes, max(est / actual, actual / est) multiplied by 100
+    public static Histogram HISTO_CARDINALITY_Q_ERROR;
 
     // following metrics will be updated by metric calculator
     public static GaugeMetricImpl<Double> GAUGE_QUERY_PER_SECOND;
@@ -197,6 +209,43 @@ public final class MetricRepo {
         };
         STARROCKS_METRIC_REGISTER.addMetric(metaLogCount);
 
+        // checkpoint
+        GaugeMetric<Long> checkpointCost = new GaugeMetric<Long>(
+                "checkpoint_cost_ms", MetricUnit.MILLISECONDS, "time of the last checkpoint made by this frontend") {
+            @Override
+            public Long getValue() {
+                return Checkpoint.getLastCheckpointCostMs();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(checkpointCost);
+        GaugeMetric<Long> checkpointPeakHeapUsed = new GaugeMetric<Long>(
+                "checkpoint_peak_heap_used_bytes", MetricUnit.BYTES,
+                "peak heap used during the last checkpoint made by this frontend") {
+            @Override
+            public Long getValue() {
+                return Checkpoint.getLastCheckpointPeakHeapUsed();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(checkpointPeakHeapUsed);
+
+        // query queue
+        GaugeMetric<Long> queryQueueRunning = new GaugeMetric<Long>(
+                "query_queue_running", MetricUnit.REQUESTS, "number of running queries admitted by the query queue") {
+            @Override
+            public Long getValue() {
+                return (long) QueryQueueManager.getInstance().getRunningNum();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(queryQueueRunning);
+        GaugeMetric<Long> queryQueueWaiting = new GaugeMetric<Long>(
+                "query_queue_waiting", MetricUnit.REQUESTS, "number of queries waiting in the query queue") {
+            @Override
+            public Long getValue() {
+                return (long) QueryQueueManager.getInstance().getWaitingNum();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(queryQueueWaiting);
+
         // scheduled tablet num
         GaugeMetric<Long> scheduledTabletNum = (GaugeMetric<Long>) new GaugeMetric<Long>(
                 "scheduled_tablet_num", MetricUnit.NOUNIT, "number of tablets being scheduled") {
@@ -210,6 +259,35 @@ public final class MetricRepo {
         };
         STARROCKS_METRIC_REGISTER.addMetric(scheduledTabletNum);
 
+        // agent tasks waiting to be sent to backends
+        GaugeMetric<Long> agentTaskQueuedNum = (GaugeMetric<Long>) new GaugeMetric<Long>(
+                "agent_task_queued_num", MetricUnit.NOUNIT, "number of agent tasks waiting to be sent to backends") {
+            @Override
+            public Long getValue() {
+                return AgentTaskDispatcher.getInstance().getQueuedTaskNum();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(agentTaskQueuedNum);
+
+        // audit events waiting to be delivered to audit plugins
+        GaugeMetric<Long> auditEventQueuedNum = (GaugeMetric<Long>) new GaugeMetric<Long>(
+                "audit_event_queued_num", MetricUnit.NOUNIT, "number of audit events waiting to be delivered") {
+            @Override
+            public Long getValue() {
+                return Catalog.getCurrentAuditEventProcessor().getQueuedEventNum();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(auditEventQueuedNum);
+        GaugeMetric<Long> auditEventQueueLag = (GaugeMetric<Long>) new GaugeMetric<Long>(
+                "audit_event_queue_lag_ms", MetricUnit.MILLISECONDS,
+                "waiting time of the oldest audit event not delivered yet") {
+            @Override
+            public Long getValue() {
+                return Catalog.getCurrentAuditEventProcessor().getQueueLagMs();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(auditEventQueueLag);
+
         // routine load jobs
         RoutineLoadManager routineLoadManger = Catalog.getCurrentCatalog().getRoutineLoadManager();
         for (RoutineLoadJob.JobState state : RoutineLoadJob.JobState.values()) {
@@ -299,6 +377,12 @@ public final class MetricRepo {
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_TIMEOUT);
         COUNTER_QUERY_SUCCESS = new LongCounterMetric("query_success", MetricUnit.REQUESTS, "total success query");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_SUCCESS);
+        COUNTER_PLAN_CACHE_HIT = new LongCounterMetric("plan_cache_hit", MetricUnit.REQUESTS,
+                "total queries using a cached plan");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_PLAN_CACHE_HIT);
+        COUNTER_PLAN_CACHE_MISS = new LongCounterMetric("plan_cache_miss", MetricUnit.REQUESTS,
+                "total cacheable queries planned without a cached plan");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_PLAN_CACHE_MISS);
         COUNTER_SLOW_QUERY = new LongCounterMetric("slow_query", MetricUnit.REQUESTS, "total slow query");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_SLOW_QUERY);
         COUNTER_LOAD_ADD = new LongCounterMetric("load_add", MetricUnit.REQUESTS, "total load submit");
@@ -344,10 +428,25 @@ public final class MetricRepo {
                 "total error rows of routine load");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_ROUTINE_LOAD_ERROR_ROWS);
 
+        COUNTER_AUDIT_EVENT_DROPPED = new LongCounterMetric("audit_event_dropped", MetricUnit.REQUESTS,
+                "counter of audit events dropped because the audit event queues are full");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_AUDIT_EVENT_DROPPED);
+
+        COUNTER_QUERY_QUEUED = new LongCounterMetric("query_queue_queued", MetricUnit.REQUESTS,
+                "counter of queries which wait in the query queue");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_QUEUED);
+        COUNTER_QUERY_QUEUE_TIMEOUT = new LongCounterMetric("query_queue_timeout", MetricUnit.REQUESTS,
+                "counter of queries which fail because of waiting in the query queue for too long");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_QUEUE_TIMEOUT);
+
         // 3. histogram
         HISTO_QUERY_LATENCY = METRIC_REGISTER.histogram(MetricRegistry.name("query", "latency", "ms"));
         HISTO_EDIT_LOG_WRITE_LATENCY =
                 METRIC_REGISTER.histogram(MetricRegistry.name("editlog", "write", "latency", "ms"));
+        HISTO_AGENT_TASK_DISPATCH_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("agent_task", "dispatch", "latency", "ms"));
+        HISTO_CARDINALITY_Q_ERROR =
+                METRIC_REGISTER.histogram(MetricRegistry.name("optimizer", "cardinality", "q_error_x100"));
 
         // init system metrics
         initSystemMetrics();
@@ -474,6 +573,8 @@ public final class MetricRepo {
             visitor.visit(metric);
         }
 
+        collectRoutineLoadLagMetrics(visitor);
+
         // table metrics
         if (collectTableMetrics) {
             collectTableMetrics(visitor, minifyTableMetrics);
@@ -495,6 +596,31 @@ public final class MetricRepo {
         SYSTEM_METRICS.update();
     }
 
+    // collect the lag of kafka partitions of running routine load jobs
+    private static void collectRoutineLoadLagMetrics(MetricVisitor visitor) {
+        RoutineLoadManager routineLoadManager = Catalog.getCurrentCatalog().getRoutineLoadManager();
+        if (routineLoadManager == null) {
+            return;
+        }
+        List<RoutineLoadJob> jobs =
+                routineLoadManager.getRoutineLoadJobByState(Sets.newHashSet(RoutineLoadJob.JobState.RUNNING));
+        for (RoutineLoadJob job : jobs) {
+            if (!(job instanceof KafkaRoutineLoadJob)) {
+                continue;
+            }
+            for (Map.Entry<Integer, Long> entry : ((KafkaRoutineLoadJob) job).getPartitionLags().entrySet()) {
+                GaugeMetricImpl<Long> lag = new GaugeMetricImpl<>("routine_load_partition_lag", MetricUnit.ROWS,
+                        "number of messages not consumed in the kafka partition of routine load job");
+                lag.setValue(entry.getValue());
+                // job names are only unique in a database
+                lag.addLabel(new MetricLabel("job_id", String.valueOf(job.getId())))
+                        .addLabel(new MetricLabel("job_name", job.getName()))
+                        .addLabel(new MetricLabel("partition", String.valueOf(entry.getKey())));
+                visitor.visit(lag);
+            }
+        }
+    }
+
     // collect table-level metrics
     private static void collectTableMetrics(MetricVisitor visitor, boolean minifyTableMetrics) {
         Catalog catalog = Catalog.getCurrentCatalog();
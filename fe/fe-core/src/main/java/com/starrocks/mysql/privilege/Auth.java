@@ -1379,6 +1379,15 @@ public class Auth implements Writable {
         }
     }
 
+    public List<String> getRoleNamesByUser(UserIdentity userIdentity) {
+        readLock();
+        try {
+            return roleManager.getRoleNamesByUser(userIdentity);
+        } finally {
+            readUnlock();
+        }
+    }
+
     public List<List<String>> getRoleInfo() {
         readLock();
         try {
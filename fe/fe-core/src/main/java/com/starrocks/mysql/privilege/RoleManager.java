@@ -123,6 +123,16 @@ public class RoleManager implements Writable {
         return existingRole;
     }
 
+    public List<String> getRoleNamesByUser(UserIdentity userIdentity) {
+        List<String> roleNames = Lists.newArrayList();
+        for (Role role : roles.values()) {
+            if (role.getUsers().contains(userIdentity)) {
+                roleNames.add(role.getRoleName());
+            }
+        }
+        return roleNames;
+    }
+
     public void dropUser(UserIdentity userIdentity) {
         for (Role role : roles.values()) {
             role.dropUser(userIdentity);
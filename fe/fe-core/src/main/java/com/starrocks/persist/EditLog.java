@@ -742,7 +742,8 @@ public class EditLog {
                 }
                 case OperationType.OP_DYNAMIC_PARTITION:
                 case OperationType.OP_MODIFY_IN_MEMORY:
-                case OperationType.OP_MODIFY_REPLICATION_NUM: {
+                case OperationType.OP_MODIFY_REPLICATION_NUM:
+                case OperationType.OP_MODIFY_ASYNC_MV_STATE: {
                     ModifyTablePropertyOperationLog modifyTablePropertyOperationLog =
                             (ModifyTablePropertyOperationLog) journal.getData();
                     catalog.replayModifyTableProperty(opCode, modifyTablePropertyOperationLog);
@@ -1333,6 +1334,10 @@ public class EditLog {
         logEdit(OperationType.OP_MODIFY_IN_MEMORY, info);
     }
 
+    public void logModifyAsyncMaterializedViewState(ModifyTablePropertyOperationLog info) {
+        logEdit(OperationType.OP_MODIFY_ASYNC_MV_STATE, info);
+    }
+
     public void logReplaceTempPartition(ReplacePartitionOperationLog info) {
         logEdit(OperationType.OP_REPLACE_TEMP_PARTITION, info);
     }
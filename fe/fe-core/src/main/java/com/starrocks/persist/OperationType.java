@@ -194,4 +194,7 @@ public class OperationType {
     // statistic 10010 ~ 10020
     public static final short OP_ADD_ANALYZER_JOB = 10010;
     public static final short OP_REMOVE_ANALYZER_JOB = 10011;
+
+    // asynchronous materialized view 10021 ~ 10030
+    public static final short OP_MODIFY_ASYNC_MV_STATE = 10021;
 }
@@ -525,7 +525,7 @@ public class DistributedPlanner {
                         (leftPartitions.size() <= 1);
 
         if (!noNeedCheckColocateGroup) {
-            ColocateTableIndex colocateIndex = Catalog.getCurrentColocateIndex();
+            ColocateTableIndex.Snapshot colocateIndex = Catalog.getCurrentColocateIndex().getSnapshot();
 
             //1 the table must be colocate
             if (!colocateIndex.isSameGroup(leftTable.getId(), rightTable.getId())) {
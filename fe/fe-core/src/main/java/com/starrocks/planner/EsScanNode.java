@@ -36,6 +36,7 @@ import com.starrocks.catalog.PartitionInfo;
 import com.starrocks.catalog.PartitionKey;
 import com.starrocks.catalog.RangePartitionInfo;
 import com.starrocks.common.AnalysisException;
+import com.starrocks.common.Config;
 import com.starrocks.common.UserException;
 import com.starrocks.external.elasticsearch.EsShardPartitions;
 import com.starrocks.external.elasticsearch.EsShardRouting;
@@ -237,38 +238,48 @@ public class EsScanNode extends ScanNode {
                     colocatedBes.addAll(backendMap.get(address.getHostname()));
                 }
                 boolean usingRandomBackend = colocatedBes.size() == 0;
-                List<Backend> candidateBeList = Lists.newArrayList();
-                if (usingRandomBackend) {
-                    for (int i = 0; i < numBe; ++i) {
-                        candidateBeList.add(backendList.get(beIndex++ % size));
+
+                String indexName = shardRouting.get(0).getIndexName();
+                int shardId = shardRouting.get(0).getShardId();
+                int sliceMax = computeSliceNum(table.getTransport(), indexState.getShardDocCount(indexName, shardId));
+                for (int sliceId = 0; sliceId < sliceMax; ++sliceId) {
+                    List<Backend> candidateBeList = Lists.newArrayList();
+                    if (usingRandomBackend) {
+                        for (int i = 0; i < numBe; ++i) {
+                            candidateBeList.add(backendList.get(beIndex++ % size));
+                        }
+                    } else {
+                        candidateBeList.addAll(colocatedBes);
+                        Collections.shuffle(candidateBeList);
                     }
-                } else {
-                    candidateBeList.addAll(colocatedBes);
-                    Collections.shuffle(candidateBeList);
-                }
 
-                // Locations
-                TScanRangeLocations locations = new TScanRangeLocations();
-                for (int i = 0; i < numBe && i < candidateBeList.size(); ++i) {
-                    TScanRangeLocation location = new TScanRangeLocation();
-                    Backend be = candidateBeList.get(i);
-                    location.setBackend_id(be.getId());
-                    location.setServer(new TNetworkAddress(be.getHost(), be.getBePort()));
-                    locations.addToLocations(location);
-                }
+                    // Locations
+                    TScanRangeLocations locations = new TScanRangeLocations();
+                    for (int i = 0; i < numBe && i < candidateBeList.size(); ++i) {
+                        TScanRangeLocation location = new TScanRangeLocation();
+                        Backend be = candidateBeList.get(i);
+                        location.setBackend_id(be.getId());
+                        location.setServer(new TNetworkAddress(be.getHost(), be.getBePort()));
+                        locations.addToLocations(location);
+                    }
 
-                // Generate on es scan range
-                TEsScanRange esScanRange = new TEsScanRange();
-                esScanRange.setEs_hosts(shardAllocations);
-                esScanRange.setIndex(shardRouting.get(0).getIndexName());
-                esScanRange.setType(table.getMappingType());
-                esScanRange.setShard_id(shardRouting.get(0).getShardId());
-                // Scan range
-                TScanRange scanRange = new TScanRange();
-                scanRange.setEs_scan_range(esScanRange);
-                locations.setScan_range(scanRange);
-                // result
-                result.add(locations);
+                    // Generate on es scan range
+                    TEsScanRange esScanRange = new TEsScanRange();
+                    esScanRange.setEs_hosts(shardAllocations);
+                    esScanRange.setIndex(indexName);
+                    esScanRange.setType(table.getMappingType());
+                    esScanRange.setShard_id(shardId);
+                    if (sliceMax > 1) {
+                        esScanRange.setSlice_id(sliceId);
+                        esScanRange.setSlice_max(sliceMax);
+                    }
+                    // Scan range
+                    TScanRange scanRange = new TScanRange();
+                    scanRange.setEs_scan_range(esScanRange);
+                    locations.setScan_range(scanRange);
+                    // result
+                    result.add(locations);
+                }
             }
 
         }
@@ -283,6 +294,22 @@ public class EsScanNode extends ScanNode {
         return result;
     }
 
+    /**
+     * big shards are split into several sliced scroll scan ranges, only http transport supports sliced scroll
+     *
+     * @param transport transport of the es table
+     * @param docCount doc count of the shard, -1 if unknown
+     * @return the number of slices, 1 means no slicing
+     */
+    static int computeSliceNum(String transport, long docCount) {
+        long maxDocsPerSlice = Config.es_scan_max_docs_per_slice;
+        if (maxDocsPerSlice <= 0 || docCount <= maxDocsPerSlice || !EsTable.TRANSPORT_HTTP.equals(transport)) {
+            return 1;
+        }
+        long sliceNum = (docCount + maxDocsPerSlice - 1) / maxDocsPerSlice;
+        return (int) Math.max(1, Math.min(sliceNum, Config.es_scan_max_slices_per_shard));
+    }
+
     /**
      * if the index name is an alias or index pattern, then the es table is related
      * with one or more indices some indices could be pruned by using partition info
@@ -190,6 +190,16 @@ public class ExchangeNode extends PlanNode {
         return getChildren().stream().allMatch(PlanNode::canUsePipeLine);
     }
 
+    @Override
+    public double getDistinctValuesCount(Expr expr) {
+        double ndv = super.getDistinctValuesCount(expr);
+        // the statistics of an exchange are the same as its sender's
+        if (ndv < 0 && children.size() == 1) {
+            return children.get(0).getDistinctValuesCount(expr);
+        }
+        return ndv;
+    }
+
     @Override
     public boolean pushDownRuntimeFilters(RuntimeFilterDescription description, Expr probeExpr) {
         boolean accept = false;
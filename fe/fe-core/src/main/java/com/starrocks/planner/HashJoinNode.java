@@ -196,6 +196,7 @@ public class HashJoinNode extends PlanNode {
             // push down rf to child nodes, and build it only when it
             // can be accepted by child nodes.
             rf.setBuildExpr(left);
+            rf.setBuildNdv(inner.getDistinctValuesCount(left));
             boolean accept = false;
             for (PlanNode node : children) {
                 accept = accept || node.pushDownRuntimeFilters(rf, right);
@@ -206,6 +207,50 @@ public class HashJoinNode extends PlanNode {
         }
     }
 
+    @Override
+    public boolean pushDownRuntimeFilters(RuntimeFilterDescription description, Expr probeExpr) {
+        boolean accept = super.pushDownRuntimeFilters(description, probeExpr);
+        if (!joinOp.isInnerJoin() && !joinOp.isLeftSemiJoin()) {
+            return accept;
+        }
+
+        // The output rows of this join satisfy the equal join conjuncts, so a filter on one side of
+        // an equal conjunct also applies to the other side, which may be another probe scan. e.g. for
+        // `fact join dim1 on fact.k = dim1.k join dim2 on dim1.k = dim2.k`, the filter built by dim2
+        // filters both fact and dim1.
+        // The types must be the same, otherwise the hash values of the keys would be different.
+        for (BinaryPredicate eqJoinConjunct : eqJoinConjuncts) {
+            if (eqJoinConjunct.getOp() != BinaryPredicate.Operator.EQ) {
+                continue;
+            }
+            Expr other;
+            if (eqJoinConjunct.getChild(0).equals(probeExpr)) {
+                other = eqJoinConjunct.getChild(1);
+            } else if (eqJoinConjunct.getChild(1).equals(probeExpr)) {
+                other = eqJoinConjunct.getChild(0);
+            } else {
+                continue;
+            }
+            if (!other.getType().equals(probeExpr.getType())) {
+                continue;
+            }
+            PlanNode child = other.isBoundByTupleIds(getChild(0).getTupleIds()) ? getChild(0) : getChild(1);
+            // a left semi join only outputs the rows of left child
+            if (joinOp.isLeftSemiJoin() && child == getChild(0)) {
+                continue;
+            }
+            if (!other.isBoundByTupleIds(child.getTupleIds())) {
+                continue;
+            }
+            other.setUseVectorized(other.isVectorized());
+            if (child.pushDownRuntimeFilters(description, other)) {
+                accept = true;
+            }
+            break;
+        }
+        return accept;
+    }
+
     public List<BinaryPredicate> getEqJoinConjuncts() {
         return eqJoinConjuncts;
     }
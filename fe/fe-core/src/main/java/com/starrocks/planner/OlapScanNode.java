@@ -57,6 +57,7 @@ import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.ErrorCode;
 import com.starrocks.common.ErrorReport;
+import com.starrocks.common.Pair;
 import com.starrocks.common.UserException;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.service.FrontendOptions;
@@ -129,6 +130,8 @@ public class OlapScanNode extends ScanNode {
     private final HashSet<Long> scanBackendIds = new HashSet<>();
 
     private Map<Long, Integer> tabletId2BucketSeq = Maps.newHashMap();
+    // tablet id -> (data size, row count) reported by the replicas of the tablet, used to balance scan ranges
+    private final Map<Long, Pair<Long, Long>> tabletId2Stat = Maps.newHashMap();
     // a bucket seq may map to many tablets, and each tablet has a TScanRangeLocations.
     public ArrayListMultimap<Integer, TScanRangeLocations> bucketSeq2locations = ArrayListMultimap.create();
 
@@ -317,9 +320,9 @@ public class OlapScanNode extends ScanNode {
 
     private Collection<Long> partitionPrune(RangePartitionInfo partitionInfo, PartitionNames partitionNames)
             throws AnalysisException {
-        Map<Long, Range<PartitionKey>> keyRangeById = null;
+        PartitionPruner partitionPruner;
         if (partitionNames != null) {
-            keyRangeById = Maps.newHashMap();
+            Map<Long, Range<PartitionKey>> keyRangeById = Maps.newHashMap();
             for (String partName : partitionNames.getPartitionNames()) {
                 Partition part = olapTable.getPartition(partName, partitionNames.isTemp());
                 if (part == null) {
@@ -327,11 +330,12 @@ public class OlapScanNode extends ScanNode {
                 }
                 keyRangeById.put(part.getId(), partitionInfo.getRange(part.getId()));
             }
+            partitionPruner = new RangePartitionPruner(keyRangeById,
+                    partitionInfo.getPartitionColumns(), columnFilters);
         } else {
-            keyRangeById = partitionInfo.getIdToRange(false);
+            partitionPruner = new RangePartitionPruner(partitionInfo.getRangeIndex(),
+                    partitionInfo.getPartitionColumns(), columnFilters);
         }
-        PartitionPruner partitionPruner = new RangePartitionPruner(keyRangeById,
-                partitionInfo.getPartitionColumns(), columnFilters);
         return partitionPruner.prune();
     }
 
@@ -407,6 +411,8 @@ public class OlapScanNode extends ScanNode {
             Collections.shuffle(replicas);
             boolean tabletIsNull = true;
             boolean collectedStat = false;
+            long tabletDataSize = 0;
+            long tabletRowCount = 0;
             for (Replica replica : replicas) {
                 Backend backend = Catalog.getCurrentSystemInfo().getBackend(replica.getBackendId());
                 if (backend == null) {
@@ -426,6 +432,9 @@ public class OlapScanNode extends ScanNode {
                     actualRows += replica.getRowCount();
                     collectedStat = true;
                 }
+                // replicas may lag behind in reporting, so take the largest one
+                tabletDataSize = Math.max(tabletDataSize, replica.getDataSize());
+                tabletRowCount = Math.max(tabletRowCount, replica.getRowCount());
                 scanBackendIds.add(backend.getId());
             }
             if (tabletIsNull) {
@@ -436,6 +445,7 @@ public class OlapScanNode extends ScanNode {
             scanRangeLocations.setScan_range(scanRange);
 
             bucketSeq2locations.put(tabletId2BucketSeq.get(tabletId), scanRangeLocations);
+            tabletId2Stat.put(tabletId, new Pair<>(tabletDataSize, tabletRowCount));
 
             result.add(scanRangeLocations);
         }
@@ -545,6 +555,46 @@ public class OlapScanNode extends ScanNode {
         return result;
     }
 
+    /**
+     * Estimate the bytes to scan of each scan range, the result has the same size with locations.
+     * The data size reported by TabletStatMgr is used first. A tablet without reported data size is
+     * estimated by its row count and the average row size of the other tablets, or assumed to be of
+     * the average size if its row count is unknown either.
+     */
+    public List<Long> getScanRangesBytes(List<TScanRangeLocations> locations) {
+        long knownBytes = 0;
+        long knownRows = 0;
+        int numKnownBytes = 0;
+        for (Pair<Long, Long> stat : tabletId2Stat.values()) {
+            if (stat.first > 0) {
+                knownBytes += stat.first;
+                knownRows += stat.second;
+                numKnownBytes++;
+            }
+        }
+        // without any stat, every scan range has the same weight
+        long avgBytes = numKnownBytes == 0 ? 1 : Math.max(1, knownBytes / numKnownBytes);
+        double avgRowBytes = knownRows == 0 ? 0 : (double) knownBytes / knownRows;
+
+        List<Long> scanRangesBytes = Lists.newArrayListWithCapacity(locations.size());
+        for (TScanRangeLocations scanRangeLocations : locations) {
+            Pair<Long, Long> stat =
+                    tabletId2Stat.get(scanRangeLocations.getScan_range().getInternal_scan_range().getTablet_id());
+            long bytes;
+            if (stat == null) {
+                bytes = avgBytes;
+            } else if (stat.first > 0) {
+                bytes = stat.first;
+            } else if (stat.second > 0 && avgRowBytes > 0) {
+                bytes = Math.max(1, (long) (stat.second * avgRowBytes));
+            } else {
+                bytes = avgBytes;
+            }
+            scanRangesBytes.add(bytes);
+        }
+        return scanRangesBytes;
+    }
+
     @Override
     protected String getNodeExplainString(String prefix, TExplainLevel detailLevel) {
         StringBuilder output = new StringBuilder();
@@ -29,7 +29,6 @@ import com.starrocks.common.TreeNode;
 import com.starrocks.common.UserException;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.thrift.TExplainLevel;
-import com.starrocks.thrift.TNetworkAddress;
 import com.starrocks.thrift.TPartitionType;
 import com.starrocks.thrift.TPlanFragment;
 import com.starrocks.thrift.TResultSinkType;
@@ -482,23 +481,6 @@ public class PlanFragment extends TreeNode<PlanFragment> {
         }
     }
 
-    public void setRuntimeFilterMergeNodeAddresses(PlanNode root, TNetworkAddress host) {
-        if (root instanceof ExchangeNode) {
-            return;
-        }
-
-        if (root instanceof HashJoinNode) {
-            HashJoinNode joinNode = (HashJoinNode) root;
-            for (RuntimeFilterDescription description : joinNode.getBuildRuntimeFilters()) {
-                description.addMergeNode(host);
-            }
-        }
-
-        for (PlanNode node : root.getChildren()) {
-            setRuntimeFilterMergeNodeAddresses(node, host);
-        }
-    }
-
     public Map<Integer, RuntimeFilterDescription> getBuildRuntimeFilters() {
         return buildRuntimeFilters;
     }
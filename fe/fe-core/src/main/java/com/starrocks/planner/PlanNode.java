@@ -30,6 +30,7 @@ import com.starrocks.analysis.Analyzer;
 import com.starrocks.analysis.Expr;
 import com.starrocks.analysis.ExprSubstitutionMap;
 import com.starrocks.analysis.SlotId;
+import com.starrocks.analysis.SlotRef;
 import com.starrocks.analysis.TupleDescriptor;
 import com.starrocks.analysis.TupleId;
 import com.starrocks.common.AnalysisException;
@@ -192,6 +193,10 @@ abstract public class PlanNode extends TreeNode<PlanNode> {
         this.planNodeName = s;
     }
 
+    public String getPlanNodeName() {
+        return planNodeName;
+    }
+
     public PlanNodeId getId() {
         return id;
     }
@@ -239,6 +244,23 @@ abstract public class PlanNode extends TreeNode<PlanNode> {
         return cardinality;
     }
 
+    /**
+     * @return the estimated number of distinct values of the slot in the output of this node,
+     * or -1 if it is not a slot or there is no statistics of it
+     */
+    public double getDistinctValuesCount(Expr expr) {
+        if (!(expr instanceof SlotRef) || columnStatistics == null) {
+            return -1;
+        }
+        int slotId = ((SlotRef) expr).getSlotId().asInt();
+        for (Map.Entry<ColumnRefOperator, ColumnStatistic> entry : columnStatistics.entrySet()) {
+            if (entry.getKey().getId() == slotId) {
+                return entry.getValue().isUnknown() ? -1 : entry.getValue().getDistinctValuesCount();
+            }
+        }
+        return -1;
+    }
+
     public int getNumNodes() {
         return numNodes;
     }
@@ -814,7 +836,7 @@ abstract public class PlanNode extends TreeNode<PlanNode> {
         if (accept) {
             return true;
         }
-        if (probeExpr.isBoundByTupleIds(getTupleIds()) && description.canProbeUse(this)) {
+        if (probeExpr.isBoundByTupleIds(getTupleIds()) && description.canProbeUse(this, probeExpr)) {
             description.addProbeExpr(id.asInt(), probeExpr);
             probeRuntimeFilters.add(description);
             return true;
@@ -24,13 +24,12 @@ package com.starrocks.planner;
 import com.google.common.collect.BoundType;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Range;
-import com.google.common.collect.RangeMap;
 import com.google.common.collect.Sets;
-import com.google.common.collect.TreeRangeMap;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.NullLiteral;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.RangePartitionIndex;
 import com.starrocks.catalog.Type;
 import com.starrocks.common.AnalysisException;
 import org.apache.logging.log4j.LogManager;
@@ -45,19 +44,26 @@ import java.util.Set;
 public class RangePartitionPruner implements PartitionPruner {
     private static final Logger LOG = LogManager.getLogger(RangePartitionPruner.class);
 
-    private Map<Long, Range<PartitionKey>> partitionRangeMap;
+    private RangePartitionIndex partitionIndex;
     private List<Column> partitionColumns;
     private Map<String, PartitionColumnFilter> partitionColumnFilters;
 
     public RangePartitionPruner(Map<Long, Range<PartitionKey>> rangeMap,
                                 List<Column> columns,
                                 Map<String, PartitionColumnFilter> filters) {
-        partitionRangeMap = rangeMap;
+        this(RangePartitionIndex.create(rangeMap), columns, filters);
+    }
+
+    // prune with the index shared by queries, see RangePartitionInfo.getRangeIndex()
+    public RangePartitionPruner(RangePartitionIndex index,
+                                List<Column> columns,
+                                Map<String, PartitionColumnFilter> filters) {
+        partitionIndex = index;
         partitionColumns = columns;
         partitionColumnFilters = filters;
     }
 
-    private List<Long> prune(RangeMap<PartitionKey, Long> rangeMap,
+    private List<Long> prune(RangePartitionIndex index,
                                    int columnIdx,
                                    PartitionKey minKey,
                                    PartitionKey maxKey,
@@ -67,7 +73,7 @@ public class RangePartitionPruner implements PartitionPruner {
         // the last column in partition Key
         if (columnIdx == partitionColumns.size()) {
             try {
-                return Lists.newArrayList(rangeMap.subRangeMap(Range.closed(minKey, maxKey)).asMapOfRanges().values());
+                return index.query(Range.closed(minKey, maxKey));
             } catch (IllegalArgumentException e) {
                 return Lists.newArrayList();
             }
@@ -82,8 +88,7 @@ public class RangePartitionPruner implements PartitionPruner {
                     keyColumn.getPrimitiveType());
             List<Long> result;
             try {
-                result = Lists.newArrayList(
-                        rangeMap.subRangeMap(Range.closed(minKey, maxKey)).asMapOfRanges().values());
+                result = index.query(Range.closed(minKey, maxKey));
             } catch (IllegalArgumentException e) {
                 result = Lists.newArrayList();
             }
@@ -108,7 +113,7 @@ public class RangePartitionPruner implements PartitionPruner {
                     minKey.pushColumn(filter.lowerBound, keyColumn.getPrimitiveType());
                     maxKey.pushColumn(filter.upperBound, keyColumn.getPrimitiveType());
                 }
-                List<Long> result = prune(rangeMap, columnIdx + 1, minKey, maxKey, complex);
+                List<Long> result = prune(index, columnIdx + 1, minKey, maxKey, complex);
                 minKey.popColumn();
                 maxKey.popColumn();
                 return result;
@@ -153,8 +158,7 @@ public class RangePartitionPruner implements PartitionPruner {
 
             List<Long> result;
             try {
-                result = Lists.newArrayList(rangeMap.subRangeMap(
-                        Range.range(minKey, lowerType, maxKey, upperType)).asMapOfRanges().values());
+                result = index.query(Range.range(minKey, lowerType, maxKey, upperType));
             } catch (IllegalArgumentException e) {
                 result = Lists.newArrayList();
             }
@@ -172,7 +176,7 @@ public class RangePartitionPruner implements PartitionPruner {
         for (LiteralExpr expr : inPredicateLiterals) {
             minKey.pushColumn(expr, keyColumn.getPrimitiveType());
             maxKey.pushColumn(expr, keyColumn.getPrimitiveType());
-            Collection<Long> subList = prune(rangeMap, columnIdx + 1, minKey, maxKey, newComplex);
+            Collection<Long> subList = prune(index, columnIdx + 1, minKey, maxKey, newComplex);
             resultSet.addAll(subList);
             minKey.popColumn();
             maxKey.popColumn();
@@ -184,11 +188,6 @@ public class RangePartitionPruner implements PartitionPruner {
     public List<Long> prune() throws AnalysisException {
         PartitionKey minKey = new PartitionKey();
         PartitionKey maxKey = new PartitionKey();
-        // Map to RangeMapTree
-        RangeMap<PartitionKey, Long> rangeMap = TreeRangeMap.create();
-        for (Map.Entry<Long, Range<PartitionKey>> entry : partitionRangeMap.entrySet()) {
-            rangeMap.put(entry.getValue(), entry.getKey());
-        }
-        return prune(rangeMap, 0, minKey, maxKey, 1);
+        return prune(partitionIndex, 0, minKey, maxKey, 1);
     }
 }
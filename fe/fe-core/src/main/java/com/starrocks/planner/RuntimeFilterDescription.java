@@ -3,6 +3,8 @@
 package com.starrocks.planner;
 
 import com.starrocks.analysis.Expr;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.SessionVariable;
 import com.starrocks.thrift.TNetworkAddress;
 import com.starrocks.thrift.TRuntimeFilterBuildJoinMode;
 import com.starrocks.thrift.TRuntimeFilterDescription;
@@ -18,6 +20,17 @@ import java.util.Map;
 // but comparing to thrift definition, this class has some handy methods and
 // `toExplainString()` for explaining sql
 public class RuntimeFilterDescription {
+    // The filter built by backend is decided by the real size of the hash table: an IN filter is pushed down
+    // to the storage layer if the size is not larger than `runtime_join_filter_push_down_limit`, and a bloom
+    // filter with min/max values is built otherwise. The type here is what the planner expects from the
+    // estimated size of the build side, and decides whether the filter is worth merging globally.
+    public enum RuntimeFilterType {
+        IN,
+        BLOOM,
+        // too large to be merged as a global bloom filter, only the local filter is built
+        MIN_MAX
+    }
+
     private int filterId;
     private Expr buildExpr;
     private int exprOrder; // order of expr in eq conjuncts.
@@ -29,9 +42,12 @@ public class RuntimeFilterDescription {
     private int equalCount;
     private int crossExchangeNodeTimes;
 
-    private static final int ProbeMinSize = 100 * 1024;
-    private static final float ProbeMinSelectivity = 0.5f;
+    private long probeMinSize = 100 * 1024;
+    private double probeMinSelectivity = 0.5;
+    private long inFilterMaxSize = 1024000;
     private long buildCardinality;
+    // -1 if unknown
+    private double buildNdv;
 
     public RuntimeFilterDescription() {
         nodeIdToProbeExpr = new HashMap<>();
@@ -44,6 +60,15 @@ public class RuntimeFilterDescription {
         equalCount = 0;
         crossExchangeNodeTimes = 0;
         buildCardinality = 0;
+        buildNdv = -1;
+
+        ConnectContext context = ConnectContext.get();
+        if (context != null) {
+            SessionVariable sessionVariable = context.getSessionVariable();
+            probeMinSize = sessionVariable.getGlobalRuntimeFilterProbeMinSize();
+            probeMinSelectivity = sessionVariable.getGlobalRuntimeFilterProbeMinSelectivity();
+            inFilterMaxSize = sessionVariable.getRuntimeJoinFilterPushDownLimit();
+        }
     }
 
     public void setFilterId(int id) {
@@ -62,19 +87,60 @@ public class RuntimeFilterDescription {
         buildCardinality = value;
     }
 
-    public boolean canProbeUse(PlanNode node) {
+    public void setBuildNdv(double value) {
+        buildNdv = value;
+    }
+
+    // the expected number of distinct keys the filter is built on
+    public long getExpectedBuildSize() {
+        if (buildNdv < 0) {
+            return buildCardinality;
+        }
+        return Math.min(buildCardinality, (long) Math.ceil(buildNdv));
+    }
+
+    public RuntimeFilterType getType() {
+        long size = getExpectedBuildSize();
+        if (size <= inFilterMaxSize) {
+            return RuntimeFilterType.IN;
+        } else if (size <= HashJoinNode.getRuntimeFilterMaxSize()) {
+            return RuntimeFilterType.BLOOM;
+        }
+        return RuntimeFilterType.MIN_MAX;
+    }
+
+    public boolean canProbeUse(PlanNode node, Expr probeExpr) {
         // if we don't across exchange node, that's to say this is in local fragment instance.
         // we don't need to use adaptive strategy now. we are using a conservative way.
         if (inLocalFragmentInstance()) {
             return true;
         }
 
+        // a remote probe pays for waiting the global filter to be built and merged, which is only
+        // worthwhile when the filter removes a large number of rows.
         long card = node.getCardinality();
-        if (card < ProbeMinSize) {
+        if (card < probeMinSize) {
             return false;
         }
-        float sel = (1.0f - buildCardinality * 1.0f / card);
-        return !(sel < ProbeMinSelectivity);
+        double sel = estimateSelectivity(card, node.getDistinctValuesCount(probeExpr));
+        return sel >= probeMinSelectivity && card * sel >= getExpectedBuildSize();
+    }
+
+    /**
+     * Estimate the fraction of probe rows filtered out. Assuming the keys of the smaller side are contained by
+     * the other side, a probe row passes with probability build ndv / probe ndv. But the ndv of a join output
+     * is not reduced by the other side, so the ratio of row counts is also taken, and the more selective one
+     * of the two estimations is used.
+     */
+    double estimateSelectivity(long probeCardinality, double probeNdv) {
+        if (probeCardinality <= 0) {
+            return 0;
+        }
+        double sel = 1.0 - buildCardinality * 1.0 / probeCardinality;
+        if (buildNdv > 0 && probeNdv > 0) {
+            sel = Math.max(sel, 1.0 - Math.min(1.0, buildNdv / probeNdv));
+        }
+        return sel;
     }
 
     public void enterExchangeNode() {
@@ -129,6 +195,10 @@ public class RuntimeFilterDescription {
     }
 
     public boolean canPushAcrossExchangeNode() {
+        // the merged filter would exceed the max size of global runtime filter.
+        if (getType() == RuntimeFilterType.MIN_MAX) {
+            return false;
+        }
         // if runtime filter is shuffle-aware implementation, then only rf generated by partitioned/bucket shuffle hash join
         // can be pushed down across exchange node.
         // or broadcast join(we just need to send one copy).
@@ -77,6 +77,8 @@ public class AuditEvent {
     public boolean isQuery = false;
     @AuditField(value = "feIp")
     public String feIp = "";
+    @AuditField(value = "Digest")
+    public String digest = "";
     @AuditField(value = "Stmt")
     public String stmt = "";
 
@@ -161,6 +163,11 @@ public class AuditEvent {
             return this;
         }
 
+        public AuditEventBuilder setDigest(String digest) {
+            auditEvent.digest = digest;
+            return this;
+        }
+
         public AuditEventBuilder setStmt(String stmt) {
             auditEvent.stmt = stmt;
             return this;
@@ -21,6 +21,8 @@
 
 package com.starrocks.plugin;
 
+import java.util.List;
+
 /**
  * Audit plugin interface describe.
  */
@@ -36,4 +38,15 @@ public interface AuditPlugin {
      * Because it will be called after each query. So it must be efficient.
      */
     public void exec(AuditEvent event);
+
+    /**
+     * process a batch of events which have passed the event filter, in the order they were generated.
+     * Plugins which write to external systems should override this to amortize the cost of each write.
+     * Each plugin is called by its own thread, so a slow plugin only delays its own events.
+     */
+    default void execBatch(List<AuditEvent> events) {
+        for (AuditEvent event : events) {
+            exec(event);
+        }
+    }
 }
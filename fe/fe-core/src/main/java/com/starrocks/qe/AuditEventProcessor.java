@@ -21,7 +21,10 @@
 
 package com.starrocks.qe;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Queues;
+import com.starrocks.common.Config;
+import com.starrocks.metric.MetricRepo;
 import com.starrocks.plugin.AuditEvent;
 import com.starrocks.plugin.AuditPlugin;
 import com.starrocks.plugin.Plugin;
@@ -30,43 +33,66 @@ import com.starrocks.plugin.PluginMgr;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Class for processing all audit events.
  * It will receive audit events and handle them to all AUDIT type plugins.
+ * <p>
+ * Query threads only offer events to a bounded queue, which never blocks: the events are dropped and counted
+ * when the queue is full. A dispatcher thread drains the queue in batches and fans the events out to a bounded
+ * queue per plugin, and each plugin has its own worker thread which delivers the events to the plugin in batches
+ * of up to audit_event_batch_size events, or the events which have waited audit_event_batch_interval_ms.
+ * So a slow plugin only drops its own events, without stalling other plugins.
  */
 public class AuditEventProcessor {
     private static final Logger LOG = LogManager.getLogger(AuditEventProcessor.class);
     private static final long UPDATE_PLUGIN_INTERVAL_MS = 60 * 1000; // 1min
+    private static final long POLL_TIMEOUT_MS = 1000;
 
-    private PluginMgr pluginMgr;
+    private final PluginMgr pluginMgr;
 
-    private List<Plugin> auditPlugins;
+    private final BlockingQueue<QueuedEvent> eventQueue;
+    private final AtomicLong droppedNum = new AtomicLong(0);
+    private Thread dispatcherThread;
+    // plugin -> its worker. Only modified by the dispatcher thread, and read by metrics.
+    private final Map<Plugin, PluginWorker> workers = new ConcurrentHashMap<>();
     private long lastUpdateTime = 0;
 
-    private BlockingQueue<AuditEvent> eventQueue = Queues.newLinkedBlockingDeque(10000);
-    private Thread workerThread;
-
     private volatile boolean isStopped = false;
 
     public AuditEventProcessor(PluginMgr pluginMgr) {
         this.pluginMgr = pluginMgr;
+        this.eventQueue = Queues.newLinkedBlockingQueue(Config.audit_event_queue_size);
     }
 
     public void start() {
-        workerThread = new Thread(new Worker(), "AuditEventProcessor");
-        workerThread.setDaemon(true);
-        workerThread.start();
+        dispatcherThread = new Thread(new Dispatcher(), "AuditEventProcessor");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
     }
 
     public void stop() {
         isStopped = true;
-        if (workerThread != null) {
+        join(dispatcherThread);
+        for (PluginWorker worker : workers.values()) {
+            worker.stop();
+        }
+        for (PluginWorker worker : workers.values()) {
+            join(worker.thread);
+        }
+    }
+
+    private static void join(Thread thread) {
+        if (thread != null) {
             try {
-                workerThread.join();
+                thread.join();
             } catch (InterruptedException e) {
                 LOG.warn("join worker join failed.", e);
             }
@@ -74,47 +100,202 @@ public class AuditEventProcessor {
     }
 
     public void handleAuditEvent(AuditEvent auditEvent) {
-        try {
-            eventQueue.put(auditEvent);
-        } catch (InterruptedException e) {
-            LOG.debug("encounter exception when handle audit event, ignore", e);
+        if (!eventQueue.offer(new QueuedEvent(auditEvent, System.currentTimeMillis()))) {
+            droppedNum.incrementAndGet();
+            onDropped();
         }
     }
 
-    public class Worker implements Runnable {
+    private static void onDropped() {
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_AUDIT_EVENT_DROPPED.increase(1L);
+        }
+    }
+
+    /**
+     * @return num of audit events waiting to be delivered, an event waiting for several plugins counts once
+     * for each of them.
+     */
+    public long getQueuedEventNum() {
+        long num = eventQueue.size();
+        for (PluginWorker worker : workers.values()) {
+            num += worker.queue.size();
+        }
+        return num;
+    }
+
+    /**
+     * @return the max time in milliseconds the oldest undelivered audit event has been waiting, 0 if none.
+     */
+    public long getQueueLagMs() {
+        long now = System.currentTimeMillis();
+        long lag = lagOf(eventQueue, now);
+        for (PluginWorker worker : workers.values()) {
+            lag = Math.max(lag, lagOf(worker.queue, now));
+        }
+        return lag;
+    }
+
+    private static long lagOf(BlockingQueue<QueuedEvent> queue, long now) {
+        QueuedEvent head = queue.peek();
+        return head == null ? 0 : Math.max(0, now - head.enqueueTimeMs);
+    }
+
+    private static class QueuedEvent {
+        final AuditEvent event;
+        final long enqueueTimeMs;
+
+        QueuedEvent(AuditEvent event, long enqueueTimeMs) {
+            this.event = event;
+            this.enqueueTimeMs = enqueueTimeMs;
+        }
+    }
+
+    private class Dispatcher implements Runnable {
         @Override
         public void run() {
-            AuditEvent auditEvent;
+            List<QueuedEvent> batch = Lists.newArrayList();
             while (!isStopped) {
                 // update audit plugin list every UPDATE_PLUGIN_INTERVAL_MS.
                 // because some of plugins may be installed or uninstalled at runtime.
-                if (auditPlugins == null || System.currentTimeMillis() - lastUpdateTime > UPDATE_PLUGIN_INTERVAL_MS) {
-                    auditPlugins = pluginMgr.getActivePluginList(PluginType.AUDIT);
+                if (lastUpdateTime == 0 || System.currentTimeMillis() - lastUpdateTime > UPDATE_PLUGIN_INTERVAL_MS) {
+                    updateWorkers();
                     lastUpdateTime = System.currentTimeMillis();
-                    LOG.debug("update audit plugins. num: {}", auditPlugins.size());
                 }
 
+                batch.clear();
                 try {
-                    auditEvent = eventQueue.poll(5, TimeUnit.SECONDS);
-                    if (auditEvent == null) {
+                    QueuedEvent first = eventQueue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
                         continue;
                     }
+                    batch.add(first);
                 } catch (InterruptedException e) {
                     LOG.debug("encounter exception when getting audit event from queue, ignore", e);
                     continue;
                 }
+                eventQueue.drainTo(batch, Math.max(1, Config.audit_event_batch_size) - 1);
+                for (PluginWorker worker : workers.values()) {
+                    worker.offer(batch);
+                }
+            }
+        }
+
+        private void updateWorkers() {
+            Map<Plugin, Plugin> activePlugins = new IdentityHashMap<>();
+            for (Plugin plugin : pluginMgr.getActivePluginList(PluginType.AUDIT)) {
+                activePlugins.put(plugin, plugin);
+                if (!workers.containsKey(plugin)) {
+                    PluginWorker worker = new PluginWorker((AuditPlugin) plugin);
+                    workers.put(plugin, worker);
+                    worker.start();
+                }
+            }
+            for (Map.Entry<Plugin, PluginWorker> entry : workers.entrySet()) {
+                if (!activePlugins.containsKey(entry.getKey())) {
+                    entry.getValue().stop();
+                    workers.remove(entry.getKey());
+                }
+            }
+            for (PluginWorker worker : workers.values()) {
+                long dropped = worker.droppedNum.getAndSet(0);
+                if (dropped > 0) {
+                    LOG.warn("dropped {} audit events of plugin {} because its queue is full", dropped, worker.name);
+                }
+            }
+            long dropped = droppedNum.getAndSet(0);
+            if (dropped > 0) {
+                LOG.warn("dropped {} audit events because the audit event queue is full", dropped);
+            }
+            LOG.debug("update audit plugins. num: {}", workers.size());
+        }
+    }
 
+    private static class PluginWorker implements Runnable {
+        private final AuditPlugin plugin;
+        private final String name;
+        private final BlockingQueue<QueuedEvent> queue;
+        private final AtomicLong droppedNum = new AtomicLong(0);
+        private final Thread thread;
+        private volatile boolean isStopped = false;
+
+        PluginWorker(AuditPlugin plugin) {
+            this.plugin = plugin;
+            this.name = plugin.getClass().getSimpleName();
+            this.queue = Queues.newLinkedBlockingQueue(Config.audit_event_queue_size);
+            this.thread = new Thread(this, "AuditEventProcessor-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void stop() {
+            isStopped = true;
+        }
+
+        void offer(List<QueuedEvent> events) {
+            for (QueuedEvent event : events) {
+                try {
+                    if (!plugin.eventFilter(event.event.type)) {
+                        continue;
+                    }
+                } catch (Exception e) {
+                    LOG.debug("encounter exception when filtering audit event.", e);
+                    continue;
+                }
+                if (!queue.offer(event)) {
+                    droppedNum.incrementAndGet();
+                    onDropped();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            List<QueuedEvent> batch = Lists.newArrayList();
+            List<AuditEvent> events = Lists.newArrayList();
+            while (!isStopped) {
+                batch.clear();
                 try {
-                    for (Plugin plugin : auditPlugins) {
-                        if (((AuditPlugin) plugin).eventFilter(auditEvent.type)) {
-                            ((AuditPlugin) plugin).exec(auditEvent);
+                    QueuedEvent first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    // wait for the batch to fill, but no event waits longer than the batch interval
+                    int batchSize = Math.max(1, Config.audit_event_batch_size);
+                    long deadline = first.enqueueTimeMs + Config.audit_event_batch_interval_ms;
+                    while (batch.size() < batchSize) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        long waitMs = deadline - System.currentTimeMillis();
+                        if (batch.size() >= batchSize || waitMs <= 0) {
+                            break;
                         }
+                        QueuedEvent next = queue.poll(waitMs, TimeUnit.MILLISECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                } catch (InterruptedException e) {
+                    LOG.debug("encounter exception when getting audit event from queue, ignore", e);
+                    if (batch.isEmpty()) {
+                        continue;
                     }
+                }
+
+                events.clear();
+                for (QueuedEvent event : batch) {
+                    events.add(event.event);
+                }
+                try {
+                    plugin.execBatch(events);
                 } catch (Exception e) {
                     LOG.debug("encounter exception when processing audit event.", e);
                 }
             }
         }
-
     }
 }
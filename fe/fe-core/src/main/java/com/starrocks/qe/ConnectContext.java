@@ -122,6 +122,13 @@ public class ConnectContext {
 
     protected QueryDetail queryDetail;
 
+    // digest of the running query, null if it is not a query or the digest is disabled
+    protected SqlDigest sqlDigest;
+    // digests of all the statements of the last packet, which is scanned once for its statements
+    protected String stmtDigestsSql;
+    protected long stmtDigestsSqlMode;
+    protected List<SqlDigest> stmtDigests;
+
     // isLastStmt is true when original stmt is single stmt
     //    or current processing stmt is the last stmt for multi stmts
     // used to set mysql result package
@@ -210,6 +217,31 @@ public class ConnectContext {
         return auditEventBuilder;
     }
 
+    public SqlDigest getSqlDigest() {
+        return sqlDigest;
+    }
+
+    public void setSqlDigest(SqlDigest sqlDigest) {
+        this.sqlDigest = sqlDigest;
+    }
+
+    /**
+     * @return the digest of the statement, null if the statement can not be scanned
+     */
+    public SqlDigest computeSqlDigest(OriginStatement origStmt) {
+        long sqlMode = sessionVariable.getSqlMode();
+        // the statements of a packet share the same text object, compare the reference to avoid comparing the text
+        if (stmtDigestsSql != origStmt.originStmt || stmtDigestsSqlMode != sqlMode) {
+            stmtDigests = SqlDigest.computeAll(origStmt.originStmt, sqlMode);
+            stmtDigestsSql = origStmt.originStmt;
+            stmtDigestsSqlMode = sqlMode;
+        }
+        if (stmtDigests == null || origStmt.idx >= stmtDigests.size()) {
+            return null;
+        }
+        return stmtDigests.get(origStmt.idx);
+    }
+
     public void setThreadLocalInfo() {
         threadLocalInfo.set(this);
     }
@@ -158,6 +158,10 @@ public class ConnectProcessor {
                 }
             }
             ctx.getAuditEventBuilder().setIsQuery(true);
+            if (ctx.getSqlDigest() != null) {
+                SqlDigestStatistics.getInstance().update(ctx.getSqlDigest(), ctx.getAuditEventBuilder().build(),
+                        ctx.getState().getStateType() == QueryState.MysqlStateType.ERR);
+            }
         } else {
             ctx.getAuditEventBuilder().setIsQuery(false);
         }
@@ -220,6 +224,7 @@ public class ConnectProcessor {
             return;
         }
         ctx.getAuditEventBuilder().reset();
+        ctx.setSqlDigest(null);
         ctx.getAuditEventBuilder()
                 .setTimestamp(System.currentTimeMillis())
                 .setClientIp(ctx.getMysqlChannel().getRemoteHostPortString())
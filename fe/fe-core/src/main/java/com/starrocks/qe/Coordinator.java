@@ -186,6 +186,12 @@ public class Coordinator {
     // force schedule local be for HybridBackendSelector
     // only for hive now
     private boolean forceScheduleLocal = false;
+    // assign olap scan ranges by tablet data size, see DataSizeBackendSelector
+    private boolean tabletSizeAwareSchedule = false;
+    // max number of backends to merge the global runtime filters
+    private int runtimeFilterMergeHostNum = 1;
+    // backend id -> bytes of the olap scan ranges assigned to it by all scan nodes of this query
+    private final Map<Long, Long> assignedScanBytesPerBe = Maps.newHashMap();
     private final Set<Integer> colocateFragmentIds = new HashSet<>();
     private final Set<Integer> replicateFragmentIds = new HashSet<>();
     private final Set<Integer> replicateScanIds = new HashSet<>();
@@ -226,6 +232,8 @@ public class Coordinator {
         nextInstanceId.setHi(queryId.hi);
         nextInstanceId.setLo(queryId.lo + 1);
         this.forceScheduleLocal = context.getSessionVariable().isForceScheduleLocal();
+        this.tabletSizeAwareSchedule = context.getSessionVariable().isEnableTabletSizeAwareSchedule();
+        this.runtimeFilterMergeHostNum = context.getSessionVariable().getGlobalRuntimeFilterMergeHostNum();
     }
 
     // Used for new planner
@@ -256,6 +264,8 @@ public class Coordinator {
         nextInstanceId.setHi(queryId.hi);
         nextInstanceId.setLo(queryId.lo + 1);
         this.forceScheduleLocal = context.getSessionVariable().isForceScheduleLocal();
+        this.tabletSizeAwareSchedule = context.getSessionVariable().isEnableTabletSizeAwareSchedule();
+        this.runtimeFilterMergeHostNum = context.getSessionVariable().getGlobalRuntimeFilterMergeHostNum();
     }
 
     // Used for broker load task/export task coordinator
@@ -449,8 +459,7 @@ public class Coordinator {
                     toBrpcHost(execBeAddr),
                     queryOptions.query_timeout * 1000);
 
-            // Select top fragment as global runtime filter merge address
-            setGlobalRuntimeFilterParams(topParams, toBrpcHost(execBeAddr));
+            setGlobalRuntimeFilterParams();
 
             LOG.info("dispatch query job: {} to {}", DebugUtil.printId(queryId),
                     topParams.instanceExecParams.get(0).host);
@@ -586,41 +595,92 @@ public class Coordinator {
         }
     }
 
-    private void setGlobalRuntimeFilterParams(FragmentExecParams topParams, TNetworkAddress mergeHost)
-            throws Exception {
+    // The global runtime filters are merged on several backends instead of one. The merger of a backend is
+    // created by the fragment instance carrying the runtime filter params, so a filter is only merged by an
+    // instance of the fragments deployed before the fragment building it. Since the fragments are deployed
+    // from top to bottom, the merger is always ready before the partial filters arrive.
+    private void setGlobalRuntimeFilterParams() throws Exception {
+        Map<Integer, List<TRuntimeFilterProberParams>> idToProbeParams = Maps.newHashMap();
         for (PlanFragment fragment : fragments) {
             fragment.collectBuildRuntimeFilters(fragment.getPlanRoot());
             fragment.collectProbeRuntimeFilters(fragment.getPlanRoot());
             FragmentExecParams params = fragmentExecParamsMap.get(fragment.getFragmentId());
-            for (Map.Entry<Integer, RuntimeFilterDescription> kv : fragment.getProbeRuntimeFilters().entrySet()) {
-                List<TRuntimeFilterProberParams> probeParamList = Lists.newArrayList();
+            for (Integer rid : fragment.getProbeRuntimeFilters().keySet()) {
+                // a filter may be probed by the nodes of several fragments
+                List<TRuntimeFilterProberParams> probeParamList =
+                        idToProbeParams.computeIfAbsent(rid, k -> Lists.newArrayList());
                 for (final FInstanceExecParam instance : params.instanceExecParams) {
                     TRuntimeFilterProberParams probeParam = new TRuntimeFilterProberParams();
                     probeParam.setFragment_instance_id(instance.instanceId);
                     probeParam.setFragment_instance_address(toBrpcHost(instance.host));
                     probeParamList.add(probeParam);
                 }
-                topParams.runtimeFilterParams.putToId_to_prober_params(kv.getKey(), probeParamList);
             }
+        }
+
+        // the first instance of the top fragment is always a merger, and the others are the first instances on
+        // the following distinct hosts.
+        List<FInstanceExecParam> mergers = Lists.newArrayList();
+        List<Integer> mergerFragmentIndexes = Lists.newArrayList();
+        Set<TNetworkAddress> mergeHosts = Sets.newHashSet();
+        int mergeHostNum = Math.max(1, runtimeFilterMergeHostNum);
+        for (int i = 0; i < fragments.size() && mergers.size() < mergeHostNum; i++) {
+            FragmentExecParams params = fragmentExecParamsMap.get(fragments.get(i).getFragmentId());
+            for (FInstanceExecParam instance : params.instanceExecParams) {
+                if (mergers.size() < mergeHostNum && mergeHosts.add(instance.host)) {
+                    mergers.add(instance);
+                    mergerFragmentIndexes.add(i);
+                }
+            }
+        }
 
+        int[] mergerFilterNums = new int[mergers.size()];
+        for (int i = 0; i < fragments.size(); i++) {
+            PlanFragment fragment = fragments.get(i);
+            FragmentExecParams params = fragmentExecParamsMap.get(fragment.getFragmentId());
             for (Map.Entry<Integer, RuntimeFilterDescription> kv : fragment.getBuildRuntimeFilters().entrySet()) {
                 int rid = kv.getKey();
                 RuntimeFilterDescription rf = kv.getValue();
-                if (rf.isHasRemoteTargets()) {
-                    if (rf.isBroadcastJoin()) {
-                        // for broadcast join, we just need to send one copy.
-                        // and we need to specify one instance to send that copy.
-                        topParams.runtimeFilterParams.putToRuntime_filter_builder_number(rid, 1);
-                        rf.setSenderFragmentInstanceId(params.instanceExecParams.get(0).instanceId);
-                    } else {
-                        topParams.runtimeFilterParams
-                                .putToRuntime_filter_builder_number(rid, params.instanceExecParams.size());
-                    }
+                if (!rf.isHasRemoteTargets()) {
+                    continue;
+                }
+                int merger = chooseRuntimeFilterMerger(mergerFragmentIndexes, mergerFilterNums, i);
+                mergerFilterNums[merger]++;
+                FInstanceExecParam mergerInstance = mergers.get(merger);
+                if (mergerInstance.runtimeFilterParams == null) {
+                    mergerInstance.runtimeFilterParams = new TRuntimeFilterParams();
+                    mergerInstance.runtimeFilterParams.setRuntime_filter_max_size(
+                            HashJoinNode.getRuntimeFilterMaxSize());
                 }
+                TRuntimeFilterParams runtimeFilterParams = mergerInstance.runtimeFilterParams;
+                runtimeFilterParams.putToId_to_prober_params(rid,
+                        idToProbeParams.getOrDefault(rid, Lists.newArrayList()));
+                if (rf.isBroadcastJoin()) {
+                    // for broadcast join, we just need to send one copy.
+                    // and we need to specify one instance to send that copy.
+                    runtimeFilterParams.putToRuntime_filter_builder_number(rid, 1);
+                    rf.setSenderFragmentInstanceId(params.instanceExecParams.get(0).instanceId);
+                } else {
+                    runtimeFilterParams.putToRuntime_filter_builder_number(rid, params.instanceExecParams.size());
+                }
+                rf.addMergeNode(toBrpcHost(mergerInstance.host));
             }
-            fragment.setRuntimeFilterMergeNodeAddresses(fragment.getPlanRoot(), mergeHost);
         }
-        topParams.runtimeFilterParams.setRuntime_filter_max_size(HashJoinNode.getRuntimeFilterMaxSize());
+    }
+
+    /**
+     * @return the index of the merger with the fewest filters among the ones deployed before the fragment,
+     * the first merger, which is the top fragment instance, is chosen if there is no such one.
+     */
+    static int chooseRuntimeFilterMerger(List<Integer> mergerFragmentIndexes, int[] mergerFilterNums,
+                                         int buildFragmentIndex) {
+        int merger = 0;
+        for (int i = 1; i < mergerFragmentIndexes.size(); i++) {
+            if (mergerFragmentIndexes.get(i) < buildFragmentIndex && mergerFilterNums[i] < mergerFilterNums[merger]) {
+                merger = i;
+            }
+        }
+        return merger;
     }
 
     public List<String> getExportFiles() {
@@ -1343,6 +1403,12 @@ public class Coordinator {
                 } else if (hasColocate || hasBucket) {
                     BackendSelector selector = new ColocatedBackendSelector((OlapScanNode) scanNode, assignment);
                     selector.computeScanRangeAssignment();
+                } else if (tabletSizeAwareSchedule && scanNode instanceof OlapScanNode) {
+                    DataSizeBackendSelector selector = new DataSizeBackendSelector(scanNode, locations, assignment,
+                            ((OlapScanNode) scanNode).getScanRangesBytes(locations));
+                    selector.computeScanRangeAssignment();
+                    queryProfile.addInfoString("ScanAssignment (id=" + scanNode.getId().asInt() + ")",
+                            selector.getAssignmentSummary());
                 } else {
                     BackendSelector selector = new NormalBackendSelector(scanNode, locations, assignment);
                     selector.computeScanRangeAssignment();
@@ -1543,6 +1609,9 @@ public class Coordinator {
 
         FragmentExecParams fragmentExecParams;
 
+        // set if this instance merges global runtime filters
+        TRuntimeFilterParams runtimeFilterParams;
+
         public void addBucketSeq(int bucketSeq) {
             this.bucketSeqSet.add(bucketSeq);
         }
@@ -1754,7 +1823,6 @@ public class Coordinator {
         public List<PlanFragmentId> inputFragments = Lists.newArrayList();
         public List<FInstanceExecParam> instanceExecParams = Lists.newArrayList();
         public FragmentScanRangeAssignment scanRangeAssignment = new FragmentScanRangeAssignment();
-        TRuntimeFilterParams runtimeFilterParams = new TRuntimeFilterParams();
 
         public FragmentExecParams(PlanFragment fragment) {
             this.fragment = fragment;
@@ -1798,8 +1866,8 @@ public class Coordinator {
                 params.params.setDestinations(destinations);
                 params.params.setSender_id(i);
                 params.params.setNum_senders(instanceExecParams.size());
-                if (runtimeFilterParams.isSetRuntime_filter_builder_number()) {
-                    params.params.setRuntime_filter_params(runtimeFilterParams);
+                if (instanceExecParam.runtimeFilterParams != null) {
+                    params.params.setRuntime_filter_params(instanceExecParam.runtimeFilterParams);
                 }
                 params.setCoord(coordAddress);
                 params.setBackend_num(backendNum++);
@@ -1938,6 +2006,113 @@ public class Coordinator {
         }
     }
 
+    /**
+     * Assign each scan range to one of its replicas so that the bytes scanned by every backend are balanced.
+     * <p>
+     * Scan ranges are assigned in descending order of their bytes, each to the replica whose backend has the
+     * fewest assigned bytes (longest processing time first).
+     * The bytes already assigned to a backend by the other scan nodes of this query count as its load,
+     * and dead or blacklisted backends are only chosen when a scan range has no other replica.
+     */
+    private class DataSizeBackendSelector implements BackendSelector {
+        private final ScanNode scanNode;
+        private final List<TScanRangeLocations> locations;
+        private final FragmentScanRangeAssignment assignment;
+        private final List<Long> scanRangesBytes;
+        // backend id -> bytes assigned by this scan node
+        private final Map<Long, Long> nodeBytesPerBe = Maps.newTreeMap();
+
+        public DataSizeBackendSelector(ScanNode scanNode, List<TScanRangeLocations> locations,
+                                       FragmentScanRangeAssignment assignment, List<Long> scanRangesBytes) {
+            this.scanNode = scanNode;
+            this.locations = locations;
+            this.assignment = assignment;
+            this.scanRangesBytes = scanRangesBytes;
+        }
+
+        @Override
+        public void computeScanRangeAssignment() throws Exception {
+            Preconditions.checkArgument(locations.size() == scanRangesBytes.size());
+            List<Integer> order = Lists.newArrayListWithCapacity(locations.size());
+            for (int i = 0; i < locations.size(); ++i) {
+                order.add(i);
+            }
+            order.sort((a, b) -> Long.compare(scanRangesBytes.get(b), scanRangesBytes.get(a)));
+
+            for (int i : order) {
+                TScanRangeLocations scanRangeLocations = locations.get(i);
+                long bytes = scanRangesBytes.get(i);
+
+                TScanRangeLocation minLocation = null;
+                long minAssignedBytes = Long.MAX_VALUE;
+                for (TScanRangeLocation location : scanRangeLocations.getLocations()) {
+                    Backend backend = idToBackend.get(location.backend_id);
+                    if (backend == null || !backend.isAlive() || SimpleScheduler.isInBlacklist(backend.getId())) {
+                        continue;
+                    }
+                    long assignedBytes = assignedScanBytesPerBe.getOrDefault(location.backend_id, 0L);
+                    if (assignedBytes < minAssignedBytes) {
+                        minAssignedBytes = assignedBytes;
+                        minLocation = location;
+                    }
+                }
+                if (minLocation == null) {
+                    // let SimpleScheduler report the unavailable replicas
+                    minLocation = scanRangeLocations.getLocations().get(0);
+                }
+
+                Reference<Long> backendIdRef = new Reference<Long>();
+                TNetworkAddress execHostPort = SimpleScheduler.getHost(minLocation.backend_id,
+                        scanRangeLocations.getLocations(),
+                        idToBackend, backendIdRef);
+                if (execHostPort == null) {
+                    throw new UserException("there is no scanNode Backend");
+                }
+                long backendId = backendIdRef.getRef();
+                addressToBackendID.put(execHostPort, backendId);
+                assignedScanBytesPerBe.merge(backendId, bytes, Long::sum);
+                nodeBytesPerBe.merge(backendId, bytes, Long::sum);
+
+                Map<Integer, List<TScanRangeParams>> scanRanges = findOrInsert(
+                        assignment, execHostPort, new HashMap<Integer, List<TScanRangeParams>>());
+                List<TScanRangeParams> scanRangeParamsList = findOrInsert(
+                        scanRanges, scanNode.getId().asInt(), new ArrayList<TScanRangeParams>());
+                TScanRangeParams scanRangeParams = new TScanRangeParams();
+                scanRangeParams.scan_range = scanRangeLocations.scan_range;
+                scanRangeParamsList.add(scanRangeParams);
+            }
+        }
+
+        public String getAssignmentSummary() {
+            return getScanBytesSummary(nodeBytesPerBe);
+        }
+    }
+
+    // e.g. "bytes per backend: 10001=1.00 GB, 10002=0.98 GB, max/avg: 1.01"
+    static String getScanBytesSummary(Map<Long, Long> bytesPerBe) {
+        if (bytesPerBe.isEmpty()) {
+            return "no scan range";
+        }
+        long total = 0;
+        long max = 0;
+        boolean first = true;
+        StringBuilder sb = new StringBuilder("bytes per backend: ");
+        for (Map.Entry<Long, Long> entry : bytesPerBe.entrySet()) {
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+            sb.append(entry.getKey()).append("=");
+            Pair<Double, String> size = DebugUtil.getByteUint(entry.getValue());
+            sb.append(DebugUtil.DECIMAL_FORMAT_SCALE_3.format(size.first)).append(" ").append(size.second);
+            total += entry.getValue();
+            max = Math.max(max, entry.getValue());
+        }
+        double avg = (double) total / bytesPerBe.size();
+        sb.append(", max/avg: ").append(String.format("%.2f", avg > 0 ? max / avg : 1));
+        return sb.toString();
+    }
+
     private class RelicatedBackendSelector implements BackendSelector {
         private final ScanNode scanNode;
         private final List<TScanRangeLocations> locations;
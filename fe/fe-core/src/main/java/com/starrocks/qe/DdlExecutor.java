@@ -41,6 +41,7 @@ import com.starrocks.analysis.CancelBackupStmt;
 import com.starrocks.analysis.CancelExportStmt;
 import com.starrocks.analysis.CancelLoadStmt;
 import com.starrocks.analysis.CreateAnalyzeJobStmt;
+import com.starrocks.analysis.CreateAsyncMaterializedViewStmt;
 import com.starrocks.analysis.CreateClusterStmt;
 import com.starrocks.analysis.CreateDbStmt;
 import com.starrocks.analysis.CreateFileStmt;
@@ -119,6 +120,8 @@ public class DdlExecutor {
             catalog.dropTable((DropTableStmt) ddlStmt);
         } else if (ddlStmt instanceof CreateMaterializedViewStmt) {
             catalog.createMaterializedView((CreateMaterializedViewStmt) ddlStmt);
+        } else if (ddlStmt instanceof CreateAsyncMaterializedViewStmt) {
+            catalog.createTable(((CreateAsyncMaterializedViewStmt) ddlStmt).getCreateTableStmt());
         } else if (ddlStmt instanceof DropMaterializedViewStmt) {
             catalog.dropMaterializedView((DropMaterializedViewStmt) ddlStmt);
         } else if (ddlStmt instanceof AlterTableStmt) {
@@ -0,0 +1,361 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.cluster.ClusterNamespace;
+import com.starrocks.common.Config;
+import com.starrocks.common.UserException;
+import com.starrocks.metric.MetricRepo;
+import com.starrocks.mysql.privilege.UserResource;
+import com.starrocks.planner.AggregationNode;
+import com.starrocks.planner.AnalyticEvalNode;
+import com.starrocks.planner.HashJoinNode;
+import com.starrocks.planner.PlanFragment;
+import com.starrocks.planner.PlanNode;
+import com.starrocks.planner.SortNode;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control of queries in the FE.
+ * <p>
+ * Each query is classified into one of the resource groups low, normal and high, and is admitted only if the
+ * running queries of its group and of all groups are within the concurrency and estimated memory limits in
+ * {@link Config}. Otherwise it waits in the queue until the running queries finish or the queue timeout is
+ * reached. The queued queries are admitted in the order of group priority and then arrival, while a query
+ * only blocked by the limits of its own group does not block the queries of other groups.
+ */
+public class QueryQueueManager {
+    private static final QueryQueueManager INSTANCE = new QueryQueueManager();
+
+    // in the order of priority
+    public static final List<String> GROUPS = ImmutableList.of(UserResource.LOW, UserResource.NORMAL,
+            UserResource.HIGH);
+
+    private static final String DIGEST_RULE_PREFIX = "digest:";
+    private static final String USER_RULE_PREFIX = "user:";
+    private static final String ROLE_RULE_PREFIX = "role:";
+
+    // interval to recheck the killed queries and the changed limits of waiting queries
+    private static final long WAIT_INTERVAL_MS = 1000;
+
+    public static class Slot {
+        private final int groupIndex;
+        private final long memBytes;
+        private final long seq;
+        private boolean admitted = false;
+
+        private Slot(int groupIndex, long memBytes, long seq) {
+            this.groupIndex = groupIndex;
+            this.memBytes = memBytes;
+            this.seq = seq;
+        }
+
+        public String getGroup() {
+            return GROUPS.get(groupIndex);
+        }
+
+        public long getMemBytes() {
+            return memBytes;
+        }
+    }
+
+    // higher priority first, then earlier arrival first
+    private static final Comparator<Slot> WAITING_ORDER =
+            Comparator.comparingInt((Slot slot) -> -slot.groupIndex).thenComparingLong(slot -> slot.seq);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final TreeSet<Slot> waiting = new TreeSet<>(WAITING_ORDER);
+    private final int[] runningNums = new int[GROUPS.size()];
+    private final long[] runningMemBytes = new long[GROUPS.size()];
+    private final int[] waitingNums = new int[GROUPS.size()];
+    private int totalRunningNum = 0;
+    private long totalRunningMemBytes = 0;
+    private long nextSeq = 0;
+
+    QueryQueueManager() {
+    }
+
+    public static QueryQueueManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Waits until the query is admitted.
+     *
+     * @param context null if the query can not be killed while waiting
+     * @return the slot of the query, which must be released after the query finishes
+     * @throws UserException if the queue is full, the query is killed or the queue timeout is reached
+     */
+    public Slot acquire(ConnectContext context, String group, long memBytes) throws UserException {
+        int groupIndex = Math.max(GROUPS.indexOf(group), 0);
+        lock.lock();
+        try {
+            if (waiting.size() >= Config.query_queue_max_queued_queries) {
+                throw new UserException("Too many queries in the query queue, max is "
+                        + Config.query_queue_max_queued_queries);
+            }
+            Slot slot = new Slot(groupIndex, memBytes, nextSeq++);
+            waiting.add(slot);
+            admitWaiting();
+            if (slot.admitted) {
+                return slot;
+            }
+
+            waitingNums[groupIndex]++;
+            if (MetricRepo.isInit) {
+                MetricRepo.COUNTER_QUERY_QUEUED.increase(1L);
+            }
+            long deadline = System.currentTimeMillis() + Config.query_queue_timeout_second * 1000L;
+            try {
+                while (!slot.admitted) {
+                    if (context != null && context.isKilled()) {
+                        throw new UserException("Query is killed while waiting in the query queue");
+                    }
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        if (MetricRepo.isInit) {
+                            MetricRepo.COUNTER_QUERY_QUEUE_TIMEOUT.increase(1L);
+                        }
+                        throw new UserException("Query waits in the query queue of resource group "
+                                + slot.getGroup() + " for more than " + Config.query_queue_timeout_second
+                                + " seconds");
+                    }
+                    changed.await(Math.min(remaining, WAIT_INTERVAL_MS), TimeUnit.MILLISECONDS);
+                    admitWaiting();
+                }
+                return slot;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (slot.admitted) {
+                    return slot;
+                }
+                throw new UserException("Query is interrupted while waiting in the query queue");
+            } finally {
+                waitingNums[groupIndex]--;
+                if (!slot.admitted) {
+                    waiting.remove(slot);
+                    // the removed slot may block the slots of lower priority
+                    admitWaiting();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(Slot slot) {
+        lock.lock();
+        try {
+            runningNums[slot.groupIndex]--;
+            runningMemBytes[slot.groupIndex] -= slot.memBytes;
+            totalRunningNum--;
+            totalRunningMemBytes -= slot.memBytes;
+            admitWaiting();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // must be called with the lock held
+    private void admitWaiting() {
+        boolean admitted = false;
+        for (Slot slot : Lists.newArrayList(waiting)) {
+            if (!Config.enable_query_queue) {
+                admit(slot);
+                admitted = true;
+                continue;
+            }
+            // the shared capacity is reserved for the slots of higher priority
+            if (!isWithinLimits(totalRunningNum, totalRunningMemBytes, slot.memBytes,
+                    Config.query_queue_total_concurrency_limit, Config.query_queue_total_mem_limit)) {
+                break;
+            }
+            if (isWithinLimits(runningNums[slot.groupIndex], runningMemBytes[slot.groupIndex], slot.memBytes,
+                    getLimit(Config.query_queue_concurrency_limits, slot.groupIndex),
+                    getLimit(Config.query_queue_mem_limits, slot.groupIndex))) {
+                admit(slot);
+                admitted = true;
+            }
+        }
+        if (admitted) {
+            changed.signalAll();
+        }
+    }
+
+    private void admit(Slot slot) {
+        waiting.remove(slot);
+        slot.admitted = true;
+        runningNums[slot.groupIndex]++;
+        runningMemBytes[slot.groupIndex] += slot.memBytes;
+        totalRunningNum++;
+        totalRunningMemBytes += slot.memBytes;
+    }
+
+    // a query is always admitted if nothing is running, so that a query estimated larger than the limit can run
+    private static boolean isWithinLimits(int runningNum, long runningMem, long memBytes,
+                                          long concurrencyLimit, long memLimit) {
+        if (runningNum == 0) {
+            return true;
+        }
+        if (concurrencyLimit > 0 && runningNum >= concurrencyLimit) {
+            return false;
+        }
+        return memLimit <= 0 || runningMem + memBytes <= memLimit;
+    }
+
+    private static long getLimit(int[] limits, int groupIndex) {
+        return groupIndex < limits.length ? limits[groupIndex] : 0;
+    }
+
+    private static long getLimit(long[] limits, int groupIndex) {
+        return groupIndex < limits.length ? limits[groupIndex] : 0;
+    }
+
+    public int getRunningNum() {
+        lock.lock();
+        try {
+            return totalRunningNum;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaitingNum() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return group, running num, running memory bytes, waiting num, concurrency limit and memory limit
+     * of each group
+     */
+    public List<List<String>> getGroupInfos() {
+        List<List<String>> infos = Lists.newArrayList();
+        lock.lock();
+        try {
+            for (int i = 0; i < GROUPS.size(); i++) {
+                List<String> info = Lists.newArrayList();
+                info.add(GROUPS.get(i));
+                info.add(String.valueOf(runningNums[i]));
+                info.add(String.valueOf(runningMemBytes[i]));
+                info.add(String.valueOf(waitingNums[i]));
+                info.add(String.valueOf(getLimit(Config.query_queue_concurrency_limits, i)));
+                info.add(String.valueOf(getLimit(Config.query_queue_mem_limits, i)));
+                infos.add(info);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return infos;
+    }
+
+    /**
+     * Classifies the query by the rules in {@link Config#query_queue_classifiers}, or by the session variable
+     * resource_group if no rule matches.
+     *
+     * @param digest null if the digest of the query is not computed
+     */
+    public static String classify(ConnectContext context, SqlDigest digest) {
+        String[] rules = Config.query_queue_classifiers;
+        if (rules.length > 0) {
+            String group = null;
+            if (digest != null) {
+                group = matchRule(rules, DIGEST_RULE_PREFIX, digest.getDigest());
+            }
+            String user = ClusterNamespace.getNameFromFullName(context.getQualifiedUser());
+            if (group == null && user != null) {
+                group = matchRule(rules, USER_RULE_PREFIX, user);
+            }
+            if (group == null && context.getCurrentUserIdentity() != null && hasRule(rules, ROLE_RULE_PREFIX)) {
+                for (String role : Catalog.getCurrentCatalog().getAuth()
+                        .getRoleNamesByUser(context.getCurrentUserIdentity())) {
+                    group = matchRule(rules, ROLE_RULE_PREFIX, ClusterNamespace.getNameFromFullName(role));
+                    if (group != null) {
+                        break;
+                    }
+                }
+            }
+            if (group != null) {
+                return group;
+            }
+        }
+        String group = context.getSessionVariable().getResourceGroup();
+        if (group != null && UserResource.isValidGroup(group)) {
+            return group.toLowerCase();
+        }
+        return UserResource.NORMAL;
+    }
+
+    private static boolean hasRule(String[] rules, String prefix) {
+        for (String rule : rules) {
+            if (rule.trim().startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the first rule of the prefix matching the value, rules with invalid groups are ignored
+    private static String matchRule(String[] rules, String prefix, String value) {
+        for (String rule : rules) {
+            rule = rule.trim();
+            if (!rule.startsWith(prefix)) {
+                continue;
+            }
+            int pos = rule.lastIndexOf('=');
+            if (pos < 0) {
+                continue;
+            }
+            String group = rule.substring(pos + 1).trim();
+            if (rule.substring(prefix.length(), pos).trim().equals(value) && UserResource.isValidGroup(group)) {
+                return group.toLowerCase();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Estimates the memory bytes of the query by the states of its hash joins, aggregations, sorts and
+     * analytic functions, whose sizes are estimated by the cardinality and average row size of the plan nodes.
+     */
+    public static long estimateMemory(List<PlanFragment> fragments) {
+        long bytes = 0;
+        for (PlanFragment fragment : fragments) {
+            bytes += estimateMemory(fragment.getPlanRoot());
+        }
+        return bytes;
+    }
+
+    private static long estimateMemory(PlanNode node) {
+        long bytes = 0;
+        PlanNode stateNode = null;
+        if (node instanceof HashJoinNode) {
+            stateNode = node.getChild(1);
+        } else if (node instanceof AggregationNode || node instanceof SortNode) {
+            stateNode = node;
+        } else if (node instanceof AnalyticEvalNode) {
+            stateNode = node.getChild(0);
+        }
+        if (stateNode != null && stateNode.getCardinality() > 0) {
+            bytes += (long) (stateNode.getCardinality() * (double) stateNode.getAvgRowSize());
+        }
+        for (PlanNode child : node.getChildren()) {
+            bytes += estimateMemory(child);
+        }
+        return bytes;
+    }
+}
@@ -137,6 +137,9 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     // only for hive external table now
     public static final String FORCE_SCHEDULE_LOCAL = "force_schedule_local";
 
+    // assign olap scan ranges by the data size of tablets instead of the number of tablets
+    public static final String ENABLE_TABLET_SIZE_AWARE_SCHEDULE = "enable_tablet_size_aware_schedule";
+
     // --------  New planner session variables start --------
     public static final String ENABLE_NEW_PLANNER_PUSH_DOWN_JOIN_TO_AGG =
             "enable_new_planner_push_down_join_to_agg";
@@ -149,6 +152,9 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String CBO_MAX_REORDER_NODE_USE_EXHAUSTIVE = "cbo_max_reorder_node_use_exhaustive";
     public static final String CBO_ENABLE_DP_JOIN_REORDER = "cbo_enable_dp_join_reorder";
     public static final String CBO_MAX_REORDER_NODE_USE_DP = "cbo_max_reorder_node_use_dp";
+    public static final String CBO_MAX_REORDER_NODE_USE_DPHYP = "cbo_max_reorder_node_use_dphyp";
+    public static final String CBO_MAX_DPHYP_JOIN_PAIRS = "cbo_max_dphyp_join_pairs";
+    public static final String ENABLE_ASYNC_MV_REWRITE = "enable_async_mv_rewrite";
     public static final String CBO_ENABLE_GREEDY_JOIN_REORDER = "cbo_enable_greedy_join_reorder";
     public static final String CBO_ENABLE_REPLICATED_JOIN = "cbo_enable_replicated_join";
     // --------  New planner session variables end --------
@@ -161,6 +167,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
 
     public static final String RUNTIME_JOIN_FILTER_PUSH_DOWN_LIMIT = "runtime_join_filter_push_down_limit";
     public static final String ENABLE_GLOBAL_RUNTIME_FILTER = "enable_global_runtime_filter";
+    public static final String GLOBAL_RUNTIME_FILTER_PROBE_MIN_SIZE = "global_runtime_filter_probe_min_size";
+    public static final String GLOBAL_RUNTIME_FILTER_PROBE_MIN_SELECTIVITY =
+            "global_runtime_filter_probe_min_selectivity";
+    public static final String GLOBAL_RUNTIME_FILTER_MERGE_HOST_NUM = "global_runtime_filter_merge_host_num";
 
     @VariableMgr.VarAttr(name = ENABLE_PIPELINE_ENGINE)
     private boolean enablePipelineEngine = false;
@@ -344,6 +354,20 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = CBO_MAX_REORDER_NODE_USE_DP)
     private long cboMaxReorderNodeUseDP = 10;
 
+    // join trees with more atoms than cbo_max_reorder_node_use_dp are enumerated by DPhyp up to this size
+    @VariableMgr.VarAttr(name = CBO_MAX_REORDER_NODE_USE_DPHYP)
+    private long cboMaxReorderNodeUseDPhyp = 32;
+
+    // DPhyp is skipped, leaving the join tree to the greedy reorder, if the join graph has more pairs of
+    // connected sub graph and connected complement than this, e.g. a star join of more than 17 tables,
+    // while a snowflake join of 20+ tables has far less pairs
+    @VariableMgr.VarAttr(name = CBO_MAX_DPHYP_JOIN_PAIRS)
+    private long cboMaxDPhypJoinPairs = 1000000;
+
+    // answer queries from the up to date asynchronous materialized views if possible
+    @VariableMgr.VarAttr(name = ENABLE_ASYNC_MV_REWRITE)
+    private boolean enableAsyncMvRewrite = false;
+
     @VariableMgr.VarAttr(name = CBO_ENABLE_GREEDY_JOIN_REORDER)
     private boolean cboEnableGreedyJoinReorder = true;
 
@@ -357,6 +381,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = FORCE_SCHEDULE_LOCAL)
     private boolean forceScheduleLocal = false;
 
+    // assign the scan ranges of olap tables to backends by their data size instead of their number
+    @VariableMgr.VarAttr(name = ENABLE_TABLET_SIZE_AWARE_SCHEDULE)
+    private boolean enableTabletSizeAwareSchedule = false;
+
     @VariableMgr.VarAttr(name = ENABLE_NEW_PLANNER_PUSH_DOWN_JOIN_TO_AGG)
     private boolean enableNewPlannerPushDownJoinToAgg = false;
 
@@ -385,6 +413,18 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = ENABLE_GLOBAL_RUNTIME_FILTER)
     private boolean enableGlobalRuntimeFilter = true;
 
+    // a global runtime filter is only pushed to a remote probe node which outputs at least this number of rows
+    @VariableMgr.VarAttr(name = GLOBAL_RUNTIME_FILTER_PROBE_MIN_SIZE)
+    private long globalRuntimeFilterProbeMinSize = 100L * 1024;
+
+    // and is estimated to filter out at least this fraction of rows
+    @VariableMgr.VarAttr(name = GLOBAL_RUNTIME_FILTER_PROBE_MIN_SELECTIVITY)
+    private double globalRuntimeFilterProbeMinSelectivity = 0.5;
+
+    // the global runtime filters of a query are merged on at most this number of backends
+    @VariableMgr.VarAttr(name = GLOBAL_RUNTIME_FILTER_MERGE_HOST_NUM)
+    private int globalRuntimeFilterMergeHostNum = 3;
+
     //In order to be compatible with the logic of the old planner,
     //When the column name is the same as the alias name,
     //the alias will be used as the groupby column if set to true.
@@ -586,6 +626,30 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         return cboMaxReorderNodeUseDP;
     }
 
+    public long getCboMaxReorderNodeUseDPhyp() {
+        return cboMaxReorderNodeUseDPhyp;
+    }
+
+    public void setCboMaxReorderNodeUseDPhyp(long cboMaxReorderNodeUseDPhyp) {
+        this.cboMaxReorderNodeUseDPhyp = cboMaxReorderNodeUseDPhyp;
+    }
+
+    public long getCboMaxDPhypJoinPairs() {
+        return cboMaxDPhypJoinPairs;
+    }
+
+    public void setCboMaxDPhypJoinPairs(long cboMaxDPhypJoinPairs) {
+        this.cboMaxDPhypJoinPairs = cboMaxDPhypJoinPairs;
+    }
+
+    public boolean isEnableAsyncMvRewrite() {
+        return enableAsyncMvRewrite;
+    }
+
+    public void setEnableAsyncMvRewrite(boolean enableAsyncMvRewrite) {
+        this.enableAsyncMvRewrite = enableAsyncMvRewrite;
+    }
+
     public boolean isCboEnableGreedyJoinReorder() {
         return cboEnableGreedyJoinReorder;
     }
@@ -606,6 +670,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         return forceScheduleLocal;
     }
 
+    public boolean isEnableTabletSizeAwareSchedule() {
+        return enableTabletSizeAwareSchedule;
+    }
+
     public boolean isEnableNewPlannerPushDownJoinToAgg() {
         return enableNewPlannerPushDownJoinToAgg;
     }
@@ -658,6 +726,34 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         enableGlobalRuntimeFilter = value;
     }
 
+    public long getRuntimeJoinFilterPushDownLimit() {
+        return runtimeJoinFilterPushDownLimit;
+    }
+
+    public long getGlobalRuntimeFilterProbeMinSize() {
+        return globalRuntimeFilterProbeMinSize;
+    }
+
+    public void setGlobalRuntimeFilterProbeMinSize(long globalRuntimeFilterProbeMinSize) {
+        this.globalRuntimeFilterProbeMinSize = globalRuntimeFilterProbeMinSize;
+    }
+
+    public double getGlobalRuntimeFilterProbeMinSelectivity() {
+        return globalRuntimeFilterProbeMinSelectivity;
+    }
+
+    public void setGlobalRuntimeFilterProbeMinSelectivity(double globalRuntimeFilterProbeMinSelectivity) {
+        this.globalRuntimeFilterProbeMinSelectivity = globalRuntimeFilterProbeMinSelectivity;
+    }
+
+    public int getGlobalRuntimeFilterMergeHostNum() {
+        return globalRuntimeFilterMergeHostNum;
+    }
+
+    public void setGlobalRuntimeFilterMergeHostNum(int globalRuntimeFilterMergeHostNum) {
+        this.globalRuntimeFilterMergeHostNum = globalRuntimeFilterMergeHostNum;
+    }
+
     public boolean isEnablePipelineEngine() {
         return enablePipelineEngine;
     }
@@ -1485,6 +1485,12 @@ public class ShowExecutor {
             oneSql.add(entry.getKey());
             rows.add(oneSql);
         }
+        for (Map.Entry<String, BlackListSql> entry : SqlBlackList.getInstance().digestBlackListMap.entrySet()) {
+            List<String> oneSql = new ArrayList<String>();
+            oneSql.add(String.valueOf(entry.getValue().id));
+            oneSql.add("digest: " + entry.getKey());
+            rows.add(oneSql);
+        }
         resultSet = new ShowResultSet(showStmt.getMetaData(), rows);
     }
 
@@ -0,0 +1,202 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.SqlParserSymbols;
+import com.starrocks.analysis.SqlScanner;
+import java_cup.runtime.Symbol;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * Normalized shape of a statement, used to group the executions of the same query with different literals.
+ * <p>
+ * The statement is normalized from the tokens of the sql scanner, so whitespaces, comments and the case of
+ * keywords do not matter. Every literal is replaced with '?', and an IN list of literals is collapsed to a
+ * single '(?)', e.g. "select * from t where a = 1 and b in (1, 2, 3)" is normalized to
+ * "SELECT * FROM `t` WHERE `a` = ? AND `b` IN (?)".
+ * The digest is the md5 of the normalized statement.
+ */
+public class SqlDigest {
+    private static final Logger LOG = LogManager.getLogger(SqlDigest.class);
+
+    private final String normalizedSql;
+    private final String digest;
+
+    private SqlDigest(String normalizedSql) {
+        this.normalizedSql = normalizedSql;
+        this.digest = DigestUtils.md5Hex(normalizedSql);
+    }
+
+    public String getNormalizedSql() {
+        return normalizedSql;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    /**
+     * @param sql     the origin text, which may contain multiple statements
+     * @param stmtIdx index of the statement to compute the digest for
+     * @return null if the statement can not be scanned
+     */
+    public static SqlDigest compute(String sql, int stmtIdx, long sqlMode) {
+        List<Symbol> tokens = Lists.newArrayList();
+        try {
+            SqlScanner scanner = new SqlScanner(new StringReader(sql), sqlMode);
+            int idx = 0;
+            for (Symbol token = scanner.next_token(); token.sym != SqlParserSymbols.EOF;
+                    token = scanner.next_token()) {
+                if (token.sym == SqlParserSymbols.SEMICOLON) {
+                    idx++;
+                } else if (idx == stmtIdx) {
+                    tokens.add(token);
+                } else if (idx > stmtIdx) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            LOG.debug("failed to scan sql: {}", sql, e);
+            return null;
+        }
+        return new SqlDigest(normalize(tokens));
+    }
+
+    /**
+     * Computes the digests of all the statements of the origin text by a single scan, so the text of a packet
+     * with many statements is not scanned again for each statement.
+     *
+     * @return the digests in the order of the statements, null if the text can not be scanned
+     */
+    public static List<SqlDigest> computeAll(String sql, long sqlMode) {
+        List<List<Symbol>> stmtTokens = Lists.newArrayList();
+        List<Symbol> tokens = Lists.newArrayList();
+        stmtTokens.add(tokens);
+        try {
+            SqlScanner scanner = new SqlScanner(new StringReader(sql), sqlMode);
+            for (Symbol token = scanner.next_token(); token.sym != SqlParserSymbols.EOF;
+                    token = scanner.next_token()) {
+                if (token.sym == SqlParserSymbols.SEMICOLON) {
+                    tokens = Lists.newArrayList();
+                    stmtTokens.add(tokens);
+                } else {
+                    tokens.add(token);
+                }
+            }
+        } catch (Exception e) {
+            LOG.debug("failed to scan sql: {}", sql, e);
+            return null;
+        }
+        List<SqlDigest> digests = Lists.newArrayListWithCapacity(stmtTokens.size());
+        for (List<Symbol> stmt : stmtTokens) {
+            digests.add(new SqlDigest(normalize(stmt)));
+        }
+        return digests;
+    }
+
+    public static SqlDigest compute(String sql) {
+        return compute(sql, 0, 0L);
+    }
+
+    private static String normalize(List<Symbol> tokens) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            Symbol token = tokens.get(i);
+            if (token.sym == SqlParserSymbols.KW_IN && i + 1 < tokens.size()
+                    && tokens.get(i + 1).sym == SqlParserSymbols.LPAREN) {
+                int end = skipLiteralList(tokens, i + 2);
+                if (end > 0) {
+                    append(sb, "IN (?)");
+                    i = end;
+                    continue;
+                }
+            }
+            if (isUnaryMinus(tokens, i)) {
+                // the sign is part of the literal
+                continue;
+            }
+            append(sb, isLiteral(token) ? "?" : toText(token));
+        }
+        return sb.toString();
+    }
+
+    // return the index of the closing parenthesis if the tokens from start are a list of literals, or -1
+    private static int skipLiteralList(List<Symbol> tokens, int start) {
+        boolean expectLiteral = true;
+        for (int i = start; i < tokens.size(); i++) {
+            Symbol token = tokens.get(i);
+            if (expectLiteral) {
+                if (isUnaryMinus(tokens, i)) {
+                    continue;
+                }
+                if (!isLiteral(token)) {
+                    return -1;
+                }
+                expectLiteral = false;
+            } else if (token.sym == SqlParserSymbols.COMMA) {
+                expectLiteral = true;
+            } else if (token.sym == SqlParserSymbols.RPAREN) {
+                return i;
+            } else {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isUnaryMinus(List<Symbol> tokens, int i) {
+        if (tokens.get(i).sym != SqlParserSymbols.SUBTRACT || i + 1 >= tokens.size()
+                || !isLiteral(tokens.get(i + 1))) {
+            return false;
+        }
+        if (i == 0) {
+            return true;
+        }
+        // "a - 1" is a binary minus
+        Symbol prev = tokens.get(i - 1);
+        return prev.sym != SqlParserSymbols.IDENT && prev.sym != SqlParserSymbols.RPAREN && !isLiteral(prev);
+    }
+
+    private static boolean isLiteral(Symbol token) {
+        switch (token.sym) {
+            case SqlParserSymbols.INTEGER_LITERAL:
+            case SqlParserSymbols.LARGE_INTEGER_LITERAL:
+            case SqlParserSymbols.FLOATINGPOINT_LITERAL:
+            case SqlParserSymbols.DECIMAL_LITERAL:
+            case SqlParserSymbols.STRING_LITERAL:
+            case SqlParserSymbols.NUMERIC_OVERFLOW:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String toText(Symbol token) {
+        switch (token.sym) {
+            case SqlParserSymbols.IDENT:
+                return "`" + token.value + "`";
+            case SqlParserSymbols.COMMA:
+                return ",";
+            default:
+                break;
+        }
+        String text = SqlScanner.tokenIdMap.get(token.sym);
+        if (text != null) {
+            return text;
+        }
+        return token.value != null ? token.value.toString() : "#" + token.sym;
+    }
+
+    private static void append(StringBuilder sb, String text) {
+        if (sb.length() > 0) {
+            sb.append(' ');
+        }
+        sb.append(text);
+    }
+}
@@ -0,0 +1,156 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.common.Config;
+import com.starrocks.plugin.AuditEvent;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime statistics of the queries grouped by their digest, see {@link SqlDigest}.
+ * <p>
+ * The number of digests is bounded by Config.sql_digest_statistics_capacity, infrequent digests are evicted
+ * first when the table is full. Updates of different digests do not contend with each other.
+ */
+public class SqlDigestStatistics {
+    private static final SqlDigestStatistics INSTANCE = new SqlDigestStatistics(Config.sql_digest_statistics_capacity);
+
+    // latency bucket i counts the queries which take [2^(i-1), 2^i) ms, the last bucket is unbounded
+    private static final int LATENCY_BUCKET_NUM = 24;
+    private static final int MAX_NORMALIZED_SQL_LENGTH = 1024;
+
+    private final Cache<String, DigestStat> stats;
+
+    SqlDigestStatistics(long capacity) {
+        stats = Caffeine.newBuilder().maximumSize(capacity).build();
+    }
+
+    public static SqlDigestStatistics getInstance() {
+        return INSTANCE;
+    }
+
+    public void update(SqlDigest digest, AuditEvent event, boolean isError) {
+        DigestStat stat = stats.get(digest.getDigest(), k -> new DigestStat(digest));
+        stat.update(event, isError);
+    }
+
+    public DigestStat getStat(String digest) {
+        return stats.getIfPresent(digest);
+    }
+
+    /**
+     * @return the digests which take most of the total query time, at most limit ones
+     */
+    public List<DigestStat> getTopByTotalTime(int limit) {
+        List<DigestStat> result = Lists.newArrayList(stats.asMap().values());
+        result.sort(Comparator.comparingLong((DigestStat s) -> s.totalTimeMs.sum()).reversed());
+        return result.size() > limit ? Lists.newArrayList(result.subList(0, Math.max(0, limit))) : result;
+    }
+
+    public void clear() {
+        stats.invalidateAll();
+    }
+
+    public static class DigestStat {
+        private final String digest;
+        private final String normalizedSql;
+        private final LongAdder execCount = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        private final LongAdder totalTimeMs = new LongAdder();
+        private final AtomicLong maxTimeMs = new AtomicLong(0);
+        private final LongAdder scanBytes = new LongAdder();
+        private final LongAdder scanRows = new LongAdder();
+        private final LongAdder returnRows = new LongAdder();
+        private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BUCKET_NUM);
+        private volatile long lastExecTime = 0;
+
+        DigestStat(SqlDigest digest) {
+            this.digest = digest.getDigest();
+            String sql = digest.getNormalizedSql();
+            this.normalizedSql = sql.length() > MAX_NORMALIZED_SQL_LENGTH ?
+                    sql.substring(0, MAX_NORMALIZED_SQL_LENGTH) : sql;
+        }
+
+        void update(AuditEvent event, boolean isError) {
+            execCount.increment();
+            if (isError) {
+                errorCount.increment();
+            }
+            long timeMs = Math.max(0, event.queryTime);
+            totalTimeMs.add(timeMs);
+            maxTimeMs.accumulateAndGet(timeMs, Math::max);
+            latencyBuckets.incrementAndGet(
+                    Math.min(LATENCY_BUCKET_NUM - 1, 64 - Long.numberOfLeadingZeros(timeMs)));
+            scanBytes.add(Math.max(0, event.scanBytes));
+            scanRows.add(Math.max(0, event.scanRows));
+            returnRows.add(Math.max(0, event.returnRows));
+            lastExecTime = event.timestamp;
+        }
+
+        public String getDigest() {
+            return digest;
+        }
+
+        public long getExecCount() {
+            return execCount.sum();
+        }
+
+        public long getErrorCount() {
+            return errorCount.sum();
+        }
+
+        public long getTotalTimeMs() {
+            return totalTimeMs.sum();
+        }
+
+        // upper bound of the latency of the given percentile, e.g. 0.99
+        public long getLatencyPercentileMs(double percentile) {
+            long total = 0;
+            long[] counts = new long[LATENCY_BUCKET_NUM];
+            for (int i = 0; i < LATENCY_BUCKET_NUM; i++) {
+                counts[i] = latencyBuckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < LATENCY_BUCKET_NUM - 1; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(maxTimeMs.get(), (1L << i) - 1);
+                }
+            }
+            return maxTimeMs.get();
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = Maps.newLinkedHashMap();
+            map.put("digest", digest);
+            map.put("normalized_sql", normalizedSql);
+            map.put("exec_count", getExecCount());
+            map.put("error_count", getErrorCount());
+            map.put("total_time_ms", getTotalTimeMs());
+            map.put("avg_time_ms", getExecCount() == 0 ? 0 : getTotalTimeMs() / getExecCount());
+            map.put("p50_time_ms", getLatencyPercentileMs(0.5));
+            map.put("p99_time_ms", getLatencyPercentileMs(0.99));
+            map.put("max_time_ms", maxTimeMs.get());
+            map.put("scan_bytes", scanBytes.sum());
+            map.put("scan_rows", scanRows.sum());
+            map.put("return_rows", returnRows.sum());
+            map.put("last_exec_time", lastExecTime);
+            return map;
+        }
+    }
+}
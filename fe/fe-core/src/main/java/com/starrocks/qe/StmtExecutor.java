@@ -106,6 +106,8 @@ import com.starrocks.sql.analyzer.SemanticException;
 import com.starrocks.sql.common.ErrorType;
 import com.starrocks.sql.common.MetaUtils;
 import com.starrocks.sql.common.StarRocksPlannerException;
+import com.starrocks.sql.optimizer.cost.CostCalibrationCollector;
+import com.starrocks.sql.optimizer.statistics.CardinalityFeedback;
 import com.starrocks.sql.plan.ExecPlan;
 import com.starrocks.statistic.AnalyzeJob;
 import com.starrocks.statistic.Constants;
@@ -261,6 +263,9 @@ public class StmtExecutor {
     public void execute() throws Exception {
         long beginTimeInNanoSecond = TimeUtils.getStartTime();
         context.setStmtId(STMT_ID_GENERATOR.incrementAndGet());
+        // the digest of the previous statement in a multi-statement packet must not be used by this one
+        context.setSqlDigest(null);
+        context.getAuditEventBuilder().setDigest("");
 
         // set execution id.
         // Try to use query id as execution id when execute first time.
@@ -339,13 +344,23 @@ public class StmtExecutor {
             if (parsedStmt instanceof QueryStmt) {
                 context.getState().setIsQuery(true);
 
+                // computed once, used by sql's blacklist, audit log and digest statistics
+                SqlDigest digest = null;
+                if (Config.enable_sql_digest || Config.enable_sql_blacklist) {
+                    digest = context.computeSqlDigest(parsedStmt.getOrigStmt());
+                }
+                if (Config.enable_sql_digest && digest != null) {
+                    context.setSqlDigest(digest);
+                    context.getAuditEventBuilder().setDigest(digest.getDigest());
+                }
+
                 // sql's blacklist is enabled through enable_sql_blacklist.
                 if (Config.enable_sql_blacklist) {
                     QueryStmt queryStmt = (QueryStmt) parsedStmt;
                     String originSql = queryStmt.getOrigStmt().originStmt.trim().toLowerCase().replaceAll(" +", " ");
 
                     // If this sql is in blacklist, show message.
-                    SqlBlackList.verifying(originSql);
+                    SqlBlackList.verifying(originSql, digest == null ? null : digest.getDigest());
                 }
 
                 int retryTime = Config.max_query_retry_time;
@@ -378,7 +393,14 @@ public class StmtExecutor {
                         }
 
                         if (context.getSessionVariable().isReportSucc()) {
+                            RuntimeProfile queryProfile = coord == null ? null : coord.getQueryProfile();
                             writeProfile(beginTimeInNanoSecond);
+                            // the operators of pipeline engine are not profiled by the plan node id
+                            if (execPlanBuildByNewPlanner && !context.getSessionVariable().isEnablePipelineEngine()) {
+                                CostCalibrationCollector.getInstance().collect(context.getExecutionId(),
+                                        execPlan.getFragments(), queryProfile);
+                                CardinalityFeedback.getInstance().collect(execPlan, queryProfile);
+                            }
                         }
                         break;
                     } catch (RpcException e) {
@@ -766,64 +788,77 @@ public class StmtExecutor {
         QeProcessorImpl.INSTANCE.registerQuery(context.getExecutionId(),
                 new QeProcessorImpl.QueryInfo(context, originStmt.originStmt, coord));
 
-        coord.exec();
-
-        // send result
-        // 1. If this is a query with OUTFILE clause, eg: select * from tbl1 into outfile xxx,
-        //    We will not send real query result to client. Instead, we only send OK to client with
-        //    number of rows selected. For example:
-        //          mysql> select * from tbl1 into outfile xxx;
-        //          Query OK, 10 rows affected (0.01 sec)
-        //
-        // 2. If this is a query, send the result expr fields first, and send result data back to client.
-        RowBatch batch;
-        MysqlChannel channel = context.getMysqlChannel();
-        boolean isOutfileQuery = queryStmt.hasOutFileClause();
-        boolean isSendFields = false;
-        while (true) {
-            batch = coord.getNext();
-            // for outfile query, there will be only one empty batch send back with eos flag
-            if (batch.getBatch() != null && !isOutfileQuery) {
-                // For some language driver, getting error packet after fields packet will be recognized as a success result
-                // so We need to send fields after first batch arrived
-                if (!isSendFields) {
-                    sendFields(colNames, outputExprs);
-                    isSendFields = true;
+        // queries exceeding the limits of their resource groups wait here before being sent to the backends
+        QueryQueueManager.Slot querySlot = null;
+        if (Config.enable_query_queue) {
+            querySlot = QueryQueueManager.getInstance().acquire(context,
+                    QueryQueueManager.classify(context, context.getSqlDigest()),
+                    QueryQueueManager.estimateMemory(fragments));
+        }
+        try {
+            coord.exec();
+
+            // send result
+            // 1. If this is a query with OUTFILE clause, eg: select * from tbl1 into outfile xxx,
+            //    We will not send real query result to client. Instead, we only send OK to client with
+            //    number of rows selected. For example:
+            //          mysql> select * from tbl1 into outfile xxx;
+            //          Query OK, 10 rows affected (0.01 sec)
+            //
+            // 2. If this is a query, send the result expr fields first, and send result data back to client.
+            RowBatch batch;
+            MysqlChannel channel = context.getMysqlChannel();
+            boolean isOutfileQuery = queryStmt.hasOutFileClause();
+            boolean isSendFields = false;
+            while (true) {
+                batch = coord.getNext();
+                // for outfile query, there will be only one empty batch send back with eos flag
+                if (batch.getBatch() != null && !isOutfileQuery) {
+                    // For some language driver, getting error packet after fields packet will be recognized as a success result
+                    // so We need to send fields after first batch arrived
+                    if (!isSendFields) {
+                        sendFields(colNames, outputExprs);
+                        isSendFields = true;
+                    }
+                    for (ByteBuffer row : batch.getBatch().getRows()) {
+                        channel.sendOnePacket(row);
+                    }
+                    context.updateReturnRows(batch.getBatch().getRows().size());
                 }
-                for (ByteBuffer row : batch.getBatch().getRows()) {
-                    channel.sendOnePacket(row);
+                if (batch.isEos()) {
+                    break;
                 }
-                context.updateReturnRows(batch.getBatch().getRows().size());
             }
-            if (batch.isEos()) {
-                break;
+            if (!isSendFields && !isOutfileQuery) {
+                sendFields(colNames, outputExprs);
             }
-        }
-        if (!isSendFields && !isOutfileQuery) {
-            sendFields(colNames, outputExprs);
-        }
 
-        statisticsForAuditLog = batch.getQueryStatistics();
-        if (!isOutfileQuery) {
-            context.getState().setEof();
-        } else {
-            context.getState().setOk(statisticsForAuditLog.returned_rows, 0, "");
-        }
-        if (null == statisticsForAuditLog || null == statisticsForAuditLog.stats_items ||
-                statisticsForAuditLog.stats_items.isEmpty()) {
-            return;
-        }
-        // collect table-level metrics
-        Set<Long> tableIds = Sets.newHashSet();
-        for (QueryStatisticsItemPB item : statisticsForAuditLog.stats_items) {
-            TableMetricsEntity entity = TableMetricsRegistry.getInstance().getMetricsEntity(item.table_id);
-            entity.counterScanRowsTotal.increase(item.scan_rows);
-            entity.counterScanBytesTotal.increase(item.scan_bytes);
-            tableIds.add(item.table_id);
-        }
-        for (Long tableId : tableIds) {
-            TableMetricsEntity entity = TableMetricsRegistry.getInstance().getMetricsEntity(tableId);
-            entity.counterScanFinishedTotal.increase(1L);
+            statisticsForAuditLog = batch.getQueryStatistics();
+            if (!isOutfileQuery) {
+                context.getState().setEof();
+            } else {
+                context.getState().setOk(statisticsForAuditLog.returned_rows, 0, "");
+            }
+            if (null == statisticsForAuditLog || null == statisticsForAuditLog.stats_items ||
+                    statisticsForAuditLog.stats_items.isEmpty()) {
+                return;
+            }
+            // collect table-level metrics
+            Set<Long> tableIds = Sets.newHashSet();
+            for (QueryStatisticsItemPB item : statisticsForAuditLog.stats_items) {
+                TableMetricsEntity entity = TableMetricsRegistry.getInstance().getMetricsEntity(item.table_id);
+                entity.counterScanRowsTotal.increase(item.scan_rows);
+                entity.counterScanBytesTotal.increase(item.scan_bytes);
+                tableIds.add(item.table_id);
+            }
+            for (Long tableId : tableIds) {
+                TableMetricsEntity entity = TableMetricsRegistry.getInstance().getMetricsEntity(tableId);
+                entity.counterScanFinishedTotal.increase(1L);
+            }
+        } finally {
+            if (querySlot != null) {
+                QueryQueueManager.getInstance().release(querySlot);
+            }
         }
     }
 
@@ -1071,7 +1106,11 @@ public class StmtExecutor {
 
     private void handleAddSqlBlackListStmt() {
         AddSqlBlackListStmt addSqlBlackListStmt = (AddSqlBlackListStmt) parsedStmt;
-        SqlBlackList.getInstance().put(addSqlBlackListStmt.getSqlPattern());
+        if (addSqlBlackListStmt.getDigest() != null) {
+            SqlBlackList.getInstance().putDigest(addSqlBlackListStmt.getDigest());
+        } else {
+            SqlBlackList.getInstance().put(addSqlBlackListStmt.getSqlPattern());
+        }
     }
 
     private void handleDelSqlBlackListStmt() {
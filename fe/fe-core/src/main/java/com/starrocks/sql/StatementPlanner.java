@@ -7,6 +7,7 @@ import com.starrocks.analysis.QueryStmt;
 import com.starrocks.analysis.StatementBase;
 import com.starrocks.catalog.Database;
 import com.starrocks.common.AnalysisException;
+import com.starrocks.common.Config;
 import com.starrocks.planner.PlannerContext;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.sql.analyzer.PrivilegeChecker;
@@ -17,9 +18,11 @@ import com.starrocks.sql.optimizer.Optimizer;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.base.PhysicalPropertySet;
+import com.starrocks.sql.optimizer.dump.QueryDumpInfo;
 import com.starrocks.sql.optimizer.transformer.LogicalPlan;
 import com.starrocks.sql.optimizer.transformer.RelationTransformer;
 import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.sql.plan.PlanCache;
 import com.starrocks.sql.plan.PlanFragmentBuilder;
 
 import java.util.List;
@@ -27,6 +30,18 @@ import java.util.Map;
 
 public class StatementPlanner {
     public ExecPlan plan(StatementBase stmt, ConnectContext session) throws AnalysisException {
+        PlanCache.Key cacheKey = null;
+        if (stmt instanceof QueryStmt && Config.enable_query_plan_cache && !session.isQueryDump()
+                && session.getDumpInfo() instanceof QueryDumpInfo) {
+            cacheKey = PlanCache.createKey(stmt.getOrigStmt(), session);
+            if (cacheKey != null) {
+                ExecPlan execPlan = planByCache(cacheKey, (QueryStmt) stmt, session);
+                if (execPlan != null) {
+                    return execPlan;
+                }
+            }
+        }
+
         com.starrocks.sql.analyzer.Analyzer analyzer =
                 new com.starrocks.sql.analyzer.Analyzer(session.getCatalog(), session);
         Relation relation = analyzer.analyze(stmt);
@@ -41,7 +56,7 @@ public class StatementPlanner {
 
             try {
                 lock(dbs);
-                return createQueryPlan(relation, session);
+                return createQueryPlan(relation, session, cacheKey);
             } finally {
                 unLock(dbs);
             }
@@ -60,7 +75,30 @@ public class StatementPlanner {
         return null;
     }
 
-    private ExecPlan createQueryPlan(Relation relation, ConnectContext session) {
+    // return null if the plan is not cached
+    private ExecPlan planByCache(PlanCache.Key cacheKey, QueryStmt queryStmt, ConnectContext session)
+            throws AnalysisException {
+        PrivilegeChecker.check(queryStmt, session.getCatalog().getAuth(), session);
+
+        Map<String, Database> dbs = Maps.newTreeMap();
+        queryStmt.getDbs(session, dbs);
+        try {
+            lock(dbs);
+            PlanCache.CachedPlan cachedPlan = PlanCache.getInstance().get(cacheKey);
+            if (cachedPlan == null) {
+                return null;
+            }
+            PlannerContext plannerContext =
+                    new PlannerContext(null, null, session.getSessionVariable().toThrift(), null);
+            return new PlanFragmentBuilder().createPhysicalPlan(cachedPlan.getOptimizedPlan(), plannerContext,
+                    session, cachedPlan.getOutputColumns(), cachedPlan.getColumnRefFactory(),
+                    cachedPlan.getColNames());
+        } finally {
+            unLock(dbs);
+        }
+    }
+
+    private ExecPlan createQueryPlan(Relation relation, ConnectContext session, PlanCache.Key cacheKey) {
         QueryRelation query = (QueryRelation) relation;
         List<String> colNames = query.getColumnOutputNames();
 
@@ -79,8 +117,15 @@ public class StatementPlanner {
 
         //3. Build fragment exec plan
         PlannerContext plannerContext = new PlannerContext(null, null, session.getSessionVariable().toThrift(), null);
-        return new PlanFragmentBuilder().createPhysicalPlan(
+        ExecPlan execPlan = new PlanFragmentBuilder().createPhysicalPlan(
                 optimizedPlan, plannerContext, session, logicalPlan.getOutputColumn(), columnRefFactory, colNames);
+
+        //4. Cache the physical plan, which is only read by the translation
+        if (cacheKey != null) {
+            PlanCache.getInstance().put(cacheKey, optimizedPlan, columnRefFactory, logicalPlan.getOutputColumn(),
+                    colNames, (QueryDumpInfo) session.getDumpInfo());
+        }
+        return execPlan;
     }
 
     private ExecPlan createInsertPlan(Relation relation, ConnectContext session) {
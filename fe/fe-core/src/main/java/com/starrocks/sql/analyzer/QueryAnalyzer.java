@@ -801,6 +801,7 @@ public class QueryAnalyzer {
 
         if (table instanceof View) {
             View view = (View) table;
+            session.getDumpInfo().addView(tableRef.getName().getDb().split(":")[1], view);
             QueryRelation query = transformQueryStmt(view.getQueryStmt(), scope);
 
             ImmutableList.Builder<Field> outputFields = ImmutableList.builder();
@@ -291,7 +291,7 @@ public class ChildPropertyDeriver extends OperatorVisitor<Void, ExpressionContex
         }
 
         LogicalOlapScanOperator right = rightTable.get();
-        ColocateTableIndex colocateIndex = Catalog.getCurrentColocateIndex();
+        ColocateTableIndex.Snapshot colocateIndex = Catalog.getCurrentColocateIndex().getSnapshot();
 
         // join self
         if (left.getTable().getId() == right.getTable().getId() &&
@@ -766,7 +766,7 @@ public class ChildPropertyDeriver extends OperatorVisitor<Void, ExpressionContex
     public Void visitPhysicalOlapScan(PhysicalOlapScanOperator node, ExpressionContext context) {
         HashDistributionSpec hashDistributionSpec = node.getDistributionSpec();
 
-        ColocateTableIndex colocateIndex = Catalog.getCurrentColocateIndex();
+        ColocateTableIndex.Snapshot colocateIndex = Catalog.getCurrentColocateIndex().getSnapshot();
         boolean satisfyLocalProperty;
         if (node.getSelectedPartitionId().size() <= 1 || (colocateIndex.isColocateTable(node.getTable().getId()) &&
                 !colocateIndex.isGroupUnstable(colocateIndex.getGroup(node.getTable().getId())))) {
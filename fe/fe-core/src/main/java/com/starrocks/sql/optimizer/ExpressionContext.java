@@ -61,6 +61,16 @@ public class ExpressionContext {
         }
     }
 
+    // null if attached to a group expression
+    public OptExpression getOptExpression() {
+        return expression;
+    }
+
+    // null if attached to an OptExpression
+    public GroupExpression getGroupExpression() {
+        return groupExpression;
+    }
+
     public Operator getOp() {
         if (expression != null) {
             return expression.getOp();
@@ -16,6 +16,7 @@ import com.starrocks.sql.optimizer.rewrite.ExchangeSortToMergeRule;
 import com.starrocks.sql.optimizer.rule.RuleSetType;
 import com.starrocks.sql.optimizer.rule.implementation.PreAggregateTurnOnRule;
 import com.starrocks.sql.optimizer.rule.join.ReorderJoinRule;
+import com.starrocks.sql.optimizer.rule.mv.AsyncMaterializedViewRule;
 import com.starrocks.sql.optimizer.rule.mv.MaterializedViewRule;
 import com.starrocks.sql.optimizer.task.DeriveStatsTask;
 import com.starrocks.sql.optimizer.task.OptimizeGroupTask;
@@ -62,50 +63,12 @@ public class Optimizer {
                 requiredProperty, (ColumnRefSet) requiredColumns.clone(), Double.MAX_VALUE);
         context.addTaskContext(rootTaskContext);
 
-        // Note: root group of memo maybe change after rewrite,
-        // so we should always get root group and root group expression
-        // directly from memo.
-        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
-                memo.getRootGroup(), RuleSetType.MULTI_DISTINCT_REWRITE));
-        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
-
-        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
-                memo.getRootGroup(), RuleSetType.SUBQUERY_REWRITE));
-        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
-
-        // Note: PUSH_DOWN_PREDICATE tasks should be executed before MERGE_LIMIT tasks
-        // because of the Filter node needs to be merged first to avoid the Limit node
-        // cannot merge
-        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
-                memo.getRootGroup(), RuleSetType.PUSH_DOWN_PREDICATE));
-        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
-
-        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
-                memo.getRootGroup(), RuleSetType.PRUNE_COLUMNS));
-        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
-
-        //Limit push must be after the column prune,
-        //otherwise the Node containing limit may be prune
-        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
-                memo.getRootGroup(), RuleSetType.MERGE_LIMIT));
-        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
-
-        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
-                memo.getRootGroup(), RuleSetType.MERGE_AGGREGATE));
-        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
-
-        //After the MERGE_LIMIT, ProjectNode that can be merged may appear.
-        //So we do another column cropping
-        rootTaskContext.setRequiredColumns((ColumnRefSet) requiredColumns.clone());
-        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
-                memo.getRootGroup(), RuleSetType.PRUNE_COLUMNS));
-        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
-
-        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
-                memo.getRootGroup(), RuleSetType.PRUNE_ASSERT_ROW));
-        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
+        logicalRuleRewrite(memo, rootTaskContext, requiredColumns);
 
         OptExpression tree = memo.getRootGroup().extractLogicalTree();
+        if (connectContext.getSessionVariable().isEnableAsyncMvRewrite()) {
+            tree = new AsyncMaterializedViewRule().transform(tree, context).get(0);
+        }
         tree = new MaterializedViewRule().transform(tree, context).get(0);
         memo.replaceRewriteExpression(memo.getRootGroup(), tree);
 
@@ -176,6 +139,74 @@ public class Optimizer {
         return result;
     }
 
+    /**
+     * Only apply the logical rewrite rules of phase 2, e.g. to get the normalized plan of a materialized view
+     *
+     * @return the rewritten logical operator tree
+     */
+    public OptExpression rewriteLogicalPlan(ConnectContext connectContext,
+                                            OptExpression logicOperatorTree,
+                                            ColumnRefSet requiredColumns,
+                                            ColumnRefFactory columnRefFactory) {
+        Memo memo = new Memo();
+        memo.init(logicOperatorTree);
+
+        context = new OptimizerContext(memo, columnRefFactory, connectContext.getSessionVariable(),
+                connectContext.getDumpInfo());
+
+        TaskContext rootTaskContext = new TaskContext(context,
+                new PhysicalPropertySet(), (ColumnRefSet) requiredColumns.clone(), Double.MAX_VALUE);
+        context.addTaskContext(rootTaskContext);
+
+        logicalRuleRewrite(memo, rootTaskContext, requiredColumns);
+        return memo.getRootGroup().extractLogicalTree();
+    }
+
+    private void logicalRuleRewrite(Memo memo, TaskContext rootTaskContext, ColumnRefSet requiredColumns) {
+        // Note: root group of memo maybe change after rewrite,
+        // so we should always get root group and root group expression
+        // directly from memo.
+        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
+                memo.getRootGroup(), RuleSetType.MULTI_DISTINCT_REWRITE));
+        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
+
+        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
+                memo.getRootGroup(), RuleSetType.SUBQUERY_REWRITE));
+        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
+
+        // Note: PUSH_DOWN_PREDICATE tasks should be executed before MERGE_LIMIT tasks
+        // because of the Filter node needs to be merged first to avoid the Limit node
+        // cannot merge
+        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
+                memo.getRootGroup(), RuleSetType.PUSH_DOWN_PREDICATE));
+        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
+
+        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
+                memo.getRootGroup(), RuleSetType.PRUNE_COLUMNS));
+        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
+
+        //Limit push must be after the column prune,
+        //otherwise the Node containing limit may be prune
+        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
+                memo.getRootGroup(), RuleSetType.MERGE_LIMIT));
+        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
+
+        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
+                memo.getRootGroup(), RuleSetType.MERGE_AGGREGATE));
+        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
+
+        //After the MERGE_LIMIT, ProjectNode that can be merged may appear.
+        //So we do another column cropping
+        rootTaskContext.setRequiredColumns((ColumnRefSet) requiredColumns.clone());
+        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
+                memo.getRootGroup(), RuleSetType.PRUNE_COLUMNS));
+        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
+
+        context.getTaskScheduler().pushTask(new TopDownRewriteTask(rootTaskContext,
+                memo.getRootGroup(), RuleSetType.PRUNE_ASSERT_ROW));
+        context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
+    }
+
     /**
      * Extract the lowest cost physical operator tree from memo
      *
@@ -0,0 +1,194 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.cost;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.common.Config;
+import com.starrocks.common.util.Counter;
+import com.starrocks.common.util.DebugUtil;
+import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.metric.MetricRepo;
+import com.starrocks.planner.ExchangeNode;
+import com.starrocks.planner.PlanFragment;
+import com.starrocks.planner.PlanNode;
+import com.starrocks.thrift.TUniqueId;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Collects the estimated and actual rows, bytes and time of the plan nodes of executed queries, to calibrate
+ * the weights of the cost model and the cardinality estimation for the hardware and data of a cluster.
+ * The latest samples are kept in memory and shown by show proc "/cost_calibration", so they could be
+ * fitted offline, and the q-error of the estimated rows is recorded in the histogram metric
+ * optimizer.cardinality.q_error_x100, multiplied by 100 since a histogram only records integers.
+ * <p>
+ * The actual rows and time are read from the profiles of plan nodes reported by backends, so only the
+ * queries with a profile are collected.
+ */
+public class CostCalibrationCollector {
+    private static final CostCalibrationCollector INSTANCE = new CostCalibrationCollector();
+
+    // the profile of a plan node is named like "OLAP_SCAN_NODE (id=0)"
+    private static final Pattern PLAN_NODE_PROFILE_PATTERN = Pattern.compile("\\(id=(\\d+)\\)");
+    private static final String ROWS_RETURNED_COUNTER = "RowsReturned";
+
+    private final Deque<Sample> samples = new ArrayDeque<>();
+
+    public static CostCalibrationCollector getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The actual output rows and time of a plan node, summed over all its fragment instances.
+     */
+    public static class NodeActual {
+        private long rows;
+        // the time of the node itself, excluding the time of its children
+        private long localTimeNs;
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getLocalTimeNs() {
+            return localTimeNs;
+        }
+    }
+
+    public static class Sample {
+        private final String queryId;
+        private final int nodeId;
+        private final String nodeName;
+        private final long estimatedRows;
+        private final long actualRows;
+        private final float avgRowSize;
+        private final long localTimeNs;
+
+        Sample(String queryId, int nodeId, String nodeName, long estimatedRows, long actualRows, float avgRowSize,
+               long localTimeNs) {
+            this.queryId = queryId;
+            this.nodeId = nodeId;
+            this.nodeName = nodeName;
+            this.estimatedRows = estimatedRows;
+            this.actualRows = actualRows;
+            this.avgRowSize = avgRowSize;
+            this.localTimeNs = localTimeNs;
+        }
+
+        List<String> toRow() {
+            // the bytes are estimated with the average row size of the plan node
+            return Lists.newArrayList(queryId, String.valueOf(nodeId), nodeName, String.valueOf(estimatedRows),
+                    String.valueOf(actualRows), String.valueOf(Math.round(estimatedRows * (double) avgRowSize)),
+                    String.valueOf(Math.round(actualRows * (double) avgRowSize)), String.valueOf(localTimeNs),
+                    String.format("%.2f", getQError(estimatedRows, actualRows)));
+        }
+    }
+
+    /**
+     * Compares the plan nodes of the fragments with the actual rows and time in the query profile.
+     * Must be called after the profile is completed by the coordinator.
+     */
+    public void collect(TUniqueId queryId, List<PlanFragment> fragments, RuntimeProfile queryProfile) {
+        int maxSamples = Config.cost_calibration_max_samples;
+        if (maxSamples <= 0 || queryProfile == null) {
+            return;
+        }
+
+        Map<Integer, NodeActual> actuals = collectNodeActuals(queryProfile);
+        List<Sample> querySamples = Lists.newArrayList();
+        String queryIdStr = DebugUtil.printId(queryId);
+        for (PlanFragment fragment : fragments) {
+            List<PlanNode> nodes = Lists.newArrayList();
+            collectPlanNodes(fragment.getPlanRoot(), nodes);
+            for (PlanNode node : nodes) {
+                NodeActual actual = actuals.get(node.getId().asInt());
+                // the cardinality is -1 if not estimated
+                if (actual == null || node.getCardinality() < 0) {
+                    continue;
+                }
+                querySamples.add(new Sample(queryIdStr, node.getId().asInt(), node.getPlanNodeName(),
+                        node.getCardinality(), actual.rows, node.getAvgRowSize(), actual.localTimeNs));
+                if (MetricRepo.isInit) {
+                    MetricRepo.HISTO_CARDINALITY_Q_ERROR.update(
+                            Math.round(getQError(node.getCardinality(), actual.rows) * 100));
+                }
+            }
+        }
+
+        synchronized (samples) {
+            samples.addAll(querySamples);
+            while (samples.size() > maxSamples) {
+                samples.removeFirst();
+            }
+        }
+    }
+
+    public List<List<String>> getSamples() {
+        List<List<String>> rows = Lists.newArrayList();
+        synchronized (samples) {
+            for (Sample sample : samples) {
+                rows.add(sample.toRow());
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @return the actual output rows and time of the plan nodes in the query profile, keyed by the plan node id
+     */
+    public static Map<Integer, NodeActual> collectNodeActuals(RuntimeProfile queryProfile) {
+        Map<Integer, NodeActual> actuals = Maps.newHashMap();
+        collectNodeActuals(queryProfile, actuals);
+        return actuals;
+    }
+
+    private static void collectNodeActuals(RuntimeProfile profile, Map<Integer, NodeActual> actuals) {
+        for (Map.Entry<String, RuntimeProfile> entry : profile.getChildMap().entrySet()) {
+            RuntimeProfile child = entry.getValue();
+            Counter rowsReturned = child.getCounterMap().get(ROWS_RETURNED_COUNTER);
+            Matcher matcher = PLAN_NODE_PROFILE_PATTERN.matcher(entry.getKey());
+            if (rowsReturned != null && matcher.find()) {
+                NodeActual actual = actuals.computeIfAbsent(Integer.parseInt(matcher.group(1)),
+                        k -> new NodeActual());
+                actual.rows += rowsReturned.getValue();
+                actual.localTimeNs += Math.max(0, child.getCounterTotalTime().getValue() - getChildNodesTime(child));
+            }
+            collectNodeActuals(child, actuals);
+        }
+    }
+
+    // the total time of a plan node includes the time of its child nodes
+    private static long getChildNodesTime(RuntimeProfile profile) {
+        long time = 0;
+        for (Map.Entry<String, RuntimeProfile> entry : profile.getChildMap().entrySet()) {
+            if (PLAN_NODE_PROFILE_PATTERN.matcher(entry.getKey()).find()) {
+                time += entry.getValue().getCounterTotalTime().getValue();
+            }
+        }
+        return time;
+    }
+
+    private static void collectPlanNodes(PlanNode node, List<PlanNode> nodes) {
+        nodes.add(node);
+        // the input node of an exchange node is collected with its own fragment
+        if (node instanceof ExchangeNode) {
+            return;
+        }
+        for (PlanNode child : node.getChildren()) {
+            collectPlanNodes(child, nodes);
+        }
+    }
+
+    // the ratio of the larger one to the smaller one of the estimated and actual rows, 1 is accurate
+    static double getQError(long estimatedRows, long actualRows) {
+        double estimated = Math.max(1, estimatedRows);
+        double actual = Math.max(1, actualRows);
+        return Math.max(estimated / actual, actual / estimated);
+    }
+}
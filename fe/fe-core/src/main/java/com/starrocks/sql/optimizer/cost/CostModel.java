@@ -4,6 +4,7 @@ package com.starrocks.sql.optimizer.cost;
 
 import com.google.common.base.Preconditions;
 import com.starrocks.catalog.Catalog;
+import com.starrocks.common.Config;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.sql.common.ErrorType;
 import com.starrocks.sql.common.StarRocksPlannerException;
@@ -36,6 +37,16 @@ import java.util.List;
 import java.util.Map;
 
 public class CostModel {
+    private static volatile CostParameterProvider parameterProvider = new ConfigCostParameterProvider();
+
+    public static CostParameterProvider getParameterProvider() {
+        return parameterProvider;
+    }
+
+    public static void setParameterProvider(CostParameterProvider provider) {
+        parameterProvider = Preconditions.checkNotNull(provider);
+    }
+
     public static double calculateCost(GroupExpression expression) {
         ExpressionContext expressionContext = new ExpressionContext(expression);
         return calculateCost(expressionContext);
@@ -48,12 +59,28 @@ public class CostModel {
     }
 
     public static double getRealCost(CostEstimate costEstimate) {
-        double cpuCostWeight = 0.5;
-        double memoryCostWeight = 2;
-        double networkCostWeight = 1.5;
-        return costEstimate.getCpuCost() * cpuCostWeight +
-                costEstimate.getMemoryCost() * memoryCostWeight +
-                costEstimate.getNetworkCost() * networkCostWeight;
+        CostParameterProvider provider = parameterProvider;
+        return costEstimate.getCpuCost() * provider.getCpuCostWeight() +
+                costEstimate.getMemoryCost() * provider.getMemoryCostWeight() +
+                costEstimate.getNetworkCost() * provider.getNetworkCostWeight();
+    }
+
+    // the weights set by admin set frontend config, which take effect for the following queries
+    private static class ConfigCostParameterProvider implements CostParameterProvider {
+        @Override
+        public double getCpuCostWeight() {
+            return Config.cost_model_cpu_weight;
+        }
+
+        @Override
+        public double getMemoryCostWeight() {
+            return Config.cost_model_memory_weight;
+        }
+
+        @Override
+        public double getNetworkCostWeight() {
+            return Config.cost_model_network_weight;
+        }
     }
 
     public static class CostEstimator extends OperatorVisitor<CostEstimate, ExpressionContext> {
@@ -0,0 +1,16 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.cost;
+
+/**
+ * Provides the weights to combine the cpu, memory and network costs of an operator into one cost.
+ * The weights depend on the hardware of a cluster, the default provider reads them from the config,
+ * and another provider could be set by {@link CostModel#setParameterProvider}.
+ */
+public interface CostParameterProvider {
+    double getCpuCostWeight();
+
+    double getMemoryCostWeight();
+
+    double getNetworkCostWeight();
+}
@@ -3,6 +3,7 @@
 package com.starrocks.sql.optimizer.dump;
 
 import com.starrocks.catalog.Table;
+import com.starrocks.catalog.View;
 import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
 
 public interface DumpInfo {
@@ -12,6 +13,8 @@ public interface DumpInfo {
 
     void addTable(String dbName, Table table);
 
+    void addView(String dbName, View view);
+
     void addTableStatistics(Table table, String column, ColumnStatistic columnStatistic);
 
     void addPartitionRowCount(Table table, String partition, long rowCount);
@@ -3,6 +3,7 @@
 package com.starrocks.sql.optimizer.dump;
 
 import com.starrocks.catalog.Table;
+import com.starrocks.catalog.View;
 import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
 
 public class MockDumpInfo implements DumpInfo {
@@ -18,6 +19,10 @@ public class MockDumpInfo implements DumpInfo {
     public void addTable(String dbName, Table table) {
     }
 
+    @Override
+    public void addView(String dbName, View view) {
+    }
+
     @Override
     public void addTableStatistics(Table table, String column, ColumnStatistic columnStatistic) {
     }
@@ -4,6 +4,7 @@ package com.starrocks.sql.optimizer.dump;
 
 import com.google.common.base.Preconditions;
 import com.starrocks.catalog.Table;
+import com.starrocks.catalog.View;
 import com.starrocks.common.Pair;
 import com.starrocks.qe.SessionVariable;
 import com.starrocks.qe.VariableMgr;
@@ -18,6 +19,8 @@ public class QueryDumpInfo implements DumpInfo {
     private String originStmt = "";
     // tableId-><dbName, table>
     private Map<Long, Pair<String, Table>> tableMap = new HashMap<>();
+    // viewId-><dbName, view>, the views are expanded by the analyzer and not dumped
+    private Map<Long, Pair<String, View>> viewMap = new HashMap<>();
     // tableName->partitionName->partitionRowCount
     private Map<String, Map<String, Long>> partitionRowCountMap = new HashMap<>();
     // tableName->columnName->column statistics
@@ -58,6 +61,11 @@ public class QueryDumpInfo implements DumpInfo {
         tableMap.put(table.getId(), new Pair<>(dbName, table));
     }
 
+    @Override
+    public void addView(String dbName, View view) {
+        viewMap.put(view.getId(), new Pair<>(dbName, view));
+    }
+
     @Override
     public void addPartitionRowCount(Table table, String partition, long rowCount) {
         String tableName = getTableName(table.getId());
@@ -68,6 +76,7 @@ public class QueryDumpInfo implements DumpInfo {
     public void reset() {
         this.originStmt = "";
         this.tableMap.clear();
+        this.viewMap.clear();
         this.partitionRowCountMap.clear();
         this.tableStatisticsMap.clear();
         this.createTableStmtMap.clear();
@@ -112,6 +121,10 @@ public class QueryDumpInfo implements DumpInfo {
         return tableMap;
     }
 
+    public Map<Long, Pair<String, View>> getViewMap() {
+        return viewMap;
+    }
+
     public Map<String, String> getCreateTableStmtMap() {
         return createTableStmtMap;
     }
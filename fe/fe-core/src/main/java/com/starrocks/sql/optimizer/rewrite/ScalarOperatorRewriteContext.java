@@ -2,10 +2,25 @@
 
 package com.starrocks.sql.optimizer.rewrite;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.starrocks.catalog.Function;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 public class ScalarOperatorRewriteContext {
     // mark operator rewrite nums
     private int changeNum;
 
+    // fold results of constant calls, generated SQL often repeats the same constant expression
+    // in hundreds of CASE/IN branches, and the rewriter applies the fold rule again in every round
+    private final Map<FoldedCallKey, ScalarOperator> foldedCalls = Maps.newHashMap();
+
     public void reset() {
         changeNum = 0;
     }
@@ -21,4 +36,55 @@ public class ScalarOperatorRewriteContext {
     public int changeNum() {
         return changeNum;
     }
+
+    /**
+     * @return the memoized fold result of a call with all constant arguments, null if it is not memoized
+     */
+    public ScalarOperator getFoldedCall(CallOperator call) {
+        FoldedCallKey key = new FoldedCallKey(call);
+        if (!foldedCalls.containsKey(key)) {
+            return null;
+        }
+        // null value means the call can not be folded
+        ScalarOperator result = foldedCalls.get(key);
+        // the result may be modified by the following rules, never share it between two expression trees
+        return result == null ? call : result.clone();
+    }
+
+    public void putFoldedCall(CallOperator call, ScalarOperator result) {
+        foldedCalls.put(new FoldedCallKey(call), result == call ? null : result.clone());
+    }
+
+    private static class FoldedCallKey {
+        private final Function fn;
+        private final Type type;
+        private final boolean isDistinct;
+        private final List<ScalarOperator> arguments;
+
+        FoldedCallKey(CallOperator call) {
+            this.fn = call.getFunction();
+            this.type = call.getType();
+            this.isDistinct = call.isDistinct();
+            this.arguments = ImmutableList.copyOf(call.getChildren());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FoldedCallKey that = (FoldedCallKey) o;
+            // resolved functions are shared builtin instances
+            return fn == that.fn && isDistinct == that.isDistinct && type.equals(that.type) &&
+                    arguments.equals(that.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(fn), type, isDistinct, arguments);
+        }
+    }
 }
@@ -32,21 +32,17 @@ public class ScalarOperatorRewriter {
             new ExtractCommonPredicateRule()
     );
 
-    private final ScalarOperatorRewriteContext context;
-
-    public ScalarOperatorRewriter() {
-        context = new ScalarOperatorRewriteContext();
-    }
-
     public ScalarOperator rewrite(ScalarOperator root, List<ScalarOperatorRewriteRule> ruleList) {
         ScalarOperator result = root;
 
-        context.reset();
+        // a new context for every rewrite, rewriters held by rules are shared by concurrent queries,
+        // and memoized fold results must not escape the current statement
+        ScalarOperatorRewriteContext context = new ScalarOperatorRewriteContext();
         int changeNums;
         do {
             changeNums = context.changeNum();
             for (ScalarOperatorRewriteRule rule : ruleList) {
-                result = rewriteByRule(result, rule);
+                result = rewriteByRule(result, rule, context);
             }
 
             if (changeNums > Config.max_planner_scalar_rewrite_num) {
@@ -57,27 +53,29 @@ public class ScalarOperatorRewriter {
         return result;
     }
 
-    private ScalarOperator rewriteByRule(ScalarOperator root, ScalarOperatorRewriteRule rule) {
+    private ScalarOperator rewriteByRule(ScalarOperator root, ScalarOperatorRewriteRule rule,
+                                         ScalarOperatorRewriteContext context) {
         ScalarOperator result = root;
         int changeNums;
         if (rule.isBottomUp()) {
             do {
                 changeNums = context.changeNum();
-                result = applyRuleBottomUp(result, rule);
+                result = applyRuleBottomUp(result, rule, context);
             } while (changeNums != context.changeNum());
         } else if (rule.isTopDown()) {
             do {
                 changeNums = context.changeNum();
-                result = applyRuleTopDown(result, rule);
+                result = applyRuleTopDown(result, rule, context);
             } while (changeNums != context.changeNum());
         }
 
         return result;
     }
 
-    private ScalarOperator applyRuleBottomUp(ScalarOperator operator, ScalarOperatorRewriteRule rule) {
+    private ScalarOperator applyRuleBottomUp(ScalarOperator operator, ScalarOperatorRewriteRule rule,
+                                             ScalarOperatorRewriteContext context) {
         for (int i = 0; i < operator.getChildren().size(); i++) {
-            operator.setChild(i, applyRuleBottomUp(operator.getChild(i), rule));
+            operator.setChild(i, applyRuleBottomUp(operator.getChild(i), rule, context));
         }
 
         ScalarOperator op = rule.apply(operator, context);
@@ -87,14 +85,15 @@ public class ScalarOperatorRewriter {
         return op;
     }
 
-    private ScalarOperator applyRuleTopDown(ScalarOperator operator, ScalarOperatorRewriteRule rule) {
+    private ScalarOperator applyRuleTopDown(ScalarOperator operator, ScalarOperatorRewriteRule rule,
+                                            ScalarOperatorRewriteContext context) {
         ScalarOperator op = rule.apply(operator, context);
         if (op != operator) {
             context.change();
         }
 
         for (int i = 0; i < op.getChildren().size(); i++) {
-            op.setChild(i, applyRuleTopDown(op.getChild(i), rule));
+            op.setChild(i, applyRuleTopDown(op.getChild(i), rule, context));
         }
         return op;
     }
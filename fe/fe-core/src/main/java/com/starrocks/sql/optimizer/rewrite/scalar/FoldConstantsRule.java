@@ -26,7 +26,16 @@ public class FoldConstantsRule extends BottomUpScalarOperatorRewriteRule {
         if (call.isAggregate() || notAllConstant(call.getChildren())) {
             return call;
         }
-        return ScalarOperatorEvaluator.INSTANCE.evaluation(call);
+        if (context == null) {
+            return ScalarOperatorEvaluator.INSTANCE.evaluation(call);
+        }
+
+        ScalarOperator result = context.getFoldedCall(call);
+        if (result == null) {
+            result = ScalarOperatorEvaluator.INSTANCE.evaluation(call);
+            context.putFoldedCall(call, result);
+        }
+        return result;
     }
 
     @Override
@@ -0,0 +1,320 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.join;
+
+import com.google.common.collect.Lists;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Join reorder by DPhyp, see "Dynamic Programming Strikes Back" (Moerkotte and Neumann, SIGMOD 2008).
+ * <p>
+ * Unlike {@link JoinReorderDP}, which tries every partition of every subset, DPhyp only enumerates the pairs of
+ * connected sub graph and connected complement of the join graph, each pair exactly once. So the cost is
+ * proportional to the number of join plans without cross join, which keeps chain, cycle and snowflake like
+ * joins of 20+ tables affordable.
+ * <p>
+ * A join predicate is a hyper edge (left atoms, right atoms), e.g. a.x + b.y = c.z connects {a, b} and {c}.
+ * Disconnected parts of the join graph are connected by cross joins, in the order of atoms.
+ * Outer and semi joins are atoms of {@link MultiJoinNode}, so they are never reordered here.
+ * <p>
+ * The number of pairs is exponential in some join graphs, e.g. (n - 1) * 2^(n - 2) for a star join of n tables.
+ * So the pairs are counted first, which only takes bit operations, and the plans are built only if there are at
+ * most cbo_max_dphyp_join_pairs pairs. Otherwise it gives no result, and the join tree is left to the left deep
+ * and greedy reorder. Every loop of the enumeration stops once the limit is exceeded, so the counting is bounded
+ * by the limit too.
+ */
+public class JoinReorderDPhyp extends JoinOrder {
+    private static final Logger LOG = LogManager.getLogger(JoinReorderDPhyp.class);
+
+    // the atoms are bits of a long
+    public static final int MAX_ATOM_NUM = Long.SIZE;
+
+    /**
+     * Undirected hyper edge between two disjoint sets of atoms
+     */
+    private static class HyperEdge {
+        final long left;
+        final long right;
+
+        HyperEdge(long left, long right) {
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    private final List<HyperEdge> hyperEdges = Lists.newArrayList();
+    // best plan of every connected sub graph, keyed by the bits of its atoms
+    private final Map<Long, GroupInfo> bestPlanMemo = new HashMap<>();
+    private final long maxJoinPairs;
+    // only count the pairs without building any plan, the connected sub graphs are kept in countedSubGraphs then
+    private boolean countOnly = false;
+    private final Set<Long> countedSubGraphs = new HashSet<>();
+    private long emittedPairs = 0;
+    private boolean tooManyPairs = false;
+
+    public JoinReorderDPhyp(OptimizerContext context) {
+        super(context);
+        this.maxJoinPairs = context.getSessionVariable().getCboMaxDPhypJoinPairs();
+    }
+
+    @Override
+    void init(List<OptExpression> atoms, List<ScalarOperator> predicates) {
+        super.init(atoms, predicates);
+        if (atomSize > MAX_ATOM_NUM) {
+            return;
+        }
+        buildHyperEdges(atoms);
+        connectComponents();
+    }
+
+    @Override
+    protected void enumerate() {
+        if (atomSize > MAX_ATOM_NUM) {
+            return;
+        }
+        countOnly = true;
+        for (int i = 0; i < atomSize; ++i) {
+            countedSubGraphs.add(1L << i);
+        }
+        enumeratePairs();
+        countedSubGraphs.clear();
+        countOnly = false;
+        if (tooManyPairs) {
+            LOG.debug("DPhyp join reorder of {} atoms skipped, more than {} pairs", atomSize, maxJoinPairs);
+            return;
+        }
+
+        List<GroupInfo> atomGroups = getGroupForLevel(1);
+        for (int i = 0; i < atomSize; ++i) {
+            bestPlanMemo.put(1L << i, atomGroups.get(i));
+        }
+        enumeratePairs();
+    }
+
+    private void enumeratePairs() {
+        emittedPairs = 0;
+        for (int i = atomSize - 1; i >= 0 && !tooManyPairs; --i) {
+            long atom = 1L << i;
+            emitCsg(atom);
+            // exclude the atoms before this one, their sub graphs have been enumerated
+            enumerateCsgRec(atom, lowerOrEqual(atom));
+        }
+    }
+
+    @Override
+    public List<OptExpression> getResult() {
+        if (tooManyPairs || atomSize > MAX_ATOM_NUM) {
+            return Collections.emptyList();
+        }
+        GroupInfo best = bestPlanMemo.get(allAtoms());
+        if (best == null || best.bestExprInfo == null) {
+            // hyper edges whose sides are not connected by themselves
+            return Collections.emptyList();
+        }
+        return Lists.newArrayList(best.bestExprInfo.expr);
+    }
+
+    private void buildHyperEdges(List<OptExpression> atoms) {
+        for (Edge edge : edges) {
+            long vertexes = toBits(edge.vertexes);
+            if (Long.bitCount(vertexes) < 2) {
+                continue;
+            }
+            if (Long.bitCount(vertexes) == 2) {
+                long first = Long.lowestOneBit(vertexes);
+                hyperEdges.add(new HyperEdge(first, vertexes & ~first));
+                continue;
+            }
+            // split a complex predicate by its two sides, otherwise it is only a filter of the atoms it covers
+            if (edge.predicate instanceof BinaryPredicateOperator) {
+                long left = coveredAtoms(atoms, edge.predicate.getChild(0).getUsedColumns());
+                long right = coveredAtoms(atoms, edge.predicate.getChild(1).getUsedColumns());
+                if (left != 0 && right != 0 && (left & right) == 0) {
+                    hyperEdges.add(new HyperEdge(left, right));
+                }
+            }
+        }
+    }
+
+    private long coveredAtoms(List<OptExpression> atoms, ColumnRefSet columns) {
+        long bits = 0;
+        for (int i = 0; i < atomSize; ++i) {
+            if (columns.isIntersect(atoms.get(i).getOutputColumns())) {
+                bits |= 1L << i;
+            }
+        }
+        return bits;
+    }
+
+    // add cross join edges between the components of the join graph, so that there is always a full plan
+    private void connectComponents() {
+        long visited = 0;
+        long previous = 0;
+        for (int i = 0; i < atomSize; ++i) {
+            long atom = 1L << i;
+            if ((visited & atom) != 0) {
+                continue;
+            }
+            long component = atom;
+            long grown;
+            do {
+                grown = component;
+                for (HyperEdge edge : hyperEdges) {
+                    if ((component & (edge.left | edge.right)) != 0) {
+                        component |= edge.left | edge.right;
+                    }
+                }
+            } while (grown != component);
+            if (previous != 0) {
+                hyperEdges.add(new HyperEdge(previous, atom));
+            }
+            visited |= component;
+            previous = atom;
+        }
+    }
+
+    private void emitCsg(long s1) {
+        long excluded = s1 | lowerOrEqual(Long.lowestOneBit(s1));
+        long neighbors = neighborhood(s1, excluded);
+        // from the last neighbor to the first one
+        for (long remaining = neighbors; remaining != 0 && !tooManyPairs; ) {
+            long atom = Long.highestOneBit(remaining);
+            remaining &= ~atom;
+            if (isConnected(s1, atom)) {
+                emitCsgCmp(s1, atom);
+            }
+            enumerateCmpRec(s1, atom, excluded | (neighbors & lowerOrEqual(atom)));
+        }
+    }
+
+    private void enumerateCsgRec(long s1, long excluded) {
+        long neighbors = neighborhood(s1, excluded);
+        if (neighbors == 0 || tooManyPairs) {
+            return;
+        }
+        for (long subset = neighbors & -neighbors; subset != 0 && !tooManyPairs;
+                subset = neighbors & (subset - neighbors)) {
+            if (isSubGraphEnumerated(s1 | subset)) {
+                emitCsg(s1 | subset);
+            }
+        }
+        long newExcluded = excluded | neighbors;
+        for (long subset = neighbors & -neighbors; subset != 0 && !tooManyPairs;
+                subset = neighbors & (subset - neighbors)) {
+            enumerateCsgRec(s1 | subset, newExcluded);
+        }
+    }
+
+    private void enumerateCmpRec(long s1, long s2, long excluded) {
+        long neighbors = neighborhood(s2, excluded);
+        if (neighbors == 0 || tooManyPairs) {
+            return;
+        }
+        for (long subset = neighbors & -neighbors; subset != 0 && !tooManyPairs;
+                subset = neighbors & (subset - neighbors)) {
+            long complement = s2 | subset;
+            if (isSubGraphEnumerated(complement) && isConnected(s1, complement)) {
+                emitCsgCmp(s1, complement);
+            }
+        }
+        long newExcluded = excluded | neighbors;
+        for (long subset = neighbors & -neighbors; subset != 0 && !tooManyPairs;
+                subset = neighbors & (subset - neighbors)) {
+            enumerateCmpRec(s1, s2 | subset, newExcluded);
+        }
+    }
+
+    private void emitCsgCmp(long s1, long s2) {
+        if (countOnly) {
+            countedSubGraphs.add(s1 | s2);
+            tooManyPairs = ++emittedPairs > maxJoinPairs;
+            return;
+        }
+        GroupInfo leftGroup = bestPlanMemo.get(s1);
+        GroupInfo rightGroup = bestPlanMemo.get(s2);
+        long joinAtoms = s1 | s2;
+        GroupInfo joinGroup = bestPlanMemo.get(joinAtoms);
+
+        // The row count of a join is nearly the same no matter how its atoms are split, so skip building
+        // the join if its children already cost more than the best plan.
+        double childrenCost = leftGroup.bestExprInfo.cost + rightGroup.bestExprInfo.cost;
+        if (joinGroup != null && childrenCost + joinGroup.bestExprInfo.rowCount >= joinGroup.lowestExprCost) {
+            return;
+        }
+
+        ExpressionInfo joinExpr = buildJoinExpr(leftGroup, rightGroup);
+        joinExpr.expr.deriveLogicalPropertyItself();
+        calculateStatistics(joinExpr.expr);
+        computeCost(joinExpr, true);
+
+        if (joinGroup == null) {
+            joinGroup = new GroupInfo(toBitSet(joinAtoms));
+            bestPlanMemo.put(joinAtoms, joinGroup);
+        }
+        if (joinExpr.cost < joinGroup.lowestExprCost) {
+            joinGroup.bestExprInfo = joinExpr;
+            joinGroup.lowestExprCost = joinExpr.cost;
+        }
+    }
+
+    // a connected sub graph is known once a pair of it has been emitted, as the smaller ones are emitted first
+    private boolean isSubGraphEnumerated(long atoms) {
+        return countOnly ? countedSubGraphs.contains(atoms) : bestPlanMemo.containsKey(atoms);
+    }
+
+    // the representatives of the hyper edges from the atoms, which do not touch the excluded atoms
+    private long neighborhood(long atoms, long excluded) {
+        long forbidden = atoms | excluded;
+        long neighbors = 0;
+        for (HyperEdge edge : hyperEdges) {
+            if ((edge.left & ~atoms) == 0 && (edge.right & forbidden) == 0) {
+                neighbors |= Long.lowestOneBit(edge.right);
+            } else if ((edge.right & ~atoms) == 0 && (edge.left & forbidden) == 0) {
+                neighbors |= Long.lowestOneBit(edge.left);
+            }
+        }
+        return neighbors;
+    }
+
+    private boolean isConnected(long s1, long s2) {
+        for (HyperEdge edge : hyperEdges) {
+            if (((edge.left & ~s1) == 0 && (edge.right & ~s2) == 0)
+                    || ((edge.left & ~s2) == 0 && (edge.right & ~s1) == 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long allAtoms() {
+        return atomSize == MAX_ATOM_NUM ? -1L : (1L << atomSize) - 1;
+    }
+
+    // the atom and all atoms before it
+    private static long lowerOrEqual(long atom) {
+        return (atom << 1) - 1;
+    }
+
+    private static long toBits(BitSet bitSet) {
+        long[] words = bitSet.toLongArray();
+        return words.length == 0 ? 0 : words[0];
+    }
+
+    private static BitSet toBitSet(long bits) {
+        return BitSet.valueOf(new long[] {bits});
+    }
+}
@@ -81,11 +81,17 @@ public class ReorderJoinRule extends Rule {
 
                 enumerate(new JoinReorderLeftDeep(context), context, innerJoinRoot, multiJoinNode);
 
-                if (multiJoinNode.getAtoms().size() <= context.getSessionVariable().getCboMaxReorderNodeUseDP()
+                int atomNum = multiJoinNode.getAtoms().size();
+                if (atomNum <= context.getSessionVariable().getCboMaxReorderNodeUseDP()
                         && context.getSessionVariable().isCboEnableDPJoinReorder()) {
                     //10 table join reorder takes more than 100ms,
                     //so the join reorder using dp is currently controlled below 10.
                     enumerate(new JoinReorderDP(context), context, innerJoinRoot, multiJoinNode);
+                } else if (atomNum <= Math.min(context.getSessionVariable().getCboMaxReorderNodeUseDPhyp(),
+                        JoinReorderDPhyp.MAX_ATOM_NUM)
+                        && context.getSessionVariable().isCboEnableDPJoinReorder()) {
+                    // DPhyp only enumerates the joins without cross join, and is skipped if there are too many of them
+                    enumerate(new JoinReorderDPhyp(context), context, innerJoinRoot, multiJoinNode);
                 }
 
                 if (context.getSessionVariable().isCboEnableGreedyJoinReorder()) {
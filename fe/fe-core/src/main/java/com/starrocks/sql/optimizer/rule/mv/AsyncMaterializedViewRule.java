@@ -0,0 +1,496 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.SqlParser;
+import com.starrocks.analysis.SqlScanner;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.catalog.AsyncMaterializedViewIndex;
+import com.starrocks.catalog.AsyncMaterializedViewProperty;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.DistributionInfo;
+import com.starrocks.catalog.Function;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.HashDistributionInfo;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.util.SqlParserUtils;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.analyzer.relation.QueryRelation;
+import com.starrocks.sql.analyzer.relation.Relation;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.Optimizer;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.base.DistributionSpec;
+import com.starrocks.sql.optimizer.base.HashDistributionDesc;
+import com.starrocks.sql.optimizer.operator.AggType;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rule.Rule;
+import com.starrocks.sql.optimizer.rule.RuleType;
+import com.starrocks.sql.optimizer.transformer.LogicalPlan;
+import com.starrocks.sql.optimizer.transformer.RelationTransformer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answer the select-project-join-group by part of a query from an up to date asynchronous materialized view.
+ * <p>
+ * The query and the definition of the materialized view are compared by their {@link SPJGDescriptor}:
+ * 1. They must join the same set of tables.
+ * 2. The predicates of the materialized view must be a subset of the predicates of the query, and the rest
+ * predicates of the query must be computable from the columns of the materialized view.
+ * 3. For an aggregation query, the group by keys must be computable from the group by columns of the materialized
+ * view, and every aggregate function must be a sum, min, max or count of the materialized view which can be rolled
+ * up, or be computable from the columns of a materialized view without aggregation.
+ * 4. For a join query, every output column must be computable from the materialized view without aggregation.
+ * <p>
+ * Only the materialized views defined on the query tables are considered, found by
+ * {@link AsyncMaterializedViewIndex}.
+ */
+public class AsyncMaterializedViewRule extends Rule {
+    private static final Logger LOG = LogManager.getLogger(AsyncMaterializedViewRule.class);
+
+    // materialized view id -> descriptor of its definition
+    private static final Cache<Long, MvDescriptor> DESCRIPTOR_CACHE = Caffeine.newBuilder().maximumSize(1024).build();
+
+    private static final Set<String> ROLLUP_FUNCTIONS =
+            Sets.newHashSet(FunctionSet.SUM, FunctionSet.MIN, FunctionSet.MAX, FunctionSet.COUNT);
+
+    public AsyncMaterializedViewRule() {
+        super(RuleType.TF_ASYNC_MATERIALIZED_VIEW, Pattern.create(OperatorType.PATTERN));
+    }
+
+    private static class MvDescriptor {
+        final String definition;
+        // null if the definition is not supported
+        final SPJGDescriptor descriptor;
+        // canonical expression of every column of the materialized view
+        final List<ScalarOperator> columns;
+
+        MvDescriptor(String definition, SPJGDescriptor descriptor, List<ScalarOperator> columns) {
+            this.definition = definition;
+            this.descriptor = descriptor;
+            this.columns = columns;
+        }
+    }
+
+    private static class Candidate {
+        final OlapTable mv;
+        final MvDescriptor descriptor;
+
+        Candidate(OlapTable mv, MvDescriptor descriptor) {
+            this.mv = mv;
+            this.descriptor = descriptor;
+        }
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        List<Candidate> candidates = collectCandidates(input);
+        if (candidates.isEmpty()) {
+            return Lists.newArrayList(input);
+        }
+        return Lists.newArrayList(rewrite(input, candidates, context.getColumnRefFactory()));
+    }
+
+    private OptExpression rewrite(OptExpression expression, List<Candidate> candidates, ColumnRefFactory factory) {
+        Operator op = expression.getOp();
+        if (op instanceof LogicalAggregationOperator || op instanceof LogicalJoinOperator) {
+            for (Candidate candidate : candidates) {
+                OptExpression rewritten = tryRewrite(expression, candidate, factory);
+                if (rewritten != null) {
+                    LOG.debug("rewrite query with asynchronous materialized view {}", candidate.mv.getName());
+                    return rewritten;
+                }
+            }
+        }
+        for (int i = 0; i < expression.arity(); ++i) {
+            expression.setChild(i, rewrite(expression.inputAt(i), candidates, factory));
+        }
+        return expression;
+    }
+
+    private List<Candidate> collectCandidates(OptExpression root) {
+        List<LogicalOlapScanOperator> scans = Lists.newArrayList();
+        collectOlapScans(root, scans);
+        if (scans.size() < 2 && !hasAggregation(root)) {
+            return Lists.newArrayList();
+        }
+        Set<Long> tableIds = Sets.newHashSet();
+        for (LogicalOlapScanOperator scan : scans) {
+            tableIds.add(scan.getTable().getId());
+        }
+
+        Catalog catalog = Catalog.getCurrentCatalog();
+        // materialized view id -> db id
+        Map<Long, Long> mvIds = Maps.newHashMap();
+        for (Long tableId : tableIds) {
+            mvIds.putAll(catalog.getAsyncMaterializedViewIndex().getMaterializedViews(tableId));
+        }
+        List<Candidate> candidates = Lists.newArrayList();
+        for (Map.Entry<Long, Long> mvId : mvIds.entrySet()) {
+            Database db = catalog.getDb(mvId.getValue());
+            if (db == null) {
+                continue;
+            }
+            OlapTable mv;
+            AsyncMaterializedViewProperty property;
+            db.readLock();
+            try {
+                Table table = db.getTable(mvId.getKey());
+                if (!AsyncMaterializedViewIndex.isAsyncMaterializedView(table)) {
+                    continue;
+                }
+                mv = (OlapTable) table;
+                property = mv.getAsyncMaterializedViewProperty();
+            } finally {
+                db.readUnlock();
+            }
+            if (property.getBaseTables().stream().anyMatch(t -> !tableIds.contains(t.getTableId()))
+                    || !property.isUpToDate()) {
+                continue;
+            }
+            MvDescriptor descriptor = getDescriptor(mv, property);
+            if (descriptor.descriptor != null) {
+                candidates.add(new Candidate(mv, descriptor));
+            }
+        }
+        return candidates;
+    }
+
+    private static void collectOlapScans(OptExpression expression, List<LogicalOlapScanOperator> scans) {
+        if (expression.getOp() instanceof LogicalOlapScanOperator) {
+            scans.add((LogicalOlapScanOperator) expression.getOp());
+        }
+        for (OptExpression input : expression.getInputs()) {
+            collectOlapScans(input, scans);
+        }
+    }
+
+    private static boolean hasAggregation(OptExpression expression) {
+        if (expression.getOp() instanceof LogicalAggregationOperator) {
+            return true;
+        }
+        return expression.getInputs().stream().anyMatch(AsyncMaterializedViewRule::hasAggregation);
+    }
+
+    private static MvDescriptor getDescriptor(OlapTable mv, AsyncMaterializedViewProperty property) {
+        MvDescriptor cached = DESCRIPTOR_CACHE.getIfPresent(mv.getId());
+        if (cached != null && cached.definition.equals(property.getDefinition())) {
+            return cached;
+        }
+        MvDescriptor descriptor = buildDescriptor(mv, property.getDefinition());
+        DESCRIPTOR_CACHE.put(mv.getId(), descriptor);
+        return descriptor;
+    }
+
+    private static MvDescriptor buildDescriptor(OlapTable mv, String definition) {
+        ConnectContext session = ConnectContext.get();
+        try {
+            SqlScanner scanner = new SqlScanner(new StringReader(definition),
+                    session.getSessionVariable().getSqlMode());
+            StatementBase stmt = SqlParserUtils.getStmt(new SqlParser(scanner), 0);
+            Relation relation = new com.starrocks.sql.analyzer.Analyzer(session.getCatalog(), session).analyze(stmt);
+
+            ColumnRefFactory factory = new ColumnRefFactory();
+            LogicalPlan logicalPlan = new RelationTransformer(factory).transform((QueryRelation) relation);
+            OptExpression tree = new Optimizer().rewriteLogicalPlan(session, logicalPlan.getRoot(),
+                    new ColumnRefSet(logicalPlan.getOutputColumn()), factory);
+
+            SPJGDescriptor descriptor = SPJGDescriptor.extract(tree);
+            List<ColumnRefOperator> outputs = logicalPlan.getOutputColumn();
+            if (descriptor == null || outputs.size() != mv.getBaseSchema().size()) {
+                return new MvDescriptor(definition, null, null);
+            }
+            List<ScalarOperator> columns = Lists.newArrayList();
+            for (ColumnRefOperator output : outputs) {
+                ScalarOperator column = descriptor.getOutputs().get(output);
+                if (column == null) {
+                    return new MvDescriptor(definition, null, null);
+                }
+                columns.add(column);
+            }
+            return new MvDescriptor(definition, descriptor, columns);
+        } catch (Exception e) {
+            LOG.debug("failed to build the plan of asynchronous materialized view {}", mv.getName(), e);
+            return new MvDescriptor(definition, null, null);
+        }
+    }
+
+    private OptExpression tryRewrite(OptExpression expression, Candidate candidate, ColumnRefFactory factory) {
+        SPJGDescriptor mvDescriptor = candidate.descriptor.descriptor;
+        LogicalAggregationOperator aggregate = null;
+        SPJGDescriptor query;
+        if (expression.getOp() instanceof LogicalAggregationOperator) {
+            aggregate = (LogicalAggregationOperator) expression.getOp();
+            if (aggregate.getType() != AggType.GLOBAL || aggregate.isSplit()) {
+                return null;
+            }
+            // match without the having predicate and limit, they are kept on the rewritten aggregation
+            LogicalAggregationOperator shape = new LogicalAggregationOperator(AggType.GLOBAL,
+                    aggregate.getGroupingKeys(), aggregate.getPartitionByColumns(), aggregate.getAggregations(),
+                    false, aggregate.getSingleDistinctFunctionPos(), -1, null);
+            query = SPJGDescriptor.extract(OptExpression.create(shape, expression.getInputs()));
+        } else {
+            query = SPJGDescriptor.extract(expression);
+            if (mvDescriptor.isAggregated()) {
+                return null;
+            }
+        }
+        if (query == null || !query.getTableIds().equals(mvDescriptor.getTableIds())
+                || !query.getConjuncts().keySet().containsAll(mvDescriptor.getConjuncts().keySet())) {
+            return null;
+        }
+
+        MvScanBuilder scanBuilder = new MvScanBuilder(candidate.mv, factory);
+        // canonical expression -> column of the materialized view, only the group by columns if aggregated
+        Map<String, ColumnRefOperator> keyColumns = Maps.newHashMap();
+        Map<String, ColumnRefOperator> allColumns = Maps.newHashMap();
+        for (int i = 0; i < candidate.descriptor.columns.size(); ++i) {
+            ScalarOperator column = candidate.descriptor.columns.get(i);
+            ColumnRefOperator ref = scanBuilder.columnRefs.get(i);
+            allColumns.putIfAbsent(column.toString(), ref);
+            if (!mvDescriptor.isAggregated() || !containsAggregate(column)) {
+                keyColumns.putIfAbsent(column.toString(), ref);
+            }
+        }
+
+        List<ScalarOperator> residuals = Lists.newArrayList();
+        for (Map.Entry<String, ScalarOperator> conjunct : query.getConjuncts().entrySet()) {
+            if (mvDescriptor.getConjuncts().containsKey(conjunct.getKey())) {
+                continue;
+            }
+            ScalarOperator residual = rewriteOverColumns(conjunct.getValue(), keyColumns);
+            if (residual == null) {
+                return null;
+            }
+            residuals.add(residual);
+        }
+        ScalarOperator predicate = residuals.isEmpty() ? null : Utils.compoundAnd(residuals);
+
+        Map<ColumnRefOperator, ScalarOperator> projectMap = Maps.newHashMap();
+        OptExpression result;
+        if (aggregate == null) {
+            for (Map.Entry<ColumnRefOperator, ScalarOperator> output : query.getOutputs().entrySet()) {
+                ScalarOperator column = rewriteOverColumns(output.getValue(), allColumns);
+                if (column == null) {
+                    return null;
+                }
+                projectMap.put(output.getKey(), column);
+            }
+            if (projectMap.isEmpty()) {
+                return null;
+            }
+            result = OptExpression.create(new LogicalProjectOperator(projectMap),
+                    scanBuilder.build(projectMap, predicate));
+            result.getInputs().get(0).deriveLogicalPropertyItself();
+            result.deriveLogicalPropertyItself();
+            return result;
+        }
+
+        for (Map.Entry<ColumnRefOperator, ScalarOperator> key : query.getGroupKeys().entrySet()) {
+            ScalarOperator column = rewriteOverColumns(key.getValue(), keyColumns);
+            if (column == null) {
+                return null;
+            }
+            projectMap.put(key.getKey(), column);
+        }
+        Map<ColumnRefOperator, CallOperator> aggregations = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : query.getAggregations().entrySet()) {
+            CallOperator call = mvDescriptor.isAggregated() ?
+                    rollup(entry.getKey(), entry.getValue(), allColumns, projectMap, query.getGroupKeys().isEmpty()) :
+                    recompute(entry.getKey(), entry.getValue(), allColumns, projectMap, factory);
+            if (call == null) {
+                return null;
+            }
+            aggregations.put(entry.getKey(), call);
+        }
+        if (projectMap.isEmpty()) {
+            // e.g. count(*) without group by, read a column anyway
+            ColumnRefOperator first = scanBuilder.columnRefs.get(0);
+            projectMap.put(first, first);
+        }
+
+        OptExpression scan = scanBuilder.build(projectMap, predicate);
+        OptExpression project = OptExpression.create(new LogicalProjectOperator(projectMap), scan);
+        LogicalAggregationOperator newAggregate = new LogicalAggregationOperator(AggType.GLOBAL,
+                aggregate.getGroupingKeys(), aggregate.getPartitionByColumns(), aggregations, false,
+                aggregate.getSingleDistinctFunctionPos(), aggregate.getLimit(), aggregate.getPredicate());
+        result = OptExpression.create(newAggregate, project);
+        scan.deriveLogicalPropertyItself();
+        project.deriveLogicalPropertyItself();
+        result.deriveLogicalPropertyItself();
+        return result;
+    }
+
+    // roll up an aggregate function of the query from the aggregated column of the materialized view
+    private static CallOperator rollup(ColumnRefOperator output, CallOperator call,
+                                       Map<String, ColumnRefOperator> columns,
+                                       Map<ColumnRefOperator, ScalarOperator> projectMap,
+                                       boolean noGroupBy) {
+        String fnName = call.getFnName();
+        if (call.isDistinct() || !ROLLUP_FUNCTIONS.contains(fnName) || call.getType().isDecimalV3()) {
+            return null;
+        }
+        // the sum of counts of an empty input is null instead of 0
+        if (fnName.equals(FunctionSet.COUNT) && noGroupBy) {
+            return null;
+        }
+        ColumnRefOperator column = columns.get(call.toString());
+        if (column == null) {
+            return null;
+        }
+        String rollupFnName = fnName.equals(FunctionSet.COUNT) ? FunctionSet.SUM : fnName;
+        Function fn = Expr.getBuiltinFunction(rollupFnName, new Type[] {column.getType()},
+                Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF);
+        if (fn == null || fn.getReturnType().getPrimitiveType() != output.getType().getPrimitiveType()) {
+            return null;
+        }
+        projectMap.put(column, column);
+        return new CallOperator(rollupFnName, output.getType(), Lists.newArrayList(column), fn);
+    }
+
+    // compute an aggregate function of the query from the columns of a materialized view without aggregation
+    private static CallOperator recompute(ColumnRefOperator output, CallOperator call,
+                                          Map<String, ColumnRefOperator> columns,
+                                          Map<ColumnRefOperator, ScalarOperator> projectMap,
+                                          ColumnRefFactory factory) {
+        List<ScalarOperator> arguments = Lists.newArrayList();
+        for (ScalarOperator child : call.getChildren()) {
+            ScalarOperator argument = rewriteOverColumns(child, columns);
+            if (argument == null) {
+                return null;
+            }
+            if (argument.isConstant()) {
+                arguments.add(argument);
+            } else if (argument.isColumnRef()) {
+                projectMap.put((ColumnRefOperator) argument, argument);
+                arguments.add(argument);
+            } else {
+                ColumnRefOperator ref = factory.create(argument, argument.getType(), argument.isNullable());
+                projectMap.put(ref, argument);
+                arguments.add(ref);
+            }
+        }
+        return new CallOperator(call.getFnName(), output.getType(), arguments, call.getFunction(),
+                call.isDistinct());
+    }
+
+    /**
+     * Rewrite the canonical expression with the columns of the materialized view
+     *
+     * @return null if the expression can not be computed from the columns
+     */
+    private static ScalarOperator rewriteOverColumns(ScalarOperator expression,
+                                                     Map<String, ColumnRefOperator> columns) {
+        ColumnRefOperator column = columns.get(expression.toString());
+        if (column != null) {
+            return column;
+        }
+        if (expression.isColumnRef() || (expression instanceof CallOperator
+                && ((CallOperator) expression).isAggregate())) {
+            return null;
+        }
+        ScalarOperator result = expression.clone();
+        for (int i = 0; i < expression.getChildren().size(); ++i) {
+            ScalarOperator child = rewriteOverColumns(expression.getChild(i), columns);
+            if (child == null) {
+                return null;
+            }
+            result.setChild(i, child);
+        }
+        return result;
+    }
+
+    private static boolean containsAggregate(ScalarOperator expression) {
+        if (expression instanceof CallOperator && ((CallOperator) expression).isAggregate()) {
+            return true;
+        }
+        return expression.getChildren().stream().anyMatch(AsyncMaterializedViewRule::containsAggregate);
+    }
+
+    private static class MvScanBuilder {
+        final OlapTable mv;
+        final ColumnRefFactory factory;
+        // column refs in the order of the schema
+        final List<ColumnRefOperator> columnRefs = Lists.newArrayList();
+        final Map<Column, ColumnRefOperator> columnMetaToColRefMap = Maps.newHashMap();
+
+        MvScanBuilder(OlapTable mv, ColumnRefFactory factory) {
+            this.mv = mv;
+            this.factory = factory;
+            int relationId = factory.getNextRelationId();
+            for (Column column : mv.getBaseSchema()) {
+                ColumnRefOperator columnRef = factory.create(column.getName(), column.getType(), column.isAllowNull());
+                factory.updateColumnToRelationIds(columnRef.getId(), relationId);
+                factory.updateColumnRefToColumns(columnRef, column, mv);
+                columnRefs.add(columnRef);
+                columnMetaToColRefMap.put(column, columnRef);
+            }
+        }
+
+        // scan only the columns used by the project and predicate
+        OptExpression build(Map<ColumnRefOperator, ScalarOperator> projectMap, ScalarOperator predicate) {
+            ColumnRefSet usedColumns = new ColumnRefSet();
+            projectMap.values().forEach(e -> usedColumns.union(e.getUsedColumns()));
+            if (predicate != null) {
+                usedColumns.union(predicate.getUsedColumns());
+            }
+            List<ColumnRefOperator> outputColumns = Lists.newArrayList();
+            Map<ColumnRefOperator, Column> colRefToColumnMetaMap = Maps.newHashMap();
+            for (Map.Entry<Column, ColumnRefOperator> entry : columnMetaToColRefMap.entrySet()) {
+                if (usedColumns.contains(entry.getValue())) {
+                    outputColumns.add(entry.getValue());
+                    colRefToColumnMetaMap.put(entry.getValue(), entry.getKey());
+                }
+            }
+
+            DistributionInfo distributionInfo = mv.getDefaultDistributionInfo();
+            List<Integer> hashDistributeColumns = Lists.newArrayList();
+            for (Column column : ((HashDistributionInfo) distributionInfo).getDistributionColumns()) {
+                hashDistributeColumns.add(columnMetaToColRefMap.get(column).getId());
+            }
+            HashDistributionDesc hashDistributionDesc =
+                    new HashDistributionDesc(hashDistributeColumns, HashDistributionDesc.SourceType.LOCAL);
+            LogicalOlapScanOperator scan = new LogicalOlapScanOperator(mv,
+                    outputColumns,
+                    colRefToColumnMetaMap,
+                    columnMetaToColRefMap,
+                    DistributionSpec.createHashDistributionSpec(hashDistributionDesc),
+                    -1,
+                    predicate,
+                    mv.getBaseIndexId(),
+                    null,
+                    null,
+                    Lists.newArrayList(),
+                    Lists.newArrayList());
+            return OptExpression.create(scan);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.JoinOperator;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.Table;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.operator.AggType;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CompoundPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rewrite.ReplaceColumnRefRewriter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The select-project-join-group by shape of a logical plan, with every column reference replaced by a canonical
+ * one of the base table column, so that the plans of a query and a materialized view, which are built by
+ * different column ref factories, can be compared.
+ * <p>
+ * A canonical column reference is named "tableId.columnName", and its id is meaningless. Canonical expressions
+ * are only compared by their string forms, so the operands of commutative operators are ordered by their string
+ * forms too, see {@link #canonicalize}.
+ * <p>
+ * Supported plans are scan, filter, project, inner and cross join of different olap tables, optionally with
+ * a global aggregation on top, and a project on top of the aggregation.
+ */
+public class SPJGDescriptor {
+    private static final int CANONICAL_COLUMN_ID = -1;
+    private static final Set<String> COMMUTATIVE_FUNCTIONS = ImmutableSet.of(FunctionSet.ADD, FunctionSet.MULTIPLY);
+
+    private final Set<Long> tableIds;
+    // canonical string -> canonical conjunct
+    private final Map<String, ScalarOperator> conjuncts;
+    private final boolean aggregated;
+    // output column ref -> canonical expression
+    private final Map<ColumnRefOperator, ScalarOperator> groupKeys;
+    private final Map<ColumnRefOperator, CallOperator> aggregations;
+    private final Map<ColumnRefOperator, ScalarOperator> outputs;
+
+    private SPJGDescriptor(SPJ spj, boolean aggregated, Map<ColumnRefOperator, ScalarOperator> groupKeys,
+                           Map<ColumnRefOperator, CallOperator> aggregations,
+                           Map<ColumnRefOperator, ScalarOperator> outputs) {
+        this.tableIds = spj.tableIds;
+        this.conjuncts = Maps.newLinkedHashMap();
+        for (ScalarOperator conjunct : spj.conjuncts) {
+            this.conjuncts.put(conjunct.toString(), conjunct);
+        }
+        this.aggregated = aggregated;
+        this.groupKeys = groupKeys;
+        this.aggregations = aggregations;
+        this.outputs = outputs;
+    }
+
+    public Set<Long> getTableIds() {
+        return tableIds;
+    }
+
+    public Map<String, ScalarOperator> getConjuncts() {
+        return conjuncts;
+    }
+
+    public boolean isAggregated() {
+        return aggregated;
+    }
+
+    public Map<ColumnRefOperator, ScalarOperator> getGroupKeys() {
+        return groupKeys;
+    }
+
+    public Map<ColumnRefOperator, CallOperator> getAggregations() {
+        return aggregations;
+    }
+
+    public Map<ColumnRefOperator, ScalarOperator> getOutputs() {
+        return outputs;
+    }
+
+    /**
+     * @return null if the plan is not supported
+     */
+    public static SPJGDescriptor extract(OptExpression root) {
+        Operator op = root.getOp();
+        if (op instanceof LogicalProjectOperator
+                && root.getInputs().get(0).getOp() instanceof LogicalAggregationOperator) {
+            SPJGDescriptor aggregation = extract(root.getInputs().get(0));
+            if (aggregation == null) {
+                return null;
+            }
+            Map<ColumnRefOperator, ScalarOperator> outputs = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, ScalarOperator> entry :
+                    ((LogicalProjectOperator) op).getColumnRefMap().entrySet()) {
+                outputs.put(entry.getKey(), rewrite(entry.getValue(), aggregation.outputs));
+            }
+            SPJ spj = new SPJ(aggregation.tableIds, Lists.newArrayList(aggregation.conjuncts.values()));
+            return new SPJGDescriptor(spj, true, aggregation.groupKeys, aggregation.aggregations, outputs);
+        }
+
+        if (op instanceof LogicalAggregationOperator) {
+            LogicalAggregationOperator aggregate = (LogicalAggregationOperator) op;
+            // the having predicate and limit are not part of the shape
+            if (aggregate.getType() != AggType.GLOBAL || aggregate.isSplit()
+                    || aggregate.getPredicate() != null || aggregate.hasLimit()) {
+                return null;
+            }
+            SPJ spj = extractSPJ(root.getInputs().get(0));
+            if (spj == null) {
+                return null;
+            }
+            Map<ColumnRefOperator, ScalarOperator> groupKeys = Maps.newLinkedHashMap();
+            for (ColumnRefOperator key : aggregate.getGroupingKeys()) {
+                ScalarOperator canonical = spj.columns.get(key);
+                if (canonical == null) {
+                    return null;
+                }
+                groupKeys.put(key, canonical);
+            }
+            Map<ColumnRefOperator, CallOperator> aggregations = Maps.newLinkedHashMap();
+            for (Map.Entry<ColumnRefOperator, CallOperator> entry : aggregate.getAggregations().entrySet()) {
+                aggregations.put(entry.getKey(), (CallOperator) rewrite(entry.getValue(), spj.columns));
+            }
+            Map<ColumnRefOperator, ScalarOperator> outputs = Maps.newHashMap(groupKeys);
+            outputs.putAll(aggregations);
+            return new SPJGDescriptor(spj, true, groupKeys, aggregations, outputs);
+        }
+
+        SPJ spj = extractSPJ(root);
+        if (spj == null) {
+            return null;
+        }
+        Map<ColumnRefOperator, ScalarOperator> outputs = Maps.newHashMap();
+        for (int id : root.getOutputColumns().getColumnIds()) {
+            for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : spj.columns.entrySet()) {
+                if (entry.getKey().getId() == id) {
+                    outputs.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return new SPJGDescriptor(spj, false, Maps.newHashMap(), Maps.newHashMap(), outputs);
+    }
+
+    private static class SPJ {
+        final Set<Long> tableIds;
+        final List<ScalarOperator> conjuncts;
+        // column ref -> canonical expression
+        final Map<ColumnRefOperator, ScalarOperator> columns = Maps.newHashMap();
+
+        SPJ(Set<Long> tableIds, List<ScalarOperator> conjuncts) {
+            this.tableIds = tableIds;
+            this.conjuncts = conjuncts;
+        }
+    }
+
+    private static SPJ extractSPJ(OptExpression expression) {
+        Operator op = expression.getOp();
+        if (op.hasLimit()) {
+            return null;
+        }
+        SPJ spj;
+        if (op instanceof LogicalOlapScanOperator) {
+            LogicalOlapScanOperator scan = (LogicalOlapScanOperator) op;
+            if (scan.getPartitionNames() != null
+                    || (scan.getHintsTabletIds() != null && !scan.getHintsTabletIds().isEmpty())) {
+                return null;
+            }
+            Table table = scan.getTable();
+            spj = new SPJ(Sets.newHashSet(table.getId()), Lists.newArrayList());
+            for (Map.Entry<Column, ColumnRefOperator> entry : scan.getColumnMetaToColRefMap().entrySet()) {
+                ColumnRefOperator ref = entry.getValue();
+                spj.columns.put(ref, new ColumnRefOperator(CANONICAL_COLUMN_ID, ref.getType(),
+                        table.getId() + "." + entry.getKey().getName(), ref.isNullable()));
+            }
+        } else if (op instanceof LogicalProjectOperator) {
+            SPJ child = extractSPJ(expression.getInputs().get(0));
+            if (child == null) {
+                return null;
+            }
+            spj = new SPJ(child.tableIds, child.conjuncts);
+            for (Map.Entry<ColumnRefOperator, ScalarOperator> entry :
+                    ((LogicalProjectOperator) op).getColumnRefMap().entrySet()) {
+                spj.columns.put(entry.getKey(), rewrite(entry.getValue(), child.columns));
+            }
+        } else if (op instanceof LogicalJoinOperator) {
+            LogicalJoinOperator join = (LogicalJoinOperator) op;
+            if (join.getJoinType() != JoinOperator.INNER_JOIN && join.getJoinType() != JoinOperator.CROSS_JOIN) {
+                return null;
+            }
+            SPJ left = extractSPJ(expression.getInputs().get(0));
+            SPJ right = extractSPJ(expression.getInputs().get(1));
+            // a table joined with itself can not be matched by table ids
+            if (left == null || right == null || !Sets.intersection(left.tableIds, right.tableIds).isEmpty()) {
+                return null;
+            }
+            spj = new SPJ(Sets.union(left.tableIds, right.tableIds).immutableCopy(),
+                    Lists.newArrayList(left.conjuncts));
+            spj.conjuncts.addAll(right.conjuncts);
+            spj.columns.putAll(left.columns);
+            spj.columns.putAll(right.columns);
+            if (join.getOnPredicate() != null) {
+                for (ScalarOperator conjunct : Utils.extractConjuncts(join.getOnPredicate())) {
+                    spj.conjuncts.add(rewrite(conjunct, spj.columns));
+                }
+            }
+        } else if (op instanceof LogicalFilterOperator) {
+            spj = extractSPJ(expression.getInputs().get(0));
+            if (spj == null) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+
+        if (op.getPredicate() != null) {
+            List<ScalarOperator> conjuncts = Lists.newArrayList(spj.conjuncts);
+            for (ScalarOperator conjunct : Utils.extractConjuncts(op.getPredicate())) {
+                conjuncts.add(rewrite(conjunct, spj.columns));
+            }
+            SPJ result = new SPJ(spj.tableIds, conjuncts);
+            result.columns.putAll(spj.columns);
+            return result;
+        }
+        return spj;
+    }
+
+    private static ScalarOperator rewrite(ScalarOperator operator,
+                                          Map<ColumnRefOperator, ? extends ScalarOperator> map) {
+        return canonicalize(operator.clone().accept(new ReplaceColumnRefRewriter(new HashMap<>(map)), null));
+    }
+
+    /**
+     * Order the operands of commutative operators by their string forms, so that e.g. a = b and b = a,
+     * a < b and b > a, a + b and b + a, or p AND q and q AND p have the same string form.
+     */
+    static ScalarOperator canonicalize(ScalarOperator operator) {
+        if (operator.getChildren().isEmpty()) {
+            return operator;
+        }
+        ScalarOperator result = operator.clone();
+        for (int i = 0; i < result.getChildren().size(); ++i) {
+            result.setChild(i, canonicalize(result.getChild(i)));
+        }
+        if (result.getChildren().size() != 2
+                || result.getChild(0).toString().compareTo(result.getChild(1).toString()) <= 0) {
+            return result;
+        }
+        if (result instanceof BinaryPredicateOperator) {
+            return ((BinaryPredicateOperator) result).negative();
+        }
+        if ((result instanceof CompoundPredicateOperator && !((CompoundPredicateOperator) result).isNot())
+                || (result instanceof CallOperator
+                && COMMUTATIVE_FUNCTIONS.contains(((CallOperator) result).getFnName()))) {
+            ScalarOperator first = result.getChild(0);
+            result.setChild(0, result.getChild(1));
+            result.setChild(1, first);
+        }
+        return result;
+    }
+}
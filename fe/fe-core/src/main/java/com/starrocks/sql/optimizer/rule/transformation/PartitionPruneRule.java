@@ -5,12 +5,14 @@ package com.starrocks.sql.optimizer.rule.transformation;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Partition;
 import com.starrocks.catalog.PartitionInfo;
 import com.starrocks.catalog.PartitionKey;
 import com.starrocks.catalog.PartitionType;
+import com.starrocks.catalog.RangePartitionIndex;
 import com.starrocks.catalog.RangePartitionInfo;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.planner.PartitionColumnFilter;
@@ -23,6 +25,7 @@ import com.starrocks.sql.optimizer.operator.ColumnFilterConverter;
 import com.starrocks.sql.optimizer.operator.OperatorType;
 import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
 import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.operator.scalar.CompoundPredicateOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 import com.starrocks.sql.optimizer.rule.RuleType;
 import org.apache.logging.log4j.LogManager;
@@ -32,6 +35,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -90,9 +94,9 @@ public class PartitionPruneRule extends TransformationRule {
 
     private List<Long> partitionPrune(OlapTable olapTable, RangePartitionInfo partitionInfo,
                                             LogicalOlapScanOperator operator) {
-        Map<Long, Range<PartitionKey>> keyRangeById;
+        RangePartitionIndex index;
         if (operator.getPartitionNames() != null) {
-            keyRangeById = Maps.newHashMap();
+            Map<Long, Range<PartitionKey>> keyRangeById = Maps.newHashMap();
             for (String partName : operator.getPartitionNames().getPartitionNames()) {
                 Partition part = olapTable.getPartition(partName, operator.getPartitionNames().isTemp());
                 if (part == null) {
@@ -100,19 +104,57 @@ public class PartitionPruneRule extends TransformationRule {
                 }
                 keyRangeById.put(part.getId(), partitionInfo.getRange(part.getId()));
             }
+            index = RangePartitionIndex.create(keyRangeById);
         } else {
-            keyRangeById = partitionInfo.getIdToRange(false);
+            index = partitionInfo.getRangeIndex();
         }
-        PartitionPruner partitionPruner = new RangePartitionPruner(keyRangeById,
+        PartitionPruner partitionPruner = new RangePartitionPruner(index,
                 partitionInfo.getPartitionColumns(), operator.getColumnFilters());
         try {
-            return partitionPruner.prune();
+            return disjunctivePrune(index, partitionInfo, operator, partitionPruner.prune());
         } catch (AnalysisException e) {
             LOG.warn("PartitionPrune Failed. ", e);
         }
         return null;
     }
 
+    // The column filters are only converted from the conjuncts of predicate. For each conjunct which is
+    // a disjunction, eg, dt < '2021-01-01' OR dt >= '2021-06-01', prune with the filters of each disjunct,
+    // and keep the partitions selected by any disjunct. The conjunct is skipped if any of its disjuncts
+    // has no filter on the partition columns.
+    private List<Long> disjunctivePrune(RangePartitionIndex index, RangePartitionInfo partitionInfo,
+                                        LogicalOlapScanOperator operator, List<Long> selectedPartitionIds)
+            throws AnalysisException {
+        if (operator.getPredicate() == null || selectedPartitionIds.isEmpty()) {
+            return selectedPartitionIds;
+        }
+        Set<String> partitionColumnNames = partitionInfo.getPartitionColumns().stream()
+                .map(Column::getName).collect(Collectors.toSet());
+        for (ScalarOperator conjunct : Utils.extractConjuncts(operator.getPredicate())) {
+            if (!(conjunct instanceof CompoundPredicateOperator) || !((CompoundPredicateOperator) conjunct).isOr()) {
+                continue;
+            }
+            Set<Long> selectedByAnyDisjunct = Sets.newHashSet();
+            boolean prunable = true;
+            for (ScalarOperator disjunct : Utils.extractDisjunctive(conjunct)) {
+                Map<String, PartitionColumnFilter> filters =
+                        ColumnFilterConverter.convertColumnFilter(Utils.extractConjuncts(disjunct));
+                filters.keySet().retainAll(partitionColumnNames);
+                if (filters.isEmpty()) {
+                    prunable = false;
+                    break;
+                }
+                selectedByAnyDisjunct.addAll(
+                        new RangePartitionPruner(index, partitionInfo.getPartitionColumns(), filters).prune());
+            }
+            if (prunable) {
+                selectedPartitionIds = selectedPartitionIds.stream().filter(selectedByAnyDisjunct::contains)
+                        .collect(Collectors.toList());
+            }
+        }
+        return selectedPartitionIds;
+    }
+
     // Prune predicate if the data of partitions is meets the predicate, can be avoid execute predicate
     //
     // Note:
@@ -18,6 +18,7 @@ import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.ErrorCode;
 import com.starrocks.common.ErrorReport;
+import com.starrocks.sql.plan.PlanCache;
 import com.starrocks.statistic.StatisticExecutor;
 import com.starrocks.statistic.StatisticUtils;
 import com.starrocks.thrift.TStatisticData;
@@ -125,6 +126,8 @@ public class CachedStatisticStorage implements StatisticStorage {
             allKeys.add(key);
         }
         cachedStatistics.synchronous().invalidateAll(allKeys);
+        // the cached plans were optimized with the expired statistics
+        PlanCache.getInstance().invalidate(table.getId());
     }
 
     private List<TStatisticData> queryStatisticsData(long tableId, String column) throws Exception {
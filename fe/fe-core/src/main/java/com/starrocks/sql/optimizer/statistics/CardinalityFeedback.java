@@ -0,0 +1,303 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.JoinOperator;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.common.Config;
+import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.planner.HashJoinNode;
+import com.starrocks.planner.PlanNode;
+import com.starrocks.planner.RuntimeFilterDescription;
+import com.starrocks.sql.optimizer.ExpressionContext;
+import com.starrocks.sql.optimizer.Group;
+import com.starrocks.sql.optimizer.GroupExpression;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.cost.CostCalibrationCollector;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalDistributionOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalHashJoinOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rewrite.ReplaceColumnRefRewriter;
+import com.starrocks.sql.plan.ExecPlan;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the actual output rows of the olap scans and inner joins of executed queries, to correct the estimated
+ * rows of the same scans and joins in the following queries, e.g. the estimation of correlated predicates.
+ * <p>
+ * A scan or join is identified by a fingerprint made of the scanned tables, indexes and partitions and the
+ * conjuncts of all the predicates and join conditions under it, in which the columns are named by table and
+ * column, so the fingerprint is the same in different queries and different join orders. The visible versions
+ * of the partitions are part of the fingerprint, so the rows recorded before a load are not used after it.
+ * The actual rows are read from the query profile, so only the queries with a profile are recorded, and the
+ * rows expire after cardinality_feedback_expire_sec.
+ */
+public class CardinalityFeedback {
+    private static final CardinalityFeedback INSTANCE = new CardinalityFeedback();
+
+    private final Cache<String, Long> actualRows = Caffeine.newBuilder()
+            .maximumSize(Config.cardinality_feedback_max_size)
+            .expireAfterWrite(Config.cardinality_feedback_expire_sec, TimeUnit.SECONDS)
+            .build();
+
+    public static CardinalityFeedback getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the actual rows of the expression in the former queries, or null if unknown
+     */
+    public Long getActualRows(ExpressionContext context) {
+        if (!Config.enable_cardinality_feedback || actualRows.estimatedSize() == 0) {
+            return null;
+        }
+        String fingerprint;
+        if (context.getOptExpression() != null) {
+            fingerprint = fingerprint(context.getOptExpression());
+        } else {
+            GroupExpression expression = context.getGroupExpression();
+            fingerprint = fingerprint(expression.getOp(), expression.getInputs());
+        }
+        return fingerprint == null ? null : actualRows.getIfPresent(fingerprint);
+    }
+
+    /**
+     * Records the actual rows of the plan nodes with a fingerprint in the plan.
+     * Must be called after the profile is completed by the coordinator.
+     */
+    public void collect(ExecPlan execPlan, RuntimeProfile queryProfile) {
+        if (!Config.enable_cardinality_feedback || queryProfile == null
+                || execPlan.getNodeFingerprints().isEmpty()) {
+            return;
+        }
+        Map<Integer, CostCalibrationCollector.NodeActual> actuals =
+                CostCalibrationCollector.collectNodeActuals(queryProfile);
+        Map<Integer, PlanNode> nodes = Maps.newHashMap();
+        execPlan.getFragments().forEach(fragment -> collectPlanNodes(fragment.getPlanRoot(), nodes));
+
+        for (Map.Entry<Integer, String> entry : execPlan.getNodeFingerprints().entrySet()) {
+            CostCalibrationCollector.NodeActual actual = actuals.get(entry.getKey());
+            PlanNode node = nodes.get(entry.getKey());
+            if (actual == null || node == null || node.hasLimit() || isFilteredByOuterRuntimeFilter(node)) {
+                continue;
+            }
+            record(entry.getValue(), actual.getRows());
+        }
+    }
+
+    void record(String fingerprint, long rows) {
+        actualRows.put(fingerprint, rows);
+    }
+
+    Long getActualRows(String fingerprint) {
+        return actualRows.getIfPresent(fingerprint);
+    }
+
+    public void clear() {
+        actualRows.invalidateAll();
+    }
+
+    /**
+     * @return the fingerprint of an olap scan or an inner join, or null if the rows of the expression are not
+     * recorded
+     */
+    public static String fingerprint(OptExpression expression) {
+        return fingerprint(expression.getOp(), expression.getInputs());
+    }
+
+    private static String fingerprint(Operator root, List<?> inputs) {
+        if (!(root instanceof LogicalOlapScanOperator || root instanceof PhysicalOlapScanOperator
+                || isInnerJoin(root))) {
+            return null;
+        }
+        FingerprintBuilder builder = new FingerprintBuilder();
+        return builder.visit(root, inputs) ? builder.build() : null;
+    }
+
+    private static boolean isInnerJoin(Operator operator) {
+        JoinOperator joinType;
+        if (operator instanceof LogicalJoinOperator) {
+            joinType = ((LogicalJoinOperator) operator).getJoinType();
+        } else if (operator instanceof PhysicalHashJoinOperator) {
+            joinType = ((PhysicalHashJoinOperator) operator).getJoinType();
+        } else {
+            return false;
+        }
+        return joinType.isInnerJoin() || joinType.isCrossJoin();
+    }
+
+    // the rows of a node are reduced by the runtime filters built by a join above it
+    private static boolean isFilteredByOuterRuntimeFilter(PlanNode root) {
+        Set<Integer> builtFilters = Sets.newHashSet();
+        Set<Integer> probedFilters = Sets.newHashSet();
+        List<PlanNode> stack = Lists.newArrayList(root);
+        while (!stack.isEmpty()) {
+            PlanNode node = stack.remove(stack.size() - 1);
+            if (node instanceof HashJoinNode) {
+                ((HashJoinNode) node).getBuildRuntimeFilters().forEach(rf -> builtFilters.add(rf.getFilterId()));
+            }
+            for (RuntimeFilterDescription rf : node.getProbeRuntimeFilters()) {
+                probedFilters.add(rf.getFilterId());
+            }
+            stack.addAll(node.getChildren());
+        }
+        return !builtFilters.containsAll(probedFilters);
+    }
+
+    private static void collectPlanNodes(PlanNode node, Map<Integer, PlanNode> nodes) {
+        if (nodes.put(node.getId().asInt(), node) != null) {
+            return;
+        }
+        for (PlanNode child : node.getChildren()) {
+            collectPlanNodes(child, nodes);
+        }
+    }
+
+    private static class FingerprintBuilder {
+        private final List<String> scans = Lists.newArrayList();
+        private final Set<Long> tableIds = Sets.newHashSet();
+        private final List<ScalarOperator> conjuncts = Lists.newArrayList();
+        // the columns named by table and column, or the expressions of the projected columns
+        private final Map<ColumnRefOperator, ScalarOperator> columns = Maps.newHashMap();
+
+        // an input is an OptExpression or a Group
+        private boolean visitInput(Object input) {
+            if (input instanceof OptExpression) {
+                OptExpression expression = (OptExpression) input;
+                // the expression of join reorder wrapping a group expression has no inputs
+                if (expression.getInputs().isEmpty() && expression.getGroupExpression() != null) {
+                    GroupExpression groupExpression = expression.getGroupExpression();
+                    return visit(groupExpression.getOp(), groupExpression.getInputs());
+                }
+                return visit(expression.getOp(), expression.getInputs());
+            }
+            GroupExpression groupExpression = ((Group) input).getFirstLogicalExpression();
+            return groupExpression != null && visit(groupExpression.getOp(), groupExpression.getInputs());
+        }
+
+        private boolean visit(Operator operator, List<?> inputs) {
+            if (operator.getLimit() != -1) {
+                return false;
+            }
+            for (Object input : inputs) {
+                if (!visitInput(input)) {
+                    return false;
+                }
+            }
+
+            if (operator instanceof LogicalOlapScanOperator) {
+                LogicalOlapScanOperator scan = (LogicalOlapScanOperator) operator;
+                return visitScan((OlapTable) scan.getTable(), scan.getSelectedIndexId(),
+                        scan.getSelectedPartitionId(), scan.getColRefToColumnMetaMap(), scan.getPredicate());
+            } else if (operator instanceof PhysicalOlapScanOperator) {
+                PhysicalOlapScanOperator scan = (PhysicalOlapScanOperator) operator;
+                return visitScan((OlapTable) scan.getTable(), scan.getSelectedIndexId(),
+                        scan.getSelectedPartitionId(), scan.getColRefToColumnMetaMap(), scan.getPredicate());
+            } else if (operator instanceof LogicalJoinOperator && isInnerJoin(operator)) {
+                conjuncts.addAll(Utils.extractConjuncts(((LogicalJoinOperator) operator).getOnPredicate()));
+            } else if (operator instanceof PhysicalHashJoinOperator && isInnerJoin(operator)) {
+                conjuncts.addAll(Utils.extractConjuncts(((PhysicalHashJoinOperator) operator).getJoinPredicate()));
+            } else if (operator instanceof LogicalProjectOperator) {
+                return visitProject(((LogicalProjectOperator) operator).getColumnRefMap());
+            } else if (operator instanceof PhysicalProjectOperator) {
+                return visitProject(((PhysicalProjectOperator) operator).getColumnRefMap());
+            } else if (!(operator instanceof LogicalFilterOperator || operator instanceof PhysicalFilterOperator
+                    || operator instanceof PhysicalDistributionOperator)) {
+                return false;
+            }
+            conjuncts.addAll(Utils.extractConjuncts(operator.getPredicate()));
+            return true;
+        }
+
+        private boolean visitScan(OlapTable table, long indexId, Collection<Long> partitionIds,
+                                  Map<ColumnRefOperator, Column> columnMetas, ScalarOperator predicate) {
+            long tableId = table.getId();
+            // the columns of a self join could not be told apart by name
+            if (!tableIds.add(tableId)) {
+                return false;
+            }
+            List<Long> sortedPartitionIds = partitionIds == null ? Collections.emptyList() :
+                    Lists.newArrayList(partitionIds);
+            Collections.sort(sortedPartitionIds);
+            List<String> partitionVersions = Lists.newArrayList();
+            for (long partitionId : sortedPartitionIds) {
+                Partition partition = table.getPartition(partitionId);
+                partitionVersions.add(partitionId + "@" + (partition == null ? -1 : partition.getVisibleVersion()));
+            }
+            scans.add(tableId + "/" + indexId + "/" + partitionVersions);
+            for (Map.Entry<ColumnRefOperator, Column> entry : columnMetas.entrySet()) {
+                ColumnRefOperator columnRef = entry.getKey();
+                columns.put(columnRef, new ColumnRefOperator(0, columnRef.getType(),
+                        tableId + "." + entry.getValue().getName(), columnRef.isNullable()));
+            }
+            conjuncts.addAll(Utils.extractConjuncts(predicate));
+            return true;
+        }
+
+        private boolean visitProject(Map<ColumnRefOperator, ScalarOperator> columnRefMap) {
+            Map<ColumnRefOperator, ScalarOperator> projected = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : columnRefMap.entrySet()) {
+                ScalarOperator canonical = canonicalize(entry.getValue());
+                if (canonical != null) {
+                    projected.put(entry.getKey(), canonical);
+                }
+            }
+            columns.putAll(projected);
+            return true;
+        }
+
+        // replace the columns by their names, or return null if a column is unknown
+        private ScalarOperator canonicalize(ScalarOperator operator) {
+            if (!columns.keySet().containsAll(Utils.extractColumnRef(operator))) {
+                return null;
+            }
+            return operator.clone().accept(new ReplaceColumnRefRewriter(columns), null);
+        }
+
+        private String build() {
+            List<String> conjunctStrings = Lists.newArrayList();
+            for (ScalarOperator conjunct : conjuncts) {
+                ScalarOperator canonical = canonicalize(conjunct);
+                if (canonical == null) {
+                    return null;
+                }
+                if (canonical instanceof BinaryPredicateOperator && ((BinaryPredicateOperator) canonical)
+                        .getBinaryType() == BinaryPredicateOperator.BinaryType.EQ) {
+                    // a = b is the same as b = a
+                    String left = canonical.getChild(0).toString();
+                    String right = canonical.getChild(1).toString();
+                    conjunctStrings.add(left.compareTo(right) <= 0 ? left + " = " + right : right + " = " + left);
+                } else {
+                    conjunctStrings.add(canonical.toString());
+                }
+            }
+            Collections.sort(scans);
+            Collections.sort(conjunctStrings);
+            return String.join(",", scans) + "|" + String.join(" AND ", conjunctStrings);
+        }
+    }
+}
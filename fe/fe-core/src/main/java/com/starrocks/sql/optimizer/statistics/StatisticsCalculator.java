@@ -122,6 +122,14 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
 
     public void estimatorStats() {
         expressionContext.getOp().accept(this, expressionContext);
+
+        // correct the estimated rows by the actual rows of the former queries
+        Long actualRows = CardinalityFeedback.getInstance().getActualRows(expressionContext);
+        Statistics statistics = expressionContext.getStatistics();
+        if (actualRows != null && statistics != null) {
+            expressionContext.setStatistics(new Statistics(Math.max(1, actualRows),
+                    statistics.getColumnStatistics()));
+        }
     }
 
     @Override
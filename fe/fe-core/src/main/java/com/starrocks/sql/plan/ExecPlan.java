@@ -24,6 +24,8 @@ public class ExecPlan {
     private final DescriptorTable descTbl = new DescriptorTable();
     private final Map<ColumnRefOperator, Expr> colRefToExpr = new HashMap<>();
     private final ArrayList<PlanFragment> fragments = new ArrayList<>();
+    // the fingerprints of the plan nodes to record the actual rows for cardinality feedback
+    private final Map<Integer, String> nodeFingerprints = new HashMap<>();
 
     public ExecPlan(PlannerContext planCtx, ConnectContext connectContext, List<String> colNames) {
         this.planCtx = planCtx;
@@ -59,6 +61,10 @@ public class ExecPlan {
         return planCtx;
     }
 
+    public Map<Integer, String> getNodeFingerprints() {
+        return nodeFingerprints;
+    }
+
     public Map<ColumnRefOperator, Expr> getColRefToExpr() {
         return colRefToExpr;
     }
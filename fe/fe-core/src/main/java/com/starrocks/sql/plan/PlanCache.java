@@ -0,0 +1,317 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.ColocateTableIndex;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.MaterializedIndexMeta;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.View;
+import com.starrocks.common.Config;
+import com.starrocks.common.Pair;
+import com.starrocks.metric.MetricRepo;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.OriginStatement;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.dump.QueryDumpInfo;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalScanOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Caches the optimized physical plans of queries, so that a query repeated with the same text skips the analysis,
+ * the logical rewrite and the cost based search. A cached plan is translated to fragments again for each query,
+ * which assigns new ids and computes the scan ranges with the latest visible versions of partitions.
+ * <p>
+ * A plan is keyed by the statement text, the current database, the user and all the session variables.
+ * The structure of the tables and views read by the plan is saved with it as signatures, and compared with
+ * the catalog on every hit, so a plan is replanned after DDL, such as adding or dropping partitions, schema change,
+ * rollup, or replacing a table or view of the same name. The plans reading a table are invalidated when its
+ * statistics are refreshed, and every plan expires after query_plan_cache_expire_sec, since the column statistics
+ * are loaded asynchronously and may be unknown when the plan is cached.
+ * <p>
+ * Only queries reading olap tables and views are cached. Queries calling functions evaluated by the frontend
+ * with a result varying from call to call, like now(), or referring to variables are not cached.
+ */
+public class PlanCache {
+    private static final Logger LOG = LogManager.getLogger(PlanCache.class);
+
+    private static final PlanCache INSTANCE = new PlanCache();
+
+    // a false match only makes a query not cached
+    private static final Pattern NOT_CACHEABLE_PATTERN = Pattern.compile("@|\\b(now|curdate|curtime|current_date"
+            + "|current_time|current_timestamp|localtime|localtimestamp|sysdate|utc_timestamp|unix_timestamp|rand"
+            + "|random|uuid|sleep|database|schema|user|current_user|session_user|system_user|connection_id"
+            + "|last_query_id)\\b", Pattern.CASE_INSENSITIVE);
+
+    private final Cache<Key, CachedPlan> cache = Caffeine.newBuilder()
+            .maximumSize(Config.query_plan_cache_max_size)
+            .expireAfterWrite(Config.query_plan_cache_expire_sec, TimeUnit.SECONDS)
+            .build();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public static PlanCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the key of the statement, or null if the statement can not be cached
+     */
+    public static Key createKey(OriginStatement origStmt, ConnectContext session) {
+        if (origStmt == null || NOT_CACHEABLE_PATTERN.matcher(origStmt.originStmt).find()) {
+            return null;
+        }
+        try {
+            return new Key(origStmt.originStmt, origStmt.idx, session.getDatabase(), session.getQualifiedUser(),
+                    session.getSessionVariable().getJsonString());
+        } catch (IOException e) {
+            LOG.warn("failed to create plan cache key of {}", origStmt.originStmt, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the cached plan, or null if not cached or the tables or views read by the plan are changed
+     */
+    public CachedPlan get(Key key) {
+        CachedPlan plan = cache.getIfPresent(key);
+        if (plan != null && !plan.isValid()) {
+            cache.asMap().remove(key, plan);
+            plan = null;
+        }
+        if (plan == null) {
+            missCount.incrementAndGet();
+            if (MetricRepo.isInit) {
+                MetricRepo.COUNTER_PLAN_CACHE_MISS.increase(1L);
+            }
+        } else {
+            hitCount.incrementAndGet();
+            if (MetricRepo.isInit) {
+                MetricRepo.COUNTER_PLAN_CACHE_HIT.increase(1L);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Caches the plan with the tables and views collected by the analyzer in the dump info.
+     * The database locks of the tables are held by the caller.
+     */
+    public void put(Key key, OptExpression optimizedPlan, ColumnRefFactory columnRefFactory,
+                    List<ColumnRefOperator> outputColumns, List<String> colNames, QueryDumpInfo dumpInfo) {
+        List<TableSignature> tables = Lists.newArrayList();
+        Set<Long> tableIds = new TreeSet<>();
+        for (Pair<String, Table> dbAndTable : dumpInfo.getTableMap().values()) {
+            if (!(dbAndTable.second instanceof OlapTable)) {
+                return;
+            }
+            tables.add(new TableSignature(dbAndTable.first, dbAndTable.second));
+            tableIds.add(dbAndTable.second.getId());
+        }
+        for (Pair<String, View> dbAndView : dumpInfo.getViewMap().values()) {
+            tables.add(new TableSignature(dbAndView.first, dbAndView.second));
+        }
+        // a plan rewritten to read materialized views depends on the versions of the base tables
+        if (!tableIds.containsAll(collectScanTableIds(optimizedPlan))) {
+            return;
+        }
+        cache.put(key, new CachedPlan(optimizedPlan, columnRefFactory, outputColumns, colNames, tables));
+    }
+
+    // invalidate the plans reading the table
+    public void invalidate(long tableId) {
+        cache.asMap().values().removeIf(plan -> plan.readsTable(tableId));
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private static Set<Long> collectScanTableIds(OptExpression optExpression) {
+        Set<Long> tableIds = new TreeSet<>();
+        List<OptExpression> stack = Lists.newArrayList(optExpression);
+        while (!stack.isEmpty()) {
+            OptExpression expression = stack.remove(stack.size() - 1);
+            if (expression.getOp() instanceof PhysicalScanOperator) {
+                tableIds.add(((PhysicalScanOperator) expression.getOp()).getTable().getId());
+            }
+            stack.addAll(expression.getInputs());
+        }
+        return tableIds;
+    }
+
+    public static class Key {
+        private final String sql;
+        private final int stmtIdx;
+        private final String database;
+        private final String user;
+        private final String sessionVariables;
+
+        Key(String sql, int stmtIdx, String database, String user, String sessionVariables) {
+            this.sql = sql;
+            this.stmtIdx = stmtIdx;
+            this.database = database;
+            this.user = user;
+            this.sessionVariables = sessionVariables;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return stmtIdx == key.stmtIdx && sql.equals(key.sql) && Objects.equals(database, key.database)
+                    && Objects.equals(user, key.user) && sessionVariables.equals(key.sessionVariables);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, stmtIdx, database, user, sessionVariables);
+        }
+    }
+
+    /**
+     * The optimized plan shared by the queries of the same key, which is only read by the translation.
+     */
+    public static class CachedPlan {
+        private final OptExpression optimizedPlan;
+        private final ColumnRefFactory columnRefFactory;
+        private final List<ColumnRefOperator> outputColumns;
+        private final List<String> colNames;
+        private final List<TableSignature> tables;
+
+        CachedPlan(OptExpression optimizedPlan, ColumnRefFactory columnRefFactory,
+                   List<ColumnRefOperator> outputColumns, List<String> colNames, List<TableSignature> tables) {
+            this.optimizedPlan = optimizedPlan;
+            this.columnRefFactory = columnRefFactory;
+            this.outputColumns = outputColumns;
+            this.colNames = colNames;
+            this.tables = tables;
+        }
+
+        public OptExpression getOptimizedPlan() {
+            return optimizedPlan;
+        }
+
+        public ColumnRefFactory getColumnRefFactory() {
+            return columnRefFactory;
+        }
+
+        public List<ColumnRefOperator> getOutputColumns() {
+            return outputColumns;
+        }
+
+        public List<String> getColNames() {
+            return colNames;
+        }
+
+        // the database locks are held by the caller
+        boolean isValid() {
+            return tables.stream().allMatch(TableSignature::isValid);
+        }
+
+        boolean readsTable(long tableId) {
+            return tables.stream().anyMatch(table -> table.tableId == tableId);
+        }
+    }
+
+    /**
+     * Identifies a table or view by name and id, with a hash of the metadata the plan depends on.
+     */
+    static class TableSignature {
+        private final String dbName;
+        private final String tableName;
+        private final long tableId;
+        private final long signature;
+
+        TableSignature(String dbName, Table table) {
+            this.dbName = dbName;
+            this.tableName = table.getName();
+            this.tableId = table.getId();
+            this.signature = computeSignature(table);
+        }
+
+        boolean isValid() {
+            Database db = Catalog.getCurrentCatalog().getDb(dbName);
+            if (db == null) {
+                return false;
+            }
+            Table table = db.getTable(tableName);
+            return table != null && table.getId() == tableId && computeSignature(table) == signature;
+        }
+
+        static long computeSignature(Table table) {
+            long hash = table.getType().hashCode();
+            for (Column column : table.getFullSchema()) {
+                hash = 31 * hash + Objects.hash(column.getName(), column.getType().toString(), column.isAllowNull(),
+                        column.isKey(), column.getAggregationType());
+            }
+            if (table instanceof View) {
+                hash = 31 * hash + Objects.hashCode(((View) table).getInlineViewDef());
+            } else if (table instanceof OlapTable) {
+                OlapTable olapTable = (OlapTable) table;
+                hash = 31 * hash + olapTable.getState().hashCode();
+                for (Map.Entry<Long, MaterializedIndexMeta> entry : olapTable.getIndexIdToMeta().entrySet()) {
+                    hash = 31 * hash + Objects.hash(entry.getKey(), entry.getValue().getSchemaVersion(),
+                            entry.getValue().getSchemaHash());
+                }
+                hash = 31 * hash + hashPartitions(olapTable.getPartitions());
+                hash = 31 * hash + hashPartitions(olapTable.getTempPartitions());
+                ColocateTableIndex colocateIndex = Catalog.getCurrentColocateIndex();
+                if (colocateIndex.isColocateTable(table.getId())) {
+                    hash = 31 * hash + Boolean.hashCode(
+                            colocateIndex.isGroupUnstable(colocateIndex.getGroup(table.getId())));
+                }
+            }
+            return hash;
+        }
+
+        // the partitions without data are pruned by the optimizer
+        private static long hashPartitions(Collection<Partition> partitions) {
+            long hash = 0;
+            for (Partition partition : partitions) {
+                // independent of the order of partitions
+                hash += Objects.hash(partition.getId(), partition.getName(), partition.hasData());
+            }
+            return hash;
+        }
+    }
+}
@@ -94,6 +94,7 @@ import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 import com.starrocks.sql.optimizer.rule.transformation.JoinPredicateUtils;
+import com.starrocks.sql.optimizer.statistics.CardinalityFeedback;
 import com.starrocks.thrift.TPartitionType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -201,6 +202,15 @@ public class PlanFragmentBuilder {
             this.columnRefFactory = columnRefFactory;
         }
 
+        private void recordFingerprint(OptExpression optExpr, PlanNode planNode, ExecPlan context) {
+            if (Config.enable_cardinality_feedback) {
+                String fingerprint = CardinalityFeedback.fingerprint(optExpr);
+                if (fingerprint != null) {
+                    context.getNodeFingerprints().put(planNode.getId().asInt(), fingerprint);
+                }
+            }
+        }
+
         @Override
         public PlanFragment visitPhysicalProject(OptExpression optExpr, ExecPlan context) {
             PhysicalProjectOperator node = (PhysicalProjectOperator) optExpr.getOp();
@@ -275,6 +285,7 @@ public class PlanFragmentBuilder {
                     new OlapScanNode(context.getPlanCtx().getNextNodeId(), tupleDescriptor, "OlapScanNode");
             scanNode.setLimit(node.getLimit());
             scanNode.computeStatistics(optExpr.getStatistics());
+            recordFingerprint(optExpr, scanNode, context);
 
             // set tablet
             try {
@@ -1140,6 +1151,7 @@ public class PlanFragmentBuilder {
                 hashJoinNode.getConjuncts().addAll(conjuncts);
                 hashJoinNode.setLimit(node.getLimit());
                 hashJoinNode.computeStatistics(optExpr.getStatistics());
+                recordFingerprint(optExpr, hashJoinNode, context);
 
                 if (ConnectContext.get().getSessionVariable().getEnableGlobalRuntimeFilter()) {
                     hashJoinNode.buildRuntimeFilters(runtimeFilterIdIdGenerator, hashJoinNode.getChild(1),
@@ -7,12 +7,15 @@ import com.google.common.collect.Maps;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
+import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Table;
 import com.starrocks.common.Config;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.util.MasterDaemon;
 import com.starrocks.statistic.Constants.AnalyzeType;
 import com.starrocks.statistic.Constants.ScheduleStatus;
 import com.starrocks.statistic.Constants.ScheduleType;
+import com.starrocks.thrift.TStatisticData;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -22,6 +25,9 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.stream.Collectors;
 
 public class StatisticAutoCollector extends MasterDaemon {
@@ -29,22 +35,51 @@ public class StatisticAutoCollector extends MasterDaemon {
 
     private static final StatisticExecutor statisticExecutor = new StatisticExecutor();
 
+    // the sample rows grow with the square root of the table rows, about 3 million rows for 1 billion rows
+    private static final long SAMPLE_ROWS_PER_SQRT_ROW = 100;
+    // the sample rows of a table with unstable ndv are doubled on each collection, up to 8 times
+    private static final int MAX_SAMPLE_SCALE = 8;
+    // the ndv of a column is unstable if it changes 20% more than explained by the change of the table rows
+    private static final double NDV_UNSTABLE_RATIO = 0.2;
+
+    // table id -> the ndv of the columns from the last sample collection
+    private final Map<Long, Map<String, SampleNdv>> lastSampleNdvs = Maps.newConcurrentMap();
+    // table id -> the scale of the sample rows, adjusted by the stability of the ndv
+    private final Map<Long, Integer> sampleScales = Maps.newConcurrentMap();
+    // collects the tables of a round concurrently, resized by statistic_collect_concurrency before each round
+    private final ThreadPoolExecutor collectExecutor;
+
     public StatisticAutoCollector() {
         super("AutoStatistic", Config.statistic_collect_interval_sec * 1000);
+        collectExecutor = ThreadPoolManager.newDaemonFixedThreadPool(Math.max(1, Config.statistic_collect_concurrency),
+                Integer.MAX_VALUE, "statistic-collect-pool", false);
+    }
+
+    // the ndv of a column sampled from the table of the rows
+    static class SampleNdv {
+        final long ndv;
+        final long tableRows;
+
+        SampleNdv(long ndv, long tableRows) {
+            this.ndv = ndv;
+            this.tableRows = tableRows;
+        }
     }
 
-    private static class TableCollectJob {
+    static class TableCollectJob {
         public AnalyzeJob job;
         public Database db;
         public Table table;
         public List<String> columns;
+        // the rows of the partitions updated since the last collection, the tables changed most are collected first
+        public long changedRows;
+        public long sampleRows;
 
         private void tryCollect() throws Exception {
             if (AnalyzeType.FULL == job.getType()) {
                 statisticExecutor.fullCollectStatisticSync(db.getId(), table.getId(), columns);
             } else if (AnalyzeType.SAMPLE == job.getType()) {
-                statisticExecutor
-                        .sampleCollectStatisticSync(db.getId(), table.getId(), columns, job.getSampleCollectRows());
+                statisticExecutor.sampleCollectStatisticSync(db.getId(), table.getId(), columns, sampleRows);
             }
         }
     }
@@ -96,7 +131,7 @@ public class StatisticAutoCollector extends MasterDaemon {
         Catalog.getCurrentAnalyzeMgr().addAnalyzeJob(analyzeJob);
     }
 
-    private void collectStatistics(List<TableCollectJob> allJobs) {
+    void collectStatistics(List<TableCollectJob> allJobs) {
         // AnalyzeJob-List<TableCollectJob> for update AnalyzeJob status
         Map<AnalyzeJob, List<TableCollectJob>> analyzeJobMap = Maps.newHashMap();
 
@@ -108,6 +143,8 @@ public class StatisticAutoCollector extends MasterDaemon {
             }
         }
 
+        List<AnalyzeJob> runningJobs = Lists.newArrayList();
+        List<TableCollectJob> runningTableJobs = Lists.newArrayList();
         for (Map.Entry<AnalyzeJob, List<TableCollectJob>> entry : analyzeJobMap.entrySet()) {
             AnalyzeJob analyzeJob = entry.getKey();
             if (analyzeJob.getStatus() == ScheduleStatus.FINISH) {
@@ -124,26 +161,31 @@ public class StatisticAutoCollector extends MasterDaemon {
             analyzeJob.setReason("");
             // only update job
             Catalog.getCurrentAnalyzeMgr().updateAnalyzeJobWithoutLog(analyzeJob);
-            for (TableCollectJob tcj : entry.getValue()) {
-                try {
-                    LOG.info("Statistic collect work job: {}, type: {}, db: {}, table: {}",
-                            analyzeJob.getId(), analyzeJob.getType(), tcj.db.getFullName(), tcj.table.getName());
-                    tcj.tryCollect();
-
-                    Catalog.getCurrentStatisticStorage().expireColumnStatistics(tcj.table, tcj.columns);
-                } catch (Exception e) {
-                    LOG.warn("Statistic collect work job: {}, type: {}, db: {}, table: {}. throw exception.",
-                            analyzeJob.getId(), analyzeJob.getType(), tcj.db.getFullName(), tcj.table.getName(), e);
-
-                    if (analyzeJob.getReason().length() < 40) {
-                        String error =
-                                analyzeJob.getReason() + "\n" + tcj.db.getFullName() + "." + tcj.table.getName() +
-                                        ": " + e.getMessage();
-                        analyzeJob.setReason(error);
-                    }
+            runningJobs.add(analyzeJob);
+            runningTableJobs.addAll(entry.getValue());
+        }
+
+        if (!runningTableJobs.isEmpty()) {
+            // The jobs of different AnalyzeJobs on the same table collect different columns,
+            // so all table jobs could run concurrently
+            runningTableJobs.sort(Comparator.comparingLong((TableCollectJob tcj) -> tcj.changedRows).reversed());
+            resizeCollectExecutor();
+            List<Future<?>> futures = Lists.newArrayList();
+            try {
+                for (TableCollectJob tcj : runningTableJobs) {
+                    futures.add(collectExecutor.submit(() -> collectTable(tcj)));
                 }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                LOG.warn("Statistic collect work jobs failed.", e);
+                // the pool is kept for the next round, do not leave the rest of this round running in it
+                futures.forEach(future -> future.cancel(true));
             }
+        }
 
+        for (AnalyzeJob analyzeJob : runningJobs) {
             // update & record
             if (ScheduleType.ONCE == analyzeJob.getScheduleType()) {
                 analyzeJob.setStatus(ScheduleStatus.FINISH);
@@ -155,6 +197,121 @@ public class StatisticAutoCollector extends MasterDaemon {
         }
     }
 
+    private void resizeCollectExecutor() {
+        int concurrency = Math.max(1, Config.statistic_collect_concurrency);
+        // the core size can not be larger than the max size
+        if (concurrency > collectExecutor.getMaximumPoolSize()) {
+            collectExecutor.setMaximumPoolSize(concurrency);
+            collectExecutor.setCorePoolSize(concurrency);
+        } else if (concurrency < collectExecutor.getCorePoolSize()) {
+            collectExecutor.setCorePoolSize(concurrency);
+            collectExecutor.setMaximumPoolSize(concurrency);
+        }
+    }
+
+    private void collectTable(TableCollectJob tcj) {
+        AnalyzeJob analyzeJob = tcj.job;
+        try {
+            LOG.info("Statistic collect work job: {}, type: {}, db: {}, table: {}, changed rows: {}",
+                    analyzeJob.getId(), analyzeJob.getType(), tcj.db.getFullName(), tcj.table.getName(),
+                    tcj.changedRows);
+            tcj.tryCollect();
+
+            Catalog.getCurrentStatisticStorage().expireColumnStatistics(tcj.table, tcj.columns);
+        } catch (Exception e) {
+            LOG.warn("Statistic collect work job: {}, type: {}, db: {}, table: {}. throw exception.",
+                    analyzeJob.getId(), analyzeJob.getType(), tcj.db.getFullName(), tcj.table.getName(), e);
+
+            synchronized (analyzeJob) {
+                if (analyzeJob.getReason().length() < 40) {
+                    String error =
+                            analyzeJob.getReason() + "\n" + tcj.db.getFullName() + "." + tcj.table.getName() +
+                                    ": " + e.getMessage();
+                    analyzeJob.setReason(error);
+                }
+            }
+            return;
+        }
+
+        if (AnalyzeType.SAMPLE == analyzeJob.getType() && Config.enable_statistic_adaptive_sample_rows) {
+            updateSampleScale(tcj);
+        }
+    }
+
+    /**
+     * Compares the ndv of the columns just collected with the last sample collection of the table. The sample
+     * rows of the next collection are doubled if the ndv is unstable, and halved back once it is stable.
+     */
+    private void updateSampleScale(TableCollectJob tcj) {
+        long tableRows = ((OlapTable) tcj.table).getRowCount();
+        Map<String, SampleNdv> ndvs = Maps.newHashMap();
+        try {
+            for (TStatisticData data : statisticExecutor.queryStatisticSync(tcj.db.getId(), tcj.table.getId(),
+                    tcj.columns)) {
+                ndvs.put(data.getColumnName(), new SampleNdv(data.getCountDistinct(), tableRows));
+            }
+        } catch (Exception e) {
+            LOG.warn("Query statistic of table: {} failed.", tcj.table.getName(), e);
+            return;
+        }
+
+        Map<String, SampleNdv> lastNdvs =
+                lastSampleNdvs.computeIfAbsent(tcj.table.getId(), k -> Maps.newConcurrentMap());
+        Map<String, SampleNdv> comparedNdvs = Maps.newHashMap(lastNdvs);
+        comparedNdvs.keySet().retainAll(ndvs.keySet());
+        lastNdvs.putAll(ndvs);
+        if (comparedNdvs.isEmpty()) {
+            return;
+        }
+
+        sampleScales.compute(tcj.table.getId(), (k, scale) -> {
+            int current = scale == null ? 1 : scale;
+            return isNdvStable(comparedNdvs, ndvs) ? Math.max(1, current / 2) :
+                    Math.min(MAX_SAMPLE_SCALE, current * 2);
+        });
+    }
+
+    /**
+     * The loads between two collections change the ndv by themselves, so the ndv is unstable only if it is out of
+     * the range between the last ndv and the last ndv scaled by the change of the table rows, by more than 20%.
+     * E.g. the ndv of a unique key doubles with the rows, while the ndv of a low cardinality column stays.
+     */
+    static boolean isNdvStable(Map<String, SampleNdv> lastNdvs, Map<String, SampleNdv> ndvs) {
+        for (Map.Entry<String, SampleNdv> entry : lastNdvs.entrySet()) {
+            SampleNdv current = ndvs.get(entry.getKey());
+            if (current == null) {
+                continue;
+            }
+            SampleNdv last = entry.getValue();
+            double rowsRatio = (double) Math.max(1, current.tableRows) / Math.max(1, last.tableRows);
+            double low = last.ndv * Math.min(1, rowsRatio) * (1 - NDV_UNSTABLE_RATIO);
+            double high = Math.max(1, last.ndv) * Math.max(1, rowsRatio) * (1 + NDV_UNSTABLE_RATIO);
+            if (current.ndv < low || current.ndv > high) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The error of the ndv estimated from a sample grows with the table size, so the sample rows grow with the
+     * square root of the table rows, and are multiplied by the scale adjusted by the stability of the ndv.
+     */
+    static long getAdaptiveSampleRows(long baseRows, long maxRows, long tableRows, int scale) {
+        long rows = Math.max(baseRows, (long) Math.sqrt(tableRows) * SAMPLE_ROWS_PER_SQRT_ROW) * scale;
+        return Math.max(baseRows, Math.min(rows, maxRows));
+    }
+
+    long getSampleRows(AnalyzeJob job, Table table) {
+        // the sample rows specified by the job are always used, and so are the fixed rows if not adaptive
+        if (!Config.enable_statistic_adaptive_sample_rows
+                || job.getProperties().containsKey(AnalyzeJob.PROP_SAMPLE_COLLECT_ROWS_KEY)) {
+            return job.getSampleCollectRows();
+        }
+        return getAdaptiveSampleRows(job.getSampleCollectRows(), Config.statistic_sample_collect_max_rows,
+                ((OlapTable) table).getRowCount(), sampleScales.getOrDefault(table.getId(), 1));
+    }
+
     private List<TableCollectJob> generateAllJobs() {
         List<AnalyzeJob> allAnalyzeJobs = Catalog.getCurrentAnalyzeMgr().getAllAnalyzeJobList();
         // The jobs need to be sorted in order of execution to avoid duplicate collections
@@ -265,6 +422,8 @@ public class StatisticAutoCollector extends MasterDaemon {
         tableJob.db = db;
         tableJob.table = table;
         tableJob.columns = columns;
+        tableJob.changedRows = StatisticUtils.getTableChangedRows(table, job.getWorkTime());
+        tableJob.sampleRows = getSampleRows(job, table);
         result.get(table.getId()).add(tableJob);
     }
 
@@ -279,6 +438,8 @@ public class StatisticAutoCollector extends MasterDaemon {
 
             db.getTables().stream().map(Table::getId).forEach(tables::add);
         }
+        lastSampleNdvs.keySet().retainAll(tables);
+        sampleScales.keySet().retainAll(tables);
         try {
             List<String> expireTables = statisticExecutor.queryExpireTableSync(tables);
 
@@ -79,4 +79,19 @@ public class StatisticUtils {
         return LocalDateTime.ofInstant(Instant.ofEpochMilli(maxTime), Clock.systemDefaultZone().getZone());
     }
 
+    /**
+     * The row count of the partitions updated after the time, as an estimate of the rows changed since then.
+     */
+    public static long getTableChangedRows(Table table, LocalDateTime time) {
+        long changedRows = 0;
+        for (Partition partition : ((OlapTable) table).getPartitions()) {
+            LocalDateTime updateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(partition.getVisibleVersionTime()),
+                    Clock.systemDefaultZone().getZone());
+            if (time.isBefore(updateTime)) {
+                changedRows += partition.getBaseIndex().getRowCount();
+            }
+        }
+        return changedRows;
+    }
+
 }
@@ -26,6 +26,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.FsBroker;
+import com.starrocks.clone.DirtyPartitionTracker;
 import com.starrocks.common.ClientPool;
 import com.starrocks.common.Config;
 import com.starrocks.common.FeConstants;
@@ -176,6 +177,10 @@ public class HeartbeatMgr extends MasterDaemon {
                 Backend be = nodeMgr.getBackend(hbResponse.getBeId());
                 if (be != null) {
                     boolean isChanged = be.handleHbResponse(hbResponse);
+                    if (isChanged) {
+                        // the health of all tablets with replicas on this backend may change
+                        DirtyPartitionTracker.getInstance().requestFullCheck();
+                    }
                     if (hbResponse.getStatus() != HbStatus.OK) {
                         // invalid all connections cached in ClientPool
                         ClientPool.backendPool.clearPool(new TNetworkAddress(be.getHost(), be.getBePort()));
@@ -23,9 +23,7 @@ package com.starrocks.task;
 
 import com.google.common.collect.Lists;
 import com.starrocks.catalog.Catalog;
-import com.starrocks.common.ClientPool;
 import com.starrocks.system.Backend;
-import com.starrocks.thrift.BackendService;
 import com.starrocks.thrift.TAgentServiceVersion;
 import com.starrocks.thrift.TAgentTaskRequest;
 import com.starrocks.thrift.TAlterTabletReq;
@@ -38,7 +36,6 @@ import com.starrocks.thrift.TCreateTabletReq;
 import com.starrocks.thrift.TDownloadReq;
 import com.starrocks.thrift.TDropTabletReq;
 import com.starrocks.thrift.TMoveDirReq;
-import com.starrocks.thrift.TNetworkAddress;
 import com.starrocks.thrift.TPublishVersionRequest;
 import com.starrocks.thrift.TPushReq;
 import com.starrocks.thrift.TReleaseSnapshotRequest;
@@ -52,7 +49,6 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -142,46 +138,25 @@ public class AgentBatchTask implements Runnable {
         return count;
     }
 
+    // tasks are sent by AgentTaskDispatcher, which coalesces the tasks of the same backend into one rpc
     @Override
     public void run() {
-        for (Long backendId : this.backendIdToTasks.keySet()) {
-            BackendService.Client client = null;
-            TNetworkAddress address = null;
-            boolean ok = false;
+        for (Map.Entry<Long, List<AgentTask>> entry : this.backendIdToTasks.entrySet()) {
+            Backend backend = Catalog.getCurrentSystemInfo().getBackend(entry.getKey());
+            if (backend == null || !backend.isAlive()) {
+                continue;
+            }
             try {
-                Backend backend = Catalog.getCurrentSystemInfo().getBackend(backendId);
-                if (backend == null || !backend.isAlive()) {
-                    continue;
-                }
-                List<AgentTask> tasks = this.backendIdToTasks.get(backendId);
-                // create AgentClient
-                address = new TNetworkAddress(backend.getHost(), backend.getBePort());
-                client = ClientPool.backendPool.borrowObject(address);
-                List<TAgentTaskRequest> agentTaskRequests = new LinkedList<TAgentTaskRequest>();
-                for (AgentTask task : tasks) {
-                    agentTaskRequests.add(toAgentTaskRequest(task));
-                }
-                client.submit_tasks(agentTaskRequests);
-                if (LOG.isDebugEnabled()) {
-                    for (AgentTask task : tasks) {
-                        LOG.debug("send task: type[{}], backend[{}], signature[{}]",
-                                task.getTaskType(), backendId, task.getSignature());
-                    }
-                }
-                ok = true;
-            } catch (Exception e) {
-                LOG.warn("task exec error. backend[{}]", backendId, e);
-            } finally {
-                if (ok) {
-                    ClientPool.backendPool.returnObject(address, client);
-                } else {
-                    ClientPool.backendPool.invalidateObject(address, client);
-                }
+                AgentTaskDispatcher.getInstance().dispatch(entry.getKey(), entry.getValue());
+            } catch (InterruptedException e) {
+                LOG.warn("task exec error. backend[{}]", entry.getKey(), e);
+                Thread.currentThread().interrupt();
+                return;
             }
         } // end for backend
     }
 
-    private TAgentTaskRequest toAgentTaskRequest(AgentTask task) {
+    static TAgentTaskRequest toAgentTaskRequest(AgentTask task) {
         TAgentTaskRequest tAgentTaskRequest = new TAgentTaskRequest();
         tAgentTaskRequest.setProtocol_version(TAgentServiceVersion.V1);
         tAgentTaskRequest.setSignature(task.getSignature());
@@ -0,0 +1,182 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.task;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.common.ClientPool;
+import com.starrocks.common.Config;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.metric.MetricRepo;
+import com.starrocks.system.Backend;
+import com.starrocks.thrift.BackendService;
+import com.starrocks.thrift.TAgentTaskRequest;
+import com.starrocks.thrift.TNetworkAddress;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Sends agent tasks to backends.
+ *
+ * Every backend has its own bounded queue of agent tasks. Tasks queued for the same backend, even by different
+ * AgentBatchTasks, are coalesced into one submit_tasks rpc, and at most
+ * Config.agent_task_max_inflight_rpcs_per_backend rpcs are in flight to a backend at the same time,
+ * so a slow backend only delays the tasks sent to itself.
+ */
+public class AgentTaskDispatcher {
+    private static final Logger LOG = LogManager.getLogger(AgentTaskDispatcher.class);
+
+    private static final AgentTaskDispatcher INSTANCE = new AgentTaskDispatcher(
+            ThreadPoolManager.newDaemonFixedThreadPool(Config.max_agent_task_threads_num, Integer.MAX_VALUE,
+                    "agent-task-dispatch-pool", true),
+            AgentTaskDispatcher::submitTasks);
+
+    @FunctionalInterface
+    interface TaskSender {
+        void send(long backendId, List<AgentTask> tasks) throws Exception;
+    }
+
+    private static class QueuedTask {
+        private final AgentTask task;
+        private final long enqueueTimeMs;
+
+        QueuedTask(AgentTask task) {
+            this.task = task;
+            this.enqueueTimeMs = System.currentTimeMillis();
+        }
+    }
+
+    private static class BackendQueue {
+        private final LinkedBlockingQueue<QueuedTask> tasks =
+                new LinkedBlockingQueue<>(Config.agent_task_queue_size_per_backend);
+        private final AtomicInteger inflightRpcs = new AtomicInteger(0);
+    }
+
+    private final Map<Long, BackendQueue> backendQueues = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final TaskSender sender;
+
+    @VisibleForTesting
+    AgentTaskDispatcher(ExecutorService executor, TaskSender sender) {
+        this.executor = executor;
+        this.sender = sender;
+    }
+
+    public static AgentTaskDispatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /*
+     * Queue the tasks to be sent to the backend, waiting if the queue of the backend is full.
+     */
+    public void dispatch(long backendId, List<AgentTask> tasks) throws InterruptedException {
+        BackendQueue queue = backendQueues.computeIfAbsent(backendId, k -> new BackendQueue());
+        for (AgentTask task : tasks) {
+            QueuedTask queuedTask = new QueuedTask(task);
+            if (!queue.tasks.offer(queuedTask)) {
+                // let the senders drain the queue before waiting for room
+                scheduleSend(backendId, queue);
+                queue.tasks.put(queuedTask);
+            }
+        }
+        scheduleSend(backendId, queue);
+    }
+
+    // num of tasks waiting to be sent to all backends
+    public long getQueuedTaskNum() {
+        long num = 0;
+        for (BackendQueue queue : backendQueues.values()) {
+            num += queue.tasks.size();
+        }
+        return num;
+    }
+
+    public int getQueuedTaskNum(long backendId) {
+        BackendQueue queue = backendQueues.get(backendId);
+        return queue == null ? 0 : queue.tasks.size();
+    }
+
+    private void scheduleSend(long backendId, BackendQueue queue) {
+        while (!queue.tasks.isEmpty()) {
+            int inflight = queue.inflightRpcs.get();
+            if (inflight >= Config.agent_task_max_inflight_rpcs_per_backend) {
+                // a running sender will pick up the tasks
+                return;
+            }
+            if (queue.inflightRpcs.compareAndSet(inflight, inflight + 1)) {
+                executor.submit(() -> sendLoop(backendId, queue));
+                return;
+            }
+        }
+    }
+
+    private void sendLoop(long backendId, BackendQueue queue) {
+        try {
+            List<QueuedTask> batch = Lists.newArrayList();
+            while (true) {
+                batch.clear();
+                queue.tasks.drainTo(batch, Math.max(1, Config.agent_task_max_batch_size));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                List<AgentTask> tasks = Lists.newArrayListWithCapacity(batch.size());
+                for (QueuedTask queuedTask : batch) {
+                    tasks.add(queuedTask.task);
+                }
+                try {
+                    sender.send(backendId, tasks);
+                } catch (Exception e) {
+                    LOG.warn("task exec error. backend[{}]", backendId, e);
+                }
+                if (MetricRepo.isInit) {
+                    long now = System.currentTimeMillis();
+                    for (QueuedTask queuedTask : batch) {
+                        MetricRepo.HISTO_AGENT_TASK_DISPATCH_LATENCY.update(now - queuedTask.enqueueTimeMs);
+                    }
+                }
+            }
+        } finally {
+            queue.inflightRpcs.decrementAndGet();
+        }
+        // tasks queued after the queue was found empty, but before the in-flight count was released
+        scheduleSend(backendId, queue);
+    }
+
+    private static void submitTasks(long backendId, List<AgentTask> tasks) throws Exception {
+        Backend backend = Catalog.getCurrentSystemInfo().getBackend(backendId);
+        if (backend == null || !backend.isAlive()) {
+            return;
+        }
+        TNetworkAddress address = new TNetworkAddress(backend.getHost(), backend.getBePort());
+        BackendService.Client client = ClientPool.backendPool.borrowObject(address);
+        boolean ok = false;
+        try {
+            List<TAgentTaskRequest> agentTaskRequests = Lists.newArrayListWithCapacity(tasks.size());
+            for (AgentTask task : tasks) {
+                agentTaskRequests.add(AgentBatchTask.toAgentTaskRequest(task));
+            }
+            client.submit_tasks(agentTaskRequests);
+            if (LOG.isDebugEnabled()) {
+                for (AgentTask task : tasks) {
+                    LOG.debug("send task: type[{}], backend[{}], signature[{}]",
+                            task.getTaskType(), backendId, task.getSignature());
+                }
+            }
+            ok = true;
+        } finally {
+            if (ok) {
+                ClientPool.backendPool.returnObject(address, client);
+            } else {
+                ClientPool.backendPool.invalidateObject(address, client);
+            }
+        }
+    }
+}
@@ -38,6 +38,7 @@ import com.starrocks.catalog.Table;
 import com.starrocks.catalog.Tablet;
 import com.starrocks.catalog.TabletInvertedIndex;
 import com.starrocks.catalog.TabletMeta;
+import com.starrocks.clone.DirtyPartitionTracker;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.DuplicatedRequestException;
@@ -1277,6 +1278,7 @@ public class DatabaseTransactionMgr {
                 long newCommitVersion = partitionCommitInfo.getVersion();
                 long newCommitVersionHash = partitionCommitInfo.getVersionHash();
                 Partition partition = table.getPartition(partitionId);
+                boolean hasFailedReplica = false;
                 List<MaterializedIndex> allIndices =
                         partition.getMaterializedIndices(MaterializedIndex.IndexExtState.ALL);
                 for (MaterializedIndex index : allIndices) {
@@ -1324,9 +1326,14 @@ public class DatabaseTransactionMgr {
                             }
                             replica.updateVersionInfo(newVersion, newVersionHash, lastFailedVersion,
                                     lastFailedVersionHash, lastSucessVersion, lastSuccessVersionHash);
+                            hasFailedReplica |= lastFailedVersion > 0;
                         }
                     }
                 } // end for indices
+                if (hasFailedReplica) {
+                    // the replicas falling behind the visible version need to be repaired
+                    DirtyPartitionTracker.getInstance().markPartitionDirty(db.getId(), tableId, partitionId);
+                }
                 long version = partitionCommitInfo.getVersion();
                 long versionTime = partitionCommitInfo.getVersionTime();
                 long versionHash = partitionCommitInfo.getVersionHash();
@@ -0,0 +1,135 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.alter;
+
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.CreateAsyncMaterializedViewStmt;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.utframe.StarRocksAssert;
+import com.starrocks.utframe.UtFrameUtils;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class AsyncMaterializedViewRefresherTest {
+    private static final String RUNNING_DIR = "fe/mocked/AsyncMaterializedViewRefresherTest/" + UUID.randomUUID() + "/";
+
+    private static ConnectContext connectContext;
+    private static Database db;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        UtFrameUtils.createMinStarRocksCluster(RUNNING_DIR);
+        // the views are only refreshed by the tests
+        new MockUp<AsyncMaterializedViewRefresher>() {
+            @Mock
+            public void runAfterCatalogReady() {
+            }
+        };
+
+        connectContext = UtFrameUtils.createDefaultCtx();
+        StarRocksAssert starRocksAssert = new StarRocksAssert(connectContext);
+        starRocksAssert.withDatabase("mv_db").useDatabase("mv_db");
+        starRocksAssert.withTable("CREATE TABLE base_p (k1 date, v1 int) DUPLICATE KEY(k1) PARTITION BY RANGE(k1) "
+                + "(PARTITION p1 VALUES LESS THAN ('2022-01-01'), PARTITION p2 VALUES LESS THAN ('2022-02-01')) "
+                + "DISTRIBUTED BY HASH(k1) BUCKETS 1 PROPERTIES ('replication_num' = '1')");
+        starRocksAssert.withTable("CREATE TABLE base_u (k1 int, v1 int) DUPLICATE KEY(k1) "
+                + "DISTRIBUTED BY HASH(k1) BUCKETS 1 PROPERTIES ('replication_num' = '1')");
+        createMaterializedView("create materialized view mv_p distributed by hash(k1) buckets 1 "
+                + "properties('replication_num' = '1') as select k1, v1 from base_p");
+        createMaterializedView("create materialized view mv_u distributed by hash(k1) buckets 1 "
+                + "properties('replication_num' = '1') as select k1, sum(v1) as s from base_u group by k1");
+        db = Catalog.getCurrentCatalog().getDb("default_cluster:mv_db");
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        File file = new File(RUNNING_DIR);
+        file.delete();
+    }
+
+    private static void createMaterializedView(String sql) throws Exception {
+        CreateAsyncMaterializedViewStmt stmt =
+                (CreateAsyncMaterializedViewStmt) UtFrameUtils.parseAndAnalyzeStmt(sql, connectContext);
+        Catalog.getCurrentCatalog().createTable(stmt.getCreateTableStmt());
+    }
+
+    // record the statements of a refresh instead of executing them, the backends of the test cluster run no insert
+    private static List<String> mockExecute(Runnable onTruncate) {
+        List<String> executed = Lists.newArrayList();
+        new MockUp<AsyncMaterializedViewRefresher>() {
+            @Mock
+            void execute(ConnectContext context, String sql) {
+                executed.add(sql);
+                if (sql.startsWith("TRUNCATE")) {
+                    onTruncate.run();
+                }
+            }
+        };
+        return executed;
+    }
+
+    private static List<String> filter(List<String> executed, String prefix) {
+        return executed.stream().filter(sql -> sql.startsWith(prefix)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testRefreshPartitioned() throws Exception {
+        OlapTable mv = (OlapTable) db.getTable("mv_p");
+        Assert.assertEquals(2, mv.getPartitions().size());
+        List<String> executed = mockExecute(() -> Assert.fail("a partitioned view is not truncated"));
+
+        // never refreshed, all partitions are recomputed into temporary partitions and replaced
+        new AsyncMaterializedViewRefresher().refresh(db, mv);
+        List<String> inserts = filter(executed, "INSERT");
+        Assert.assertEquals(executed.toString(), 2, inserts.size());
+        Assert.assertTrue(inserts.get(0), inserts.get(0).contains("TEMPORARY PARTITION(`tmp_async_mv_p1`)"));
+        Assert.assertFalse(inserts.get(0), inserts.get(0).contains(">="));
+        Assert.assertTrue(inserts.get(1), inserts.get(1).contains("TEMPORARY PARTITION(`tmp_async_mv_p2`)"));
+        Assert.assertTrue(inserts.get(1), inserts.get(1).contains("`k1` >= "));
+        Assert.assertEquals(2, filter(executed, "ALTER TABLE `mv_db`.`mv_p` REPLACE PARTITION").size());
+        Assert.assertTrue(mv.getAsyncMaterializedViewProperty().isUpToDate());
+
+        // only the partition of the changed base partition is recomputed
+        Partition p2 = ((OlapTable) db.getTable("base_p")).getPartition("p2");
+        p2.updateVisibleVersionAndVersionHash(p2.getVisibleVersion() + 1, 0);
+        Assert.assertFalse(mv.getAsyncMaterializedViewProperty().isUpToDate());
+        executed.clear();
+        new AsyncMaterializedViewRefresher().refresh(db, mv);
+        inserts = filter(executed, "INSERT");
+        Assert.assertEquals(executed.toString(), 1, inserts.size());
+        Assert.assertTrue(inserts.get(0), inserts.get(0).contains("TEMPORARY PARTITION(`tmp_async_mv_p2`)"));
+        Assert.assertTrue(mv.getAsyncMaterializedViewProperty().isUpToDate());
+    }
+
+    @Test
+    public void testRefreshUnpartitioned() throws Exception {
+        OlapTable mv = (OlapTable) db.getTable("mv_u");
+        List<Boolean> upToDateOnTruncate = Lists.newArrayList();
+        List<String> executed = mockExecute(
+                () -> upToDateOnTruncate.add(mv.getAsyncMaterializedViewProperty().isUpToDate()));
+
+        new AsyncMaterializedViewRefresher().refresh(db, mv);
+        Assert.assertEquals(2, executed.size());
+        Assert.assertEquals("TRUNCATE TABLE `mv_db`.`mv_u`", executed.get(0));
+        Assert.assertTrue(executed.get(1), executed.get(1).startsWith("INSERT INTO `mv_db`.`mv_u` SELECT * FROM ("));
+        Assert.assertTrue(mv.getAsyncMaterializedViewProperty().isUpToDate());
+
+        // the view is out of date while it is empty, even though no base table has changed
+        new AsyncMaterializedViewRefresher().refresh(db, mv);
+        Assert.assertEquals(Lists.newArrayList(false, false), upToDateOnTruncate);
+        Assert.assertTrue(mv.getAsyncMaterializedViewProperty().isUpToDate());
+    }
+}
@@ -0,0 +1,153 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.backup;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RangeDownloaderTest {
+    private static final int CHUNK_SIZE = 1024;
+
+    private ExecutorService executor;
+    private File dir;
+    private File remoteFile;
+    private byte[] content;
+
+    // reads the "remote" file, fails the read of failAtOffset once and returns at most half of a chunk
+    private class LocalRangeReader implements RangeDownloader.RangeReader {
+        private final RandomAccessFile file;
+        private final AtomicInteger failures;
+        private final long failAtOffset;
+
+        LocalRangeReader(AtomicInteger failures, long failAtOffset) throws IOException {
+            this.file = new RandomAccessFile(remoteFile, "r");
+            this.failures = failures;
+            this.failAtOffset = failAtOffset;
+        }
+
+        @Override
+        public byte[] read(long offset, long length) throws IOException {
+            if (offset == failAtOffset && failures.getAndDecrement() > 0) {
+                throw new IOException("injected failure at " + offset);
+            }
+            int len = (int) Math.min(length, Math.max(1, CHUNK_SIZE / 2));
+            len = (int) Math.min(len, file.length() - offset);
+            byte[] data = new byte[len];
+            file.seek(offset);
+            file.readFully(data);
+            return data;
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(4);
+        dir = Files.createTempDirectory("range_downloader").toFile();
+        remoteFile = new File(dir, "remote");
+        content = new byte[CHUNK_SIZE * 10 + 123];
+        new Random(1).nextBytes(content);
+        Files.write(remoteFile.toPath(), content);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testDownload() throws IOException {
+        AtomicInteger opened = new AtomicInteger();
+        RangeDownloader downloader = new RangeDownloader(() -> {
+            opened.incrementAndGet();
+            return new LocalRangeReader(new AtomicInteger(), -1);
+        }, executor, 4, CHUNK_SIZE, null);
+        File localFile = new File(dir, "local");
+        downloader.download(localFile, content.length);
+        Assert.assertArrayEquals(content, Files.readAllBytes(localFile.toPath()));
+        Assert.assertEquals(4, opened.get());
+    }
+
+    @Test
+    public void testResumeAfterFailure() throws IOException {
+        AtomicInteger failures = new AtomicInteger(2);
+        AtomicInteger opened = new AtomicInteger();
+        long failAtOffset = CHUNK_SIZE * 3 + CHUNK_SIZE / 2;
+        RangeDownloader downloader = new RangeDownloader(() -> {
+            opened.incrementAndGet();
+            return new LocalRangeReader(failures, failAtOffset);
+        }, executor, 4, CHUNK_SIZE, null);
+        File localFile = new File(dir, "local");
+        downloader.download(localFile, content.length);
+        Assert.assertArrayEquals(content, Files.readAllBytes(localFile.toPath()));
+        // the failed stream reopens its reader for each failure
+        Assert.assertEquals(6, opened.get());
+    }
+
+    @Test
+    public void testTooManyFailures() {
+        AtomicInteger failures = new AtomicInteger(100);
+        RangeDownloader downloader = new RangeDownloader(() -> new LocalRangeReader(failures, CHUNK_SIZE * 9),
+                executor, 4, CHUNK_SIZE, null);
+        try {
+            downloader.download(new File(dir, "local"), content.length);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("injected failure"));
+        }
+    }
+
+    @Test
+    public void testRejected() throws Exception {
+        // runs only one stream, the second one is rejected
+        ThreadPoolExecutor oneStreamExecutor =
+                new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+        RangeDownloader downloader = new RangeDownloader(() -> new RangeDownloader.RangeReader() {
+            @Override
+            public byte[] read(long offset, long length) throws IOException {
+                try {
+                    Thread.sleep(600000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("cancelled");
+            }
+
+            @Override
+            public void close() {
+            }
+        }, oneStreamExecutor, 4, CHUNK_SIZE, null);
+        try {
+            downloader.download(new File(dir, "local"), content.length);
+            Assert.fail();
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        // the submitted stream is cancelled
+        oneStreamExecutor.shutdown();
+        Assert.assertTrue(oneStreamExecutor.awaitTermination(60, TimeUnit.SECONDS));
+    }
+}
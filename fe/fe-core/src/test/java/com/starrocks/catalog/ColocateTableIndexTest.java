@@ -21,11 +21,13 @@
 
 package com.starrocks.catalog;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.starrocks.catalog.ColocateTableIndex.GroupId;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -48,4 +50,41 @@ public class ColocateTableIndexTest {
         balancingGroups.remove(groupId2);
         Assert.assertTrue(balancingGroups.isEmpty());
     }
+
+    @Test
+    public void testSnapshot() {
+        ColocateTableIndex index = new ColocateTableIndex();
+        GroupId groupId1 = new GroupId(1000, 2000);
+        GroupId groupId2 = new GroupId(1000, 3000);
+        List<List<Long>> seq1 = Lists.newArrayList();
+        seq1.add(Lists.newArrayList(1L, 2L));
+        index.addBackendsPerBucketSeq(groupId1, seq1);
+        index.addBackendsPerBucketSeq(groupId2, Lists.newArrayList());
+
+        ColocateTableIndex.Snapshot snapshot = index.getSnapshot();
+        Assert.assertEquals(2, snapshot.getVersion());
+        Assert.assertEquals(seq1, snapshot.getBackendsPerBucketSeq(groupId1));
+        Assert.assertTrue(snapshot.getBackendsPerBucketSeq(new GroupId(1000, 4000)).isEmpty());
+
+        // the published snapshot does not see later changes of the given seq, nor allows changing it
+        seq1.get(0).add(3L);
+        Assert.assertEquals(2, snapshot.getBackendsPerBucketSeq(groupId1).get(0).size());
+        try {
+            snapshot.getBackendsPerBucketSeq(groupId1).get(0).add(3L);
+            Assert.fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        List<List<Long>> seq2 = Lists.newArrayList();
+        seq2.add(Lists.newArrayList(3L, 4L));
+        index.addBackendsPerBucketSeq(groupId2, seq2);
+        ColocateTableIndex.Snapshot newSnapshot = index.getSnapshot();
+        Assert.assertEquals(3, newSnapshot.getVersion());
+        Assert.assertEquals(seq2, newSnapshot.getBackendsPerBucketSeq(groupId2));
+        Assert.assertTrue(snapshot.getBackendsPerBucketSeq(groupId2).isEmpty());
+        // the unchanged group is shared with the previous snapshot
+        Assert.assertSame(snapshot.getBackendsPerBucketSeq(groupId1), newSnapshot.getBackendsPerBucketSeq(groupId1));
+        Assert.assertSame(newSnapshot, index.getSnapshot());
+    }
 }
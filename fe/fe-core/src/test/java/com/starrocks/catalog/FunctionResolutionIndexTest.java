@@ -0,0 +1,95 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.FunctionName;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class FunctionResolutionIndexTest {
+
+    private static final Function.CompareMode[] MODES = {
+            Function.CompareMode.IS_IDENTICAL,
+            Function.CompareMode.IS_INDISTINGUISHABLE,
+            Function.CompareMode.IS_SUPERTYPE_OF,
+            Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF
+    };
+
+    private static final Type[] ARG_TYPES = {
+            Type.NULL, Type.BOOLEAN, Type.TINYINT, Type.INT, Type.BIGINT, Type.LARGEINT, Type.DOUBLE,
+            Type.VARCHAR, Type.DATE, Type.DATETIME, Type.DECIMALV2
+    };
+
+    private static final Map<String, List<Function>> overloads = Maps.newLinkedHashMap();
+
+    @BeforeClass
+    public static void setUp() {
+        FunctionSet functionSet = new FunctionSet();
+        functionSet.init();
+        for (Function fn : functionSet.getBuiltinFunctions()) {
+            overloads.computeIfAbsent(fn.functionName(), k -> Lists.newArrayList()).add(fn);
+        }
+    }
+
+    private static void assertSameAsLinearScan(FunctionResolutionIndex index, List<Function> fns, Type[] argTypes) {
+        for (Function.CompareMode mode : MODES) {
+            Function desc = new Function(fns.get(0).getFunctionName(), argTypes, Type.INVALID, false);
+            Function expect = Function.getFunction(fns, desc, mode);
+            // resolve twice, the second one is served by the memoized result
+            Assert.assertSame(desc.toString(), expect, index.resolve(fns, desc, mode, (d, f) -> true));
+            Assert.assertSame(desc.toString(), expect, index.resolve(fns, desc, mode, (d, f) -> true));
+        }
+    }
+
+    @Test
+    public void testSameAsLinearScan() {
+        FunctionResolutionIndex index = new FunctionResolutionIndex(100000);
+        for (List<Function> fns : overloads.values()) {
+            for (Function fn : fns) {
+                // the declared signature
+                assertSameAsLinearScan(index, fns, fn.getArgs());
+                if (fn.getNumArgs() == 0) {
+                    continue;
+                }
+                // the declared signature with a different first argument type
+                for (Type type : ARG_TYPES) {
+                    Type[] argTypes = fn.getArgs().clone();
+                    argTypes[0] = type;
+                    assertSameAsLinearScan(index, fns, argTypes);
+                }
+                // one more trailing argument, only var args overloads accept it
+                Type[] argTypes = new Type[fn.getNumArgs() + 1];
+                System.arraycopy(fn.getArgs(), 0, argTypes, 0, fn.getNumArgs());
+                argTypes[fn.getNumArgs()] = fn.getArgs()[fn.getNumArgs() - 1];
+                assertSameAsLinearScan(index, fns, argTypes);
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidate() {
+        FunctionName name = new FunctionName("test_db", "my_udf");
+        List<Function> fns = Lists.newArrayList(
+                new Function(name, new Type[] {Type.BIGINT}, Type.BIGINT, false));
+        FunctionResolutionIndex index = new FunctionResolutionIndex(100);
+
+        Function desc = new Function(name, new Type[] {Type.INT}, Type.INVALID, false);
+        Assert.assertSame(fns.get(0),
+                index.resolve(fns, desc, Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF, (d, f) -> true));
+
+        // a better overload is added in front of the old one
+        fns.add(0, new Function(name, new Type[] {Type.INT}, Type.INT, false));
+        // stale until invalidated
+        Assert.assertSame(fns.get(1),
+                index.resolve(fns, desc, Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF, (d, f) -> true));
+        index.invalidate();
+        Assert.assertSame(fns.get(0),
+                index.resolve(fns, desc, Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF, (d, f) -> true));
+    }
+}
@@ -59,6 +59,30 @@ public class FunctionSetTest {
         Assert.assertTrue(newArgTypes[0].matchesType(ScalarType.VARCHAR));
     }
 
+    @Test
+    public void testLookupCache() {
+        Type[] argTypes = {Type.INT, Type.BIGINT};
+        Function desc = new Function(new FunctionName("add"), argTypes, Type.INVALID, false);
+        Function fn1 = functionSet.getFunction(desc, Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF);
+        Assert.assertNotNull(fn1);
+        // a new search desc with the same signature hits the cache
+        desc = new Function(new FunctionName("add"), new Type[] {Type.INT, Type.BIGINT}, Type.INVALID, false);
+        Function fn2 = functionSet.getFunction(desc, Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF);
+        Assert.assertSame(fn1, fn2);
+        // the compare mode is a part of the key
+        desc = new Function(new FunctionName("add"), new Type[] {Type.INT, Type.BIGINT}, Type.INVALID, false);
+        Assert.assertNull(functionSet.getFunction(desc, Function.CompareMode.IS_IDENTICAL));
+
+        // polymorphic functions are resolved for every lookup
+        desc = new Function(new FunctionName("array_append"), new Type[] {INT_ARRAY, Type.INT}, Type.INVALID, false);
+        Assert.assertEquals(INT_ARRAY, functionSet.getFunction(desc, Function.CompareMode.IS_SUPERTYPE_OF)
+                .getReturnType());
+        desc = new Function(new FunctionName("array_append"), new Type[] {VARCHAR_ARRAY, Type.VARCHAR},
+                Type.INVALID, false);
+        Assert.assertEquals(VARCHAR_ARRAY, functionSet.getFunction(desc, Function.CompareMode.IS_SUPERTYPE_OF)
+                .getReturnType());
+    }
+
     @Test
     public void testPolymorphicFunction() {
         // array_append(ARRAY<INT>, INT)
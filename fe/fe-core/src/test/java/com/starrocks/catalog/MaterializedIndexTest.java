@@ -67,6 +67,25 @@ public class MaterializedIndexTest {
         Assert.assertEquals(indexId, index.getId());
     }
 
+    @Test
+    public void testGetTablet() {
+        // ids are not always added in increasing order, eg. restored tablets
+        long[] tabletIds = {100, 101, 105, 103, 102, 1, 104};
+        for (long tabletId : tabletIds) {
+            index.addTablet(new Tablet(tabletId), null, true);
+        }
+        for (int i = 0; i < tabletIds.length; i++) {
+            Assert.assertEquals(tabletIds[i], index.getTablet(tabletIds[i]).getId());
+            Assert.assertEquals(i, index.getTabletOrderIdx(tabletIds[i]));
+        }
+        Assert.assertNull(index.getTablet(99));
+        Assert.assertEquals(-1, index.getTabletOrderIdx(106));
+
+        index.clearTabletsForRestore();
+        Assert.assertNull(index.getTablet(100));
+        Assert.assertTrue(index.getTablets().isEmpty());
+    }
+
     @Test
     public void testSerialization() throws Exception {
         // 1. Write objects to file
@@ -74,6 +93,8 @@ public class MaterializedIndexTest {
         file.createNewFile();
         DataOutputStream dos = new DataOutputStream(new FileOutputStream(file));
 
+        index.addTablet(new Tablet(20001), null, true);
+        index.addTablet(new Tablet(20000), null, true);
         index.write(dos);
 
         dos.flush();
@@ -83,6 +104,7 @@ public class MaterializedIndexTest {
         DataInputStream dis = new DataInputStream(new FileInputStream(file));
         MaterializedIndex rIndex = MaterializedIndex.read(dis);
         Assert.assertTrue(index.equals(rIndex));
+        Assert.assertEquals(1, rIndex.getTabletOrderIdx(20000));
 
         // 3. delete files
         dis.close();
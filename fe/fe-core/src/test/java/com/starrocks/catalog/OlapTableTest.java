@@ -23,14 +23,18 @@ package com.starrocks.catalog;
 
 import com.google.common.collect.Lists;
 import com.starrocks.analysis.IndexDef;
+import com.starrocks.catalog.MaterializedIndex.IndexExtState;
 import com.starrocks.catalog.Table.TableType;
 import com.starrocks.common.FeConstants;
 import com.starrocks.common.io.FastByteArrayOutputStream;
+import com.starrocks.common.io.Writable;
 import com.starrocks.common.util.UnitTestUtil;
 import mockit.Mock;
 import mockit.MockUp;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -74,4 +78,50 @@ public class OlapTableTest {
 
     }
 
+    private static byte[] serialize(Writable writable) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(byteArrayOutputStream)) {
+            writable.write(out);
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    @Test
+    public void testSelectiveCopy() throws IOException {
+        new MockUp<Catalog>() {
+            @Mock
+            int getCurrentCatalogJournalVersion() {
+                return FeConstants.meta_version;
+            }
+        };
+
+        Database db = UnitTestUtil.createDb(1, 2, 3, 4, 5, 6, 7, 8);
+        OlapTable tbl = (OlapTable) db.getTable(2);
+        Partition partition = tbl.getPartition(3);
+        partition.getBaseIndex().getTablets().get(0).getReplicas().get(0).setBad(true);
+
+        // the structural copy is the same as the table serialized and read back
+        OlapTable copied = tbl.selectiveCopy(null, false, IndexExtState.ALL);
+        Assert.assertArrayEquals(serialize(tbl), serialize(copied));
+        Partition copiedPartition = copied.getPartition(3);
+        Assert.assertNotSame(partition, copiedPartition);
+        Assert.assertNotSame(partition.getBaseIndex().getTablets().get(0),
+                copiedPartition.getBaseIndex().getTablets().get(0));
+        Assert.assertNotNull(copiedPartition.getBaseIndex().getTablet(6));
+        Assert.assertFalse(copiedPartition.getBaseIndex().getTablets().get(0).getReplicas().get(0).isBad());
+
+        // the copied replicas are reset without changing the original ones
+        partition.getBaseIndex().getTablets().get(0).getReplicas().get(0).setState(Replica.ReplicaState.CLONE);
+        copied = tbl.selectiveCopy(Lists.newArrayList(partition.getName()), true, IndexExtState.VISIBLE);
+        Assert.assertEquals(Replica.ReplicaState.NORMAL,
+                copied.getPartition(3).getBaseIndex().getTablets().get(0).getReplicas().get(0).getState());
+        Assert.assertEquals(Replica.ReplicaState.CLONE,
+                partition.getBaseIndex().getTablets().get(0).getReplicas().get(0).getState());
+
+        // the partitions not reserved are not copied
+        copied = tbl.selectiveCopy(Lists.newArrayList("not_exist"), false, IndexExtState.ALL);
+        Assert.assertTrue(copied.getPartitions().isEmpty());
+        Assert.assertNull(copied.getPartitionInfo().getDataProperty(3));
+    }
+
 }
@@ -0,0 +1,100 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+import com.starrocks.analysis.PartitionValue;
+import com.starrocks.common.AnalysisException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class RangePartitionIndexTest {
+    private List<Column> partitionColumns;
+    private RangePartitionInfo partitionInfo;
+
+    @Before
+    public void setUp() throws AnalysisException {
+        partitionColumns = Lists.newArrayList(new Column("k1", ScalarType.createType(PrimitiveType.INT)));
+        partitionInfo = new RangePartitionInfo(partitionColumns);
+        // [0, 10), [10, 20) ... [990, 1000), with a hole at [500, 510)
+        for (int i = 0; i < 100; i++) {
+            if (i != 50) {
+                partitionInfo.setRange(i, false, Range.closedOpen(key(i * 10), key(i * 10 + 10)));
+            }
+        }
+    }
+
+    private PartitionKey key(int value) throws AnalysisException {
+        return PartitionKey.createPartitionKey(Lists.newArrayList(new PartitionValue(String.valueOf(value))),
+                partitionColumns);
+    }
+
+    // the partitions intersected with the range, by checking every partition
+    private List<Long> scan(Range<PartitionKey> range) {
+        return partitionInfo.getIdToRange(false).entrySet().stream()
+                .filter(e -> e.getValue().isConnected(range) && !e.getValue().intersection(range).isEmpty())
+                .map(Map.Entry::getKey).sorted().collect(Collectors.toList());
+    }
+
+    private void checkQueries() throws AnalysisException {
+        RangePartitionIndex index = partitionInfo.getRangeIndex();
+        Assert.assertEquals(partitionInfo.getIdToRange(false).size(), index.size());
+        int[][] bounds = {{-10, -1}, {-10, 0}, {0, 0}, {5, 5}, {9, 10}, {10, 10}, {495, 515}, {500, 509},
+                {0, 1000}, {999, 2000}, {1000, 2000}, {123, 456}};
+        for (int[] bound : bounds) {
+            for (BoundType lowerType : BoundType.values()) {
+                for (BoundType upperType : BoundType.values()) {
+                    if (bound[0] == bound[1] && (lowerType == BoundType.OPEN || upperType == BoundType.OPEN)) {
+                        continue;
+                    }
+                    Range<PartitionKey> range = Range.range(key(bound[0]), lowerType, key(bound[1]), upperType);
+                    List<Long> result = index.query(range);
+                    Assert.assertEquals(range.toString(), scan(range),
+                            result.stream().sorted().collect(Collectors.toList()));
+                }
+            }
+        }
+        Assert.assertEquals(scan(Range.atLeast(key(990))), index.query(Range.atLeast(key(990))));
+        Assert.assertEquals(scan(Range.lessThan(key(10))), index.query(Range.lessThan(key(10))));
+    }
+
+    @Test
+    public void testQuery() throws AnalysisException {
+        checkQueries();
+        Assert.assertEquals(Lists.newArrayList(0L, 1L, 2L),
+                partitionInfo.getRangeIndex().query(Range.closed(key(5), key(20))));
+        Assert.assertTrue(partitionInfo.getRangeIndex().query(Range.closed(key(500), key(509))).isEmpty());
+    }
+
+    @Test
+    public void testIncrementalUpdate() throws AnalysisException {
+        RangePartitionIndex index = partitionInfo.getRangeIndex();
+        Assert.assertSame(index, partitionInfo.getRangeIndex());
+
+        partitionInfo.dropPartition(0);
+        partitionInfo.dropPartition(99);
+        partitionInfo.setRange(50, false, Range.closedOpen(key(500), key(510)));
+        partitionInfo.setRange(100, false, Range.closedOpen(key(1000), key(1010)));
+        // changes the range of an existing partition
+        partitionInfo.setRange(1, false, Range.closedOpen(key(5), key(20)));
+        // temp partitions are not indexed
+        partitionInfo.setRange(200, true, Range.closedOpen(key(2000), key(2010)));
+        Assert.assertNotSame(index, partitionInfo.getRangeIndex());
+        checkQueries();
+
+        partitionInfo.moveRangeFromTempToFormal(200);
+        Assert.assertEquals(Lists.newArrayList(200L),
+                partitionInfo.getRangeIndex().query(Range.closed(key(2000), key(2000))));
+        checkQueries();
+
+        // the index of the previous version is not changed
+        Assert.assertEquals(Lists.newArrayList(0L), index.query(Range.closed(key(0), key(0))));
+    }
+}
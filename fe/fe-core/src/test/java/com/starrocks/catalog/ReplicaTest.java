@@ -23,6 +23,7 @@ package com.starrocks.catalog;
 
 import com.starrocks.catalog.Replica.ReplicaState;
 import com.starrocks.common.FeMetaVersion;
+import mockit.Deencapsulation;
 import mockit.Expectations;
 import mockit.Mocked;
 import org.junit.Assert;
@@ -150,6 +151,34 @@ public class ReplicaTest {
         file.delete();
     }
 
+    @Test
+    public void testTransientState() {
+        Replica replica = new Replica(10000, 20000, 3, 1231, 0, 100, 78, ReplicaState.NORMAL, 0, 0, 3, 1231);
+        Assert.assertEquals(0, replica.getLastFailedTimestamp());
+        Assert.assertEquals(-1, replica.getWatermarkTxnId());
+        Assert.assertFalse(replica.needFurtherRepair());
+
+        replica.setNeedFurtherRepair(true);
+        replica.setWatermarkTxnId(10);
+        replica.updateLastFailedVersion(5, 0);
+        Assert.assertTrue(replica.needFurtherRepair());
+        Assert.assertEquals(10, replica.getWatermarkTxnId());
+        Assert.assertTrue(replica.getLastFailedTimestamp() > 0);
+
+        // catching up with the last failed version resets the timestamp
+        replica.updateVersionInfo(5, 0, 100, 78);
+        Assert.assertEquals(-1, replica.getLastFailedTimestamp());
+        replica.setNeedFurtherRepair(false);
+        Assert.assertFalse(replica.needFurtherRepair());
+
+        // a version update of a replica never failed resets the timestamp too
+        Replica healthy = new Replica(10001, 20000, 3, 1231, 0, 100, 78, ReplicaState.NORMAL, 0, 0, 3, 1231);
+        Assert.assertEquals(0, healthy.getLastFailedTimestamp());
+        healthy.updateVersionInfo(4, 0, 100, 78);
+        Assert.assertEquals(-1, healthy.getLastFailedTimestamp());
+        Assert.assertNull(Deencapsulation.getField(healthy, "transientState"));
+    }
+
     @Test
     public void testUpdateVersion1() {
         Replica originalReplica = new Replica(10000, 20000, 3, 1231, 0, 100, 78, ReplicaState.NORMAL, 0, 0, 3, 1231);
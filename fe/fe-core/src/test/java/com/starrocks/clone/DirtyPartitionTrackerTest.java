@@ -0,0 +1,59 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.clone;
+
+import com.google.common.collect.Sets;
+import com.starrocks.catalog.TabletInvertedIndex;
+import com.starrocks.catalog.TabletMeta;
+import com.starrocks.thrift.TStorageMedium;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+public class DirtyPartitionTrackerTest {
+
+    @Test
+    public void testDrainDirtyPartitions() {
+        TabletInvertedIndex invertedIndex = new TabletInvertedIndex();
+        invertedIndex.addTablet(1000L, new TabletMeta(1L, 10L, 100L, 200L, 0, TStorageMedium.HDD));
+        invertedIndex.addTablet(1001L, new TabletMeta(1L, 10L, 101L, 200L, 0, TStorageMedium.HDD));
+
+        DirtyPartitionTracker tracker = new DirtyPartitionTracker();
+        // the first round checks all tablets
+        Assert.assertTrue(tracker.takeFullCheckRequest());
+        Assert.assertFalse(tracker.takeFullCheckRequest());
+
+        tracker.markTabletDirty(1000L);
+        tracker.markTabletDirty(1001L);
+        // dropped tablet is ignored
+        tracker.markTabletDirty(9999L);
+        tracker.markPartitionDirty(1L, 10L, 100L);
+        tracker.markPartitionDirty(2L, 20L, 300L);
+
+        Map<Long, Map<Long, Set<Long>>> partitions = tracker.drainDirtyPartitions(invertedIndex);
+        Assert.assertEquals(2, partitions.size());
+        Assert.assertEquals(Sets.newHashSet(100L, 101L), partitions.get(1L).get(10L));
+        Assert.assertEquals(Sets.newHashSet(300L), partitions.get(2L).get(20L));
+        Assert.assertTrue(tracker.drainDirtyPartitions(invertedIndex).isEmpty());
+    }
+
+    @Test
+    public void testFullCheckRequest() {
+        TabletInvertedIndex invertedIndex = new TabletInvertedIndex();
+        invertedIndex.addTablet(1000L, new TabletMeta(1L, 10L, 100L, 200L, 0, TStorageMedium.HDD));
+
+        DirtyPartitionTracker tracker = new DirtyPartitionTracker();
+        tracker.takeFullCheckRequest();
+        tracker.markTabletDirty(1000L);
+        tracker.requestFullCheck();
+        // changes are covered by the pending full check
+        tracker.markPartitionDirty(1L, 10L, 101L);
+        Assert.assertTrue(tracker.drainDirtyPartitions(invertedIndex).isEmpty());
+        Assert.assertTrue(tracker.takeFullCheckRequest());
+
+        tracker.markPartitionDirty(1L, 10L, 101L);
+        Assert.assertEquals(Sets.newHashSet(101L), tracker.drainDirtyPartitions(invertedIndex).get(1L).get(10L));
+    }
+}
@@ -0,0 +1,216 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.clone;
+
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Replica;
+import com.starrocks.catalog.Tablet;
+import com.starrocks.common.Config;
+import com.starrocks.common.jmockit.Deencapsulation;
+import com.starrocks.persist.HbPackage;
+import com.starrocks.system.Backend;
+import com.starrocks.system.BackendHbResponse;
+import com.starrocks.system.HeartbeatResponse;
+import com.starrocks.utframe.StarRocksAssert;
+import com.starrocks.utframe.UtFrameUtils;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Set;
+import java.util.UUID;
+
+public class TabletCheckerTest {
+    private static final String RUNNING_DIR = "fe/mocked/TabletCheckerTest/" + UUID.randomUUID() + "/";
+    private static final long BACKEND_ID = 10001;
+
+    private static Database db;
+    private static OlapTable table;
+    private static long fullCheckIntervalSecond;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        UtFrameUtils.createMinStarRocksCluster(RUNNING_DIR);
+        // the tablet checker of the cluster does not consume the changes reported to DirtyPartitionTracker
+        new MockUp<TabletChecker>() {
+            @Mock
+            public void runAfterCatalogReady() {
+            }
+        };
+
+        StarRocksAssert starRocksAssert = new StarRocksAssert(UtFrameUtils.createDefaultCtx());
+        starRocksAssert.withDatabase("checker_db").useDatabase("checker_db");
+        starRocksAssert.withTable("CREATE TABLE tbl (k1 int, v1 int) DUPLICATE KEY(k1) PARTITION BY RANGE(k1) "
+                + "(PARTITION p1 VALUES LESS THAN ('10'), PARTITION p2 VALUES LESS THAN ('20'), "
+                + "PARTITION p3 VALUES LESS THAN ('30')) "
+                + "DISTRIBUTED BY HASH(k1) BUCKETS 2 PROPERTIES ('replication_num' = '1')");
+        db = Catalog.getCurrentCatalog().getDb("default_cluster:checker_db");
+        table = (OlapTable) db.getTable("tbl");
+
+        fullCheckIntervalSecond = Config.tablet_checker_full_check_interval_second;
+        Config.tablet_checker_full_check_interval_second = 3600;
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        Config.tablet_checker_full_check_interval_second = fullCheckIntervalSecond;
+        File file = new File(RUNNING_DIR);
+        file.delete();
+    }
+
+    private static TabletChecker createChecker(DirtyPartitionTracker tracker, TabletScheduler tabletScheduler,
+                                               TabletSchedulerStat stat) {
+        TabletChecker checker = new TabletChecker(Catalog.getCurrentCatalog(), Catalog.getCurrentSystemInfo(),
+                tabletScheduler, stat);
+        Deencapsulation.setField(checker, "dirtyTracker", tracker);
+        return checker;
+    }
+
+    private static TabletScheduler createTabletScheduler(TabletSchedulerStat stat) {
+        // not started, only holds the tablets added by the checker
+        return new TabletScheduler(Catalog.getCurrentCatalog(), Catalog.getCurrentSystemInfo(),
+                Catalog.getCurrentInvertedIndex(), stat);
+    }
+
+    private static void runRound(TabletChecker checker) {
+        Deencapsulation.invoke(checker, "checkTablets");
+    }
+
+    private static Tablet getFirstTablet(Partition partition) {
+        return partition.getBaseIndex().getTablets().get(0);
+    }
+
+    private static void replayHeartbeat(HeartbeatResponse response) {
+        HbPackage hbPackage = new HbPackage();
+        hbPackage.addHbResponse(response);
+        Catalog.getCurrentHeartbeatMgr().replayHearbeat(hbPackage);
+    }
+
+    @Test
+    public void testCheckDirtyPartitions() {
+        DirtyPartitionTracker tracker = new DirtyPartitionTracker();
+        TabletSchedulerStat stat = new TabletSchedulerStat();
+        TabletChecker checker = createChecker(tracker, createTabletScheduler(stat), stat);
+
+        // the first round checks all tablets
+        runRound(checker);
+        Assert.assertEquals(1, stat.counterTabletFullCheckRound.get());
+        Assert.assertTrue(stat.counterTabletChecked.get() >= 6);
+
+        // no partition changed
+        long checked = stat.counterTabletChecked.get();
+        runRound(checker);
+        Assert.assertEquals(1, stat.counterTabletFullCheckRound.get());
+        Assert.assertEquals(checked, stat.counterTabletChecked.get());
+
+        // only the 2 tablets of the dirty partition are checked
+        tracker.markPartitionDirty(db.getId(), table.getId(), table.getPartition("p2").getId());
+        runRound(checker);
+        Assert.assertEquals(checked + 2, stat.counterTabletChecked.get());
+
+        // a dirty tablet is resolved to its partition
+        tracker.markTabletDirty(getFirstTablet(table.getPartition("p3")).getId());
+        tracker.markTabletDirty(getFirstTablet(table.getPartition("p1")).getId());
+        runRound(checker);
+        Assert.assertEquals(checked + 6, stat.counterTabletChecked.get());
+        Assert.assertEquals(1, stat.counterTabletFullCheckRound.get());
+
+        // the full check interval is reached
+        Config.tablet_checker_full_check_interval_second = 0;
+        try {
+            runRound(checker);
+        } finally {
+            Config.tablet_checker_full_check_interval_second = 3600;
+        }
+        Assert.assertEquals(2, stat.counterTabletFullCheckRound.get());
+        Assert.assertTrue(stat.counterTabletChecked.get() >= checked + 12);
+    }
+
+    @Test
+    public void testFullCheckOnHeartbeatChange() {
+        TabletSchedulerStat stat = new TabletSchedulerStat();
+        TabletChecker checker = createChecker(DirtyPartitionTracker.getInstance(), createTabletScheduler(stat), stat);
+        runRound(checker);
+        long fullRounds = stat.counterTabletFullCheckRound.get();
+
+        Backend be = Catalog.getCurrentSystemInfo().getBackend(BACKEND_ID);
+        int bePort = be.getBePort();
+        int httpPort = be.getHttpPort();
+        int brpcPort = be.getBrpcPort();
+        String version = be.getVersion();
+
+        // a heartbeat without change
+        replayHeartbeat(new BackendHbResponse(BACKEND_ID, bePort, httpPort, brpcPort, System.currentTimeMillis(),
+                version));
+        runRound(checker);
+        Assert.assertEquals(fullRounds, stat.counterTabletFullCheckRound.get());
+
+        // the port changed
+        replayHeartbeat(new BackendHbResponse(BACKEND_ID, bePort + 1, httpPort, brpcPort,
+                System.currentTimeMillis(), version));
+        runRound(checker);
+        Assert.assertEquals(fullRounds + 1, stat.counterTabletFullCheckRound.get());
+        // restore the port, the heartbeat of the cluster may have restored it
+        replayHeartbeat(new BackendHbResponse(BACKEND_ID, bePort, httpPort, brpcPort, System.currentTimeMillis(),
+                version));
+        runRound(checker);
+        fullRounds = stat.counterTabletFullCheckRound.get();
+
+        // the backend is dead
+        replayHeartbeat(new BackendHbResponse(BACKEND_ID, "heartbeat failed"));
+        runRound(checker);
+        Assert.assertEquals(fullRounds + 1, stat.counterTabletFullCheckRound.get());
+        replayHeartbeat(new BackendHbResponse(BACKEND_ID, bePort, httpPort, brpcPort, System.currentTimeMillis(),
+                version));
+        Assert.assertTrue(be.isAlive());
+    }
+
+    @Test
+    public void testRepairDelay() {
+        DirtyPartitionTracker tracker = new DirtyPartitionTracker();
+        TabletSchedulerStat stat = new TabletSchedulerStat();
+        TabletScheduler tabletScheduler = createTabletScheduler(stat);
+        TabletChecker checker = createChecker(tracker, tabletScheduler, stat);
+        runRound(checker);
+        long lastRoundStartTime = Deencapsulation.getField(checker, "lastRoundStartTime");
+
+        Tablet tablet = getFirstTablet(table.getPartition("p1"));
+        Replica replica = tablet.getReplicas().get(0);
+        // the tablet was found healthy long ago, and its partition is not checked since then
+        tablet.setLastStatusCheckTime(lastRoundStartTime - 3600 * 1000L);
+        replica.setBad(true);
+        try {
+            tracker.markTabletDirty(tablet.getId());
+            runRound(checker);
+            // the tablet was healthy in last round, otherwise its partition would be dirty,
+            // so the repair is delayed from last round like checking all tablets in each round
+            Assert.assertEquals(lastRoundStartTime, tablet.getLastStatusCheckTime());
+            Assert.assertFalse(tabletScheduler.containsTablet(tablet.getId()));
+            Set<Long> unhealthyTabletIds = Deencapsulation.getField(checker, "unhealthyTabletIds");
+            Assert.assertTrue(unhealthyTabletIds.contains(tablet.getId()));
+
+            // the partition is checked until the tablet is ready to be repaired, the delay is not restarted
+            long checked = stat.counterTabletChecked.get();
+            runRound(checker);
+            Assert.assertEquals(checked + 2, stat.counterTabletChecked.get());
+            Assert.assertEquals(lastRoundStartTime, tablet.getLastStatusCheckTime());
+            Assert.assertFalse(tabletScheduler.containsTablet(tablet.getId()));
+
+            // the tablet found unhealthy before a full check is not delayed again
+            tablet.setLastStatusCheckTime(System.currentTimeMillis() - 3600 * 1000L);
+            tracker.requestFullCheck();
+            runRound(checker);
+            Assert.assertTrue(tabletScheduler.containsTablet(tablet.getId()));
+            Assert.assertTrue(((Set<Long>) Deencapsulation.getField(checker, "prevUnhealthyTabletIds")).isEmpty());
+        } finally {
+            replica.setBad(false);
+        }
+    }
+}
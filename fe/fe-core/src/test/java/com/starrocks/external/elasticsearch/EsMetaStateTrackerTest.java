@@ -0,0 +1,135 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.external.elasticsearch;
+
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.EsTable;
+import com.starrocks.catalog.Type;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EsMetaStateTrackerTest extends EsTestCase {
+
+    // a local http stand-in for the remote es cluster
+    private HttpServer server;
+    private final AtomicLong stateVersion = new AtomicLong(1);
+    private final AtomicLong shard1DocCount = new AtomicLong(25000000);
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+    @Before
+    public void setUp() throws Exception {
+        String mapping = loadJsonFromFile("data/es/test_index_mapping.json");
+        String searchShards = loadJsonFromFile("data/es/test_search_shards.json");
+        String nodes = loadJsonFromFile("data/es/test_nodes_http.json");
+        String catShards = "[{\"index\":\"doe\",\"shard\":\"0\",\"prirep\":\"p\",\"state\":\"STARTED\",\"docs\":\"100\"},"
+                + "{\"index\":\"doe\",\"shard\":\"0\",\"prirep\":\"r\",\"state\":\"STARTED\",\"docs\":\"100\"},"
+                + "{\"index\":\"doe\",\"shard\":\"1\",\"prirep\":\"p\",\"state\":\"STARTED\",\"docs\":\"%d\"}]";
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            requestCounts.computeIfAbsent(path, k -> new AtomicInteger()).incrementAndGet();
+            String body;
+            if (path.equals("/_cluster/state/version")) {
+                body = "{\"cluster_name\":\"es\",\"version\":" + stateVersion.get() + "}";
+            } else if (path.equals("/doe/_mapping")) {
+                body = mapping;
+            } else if (path.equals("/doe/_search_shards")) {
+                body = searchShards;
+            } else if (path.equals("/_nodes/http")) {
+                body = nodes;
+            } else if (path.equals("/_cat/shards/doe")) {
+                body = String.format(catShards, shard1DocCount.get());
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private EsTable createTable() throws Exception {
+        List<Column> columns = new ArrayList<>();
+        columns.add(new Column("k1", Type.BIGINT));
+        Map<String, String> props = new HashMap<>();
+        props.put(EsTable.HOSTS, "127.0.0.1:" + server.getAddress().getPort());
+        props.put(EsTable.INDEX, "doe");
+        props.put(EsTable.TYPE, "doc");
+        props.put(EsTable.VERSION, "6.5.3");
+        return new EsTable(new Random().nextLong(), "doe", columns, props, null);
+    }
+
+    private int requestCount(String path) {
+        AtomicInteger count = requestCounts.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    @Test
+    public void testSkipUnchangedState() throws Exception {
+        EsTable table = createTable();
+        EsRestClient client = new EsRestClient(table.getSeeds(), null, null);
+        EsMetaStateTracker tracker = new EsMetaStateTracker(client, table);
+
+        Assert.assertTrue(tracker.run());
+        Assert.assertEquals(1, requestCount("/doe/_mapping"));
+        Assert.assertEquals(1, requestCount("/doe/_search_shards"));
+
+        // cluster state is unchanged, only the state version is requested
+        Assert.assertFalse(tracker.run());
+        Assert.assertEquals(2, requestCount("/_cluster/state/version"));
+        Assert.assertEquals(1, requestCount("/doe/_mapping"));
+        Assert.assertEquals(1, requestCount("/doe/_search_shards"));
+
+        stateVersion.incrementAndGet();
+        Assert.assertTrue(tracker.run());
+        Assert.assertEquals(2, requestCount("/doe/_mapping"));
+        Assert.assertEquals(2, requestCount("/doe/_search_shards"));
+    }
+
+    @Test
+    public void testShardDocCounts() throws Exception {
+        EsTable table = createTable();
+        EsRestClient client = new EsRestClient(table.getSeeds(), null, null);
+        EsMetaStateTracker tracker = new EsMetaStateTracker(client, table);
+        tracker.run();
+
+        EsShardPartitions partitions = tracker.searchContext().partitions();
+        Assert.assertEquals(100, partitions.getShardDocCount("doe", 0));
+        Assert.assertEquals(25000000, partitions.getShardDocCount("doe", 1));
+        Assert.assertEquals(-1, partitions.getShardDocCount("doe", 2));
+
+        // doc counts are refreshed even if the cluster state is unchanged
+        shard1DocCount.set(30000000);
+        Assert.assertFalse(tracker.run());
+        Assert.assertEquals(1, requestCount("/doe/_search_shards"));
+        Assert.assertEquals(2, requestCount("/_cat/shards/doe"));
+        Assert.assertSame(partitions, tracker.searchContext().partitions());
+        Assert.assertEquals(30000000, partitions.getShardDocCount("doe", 1));
+    }
+}
@@ -0,0 +1,223 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.load;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.BinaryPredicate;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.ExportStmt;
+import com.starrocks.analysis.SqlParser;
+import com.starrocks.analysis.SqlScanner;
+import com.starrocks.analysis.TupleDescriptor;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.FsBroker;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Tablet;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.common.jmockit.Deencapsulation;
+import com.starrocks.common.util.SqlParserUtils;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.PlanFragment;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.Coordinator;
+import com.starrocks.thrift.TInternalScanRange;
+import com.starrocks.thrift.TScanRange;
+import com.starrocks.thrift.TScanRangeLocation;
+import com.starrocks.thrift.TScanRangeLocations;
+import com.starrocks.utframe.StarRocksAssert;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class ExportJobTest {
+    private static final String RUNNING_DIR = "fe/mocked/ExportJobTest/" + UUID.randomUUID() + "/";
+    private static final String EXPORT_TO = " TO 'hdfs://127.0.0.1:9002/export/' WITH BROKER 'broker'";
+
+    private static ConnectContext ctx;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        UtFrameUtils.createMinStarRocksCluster(RUNNING_DIR);
+        ctx = UtFrameUtils.createDefaultCtx();
+        StarRocksAssert starRocksAssert = new StarRocksAssert(ctx);
+        starRocksAssert.withDatabase("db1").useDatabase("db1");
+        starRocksAssert.withTable("CREATE TABLE db1.tbl1 (k1 date, k2 int, v1 int) DUPLICATE KEY(k1, k2) "
+                + "PARTITION BY RANGE(k1) (PARTITION p1 VALUES LESS THAN ('2021-10-01'), "
+                + "PARTITION p2 VALUES LESS THAN ('2021-11-01')) "
+                + "DISTRIBUTED BY HASH(k2) BUCKETS 3 PROPERTIES ('replication_num' = '1')");
+        Catalog.getCurrentCatalog().getBrokerMgr().replayAddBrokers("broker",
+                Lists.newArrayList(new FsBroker("127.0.0.1", 8000)));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        UtFrameUtils.cleanStarRocksFeDir(RUNNING_DIR);
+    }
+
+    private static ExportStmt parse(String sql) throws Exception {
+        SqlParser parser = new SqlParser(new SqlScanner(new StringReader(sql), ctx.getSessionVariable().getSqlMode()));
+        return (ExportStmt) SqlParserUtils.getFirstStmt(parser);
+    }
+
+    private static TScanRangeLocations createTablet(long tabletId, long... backendIds) {
+        TInternalScanRange internalScanRange = new TInternalScanRange();
+        internalScanRange.setTablet_id(tabletId);
+        TScanRange scanRange = new TScanRange();
+        scanRange.setInternal_scan_range(internalScanRange);
+        TScanRangeLocations tablet = new TScanRangeLocations();
+        tablet.setScan_range(scanRange);
+        for (long backendId : backendIds) {
+            TScanRangeLocation location = new TScanRangeLocation();
+            location.setBackend_id(backendId);
+            tablet.addToLocations(location);
+        }
+        return tablet;
+    }
+
+    private static long getBytes(List<TScanRangeLocations> tablets, Map<Long, Long> tabletBytes, long backendId) {
+        long bytes = 0;
+        for (TScanRangeLocations tablet : tablets) {
+            Assert.assertEquals(1, tablet.getLocations().size());
+            if (tablet.getLocations().get(0).getBackend_id() == backendId) {
+                bytes += tabletBytes.get(tablet.getScan_range().getInternal_scan_range().getTablet_id());
+            }
+        }
+        return bytes;
+    }
+
+    @Test
+    public void testSplitTablets() {
+        List<TScanRangeLocations> tablets = Lists.newArrayList();
+        Map<Long, Long> tabletBytes = Maps.newHashMap();
+        // 8 tablets of 100 bytes and 8 tablets of 10 bytes, each has replicas on backend 1 and 2
+        for (long tabletId = 0; tabletId < 16; tabletId++) {
+            tablets.add(createTablet(tabletId, 1, 2));
+            tabletBytes.put(tabletId, tabletId < 8 ? 100L : 10L);
+        }
+
+        List<List<TScanRangeLocations>> tasks = ExportJob.splitTablets(tablets, tabletBytes, 200);
+        // each backend has 440 bytes, which needs 3 tasks
+        Assert.assertEquals(3, tasks.size());
+        int tabletNum = 0;
+        long[] bytesPerBe = new long[3];
+        for (List<TScanRangeLocations> task : tasks) {
+            tabletNum += task.size();
+            for (int backendId = 1; backendId <= 2; backendId++) {
+                long bytes = getBytes(task, tabletBytes, backendId);
+                Assert.assertTrue(String.valueOf(bytes), bytes >= 100 && bytes <= 200);
+                bytesPerBe[backendId] += bytes;
+            }
+        }
+        Assert.assertEquals(16, tabletNum);
+        Assert.assertEquals(440L, bytesPerBe[1]);
+        Assert.assertEquals(440L, bytesPerBe[2]);
+    }
+
+    @Test
+    public void testSplitTabletsSkew() {
+        List<TScanRangeLocations> tablets = Lists.newArrayList();
+        Map<Long, Long> tabletBytes = Maps.newHashMap();
+        // a large tablet only on backend 1, small tablets on backend 1 and 2
+        tablets.add(createTablet(0, 1));
+        tabletBytes.put(0L, 1000L);
+        for (long tabletId = 1; tabletId <= 4; tabletId++) {
+            tablets.add(createTablet(tabletId, 1, 2));
+            tabletBytes.put(tabletId, 100L);
+        }
+
+        List<List<TScanRangeLocations>> tasks = ExportJob.splitTablets(tablets, tabletBytes, 10000);
+        Assert.assertEquals(1, tasks.size());
+        // the small tablets are all read from backend 2
+        Assert.assertEquals(1000L, getBytes(tasks.get(0), tabletBytes, 1));
+        Assert.assertEquals(400L, getBytes(tasks.get(0), tabletBytes, 2));
+    }
+
+    @Test
+    public void testSplitNoTablet() {
+        Assert.assertTrue(ExportJob.splitTablets(Lists.newArrayList(), Maps.newHashMap(), 100).isEmpty());
+    }
+
+    @Test
+    public void testParseWhere() throws Exception {
+        ExportStmt stmt = parse("EXPORT TABLE tbl1 PARTITION (p1, p2) (k1, k2) WHERE v1 > 1 AND k2 = 2" + EXPORT_TO);
+        Assert.assertEquals(Lists.newArrayList("k1", "k2"), stmt.getColumnNames());
+        List<Expr> conjuncts = stmt.getWhereExpr().getConjuncts();
+        Assert.assertEquals(2, conjuncts.size());
+        Assert.assertTrue(conjuncts.get(0) instanceof BinaryPredicate);
+
+        stmt = parse("EXPORT TABLE tbl1 WHERE k2 = 2" + EXPORT_TO);
+        Assert.assertNull(stmt.getColumnNames());
+        Assert.assertNotNull(stmt.getWhereExpr());
+
+        stmt = parse("EXPORT TABLE tbl1 (k1)" + EXPORT_TO);
+        Assert.assertNull(stmt.getWhereExpr());
+    }
+
+    @Test
+    public void testAnalyzeWhere() throws Exception {
+        String sql = "EXPORT TABLE tbl1 PARTITION (p2) (k1, k2) WHERE v1 > 1 AND k2 IN (1, 2)" + EXPORT_TO;
+        ExportStmt stmt = (ExportStmt) UtFrameUtils.parseAndAnalyzeStmt(sql, ctx);
+
+        // the columns, the partitions and the where clause survive a round trip of toSql
+        ExportStmt reparsed = parse(stmt.toSql());
+        Assert.assertEquals(stmt.getColumnNames(), reparsed.getColumnNames());
+        Assert.assertEquals(stmt.getWhereExpr().toSql(), reparsed.getWhereExpr().toSql());
+        Assert.assertTrue(stmt.toSql().contains("PARTITION (p2)"));
+
+        String[] invalidWheres = {
+                "k2 IN (SELECT k2 FROM tbl1)",
+                "sum(v1) > 1",
+                "v1 + 1",
+                "k_not_exist = 1"
+        };
+        for (String where : invalidWheres) {
+            try {
+                UtFrameUtils.parseAndAnalyzeStmt("EXPORT TABLE tbl1 WHERE " + where + EXPORT_TO, ctx);
+                Assert.fail("No exception throws for " + where);
+            } catch (AnalysisException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testWherePushDown() throws Exception {
+        String sql = "EXPORT TABLE tbl1 (k1, k2) WHERE k1 >= '2021-10-01' AND v1 > 1" + EXPORT_TO;
+        ExportStmt stmt = (ExportStmt) UtFrameUtils.parseAndAnalyzeStmt(sql, ctx);
+        ExportJob job = new ExportJob(1L, UUID.randomUUID());
+        job.setJob(stmt);
+
+        // p1 is pruned by the partition column filter
+        OlapTable table = (OlapTable) Catalog.getCurrentCatalog().getDb("default_cluster:db1").getTable("tbl1");
+        Set<Long> p2Tablets = table.getPartition("p2").getBaseIndex().getTablets().stream()
+                .map(Tablet::getId).collect(Collectors.toSet());
+        Set<Long> exportedTablets = job.getTabletLocations().stream()
+                .map(tablet -> tablet.getScan_range().getInternal_scan_range().getTablet_id())
+                .collect(Collectors.toSet());
+        Assert.assertEquals(p2Tablets, exportedTablets);
+
+        // v1 is scanned for the where clause, but not exported
+        TupleDescriptor exportTupleDesc = Deencapsulation.getField(job, "exportTupleDesc");
+        Assert.assertEquals(3, exportTupleDesc.getSlots().size());
+
+        Assert.assertFalse(job.getCoordList().isEmpty());
+        for (Coordinator coord : job.getCoordList()) {
+            List<PlanFragment> fragments = Deencapsulation.getField(coord, "fragments");
+            OlapScanNode scanNode = (OlapScanNode) fragments.get(0).getPlanRoot();
+            // both conjuncts are evaluated by the scan of each task
+            Assert.assertEquals(2, scanNode.getConjuncts().size());
+            List<Expr> outputExprs = Deencapsulation.getField(fragments.get(0), "outputExprs");
+            Assert.assertEquals(2, outputExprs.size());
+        }
+    }
+}
@@ -189,6 +189,24 @@ public class KafkaRoutineLoadJobTest {
         }
     }
 
+    @Test
+    public void testDivideByLag() {
+        Map<Integer, Long> partitionLags = Maps.newHashMap();
+        partitionLags.put(1, 1000L);
+        partitionLags.put(2, 10L);
+        partitionLags.put(3, 600L);
+        partitionLags.put(4, 500L);
+        List<List<Integer>> taskPartitions =
+                KafkaRoutineLoadJob.divideByLag(Arrays.asList(1, 2, 3, 4, 5), partitionLags, 2);
+        Assert.assertEquals(Arrays.asList(1, 2, 5), taskPartitions.get(0));
+        Assert.assertEquals(Arrays.asList(3, 4), taskPartitions.get(1));
+
+        // divided evenly if the lag is unknown
+        taskPartitions = KafkaRoutineLoadJob.divideByLag(Arrays.asList(1, 4, 6), Maps.newHashMap(), 2);
+        Assert.assertEquals(Arrays.asList(1, 6), taskPartitions.get(0));
+        Assert.assertEquals(Arrays.asList(4), taskPartitions.get(1));
+    }
+
     @Test
     public void testProcessTimeOutTasks(@Injectable GlobalTransactionMgr globalTransactionMgr,
                                         @Injectable RoutineLoadManager routineLoadManager) {
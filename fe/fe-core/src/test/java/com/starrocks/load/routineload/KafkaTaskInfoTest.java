@@ -3,6 +3,7 @@ package com.starrocks.load.routineload;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.starrocks.common.Config;
 import com.starrocks.common.Pair;
 import com.starrocks.common.UserException;
 import com.starrocks.common.util.KafkaUtil;
@@ -103,4 +104,41 @@ public class KafkaTaskInfoTest {
         kafkaProgress.modifyOffset(Lists.newArrayList(new Pair<>(1, 99L)));
         Assert.assertTrue(kafkaTaskInfo.isProgressKeepUp(kafkaProgress));
     }
+
+    @Test
+    public void testAdaptBatch() {
+        Map<Integer, Long> offsets = Maps.newHashMap();
+        offsets.put(0, 100L);
+        offsets.put(1, KafkaProgress.OFFSET_END_VAL);
+        offsets.put(2, 300L);
+        Map<Integer, Long> latestOffsets = Maps.newHashMap();
+        latestOffsets.put(0, 150L);
+        latestOffsets.put(1, 1000L);
+        latestOffsets.put(2, 200L);
+        Assert.assertEquals(50L, KafkaTaskInfo.computeLag(offsets, latestOffsets));
+
+        long consumeSecond = Config.routine_load_task_consume_second;
+        long batchSize = Config.max_routine_load_batch_size;
+        // disabled by default
+        Assert.assertEquals(consumeSecond, KafkaTaskInfo.adaptConsumeSecond(50, 100));
+        Assert.assertEquals(batchSize, KafkaTaskInfo.adaptBatchSize(100 * consumeSecond * 2, 100));
+
+        Config.enable_routine_load_adaptive_task = true;
+        try {
+            // unknown lag or throughput
+            Assert.assertEquals(consumeSecond, KafkaTaskInfo.adaptConsumeSecond(0, 100));
+            Assert.assertEquals(consumeSecond, KafkaTaskInfo.adaptConsumeSecond(100, 0));
+            Assert.assertEquals(batchSize, KafkaTaskInfo.adaptBatchSize(0, 100));
+            // nearly caught up
+            Assert.assertEquals(1, KafkaTaskInfo.adaptConsumeSecond(50, 100));
+            Assert.assertEquals(batchSize, KafkaTaskInfo.adaptBatchSize(50, 100));
+            // falling behind
+            Assert.assertEquals(consumeSecond, KafkaTaskInfo.adaptConsumeSecond(100 * consumeSecond * 2, 100));
+            Assert.assertEquals(batchSize * 2, KafkaTaskInfo.adaptBatchSize(100 * consumeSecond * 2, 100));
+            Assert.assertEquals(batchSize * Config.routine_load_max_batch_size_scale,
+                    KafkaTaskInfo.adaptBatchSize(Long.MAX_VALUE / 2, 100));
+        } finally {
+            Config.enable_routine_load_adaptive_task = false;
+        }
+    }
 }
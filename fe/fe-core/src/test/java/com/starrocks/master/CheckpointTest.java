@@ -0,0 +1,96 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.master;
+
+import com.google.common.collect.Lists;
+import com.starrocks.ha.FrontendNodeType;
+import com.starrocks.system.Frontend;
+import com.starrocks.system.FrontendHbResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CheckpointTest {
+    private Frontend createFrontend(FrontendNodeType role, String host, long replayedJournalId, boolean alive) {
+        Frontend fe = new Frontend(role, host, host, 9010);
+        if (alive) {
+            fe.handleHbResponse(new FrontendHbResponse(host, 9030, 9020, replayedJournalId,
+                    System.currentTimeMillis()));
+        }
+        return fe;
+    }
+
+    @Test
+    public void testSelectSnapshotFrontend() {
+        Frontend master = createFrontend(FrontendNodeType.FOLLOWER, "127.0.0.1", 100, true);
+        Frontend follower = createFrontend(FrontendNodeType.FOLLOWER, "127.0.0.2", 90, true);
+        Frontend observer = createFrontend(FrontendNodeType.OBSERVER, "127.0.0.3", 95, true);
+        Frontend dead = createFrontend(FrontendNodeType.FOLLOWER, "127.0.0.4", 0, false);
+        List<Frontend> frontends = Lists.newArrayList(master, follower, observer, dead);
+
+        Assert.assertSame(observer, Checkpoint.selectSnapshotFrontend(frontends, "127.0.0.1", 50));
+        // the journals replayed by other nodes are not newer than the image
+        Assert.assertNull(Checkpoint.selectSnapshotFrontend(frontends, "127.0.0.1", 95));
+        Assert.assertNull(Checkpoint.selectSnapshotFrontend(Lists.newArrayList(master), "127.0.0.1", 50));
+    }
+
+    @Test
+    public void testSelectSnapshotFrontendPreferObserver() {
+        Frontend master = createFrontend(FrontendNodeType.FOLLOWER, "127.0.0.1", 100, true);
+        Frontend follower1 = createFrontend(FrontendNodeType.FOLLOWER, "127.0.0.2", 99, true);
+        Frontend follower2 = createFrontend(FrontendNodeType.FOLLOWER, "127.0.0.3", 98, true);
+        Frontend observer1 = createFrontend(FrontendNodeType.OBSERVER, "127.0.0.4", 60, true);
+        Frontend observer2 = createFrontend(FrontendNodeType.OBSERVER, "127.0.0.5", 70, true);
+        Frontend deadObserver = createFrontend(FrontendNodeType.OBSERVER, "127.0.0.6", 0, false);
+
+        // an observer is selected even if a follower replayed more journals
+        Assert.assertSame(observer2, Checkpoint.selectSnapshotFrontend(
+                Lists.newArrayList(master, follower1, observer1, follower2, observer2), "127.0.0.1", 50));
+        // the observers replayed no journal newer than the image
+        Assert.assertSame(follower1, Checkpoint.selectSnapshotFrontend(
+                Lists.newArrayList(master, observer1, follower2, follower1, observer2), "127.0.0.1", 70));
+        Assert.assertSame(follower1, Checkpoint.selectSnapshotFrontend(
+                Lists.newArrayList(master, follower2, deadObserver, follower1), "127.0.0.1", 50));
+    }
+
+    @Test
+    public void testAbortSnapshotOnReplayLag() throws IOException {
+        AtomicLong replayLag = new AtomicLong(0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(
+                new ReplayLagCheckedOutputStream(bytes, replayLag::get, 100, 0));
+        dos.writeLong(1);
+        replayLag.set(100);
+        dos.write(new byte[16]);
+        Assert.assertEquals(24, bytes.size());
+
+        replayLag.set(101);
+        try {
+            dos.writeInt(1);
+            Assert.fail("the saving is not aborted");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("101 journals are waiting for replay"));
+        }
+        Assert.assertEquals(24, bytes.size());
+    }
+
+    @Test
+    public void testReplayLagCheckInterval() throws IOException {
+        AtomicLong checkCount = new AtomicLong(0);
+        DataOutputStream dos = new DataOutputStream(new ReplayLagCheckedOutputStream(new ByteArrayOutputStream(),
+                () -> {
+                    checkCount.incrementAndGet();
+                    return 0;
+                }, 100, 3600 * 1000L));
+        for (int i = 0; i < 1000; i++) {
+            dos.writeLong(i);
+        }
+        // only checked by the first write in the interval
+        Assert.assertEquals(1, checkCount.get());
+    }
+}
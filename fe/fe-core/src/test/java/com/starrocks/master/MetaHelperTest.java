@@ -0,0 +1,182 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.master;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.common.Config;
+import com.starrocks.persist.Storage;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+
+public class MetaHelperTest {
+    private static final int BLOCK_SIZE = 1024 * 1024;
+    private static final long VERSION = 100;
+
+    private HttpServer server;
+    private File dir;
+    private byte[] image;
+    private int blockSizeMb;
+    private boolean compression;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.start();
+        dir = Files.createTempDirectory("meta_helper").toFile();
+        // two and a half blocks
+        image = new byte[BLOCK_SIZE * 5 / 2];
+        new Random(0).nextBytes(image);
+        blockSizeMb = Config.image_transfer_block_size_mb;
+        compression = Config.enable_image_transfer_compression;
+        Config.image_transfer_block_size_mb = 1;
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+        Config.image_transfer_block_size_mb = blockSizeMb;
+        Config.enable_image_transfer_compression = compression;
+    }
+
+    private static Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> params = Maps.newHashMap();
+        for (String param : exchange.getRequestURI().getQuery().split("&")) {
+            String[] kv = param.split("=", 2);
+            params.put(kv[0], kv.length > 1 ? kv[1] : "");
+        }
+        return params;
+    }
+
+    private static void writeResponse(HttpExchange exchange, byte[] content) throws IOException {
+        exchange.sendResponseHeaders(200, content.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content);
+        }
+    }
+
+    // responds a block of the image like MetaService, and corrupts the block at corruptOffset while failures last
+    private HttpHandler blockHandler(List<Long> requestedOffsets, long corruptOffset, AtomicInteger failures) {
+        return exchange -> {
+            Map<String, String> params = parseQuery(exchange);
+            Assert.assertEquals(String.valueOf(VERSION), params.get("version"));
+            long offset = Long.parseLong(params.get("offset"));
+            int length = (int) Math.min(Long.parseLong(params.get("length")), image.length - offset);
+            requestedOffsets.add(offset);
+            byte[] block = Arrays.copyOfRange(image, (int) offset, (int) offset + length);
+            long checksum = MetaHelper.checksum(block);
+            if (offset == corruptOffset && failures.getAndDecrement() > 0) {
+                block[0]++;
+            }
+            boolean compress = Boolean.parseBoolean(params.get("compress"));
+            exchange.getResponseHeaders().add(MetaHelper.X_IMAGE_SIZE, String.valueOf(image.length));
+            exchange.getResponseHeaders().add(MetaHelper.X_BLOCK_LENGTH, String.valueOf(block.length));
+            exchange.getResponseHeaders().add(MetaHelper.X_BLOCK_CHECKSUM, String.valueOf(checksum));
+            exchange.getResponseHeaders().add(MetaHelper.X_BLOCK_COMPRESSED, String.valueOf(compress));
+            writeResponse(exchange, compress ? MetaHelper.compress(block) : block);
+        };
+    }
+
+    private byte[] getRemoteImage() throws IOException {
+        MetaHelper.getRemoteImage("127.0.0.1", server.getAddress().getPort(), VERSION, 10000, dir);
+        return Files.readAllBytes(new File(dir, Storage.IMAGE + "." + VERSION + ".part").toPath());
+    }
+
+    @Test
+    public void testGetRemoteImageByBlocks() throws IOException {
+        List<Long> requestedOffsets = Collections.synchronizedList(Lists.newArrayList());
+        server.createContext("/image", blockHandler(requestedOffsets, -1, new AtomicInteger()));
+        Config.enable_image_transfer_compression = true;
+        Assert.assertArrayEquals(image, getRemoteImage());
+        Assert.assertEquals(Lists.newArrayList(0L, (long) BLOCK_SIZE, 2L * BLOCK_SIZE), requestedOffsets);
+    }
+
+    @Test
+    public void testGetRemoteImageRetryBlock() throws IOException {
+        List<Long> requestedOffsets = Collections.synchronizedList(Lists.newArrayList());
+        server.createContext("/image", blockHandler(requestedOffsets, BLOCK_SIZE, new AtomicInteger(1)));
+        Assert.assertArrayEquals(image, getRemoteImage());
+        // only the corrupted block is downloaded again
+        Assert.assertEquals(Lists.newArrayList(0L, (long) BLOCK_SIZE, (long) BLOCK_SIZE, 2L * BLOCK_SIZE),
+                requestedOffsets);
+    }
+
+    @Test
+    public void testGetRemoteImageTooManyFailures() {
+        List<Long> requestedOffsets = Collections.synchronizedList(Lists.newArrayList());
+        server.createContext("/image", blockHandler(requestedOffsets, BLOCK_SIZE, new AtomicInteger(100)));
+        try {
+            getRemoteImage();
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("offset=" + BLOCK_SIZE));
+        }
+    }
+
+    @Test
+    public void testGetRemoteImageFromOldServer() throws IOException {
+        // the server of old version ignores the block parameters and responds the whole image
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext("/image", exchange -> {
+            requests.incrementAndGet();
+            exchange.getResponseHeaders().add(MetaHelper.X_IMAGE_SIZE, String.valueOf(image.length));
+            writeResponse(exchange, image);
+        });
+        Assert.assertArrayEquals(image, getRemoteImage());
+        Assert.assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        byte[] data = new byte[100000];
+        Random random = new Random(0);
+        for (int i = 0; i < data.length; i++) {
+            // compressible but not trivial
+            data[i] = (byte) random.nextInt(16);
+        }
+        File file = File.createTempFile("image", ".test");
+        file.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+        }
+
+        byte[] block = MetaHelper.readBlock(file, 30000, 50000);
+        Assert.assertArrayEquals(Arrays.copyOfRange(data, 30000, 80000), block);
+        Assert.assertEquals(MetaHelper.checksum(block), MetaHelper.checksum(file, 30000, 50000));
+        Assert.assertNotEquals(MetaHelper.checksum(block), MetaHelper.checksum(file, 30001, 50000));
+
+        byte[] compressed = MetaHelper.compress(block);
+        Assert.assertTrue(compressed.length < block.length);
+        Assert.assertArrayEquals(block, MetaHelper.decompress(compressed, block.length));
+        try {
+            MetaHelper.decompress(compressed, block.length + 1);
+            Assert.fail();
+        } catch (DataFormatException e) {
+            // expected
+        }
+        Assert.assertEquals(0, MetaHelper.decompress(MetaHelper.compress(new byte[0]), 0).length);
+    }
+}
@@ -0,0 +1,42 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.planner;
+
+import com.starrocks.catalog.EsTable;
+import com.starrocks.common.Config;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EsScanNodeTest {
+    private final long maxDocsPerSlice = Config.es_scan_max_docs_per_slice;
+    private final int maxSlicesPerShard = Config.es_scan_max_slices_per_shard;
+
+    @After
+    public void tearDown() {
+        Config.es_scan_max_docs_per_slice = maxDocsPerSlice;
+        Config.es_scan_max_slices_per_shard = maxSlicesPerShard;
+    }
+
+    @Test
+    public void testComputeSliceNum() {
+        Config.es_scan_max_docs_per_slice = 100;
+        Config.es_scan_max_slices_per_shard = 16;
+
+        // unknown or small shards are not sliced
+        Assert.assertEquals(1, EsScanNode.computeSliceNum(EsTable.TRANSPORT_HTTP, -1));
+        Assert.assertEquals(1, EsScanNode.computeSliceNum(EsTable.TRANSPORT_HTTP, 0));
+        Assert.assertEquals(1, EsScanNode.computeSliceNum(EsTable.TRANSPORT_HTTP, 100));
+
+        Assert.assertEquals(2, EsScanNode.computeSliceNum(EsTable.TRANSPORT_HTTP, 101));
+        Assert.assertEquals(10, EsScanNode.computeSliceNum(EsTable.TRANSPORT_HTTP, 1000));
+        // limited by the max slices per shard
+        Assert.assertEquals(16, EsScanNode.computeSliceNum(EsTable.TRANSPORT_HTTP, 1000000));
+
+        // only http transport supports sliced scroll
+        Assert.assertEquals(1, EsScanNode.computeSliceNum(EsTable.TRANSPORT_THRIFT, 1000000));
+
+        Config.es_scan_max_docs_per_slice = 0;
+        Assert.assertEquals(1, EsScanNode.computeSliceNum(EsTable.TRANSPORT_HTTP, 1000000));
+    }
+}
@@ -0,0 +1,41 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.planner;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RuntimeFilterDescriptionTest {
+    @Test
+    public void testEstimateSelectivity() {
+        RuntimeFilterDescription rf = new RuntimeFilterDescription();
+        rf.setBuildCardinality(200000);
+
+        // no ndv, by row counts
+        Assert.assertEquals(0.98, rf.estimateSelectivity(10000000, -1), 1e-6);
+        Assert.assertEquals(0, rf.estimateSelectivity(0, -1), 1e-6);
+
+        // few distinct keys on the build side
+        rf.setBuildNdv(100);
+        Assert.assertEquals(0.9, rf.estimateSelectivity(300000, 1000), 1e-6);
+        // the ndv of build side is not reduced by a join, the row counts are more selective
+        Assert.assertEquals(0.98, rf.estimateSelectivity(10000000, 100), 1e-6);
+    }
+
+    @Test
+    public void testType() {
+        RuntimeFilterDescription rf = new RuntimeFilterDescription();
+        rf.setJoinMode(HashJoinNode.DistributionMode.BROADCAST);
+        rf.setBuildCardinality(100000000);
+        Assert.assertEquals(RuntimeFilterDescription.RuntimeFilterType.MIN_MAX, rf.getType());
+        Assert.assertFalse(rf.canPushAcrossExchangeNode());
+
+        rf.setBuildNdv(10000000);
+        Assert.assertEquals(10000000, rf.getExpectedBuildSize());
+        Assert.assertEquals(RuntimeFilterDescription.RuntimeFilterType.BLOOM, rf.getType());
+        Assert.assertTrue(rf.canPushAcrossExchangeNode());
+
+        rf.setBuildNdv(1000);
+        Assert.assertEquals(RuntimeFilterDescription.RuntimeFilterType.IN, rf.getType());
+    }
+}
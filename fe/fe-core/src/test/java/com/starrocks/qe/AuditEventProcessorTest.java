@@ -21,11 +21,16 @@
 
 package com.starrocks.qe;
 
+import com.google.common.collect.Lists;
 import com.starrocks.catalog.Catalog;
+import com.starrocks.common.Config;
 import com.starrocks.common.util.DigitalVersion;
 import com.starrocks.plugin.AuditEvent;
 import com.starrocks.plugin.AuditEvent.EventType;
+import com.starrocks.plugin.AuditPlugin;
+import com.starrocks.plugin.Plugin;
 import com.starrocks.plugin.PluginInfo;
+import com.starrocks.plugin.PluginMgr;
 import com.starrocks.utframe.UtFrameUtils;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -34,7 +39,10 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class AuditEventProcessorTest {
 
@@ -121,4 +129,82 @@ public class AuditEventProcessorTest {
         long total = System.currentTimeMillis() - start;
         System.out.println("total(ms): " + total + ", avg: " + total / 10000.0);
     }
-}
\ No newline at end of file
+
+    private static class BatchCollector extends Plugin implements AuditPlugin {
+        private final List<Integer> batchSizes = Lists.newCopyOnWriteArrayList();
+        private final CountDownLatch done;
+        private final CountDownLatch blocker;
+
+        BatchCollector(int expectedEvents, CountDownLatch blocker) {
+            this.done = new CountDownLatch(expectedEvents);
+            this.blocker = blocker;
+        }
+
+        @Override
+        public boolean eventFilter(EventType type) {
+            return type == EventType.AFTER_QUERY;
+        }
+
+        @Override
+        public void exec(AuditEvent event) {
+            Assert.fail("events should be delivered in batches");
+        }
+
+        @Override
+        public void execBatch(List<AuditEvent> events) {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Assert.fail();
+            }
+            batchSizes.add(events.size());
+            for (int i = 0; i < events.size(); i++) {
+                done.countDown();
+            }
+        }
+    }
+
+    private static PluginInfo auditPluginInfo(String name) {
+        return new PluginInfo(name, PluginInfo.PluginType.AUDIT, "", DigitalVersion.fromString("0.12.0"),
+                DigitalVersion.fromString("1.8.31"), BatchCollector.class.getName(), null, null);
+    }
+
+    @Test
+    public void testBatchedDeliveryWithSlowPlugin() throws InterruptedException {
+        int oldBatchSize = Config.audit_event_batch_size;
+        Config.audit_event_batch_size = 10;
+        CountDownLatch slowBlocker = new CountDownLatch(1);
+        BatchCollector fast = new BatchCollector(100, new CountDownLatch(0));
+        BatchCollector slow = new BatchCollector(100, slowBlocker);
+        PluginMgr pluginMgr = new PluginMgr();
+        pluginMgr.registerBuiltinPlugin(auditPluginInfo("fast"), fast);
+        pluginMgr.registerBuiltinPlugin(auditPluginInfo("slow"), slow);
+        AuditEventProcessor processor = new AuditEventProcessor(pluginMgr);
+        processor.start();
+        try {
+            for (int i = 0; i < 100; i++) {
+                processor.handleAuditEvent(new AuditEvent.AuditEventBuilder().setEventType(EventType.AFTER_QUERY)
+                        .setReturnRows(i).build());
+            }
+            // events not accepted by the filter are not delivered
+            processor.handleAuditEvent(new AuditEvent.AuditEventBuilder().setEventType(EventType.CONNECTION)
+                    .build());
+
+            // the blocked plugin does not stall the other one
+            Assert.assertTrue(fast.done.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(0, slow.batchSizes.size());
+            Assert.assertTrue(processor.getQueuedEventNum() > 0);
+
+            slowBlocker.countDown();
+            Assert.assertTrue(slow.done.await(10, TimeUnit.SECONDS));
+            for (BatchCollector collector : Lists.newArrayList(fast, slow)) {
+                Assert.assertEquals(100, collector.batchSizes.stream().mapToInt(Integer::intValue).sum());
+                Assert.assertTrue(collector.batchSizes.stream().allMatch(size -> size <= 10));
+            }
+        } finally {
+            slowBlocker.countDown();
+            processor.stop();
+            Config.audit_event_batch_size = oldBatchSize;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import com.starrocks.analysis.TupleDescriptor;
 import com.starrocks.analysis.TupleId;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.common.jmockit.Deencapsulation;
+import com.starrocks.common.util.RuntimeProfile;
 import com.starrocks.persist.EditLog;
 import com.starrocks.planner.DataPartition;
 import com.starrocks.planner.DataStreamSink;
@@ -49,6 +50,7 @@ import com.starrocks.planner.Planner;
 import com.starrocks.service.FrontendOptions;
 import com.starrocks.system.Backend;
 import com.starrocks.thrift.THdfsScanRange;
+import com.starrocks.thrift.TInternalScanRange;
 import com.starrocks.thrift.TNetworkAddress;
 import com.starrocks.thrift.TPartitionType;
 import com.starrocks.thrift.TScanRange;
@@ -554,4 +556,115 @@ public class CoordinatorTest extends Coordinator {
         }
         Assert.assertEquals(0, hostMatches);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDataSizeBackendSelector(@Injectable OlapScanNode scanNode) {
+        Coordinator coordinator = new Coordinator(context, analyzer, planner);
+        Deencapsulation.setField(coordinator, "scanNodes", Lists.newArrayList(scanNode));
+        Deencapsulation.setField(coordinator, "queryProfile", new RuntimeProfile("query"));
+        Deencapsulation.setField(coordinator, "tabletSizeAwareSchedule", true);
+
+        PlanFragmentId fragmentId = new PlanFragmentId(0);
+        Map<PlanFragmentId, FragmentExecParams> fragmentExecParamsMap = Deencapsulation.getField(
+                coordinator, "fragmentExecParamsMap");
+        fragmentExecParamsMap.put(fragmentId, new FragmentExecParams(null));
+
+        Map<Long, Backend> idToBackend = Maps.newHashMap();
+        for (long id = 0; id < 2; id++) {
+            Backend be = new Backend(id, "127.0.0." + id, 9050);
+            be.setAlive(true);
+            be.setBePort(9060);
+            idToBackend.put(id, be);
+        }
+        Deencapsulation.setField(coordinator, "idToBackend", ImmutableMap.copyOf(idToBackend));
+
+        // 4 tablets of a skewed table, all have replicas on be 0 and be 1
+        List<TScanRangeLocations> locations = Lists.newArrayList();
+        for (long tabletId = 0; tabletId < 4; tabletId++) {
+            TInternalScanRange internalScanRange = new TInternalScanRange();
+            internalScanRange.setTablet_id(tabletId);
+            TScanRange scanRange = new TScanRange();
+            scanRange.setInternal_scan_range(internalScanRange);
+            TScanRangeLocations scanRangeLocations = new TScanRangeLocations();
+            scanRangeLocations.setScan_range(scanRange);
+            for (Backend be : idToBackend.values()) {
+                TScanRangeLocation location = new TScanRangeLocation(new TNetworkAddress(be.getHost(), 9060));
+                location.setBackend_id(be.getId());
+                scanRangeLocations.addToLocations(location);
+            }
+            locations.add(scanRangeLocations);
+        }
+        List<Long> scanRangesBytes = Lists.newArrayList(30L, 100L, 40L, 30L);
+
+        new Expectations() {
+            {
+                scanNode.getScanRangeLocations(0);
+                result = locations;
+                scanNode.getFragmentId();
+                result = fragmentId;
+                scanNode.getId();
+                result = new PlanNodeId(0);
+                scanNode.getScanRangesBytes(locations);
+                result = scanRangesBytes;
+            }
+        };
+
+        Deencapsulation.invoke(coordinator, "computeScanRangeAssignment");
+
+        // the biggest tablet is scanned alone, the others are scanned by the other backend
+        FragmentScanRangeAssignment assignment = fragmentExecParamsMap.get(fragmentId).scanRangeAssignment;
+        Assert.assertEquals(2, assignment.size());
+        Map<Long, Integer> tabletToBe = Maps.newHashMap();
+        for (Map.Entry<TNetworkAddress, Map<Integer, List<TScanRangeParams>>> entry : assignment.entrySet()) {
+            for (TScanRangeParams param : entry.getValue().get(0)) {
+                tabletToBe.put(param.scan_range.internal_scan_range.tablet_id, entry.getKey().hostname.hashCode());
+            }
+        }
+        Assert.assertEquals(4, tabletToBe.size());
+        Assert.assertEquals(tabletToBe.get(0L), tabletToBe.get(2L));
+        Assert.assertEquals(tabletToBe.get(0L), tabletToBe.get(3L));
+        Assert.assertNotEquals(tabletToBe.get(0L), tabletToBe.get(1L));
+
+        RuntimeProfile queryProfile = Deencapsulation.getField(coordinator, "queryProfile");
+        Assert.assertTrue(queryProfile.getInfoString("ScanAssignment (id=0)").endsWith("max/avg: 1.00"));
+    }
+
+    @Test
+    public void testScanBytesSummary() {
+        Map<Long, Long> bytesPerBe = Maps.newTreeMap();
+        Assert.assertEquals("no scan range", Coordinator.getScanBytesSummary(bytesPerBe));
+
+        // the first backend scans nothing
+        bytesPerBe.put(1L, 0L);
+        bytesPerBe.put(2L, 100L);
+        String summary = Coordinator.getScanBytesSummary(bytesPerBe);
+        Assert.assertTrue(summary, summary.startsWith("bytes per backend: 1="));
+        Assert.assertTrue(summary, summary.contains(", 2=100.000 B, "));
+        Assert.assertTrue(summary, summary.endsWith("max/avg: 2.00"));
+
+        bytesPerBe.put(2L, 0L);
+        summary = Coordinator.getScanBytesSummary(bytesPerBe);
+        Assert.assertTrue(summary, summary.contains(", 2="));
+        Assert.assertTrue(summary, summary.endsWith("max/avg: 1.00"));
+    }
+
+    @Test
+    public void testChooseRuntimeFilterMerger() {
+        // mergers are instances of fragment 0, 1 and 1
+        List<Integer> mergerFragmentIndexes = Lists.newArrayList(0, 1, 1);
+        int[] mergerFilterNums = new int[3];
+
+        // the filters built by the top fragment are merged by itself
+        Assert.assertEquals(0, Coordinator.chooseRuntimeFilterMerger(mergerFragmentIndexes, mergerFilterNums, 0));
+        Assert.assertEquals(0, Coordinator.chooseRuntimeFilterMerger(mergerFragmentIndexes, mergerFilterNums, 1));
+
+        // the filters are spread over the mergers deployed before the build fragment
+        mergerFilterNums[0] = 1;
+        Assert.assertEquals(0, Coordinator.chooseRuntimeFilterMerger(mergerFragmentIndexes, mergerFilterNums, 1));
+        Assert.assertEquals(1, Coordinator.chooseRuntimeFilterMerger(mergerFragmentIndexes, mergerFilterNums, 2));
+        mergerFilterNums[1] = 1;
+        Assert.assertEquals(2, Coordinator.chooseRuntimeFilterMerger(mergerFragmentIndexes, mergerFilterNums, 2));
+        mergerFilterNums[2] = 1;
+        Assert.assertEquals(0, Coordinator.chooseRuntimeFilterMerger(mergerFragmentIndexes, mergerFilterNums, 2));
+    }
+}
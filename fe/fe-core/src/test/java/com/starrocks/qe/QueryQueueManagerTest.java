@@ -0,0 +1,143 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.starrocks.common.Config;
+import com.starrocks.common.UserException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class QueryQueueManagerTest {
+    private QueryQueueManager manager;
+
+    @Before
+    public void setUp() {
+        manager = new QueryQueueManager();
+        Config.enable_query_queue = true;
+    }
+
+    @After
+    public void tearDown() {
+        Config.enable_query_queue = false;
+        Config.query_queue_concurrency_limits = new int[] {0, 0, 0};
+        Config.query_queue_mem_limits = new long[] {0, 0, 0};
+        Config.query_queue_total_concurrency_limit = 0;
+        Config.query_queue_timeout_second = 300;
+        Config.query_queue_classifiers = new String[] {};
+    }
+
+    private Thread acquireAsync(String group, List<String> admitted) {
+        Thread thread = new Thread(() -> {
+            try {
+                QueryQueueManager.Slot slot = manager.acquire(null, group, 0);
+                admitted.add(group);
+                manager.release(slot);
+            } catch (UserException e) {
+                admitted.add(e.getMessage());
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private void waitForWaitingNum(int num) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (manager.getWaitingNum() != num && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(num, manager.getWaitingNum());
+    }
+
+    @Test
+    public void testGroupConcurrencyLimit() throws Exception {
+        Config.query_queue_concurrency_limits = new int[] {0, 1, 0};
+        QueryQueueManager.Slot running = manager.acquire(null, "normal", 0);
+        List<String> admitted = new CopyOnWriteArrayList<>();
+        Thread waiter = acquireAsync("normal", admitted);
+        waitForWaitingNum(1);
+        // other groups are not blocked
+        manager.release(manager.acquire(null, "low", 0));
+        Assert.assertTrue(admitted.isEmpty());
+
+        manager.release(running);
+        waiter.join();
+        Assert.assertEquals("normal", admitted.get(0));
+        Assert.assertEquals(0, manager.getRunningNum());
+    }
+
+    @Test
+    public void testPriority() throws Exception {
+        Config.query_queue_total_concurrency_limit = 1;
+        QueryQueueManager.Slot running = manager.acquire(null, "normal", 0);
+        List<String> admitted = new CopyOnWriteArrayList<>();
+        Thread low = acquireAsync("low", admitted);
+        waitForWaitingNum(1);
+        Thread high = acquireAsync("high", admitted);
+        waitForWaitingNum(2);
+
+        manager.release(running);
+        low.join();
+        high.join();
+        Assert.assertEquals("high", admitted.get(0));
+        Assert.assertEquals("low", admitted.get(1));
+    }
+
+    @Test
+    public void testMemLimit() throws Exception {
+        Config.query_queue_mem_limits = new long[] {0, 100, 0};
+        Config.query_queue_timeout_second = 1;
+        // a query larger than the limit is admitted if nothing is running
+        QueryQueueManager.Slot large = manager.acquire(null, "normal", 200);
+        try {
+            manager.acquire(null, "normal", 10);
+            Assert.fail();
+        } catch (UserException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("query queue"));
+        }
+        Assert.assertEquals(0, manager.getWaitingNum());
+        manager.release(large);
+
+        QueryQueueManager.Slot small = manager.acquire(null, "normal", 60);
+        manager.release(manager.acquire(null, "normal", 40));
+        manager.release(small);
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        Config.query_queue_total_concurrency_limit = 1;
+        QueryQueueManager.Slot running = manager.acquire(null, "normal", 0);
+        List<String> admitted = new CopyOnWriteArrayList<>();
+        Thread waiter = acquireAsync("normal", admitted);
+        waitForWaitingNum(1);
+        // the waiting queries are admitted once the queue is disabled
+        Config.enable_query_queue = false;
+        waiter.join();
+        Assert.assertEquals("normal", admitted.get(0));
+        manager.release(running);
+    }
+
+    @Test
+    public void testClassify() {
+        ConnectContext context = new ConnectContext();
+        context.setQualifiedUser("default_cluster:analyst");
+        Assert.assertEquals("normal", QueryQueueManager.classify(context, null));
+        context.getSessionVariable().setResourceGroup("HIGH");
+        Assert.assertEquals("high", QueryQueueManager.classify(context, null));
+        context.getSessionVariable().setResourceGroup("unknown");
+        Assert.assertEquals("normal", QueryQueueManager.classify(context, null));
+
+        SqlDigest digest = SqlDigest.compute("select * from t where a = 1");
+        Config.query_queue_classifiers = new String[] {"user:analyst=low", "digest:" + digest.getDigest() + "=high",
+                "user:dashboard=invalid"};
+        Assert.assertEquals("low", QueryQueueManager.classify(context, null));
+        Assert.assertEquals("high", QueryQueueManager.classify(context, digest));
+        context.setQualifiedUser("default_cluster:dashboard");
+        Assert.assertEquals("normal", QueryQueueManager.classify(context, null));
+    }
+}
@@ -0,0 +1,103 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.starrocks.common.AnalysisException;
+import com.starrocks.meta.SqlBlackList;
+import com.starrocks.plugin.AuditEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class SqlDigestTest {
+
+    private static String normalize(String sql) {
+        return SqlDigest.compute(sql).getNormalizedSql();
+    }
+
+    @Test
+    public void testNormalize() {
+        Assert.assertEquals("SELECT * FROM `t` WHERE `a` = ? AND `b` IN (?)",
+                normalize("select * from t where a = 1 and b in (1, 2, 3)"));
+        // literals, case of keywords, whitespaces and comments do not matter
+        Assert.assertEquals(normalize("select * from t where a = 1 and b in (1, 2, 3)"),
+                normalize("SELECT *\n  FROM t /* comment */ WHERE a = -10.5 AND b IN ('x')"));
+        // binary minus is kept
+        Assert.assertEquals("SELECT `a` - ? FROM `t` WHERE `b` > - ( ? )",
+                normalize("select a - 1 from t where b > -(1)"));
+        // IN list with expressions is not collapsed
+        Assert.assertEquals("SELECT `a` FROM `t` WHERE `a` NOT IN ( `b` , ? )",
+                normalize("select a from t where a not in (b, 1)"));
+        Assert.assertNotEquals(SqlDigest.compute("select a from t1").getDigest(),
+                SqlDigest.compute("select a from t2").getDigest());
+    }
+
+    @Test
+    public void testMultiStatements() {
+        String sql = "select 1; select a from t where a = 'x'; select 3";
+        Assert.assertEquals("SELECT ?", SqlDigest.compute(sql, 0, 0L).getNormalizedSql());
+        Assert.assertEquals("SELECT `a` FROM `t` WHERE `a` = ?", SqlDigest.compute(sql, 1, 0L).getNormalizedSql());
+        Assert.assertEquals("SELECT ?", SqlDigest.compute(sql, 2, 0L).getNormalizedSql());
+    }
+
+    @Test
+    public void testComputeAll() {
+        String sql = "select 1; select a from t where a = 'x'; select 3";
+        List<SqlDigest> digests = SqlDigest.computeAll(sql, 0L);
+        Assert.assertEquals(3, digests.size());
+        for (int i = 0; i < digests.size(); i++) {
+            Assert.assertEquals(SqlDigest.compute(sql, i, 0L).getNormalizedSql(), digests.get(i).getNormalizedSql());
+        }
+
+        // the statements of a packet are scanned once
+        ConnectContext ctx = new ConnectContext(null);
+        SqlDigest digest = ctx.computeSqlDigest(new OriginStatement(sql, 1));
+        Assert.assertEquals(digests.get(1).getDigest(), digest.getDigest());
+        Assert.assertSame(digest, ctx.computeSqlDigest(new OriginStatement(sql, 1)));
+        Assert.assertNotSame(digest, ctx.computeSqlDigest(new OriginStatement(new String(sql), 1)));
+        Assert.assertNull(ctx.computeSqlDigest(new OriginStatement(sql, 3)));
+    }
+
+    @Test
+    public void testDigestBlackList() throws AnalysisException {
+        SqlDigest forbidden = SqlDigest.compute("select * from t where a = 1");
+        SqlBlackList.getInstance().putDigest(forbidden.getDigest());
+        long id = SqlBlackList.getInstance().digestBlackListMap.get(forbidden.getDigest()).id;
+        try {
+            SqlBlackList.verifying("select * from t where a = 2",
+                    SqlDigest.compute("select * from t where a = 2").getDigest());
+            Assert.fail();
+        } catch (AnalysisException e) {
+            // expected
+        }
+        SqlBlackList.verifying("select * from t where b = 2",
+                SqlDigest.compute("select * from t where b = 2").getDigest());
+
+        SqlBlackList.getInstance().delete(id);
+        SqlBlackList.verifying("select * from t where a = 2",
+                SqlDigest.compute("select * from t where a = 2").getDigest());
+    }
+
+    @Test
+    public void testStatistics() {
+        SqlDigestStatistics statistics = new SqlDigestStatistics(10);
+        SqlDigest digest = SqlDigest.compute("select * from t where a = 1");
+        for (int i = 1; i <= 100; i++) {
+            AuditEvent event = new AuditEvent.AuditEventBuilder().setQueryTime(i).setScanBytes(10).build();
+            statistics.update(digest, event, i % 10 == 0);
+        }
+        statistics.update(SqlDigest.compute("select 1"), new AuditEvent.AuditEventBuilder().setQueryTime(1).build(),
+                false);
+
+        SqlDigestStatistics.DigestStat stat = statistics.getTopByTotalTime(1).get(0);
+        Assert.assertEquals(digest.getDigest(), stat.getDigest());
+        Assert.assertEquals(100, stat.getExecCount());
+        Assert.assertEquals(10, stat.getErrorCount());
+        Assert.assertEquals(5050, stat.getTotalTimeMs());
+        Assert.assertEquals(63, stat.getLatencyPercentileMs(0.5));
+        Assert.assertEquals(100, stat.getLatencyPercentileMs(0.99));
+        Assert.assertEquals(1000L, stat.toMap().get("scan_bytes"));
+        Assert.assertEquals(2, statistics.getTopByTotalTime(10).size());
+    }
+}
@@ -452,10 +452,13 @@ public class StmtExecutorTest {
             }
         };
 
+        // the digest of the query executed before in the same packet
+        ctx.setSqlDigest(SqlDigest.compute("select 1"));
         StmtExecutor stmtExecutor = new StmtExecutor(ctx, "");
         stmtExecutor.execute();
 
         Assert.assertEquals(QueryState.MysqlStateType.OK, state.getStateType());
+        Assert.assertNull(ctx.getSqlDigest());
     }
 
     @Test
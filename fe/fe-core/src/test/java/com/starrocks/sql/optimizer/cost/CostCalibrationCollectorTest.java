@@ -0,0 +1,137 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.cost;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.planner.ExchangeNode;
+import com.starrocks.planner.PlanFragment;
+import com.starrocks.planner.PlanNode;
+import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.sql.plan.PlanTestBase;
+import com.starrocks.thrift.TUniqueId;
+import com.starrocks.thrift.TUnit;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class CostCalibrationCollectorTest extends PlanTestBase {
+
+    private static RuntimeProfile createNodeProfile(String name, long rows, long totalTimeNs) {
+        RuntimeProfile profile = new RuntimeProfile(name);
+        profile.addCounter("RowsReturned", TUnit.UNIT, "").setValue(rows);
+        profile.getCounterTotalTime().setValue(totalTimeNs);
+        return profile;
+    }
+
+    private static RuntimeProfile createInstanceProfile(String name, long scanRows) {
+        RuntimeProfile instance = new RuntimeProfile(name);
+        instance.addChild(new RuntimeProfile("DataStreamSender (dst_id=3)"));
+        RuntimeProfile agg = createNodeProfile("AGGREGATION_NODE (id=1)", 10, 300);
+        RuntimeProfile scan = createNodeProfile("OLAP_SCAN_NODE (id=0)", scanRows, 200);
+        scan.addChild(new RuntimeProfile("OlapScanner"));
+        agg.addChild(scan);
+        instance.addChild(agg);
+        return instance;
+    }
+
+    @Test
+    public void testCollectNodeActuals() {
+        RuntimeProfile queryProfile = new RuntimeProfile("Execution Profile");
+        RuntimeProfile fragment = new RuntimeProfile("Fragment 1");
+        fragment.addChild(createInstanceProfile("Instance 1", 100));
+        fragment.addChild(createInstanceProfile("Instance 2", 50));
+        queryProfile.addChild(fragment);
+
+        Map<Integer, CostCalibrationCollector.NodeActual> actuals =
+                CostCalibrationCollector.collectNodeActuals(queryProfile);
+        Assert.assertEquals(2, actuals.size());
+        Assert.assertEquals(150, actuals.get(0).getRows());
+        Assert.assertEquals(400, actuals.get(0).getLocalTimeNs());
+        Assert.assertEquals(20, actuals.get(1).getRows());
+        // the time of the scan node is excluded
+        Assert.assertEquals(200, actuals.get(1).getLocalTimeNs());
+    }
+
+    @Test
+    public void testCollectMultiFragments() throws Exception {
+        ExecPlan plan = UtFrameUtils.getNewPlanAndFragment(connectContext,
+                "select v2, count(*) from t0 join [shuffle] t1 on v1 = v4 group by v2").second;
+        Assert.assertTrue(plan.getFragments().size() > 2);
+
+        // the profile of each fragment has the nodes of the fragment, whose input fragments are behind exchanges
+        RuntimeProfile queryProfile = new RuntimeProfile("Execution Profile");
+        Set<Integer> expectedNodeIds = Sets.newHashSet();
+        for (PlanFragment fragment : plan.getFragments()) {
+            RuntimeProfile fragmentProfile = new RuntimeProfile("Fragment " + fragment.getFragmentId().asInt());
+            RuntimeProfile instanceProfile = new RuntimeProfile("Instance 0");
+            fragmentProfile.addChild(instanceProfile);
+            queryProfile.addChild(fragmentProfile);
+
+            List<PlanNode> stack = Lists.newArrayList(fragment.getPlanRoot());
+            while (!stack.isEmpty()) {
+                PlanNode node = stack.remove(stack.size() - 1);
+                instanceProfile.addChild(createNodeProfile(node.getPlanNodeName() + " (id=" + node.getId().asInt()
+                        + ")", 100, 100));
+                if (node.getCardinality() >= 0) {
+                    expectedNodeIds.add(node.getId().asInt());
+                }
+                if (!(node instanceof ExchangeNode)) {
+                    stack.addAll(node.getChildren());
+                }
+            }
+        }
+
+        CostCalibrationCollector collector = new CostCalibrationCollector();
+        collector.collect(new TUniqueId(1, 2), plan.getFragments(), queryProfile);
+        List<List<String>> samples = collector.getSamples();
+        // each plan node is sampled once, although the root of a child fragment is also a child of an exchange
+        Set<Integer> sampledNodeIds = Sets.newHashSet();
+        for (List<String> sample : samples) {
+            Assert.assertTrue(sample.toString(), sampledNodeIds.add(Integer.parseInt(sample.get(1))));
+        }
+        Assert.assertEquals(expectedNodeIds, sampledNodeIds);
+        Assert.assertTrue(sampledNodeIds.size() > plan.getFragments().size());
+    }
+
+    @Test
+    public void testQError() {
+        Assert.assertEquals(1, CostCalibrationCollector.getQError(100, 100), 1e-6);
+        Assert.assertEquals(4, CostCalibrationCollector.getQError(25, 100), 1e-6);
+        Assert.assertEquals(4, CostCalibrationCollector.getQError(100, 25), 1e-6);
+        Assert.assertEquals(10, CostCalibrationCollector.getQError(0, 10), 1e-6);
+    }
+
+    @Test
+    public void testCostParameterProvider() {
+        CostParameterProvider defaultProvider = CostModel.getParameterProvider();
+        CostEstimate costEstimate = CostEstimate.of(1, 2, 3);
+        Assert.assertEquals(0.5 + 2 * 2 + 3 * 1.5, CostModel.getRealCost(costEstimate), 1e-6);
+        try {
+            CostModel.setParameterProvider(new CostParameterProvider() {
+                @Override
+                public double getCpuCostWeight() {
+                    return 1;
+                }
+
+                @Override
+                public double getMemoryCostWeight() {
+                    return 0;
+                }
+
+                @Override
+                public double getNetworkCostWeight() {
+                    return 10;
+                }
+            });
+            Assert.assertEquals(31, CostModel.getRealCost(costEstimate), 1e-6);
+        } finally {
+            CostModel.setParameterProvider(defaultProvider);
+        }
+    }
+}
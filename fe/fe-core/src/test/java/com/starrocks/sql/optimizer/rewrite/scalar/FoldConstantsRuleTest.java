@@ -21,6 +21,7 @@ import org.junit.Test;
 import java.time.LocalDateTime;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 
 public class FoldConstantsRuleTest {
     private final FoldConstantsRule rule = new FoldConstantsRule();
@@ -53,6 +54,26 @@ public class FoldConstantsRuleTest {
         assertEquals("123", ((ConstantOperator) operator).getVarchar());
     }
 
+    @Test
+    public void applyCallWithFoldedCache() {
+        Function fn = new Function(new FunctionName("concat"), new Type[] {Type.VARCHAR}, Type.VARCHAR, false);
+        CallOperator call1 = new CallOperator("concat", Type.VARCHAR, Lists.newArrayList(
+                ConstantOperator.createVarchar("1"),
+                ConstantOperator.createVarchar("2")), fn);
+        CallOperator call2 = new CallOperator("concat", Type.VARCHAR, Lists.newArrayList(
+                ConstantOperator.createVarchar("1"),
+                ConstantOperator.createVarchar("2")), fn);
+
+        ScalarOperatorRewriteContext context = new ScalarOperatorRewriteContext();
+        ScalarOperator result1 = rule.apply(call1, context);
+        assertEquals("12", ((ConstantOperator) result1).getVarchar());
+
+        ScalarOperator result2 = rule.apply(call2, context);
+        assertEquals(result1, result2);
+        // identical calls share one fold result, but never one instance
+        assertNotSame(result1, result2);
+    }
+
     @Test
     public void applyIn() {
         InPredicateOperator ipo1 = new InPredicateOperator(ConstantOperator.createNull(Type.BOOLEAN));
@@ -0,0 +1,58 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CompoundPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SPJGDescriptorTest {
+    private final ColumnRefOperator a = new ColumnRefOperator(-1, Type.BIGINT, "1.a", true);
+    private final ColumnRefOperator b = new ColumnRefOperator(-1, Type.BIGINT, "2.b", true);
+
+    private static void assertSameCanonical(ScalarOperator expected, ScalarOperator actual) {
+        Assert.assertEquals(SPJGDescriptor.canonicalize(expected).toString(),
+                SPJGDescriptor.canonicalize(actual).toString());
+    }
+
+    @Test
+    public void testCanonicalize() {
+        assertSameCanonical(new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ, a, b),
+                new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ, b, a));
+        assertSameCanonical(new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.LT, a, b),
+                new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.GT, b, a));
+
+        CallOperator ab = new CallOperator(FunctionSet.ADD, Type.BIGINT, Lists.<ScalarOperator>newArrayList(a, b));
+        CallOperator ba = new CallOperator(FunctionSet.ADD, Type.BIGINT, Lists.<ScalarOperator>newArrayList(b, a));
+        assertSameCanonical(ab, ba);
+        // nested operands are canonicalized too
+        assertSameCanonical(new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.GT, ab,
+                        ConstantOperator.createBigint(1)),
+                new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.LT, ConstantOperator.createBigint(1),
+                        ba));
+        ScalarOperator p = new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ, a,
+                ConstantOperator.createBigint(1));
+        ScalarOperator q = new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ, b,
+                ConstantOperator.createBigint(2));
+        assertSameCanonical(new CompoundPredicateOperator(CompoundPredicateOperator.CompoundType.OR, p, q),
+                new CompoundPredicateOperator(CompoundPredicateOperator.CompoundType.OR, q, p));
+
+        // not commutative
+        CallOperator aMinusB = new CallOperator(FunctionSet.SUBTRACT, Type.BIGINT,
+                Lists.<ScalarOperator>newArrayList(a, b));
+        CallOperator bMinusA = new CallOperator(FunctionSet.SUBTRACT, Type.BIGINT,
+                Lists.<ScalarOperator>newArrayList(b, a));
+        Assert.assertNotEquals(SPJGDescriptor.canonicalize(aMinusB).toString(),
+                SPJGDescriptor.canonicalize(bMinusA).toString());
+        // the input is not modified
+        Assert.assertSame(b, ba.getChild(0));
+    }
+}
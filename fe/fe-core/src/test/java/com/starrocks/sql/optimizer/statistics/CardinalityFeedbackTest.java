@@ -0,0 +1,217 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.MaterializedIndex;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Replica;
+import com.starrocks.catalog.Tablet;
+import com.starrocks.common.Config;
+import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.planner.HashJoinNode;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.PlanFragment;
+import com.starrocks.planner.PlanNode;
+import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.sql.plan.PlanTestBase;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.thrift.TUnit;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class CardinalityFeedbackTest extends PlanTestBase {
+
+    @Before
+    public void setUp() {
+        Config.enable_cardinality_feedback = true;
+        CardinalityFeedback.getInstance().clear();
+    }
+
+    @After
+    public void after() {
+        Config.enable_cardinality_feedback = false;
+        CardinalityFeedback.getInstance().clear();
+    }
+
+    private static ExecPlan getExecPlan(String sql) throws Exception {
+        return UtFrameUtils.getNewPlanAndFragment(connectContext, sql).second;
+    }
+
+    private static Map<Integer, PlanNode> getPlanNodes(ExecPlan plan) {
+        Map<Integer, PlanNode> nodes = Maps.newHashMap();
+        for (PlanFragment fragment : plan.getFragments()) {
+            List<PlanNode> stack = Lists.newArrayList(fragment.getPlanRoot());
+            while (!stack.isEmpty()) {
+                PlanNode node = stack.remove(stack.size() - 1);
+                nodes.put(node.getId().asInt(), node);
+                stack.addAll(node.getChildren());
+            }
+        }
+        return nodes;
+    }
+
+    private static RuntimeProfile createNodeProfile(String name, long rows) {
+        RuntimeProfile profile = new RuntimeProfile(name);
+        profile.addCounter("RowsReturned", TUnit.UNIT, "").setValue(rows);
+        return profile;
+    }
+
+    // the profile of the plan executed by 2 instances, in which each node returns (1000 + node id) rows
+    private static RuntimeProfile createQueryProfile(Map<Integer, PlanNode> nodes) {
+        RuntimeProfile queryProfile = new RuntimeProfile("Execution Profile");
+        RuntimeProfile fragmentProfile = new RuntimeProfile("Fragment 0");
+        queryProfile.addChild(fragmentProfile);
+        for (int i = 0; i < 2; i++) {
+            RuntimeProfile instanceProfile = new RuntimeProfile("Instance " + i);
+            fragmentProfile.addChild(instanceProfile);
+            for (PlanNode node : nodes.values()) {
+                instanceProfile.addChild(createNodeProfile(node.getPlanNodeName() + " (id=" + node.getId().asInt()
+                        + ")", (1000 + node.getId().asInt()) / 2));
+            }
+            // not a node of the plan
+            instanceProfile.addChild(createNodeProfile("OLAP_SCAN_NODE (id=99)", 1));
+        }
+        return queryProfile;
+    }
+
+    @Test
+    public void testFingerprint() throws Exception {
+        ExecPlan plan1 = getExecPlan("select * from t0 join t1 on v1 = v4 where v2 = 1");
+        ExecPlan plan2 = getExecPlan("select * from t1 join t0 on v4 = v1 where v2 = 1");
+        // 2 scans and 1 join
+        Assert.assertEquals(3, plan1.getNodeFingerprints().size());
+        Set<String> fingerprints1 = Sets.newHashSet(plan1.getNodeFingerprints().values());
+        Set<String> fingerprints2 = Sets.newHashSet(plan2.getNodeFingerprints().values());
+        Assert.assertEquals(fingerprints1, fingerprints2);
+
+        ExecPlan plan3 = getExecPlan("select * from t0 join t1 on v1 = v4 where v2 = 2");
+        Assert.assertTrue(Sets.intersection(fingerprints1,
+                Sets.newHashSet(plan3.getNodeFingerprints().values())).size() == 1);
+    }
+
+    @Test
+    public void testNoFingerprint() throws Exception {
+        Assert.assertTrue(getExecPlan("select * from t0 limit 10").getNodeFingerprints().isEmpty());
+        Assert.assertTrue(getExecPlan("select * from t0 a join t0 b on a.v1 = b.v2")
+                .getNodeFingerprints().size() == 2);
+
+        Config.enable_cardinality_feedback = false;
+        Assert.assertTrue(getExecPlan("select * from t0").getNodeFingerprints().isEmpty());
+    }
+
+    @Test
+    public void testFeedback() throws Exception {
+        String sql = "select * from t0 where v2 = 1 and v3 = 2";
+        ExecPlan plan = getExecPlan(sql);
+        Assert.assertEquals(1, plan.getNodeFingerprints().size());
+        String fingerprint = plan.getNodeFingerprints().values().iterator().next();
+
+        CardinalityFeedback.getInstance().record(fingerprint, 12345);
+        String explain = getExecPlan(sql).getExplainString(TExplainLevel.COSTS);
+        Assert.assertTrue(explain, explain.contains("cardinality: 12345"));
+
+        Config.enable_cardinality_feedback = false;
+        explain = getExecPlan(sql).getExplainString(TExplainLevel.COSTS);
+        Assert.assertFalse(explain, explain.contains("cardinality: 12345"));
+    }
+
+    @Test
+    public void testCollect() throws Exception {
+        ExecPlan plan = getExecPlan("select * from t0 join [broadcast] t1 on v1 = v4 where v2 = 2");
+        Map<Integer, String> fingerprints = plan.getNodeFingerprints();
+        Assert.assertEquals(3, fingerprints.size());
+
+        Map<Integer, PlanNode> nodes = getPlanNodes(plan);
+        HashJoinNode join = null;
+        OlapScanNode probeScan = null;
+        OlapScanNode buildScan = null;
+        for (PlanNode node : nodes.values()) {
+            if (node instanceof HashJoinNode) {
+                join = (HashJoinNode) node;
+            } else if (node instanceof OlapScanNode && node.getProbeRuntimeFilters().isEmpty()) {
+                buildScan = (OlapScanNode) node;
+            } else if (node instanceof OlapScanNode) {
+                probeScan = (OlapScanNode) node;
+            }
+        }
+        Assert.assertNotNull(join);
+        Assert.assertNotNull(buildScan);
+        // the scan is filtered by the runtime filter built by the join
+        Assert.assertNotNull(probeScan);
+
+        CardinalityFeedback feedback = CardinalityFeedback.getInstance();
+        feedback.collect(plan, createQueryProfile(nodes));
+        // the rows of the instances are summed and matched to the fingerprints by the plan node id
+        int joinId = join.getId().asInt();
+        Assert.assertEquals(Long.valueOf((1000 + joinId) / 2 * 2), feedback.getActualRows(fingerprints.get(joinId)));
+        int buildScanId = buildScan.getId().asInt();
+        Assert.assertEquals(Long.valueOf((1000 + buildScanId) / 2 * 2),
+                feedback.getActualRows(fingerprints.get(buildScanId)));
+        // the rows reduced by the runtime filter of the join above are not the rows of the scan itself
+        Assert.assertNull(feedback.getActualRows(fingerprints.get(probeScan.getId().asInt())));
+
+        // a node with a limit returns part of its rows
+        feedback.clear();
+        buildScan.setLimit(10);
+        feedback.collect(plan, createQueryProfile(nodes));
+        Assert.assertNull(feedback.getActualRows(fingerprints.get(buildScanId)));
+        Assert.assertNotNull(feedback.getActualRows(fingerprints.get(joinId)));
+
+        // nothing is recorded if disabled
+        feedback.clear();
+        Config.enable_cardinality_feedback = false;
+        feedback.collect(plan, createQueryProfile(nodes));
+        Assert.assertNull(feedback.getActualRows(fingerprints.get(joinId)));
+    }
+
+    private static void setReplicaVersion(Replica replica, long version, long versionHash) {
+        replica.updateVersionInfoForRecovery(version, versionHash, replica.getLastFailedVersion(),
+                replica.getLastFailedVersionHash(), replica.getLastSuccessVersion(),
+                replica.getLastSuccessVersionHash());
+    }
+
+    @Test
+    public void testFingerprintWithVersion() throws Exception {
+        String sql = "select * from t0 where v2 = 3";
+        String fingerprint = getExecPlan(sql).getNodeFingerprints().values().iterator().next();
+        Assert.assertEquals(fingerprint, getExecPlan(sql).getNodeFingerprints().values().iterator().next());
+
+        // a load makes a new version of the partition and its replicas
+        OlapTable t0 = (OlapTable) Catalog.getCurrentCatalog().getDb("default_cluster:test").getTable("t0");
+        Partition partition = t0.getPartitions().iterator().next();
+        long version = partition.getVisibleVersion();
+        long versionTime = partition.getVisibleVersionTime();
+        long versionHash = partition.getVisibleVersionHash();
+        List<Replica> replicas = Lists.newArrayList();
+        for (MaterializedIndex index : partition.getMaterializedIndices(MaterializedIndex.IndexExtState.VISIBLE)) {
+            for (Tablet tablet : index.getTablets()) {
+                replicas.addAll(tablet.getReplicas());
+            }
+        }
+        try {
+            partition.setVisibleVersion(version + 1, System.currentTimeMillis(), versionHash);
+            for (Replica replica : replicas) {
+                setReplicaVersion(replica, replica.getVersion() + 1, versionHash);
+            }
+            Assert.assertNotEquals(fingerprint, getExecPlan(sql).getNodeFingerprints().values().iterator().next());
+        } finally {
+            partition.setVisibleVersion(version, versionTime, versionHash);
+            for (Replica replica : replicas) {
+                setReplicaVersion(replica, replica.getVersion() - 1, versionHash);
+            }
+        }
+        Assert.assertEquals(fingerprint, getExecPlan(sql).getNodeFingerprints().values().iterator().next());
+    }
+}
@@ -0,0 +1,155 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.CreateAsyncMaterializedViewStmt;
+import com.starrocks.catalog.AsyncMaterializedViewIndex;
+import com.starrocks.catalog.AsyncMaterializedViewProperty;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class AsyncMaterializedViewRewriteTest extends PlanTestBase {
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        PlanTestBase.beforeClass();
+        connectContext.getSessionVariable().setEnableAsyncMvRewrite(true);
+        createMaterializedView("create materialized view mv_join_agg distributed by hash(v1) buckets 3 " +
+                "properties(\"replication_num\" = \"1\") as " +
+                "select t0.v1, t1.v5, sum(t0.v3) as sum_v3, count(t1.v6) as count_v6, max(t0.v2) as max_v2 " +
+                "from t0 join t1 on t0.v1 = t1.v4 group by t0.v1, t1.v5");
+        createMaterializedView("create materialized view mv_join distributed by hash(v1) buckets 3 " +
+                "properties(\"replication_num\" = \"1\") as " +
+                "select t0.v1, t0.v2, t2.v8 from t0 join t2 on t0.v1 = t2.v7");
+    }
+
+    private static void createMaterializedView(String sql) throws Exception {
+        CreateAsyncMaterializedViewStmt stmt =
+                (CreateAsyncMaterializedViewStmt) UtFrameUtils.parseAndAnalyzeStmt(sql, connectContext);
+        Catalog.getCurrentCatalog().createTable(stmt.getCreateTableStmt());
+        markRefreshed(stmt.getMvName());
+    }
+
+    // pretend the materialized view has been refreshed with the current data of the base tables
+    private static void markRefreshed(String mvName) {
+        Database db = Catalog.getCurrentCatalog().getDb("default_cluster:test");
+        OlapTable mv = (OlapTable) db.getTable(mvName);
+        Map<Long, Map<Long, Long>> versions = Maps.newHashMap();
+        for (AsyncMaterializedViewProperty.BaseTable baseTable :
+                mv.getAsyncMaterializedViewProperty().getBaseTables()) {
+            OlapTable table = baseTable.getTable();
+            versions.put(table.getId(), AsyncMaterializedViewProperty.getVisibleVersions(table));
+        }
+        Map<String, String> state = Maps.newHashMap();
+        state.put(AsyncMaterializedViewProperty.BASE_VERSIONS,
+                AsyncMaterializedViewProperty.baseVersionsToString(versions));
+        mv.setAsyncMaterializedViewProperties(state);
+    }
+
+    @Test
+    public void testCreate() {
+        Database db = Catalog.getCurrentCatalog().getDb("default_cluster:test");
+        OlapTable mv = (OlapTable) db.getTable("mv_join_agg");
+        Assert.assertTrue(mv.isAsyncMaterializedView());
+        Assert.assertEquals(5, mv.getBaseSchema().size());
+        Assert.assertEquals(2, mv.getAsyncMaterializedViewProperty().getBaseTables().size());
+        Assert.assertTrue(mv.getAsyncMaterializedViewProperty().isUpToDate());
+    }
+
+    @Test
+    public void testIndex() {
+        Database db = Catalog.getCurrentCatalog().getDb("default_cluster:test");
+        long mvJoinAgg = db.getTable("mv_join_agg").getId();
+        long mvJoin = db.getTable("mv_join").getId();
+        AsyncMaterializedViewIndex index = Catalog.getCurrentCatalog().getAsyncMaterializedViewIndex();
+        Assert.assertEquals(Sets.newHashSet(mvJoinAgg, mvJoin),
+                index.getMaterializedViews(db.getTable("t0").getId()).keySet());
+        Assert.assertEquals(Sets.newHashSet(mvJoinAgg), index.getMaterializedViews(db.getTable("t1").getId()).keySet());
+        Assert.assertEquals(Sets.newHashSet(mvJoin), index.getMaterializedViews(db.getTable("t2").getId()).keySet());
+        Assert.assertEquals(db.getId(), (long) index.getMaterializedViews(db.getTable("t2").getId()).get(mvJoin));
+
+        // maintained when a materialized view is dropped
+        OlapTable mv = (OlapTable) db.getTable("mv_join");
+        db.dropTable("mv_join");
+        try {
+            Assert.assertTrue(index.getMaterializedViews(db.getTable("t2").getId()).isEmpty());
+        } finally {
+            db.createTable(mv);
+        }
+        Assert.assertEquals(Sets.newHashSet(mvJoin), index.getMaterializedViews(db.getTable("t2").getId()).keySet());
+    }
+
+    @Test
+    public void testRollupAggregation() throws Exception {
+        String sql = "select t0.v1, sum(t0.v3), count(t1.v6), max(t0.v2) from t0 join t1 on t0.v1 = t1.v4 " +
+                "where t1.v5 = 2 group by t0.v1";
+        String plan = getFragmentPlan(sql);
+        Assert.assertTrue(plan, plan.contains("TABLE: mv_join_agg"));
+        Assert.assertTrue(plan, plan.contains("sum_v3"));
+        Assert.assertFalse(plan, plan.contains("TABLE: t1"));
+    }
+
+    @Test
+    public void testAggregationNotMatched() throws Exception {
+        // v6 is not a group by column of the materialized view
+        String sql = "select t0.v1, sum(t0.v3) from t0 join t1 on t0.v1 = t1.v4 where t1.v6 = 2 group by t0.v1";
+        String plan = getFragmentPlan(sql);
+        Assert.assertFalse(plan, plan.contains("mv_join_agg"));
+
+        // count without group by can not be rolled up
+        sql = "select count(t1.v6) from t0 join t1 on t0.v1 = t1.v4";
+        plan = getFragmentPlan(sql);
+        Assert.assertFalse(plan, plan.contains("mv_join_agg"));
+    }
+
+    @Test
+    public void testJoin() throws Exception {
+        String sql = "select t0.v2, t2.v8 from t0 join t2 on t0.v1 = t2.v7 where t0.v2 > 1";
+        String plan = getFragmentPlan(sql);
+        Assert.assertTrue(plan, plan.contains("TABLE: mv_join"));
+        Assert.assertFalse(plan, plan.contains("TABLE: t2"));
+
+        // the order of joined tables and the operands of predicates do not matter
+        sql = "select t2.v8, t0.v2 from t2 join t0 on t2.v7 = t0.v1 where 1 < t0.v2";
+        plan = getFragmentPlan(sql);
+        Assert.assertTrue(plan, plan.contains("TABLE: mv_join"));
+        Assert.assertFalse(plan, plan.contains("TABLE: t2"));
+
+        sql = "select t0.v2, sum(t2.v8) from t0 join t2 on t0.v1 = t2.v7 group by t0.v2";
+        plan = getFragmentPlan(sql);
+        Assert.assertTrue(plan, plan.contains("TABLE: mv_join"));
+    }
+
+    @Test
+    public void testStaleOrDisabled() throws Exception {
+        String sql = "select t0.v2, t2.v8 from t0 join t2 on t0.v1 = t2.v7";
+        connectContext.getSessionVariable().setEnableAsyncMvRewrite(false);
+        try {
+            String plan = getFragmentPlan(sql);
+            Assert.assertFalse(plan, plan.contains("mv_join"));
+        } finally {
+            connectContext.getSessionVariable().setEnableAsyncMvRewrite(true);
+        }
+
+        Database db = Catalog.getCurrentCatalog().getDb("default_cluster:test");
+        OlapTable mv = (OlapTable) db.getTable("mv_join");
+        Map<String, String> state = Maps.newHashMap();
+        state.put(AsyncMaterializedViewProperty.BASE_VERSIONS, "{}");
+        mv.setAsyncMaterializedViewProperties(state);
+        try {
+            Assert.assertFalse(mv.getAsyncMaterializedViewProperty().isUpToDate());
+            String plan = getFragmentPlan(sql);
+            Assert.assertFalse(plan, plan.contains("mv_join"));
+        } finally {
+            markRefreshed("mv_join");
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.starrocks.sql.plan;
 
+import com.google.common.collect.Lists;
 import com.starrocks.common.FeConstants;
+import com.starrocks.planner.HashJoinNode;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.PlanNode;
+import com.starrocks.planner.RuntimeFilterDescription;
 import com.starrocks.utframe.UtFrameUtils;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.List;
+
 public class DistributedEnvPlanWithCostTest extends DistributedEnvPlanTestBase {
     @BeforeClass
     public static void beforeClass() throws Exception {
@@ -289,6 +296,85 @@ public class DistributedEnvPlanWithCostTest extends DistributedEnvPlanTestBase {
                 + "     - filter_id = 2, probe_expr = (11: L_SUPPKEY)\n"));
     }
 
+    @Test
+    public void testRuntimeFilterPushDownThroughJoin() throws Exception {
+        connectContext.getSessionVariable().disableJoinReorder();
+        try {
+            // the filter built by part is forwarded by `l_partkey = ps_partkey` to both sides of the lower join
+            String sql = "select count(*) from lineitem join [broadcast] partsupp on l_partkey = ps_partkey "
+                    + "join [broadcast] part on ps_partkey = p_partkey where p_size = 1";
+            List<PlanNode> nodes = getPlanNodes(sql);
+            RuntimeFilterDescription rf = getBuildRuntimeFilter(nodes, "part");
+            Assert.assertTrue(getScanNode(nodes, "lineitem").getProbeRuntimeFilters().contains(rf));
+            Assert.assertTrue(getScanNode(nodes, "partsupp").getProbeRuntimeFilters().contains(rf));
+            Assert.assertTrue(rf.isHasRemoteTargets());
+        } finally {
+            connectContext.getSessionVariable().enableJoinReorder();
+        }
+    }
+
+    @Test
+    public void testRuntimeFilterPushDownAcrossExchange() throws Exception {
+        // the filter is pushed through the aggregation, the exchange and the project to the scan of orders
+        String sql = "select count(*) from (select o_custkey, count(*) as c from orders group by o_custkey) t "
+                + "join [broadcast] customer on o_custkey = c_custkey where c_nationkey = 1";
+        List<PlanNode> nodes = getPlanNodes(sql);
+        RuntimeFilterDescription rf = getBuildRuntimeFilter(nodes, "customer");
+        Assert.assertTrue(getScanNode(nodes, "orders").getProbeRuntimeFilters().contains(rf));
+        Assert.assertTrue(rf.isHasRemoteTargets());
+
+        // too few rows to wait for a global filter, the filter is probed by the local exchange
+        long probeMinSize = connectContext.getSessionVariable().getGlobalRuntimeFilterProbeMinSize();
+        connectContext.getSessionVariable().setGlobalRuntimeFilterProbeMinSize(Long.MAX_VALUE);
+        try {
+            nodes = getPlanNodes(sql);
+            rf = getBuildRuntimeFilter(nodes, "customer");
+            Assert.assertFalse(getScanNode(nodes, "orders").getProbeRuntimeFilters().contains(rf));
+            Assert.assertFalse(rf.isHasRemoteTargets());
+        } finally {
+            connectContext.getSessionVariable().setGlobalRuntimeFilterProbeMinSize(probeMinSize);
+        }
+    }
+
+    private List<PlanNode> getPlanNodes(String sql) throws Exception {
+        ExecPlan execPlan = UtFrameUtils.getNewPlanAndFragment(connectContext, sql).second;
+        List<PlanNode> nodes = Lists.newArrayList();
+        collectPlanNodes(execPlan.getFragments().get(0).getPlanRoot(), nodes);
+        return nodes;
+    }
+
+    private void collectPlanNodes(PlanNode node, List<PlanNode> nodes) {
+        nodes.add(node);
+        for (PlanNode child : node.getChildren()) {
+            collectPlanNodes(child, nodes);
+        }
+    }
+
+    private OlapScanNode getScanNode(List<PlanNode> nodes, String tableName) {
+        return (OlapScanNode) nodes.stream()
+                .filter(node -> node instanceof OlapScanNode)
+                .filter(node -> ((OlapScanNode) node).getOlapTable().getName().equalsIgnoreCase(tableName))
+                .findFirst().orElseThrow(IllegalStateException::new);
+    }
+
+    // the filter built by the join whose build side scans the table
+    private RuntimeFilterDescription getBuildRuntimeFilter(List<PlanNode> nodes, String tableName) {
+        for (PlanNode node : nodes) {
+            if (!(node instanceof HashJoinNode)) {
+                continue;
+            }
+            List<PlanNode> buildNodes = Lists.newArrayList();
+            collectPlanNodes(node.getChild(1), buildNodes);
+            if (buildNodes.stream().anyMatch(n -> n instanceof OlapScanNode
+                    && ((OlapScanNode) n).getOlapTable().getName().equalsIgnoreCase(tableName))) {
+                List<RuntimeFilterDescription> filters = ((HashJoinNode) node).getBuildRuntimeFilters();
+                Assert.assertFalse(filters.isEmpty());
+                return filters.get(0);
+            }
+        }
+        throw new IllegalStateException("no join builds on " + tableName);
+    }
+
     @Test
     public void testAggPreferTwoPhaseWithDefaultColumnStatistics() throws Exception {
         String sql = "select t1d, t1e, sum(t1c) from test_all_type group by t1d, t1e";
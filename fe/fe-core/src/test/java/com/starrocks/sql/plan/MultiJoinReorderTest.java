@@ -485,4 +485,111 @@ public class MultiJoinReorderTest extends PlanTestBase {
                 "  |  equal join conjunct: 4: v1 = 1: v4\n" +
                 "  |  use vectorized: true"));
     }
+
+    private static String buildChainJoin(int tableNum) {
+        StringBuilder sql = new StringBuilder("select count(*) from t0 a0");
+        for (int i = 1; i < tableNum; i++) {
+            sql.append(" join t0 a").append(i).append(" on a").append(i - 1).append(".v2 = a").append(i).append(".v1");
+        }
+        return sql.toString();
+    }
+
+    // a star join, a0 is joined with every other table by a different key, so no predicate is derived between them
+    private static String buildStarJoin(int tableNum) {
+        StringBuilder sql = new StringBuilder("select count(*) from t0 a0");
+        for (int i = 1; i < tableNum; i++) {
+            sql.append(" join t0 a").append(i).append(" on a0.v1 + ").append(i).append(" = a").append(i).append(".v1");
+        }
+        return sql.toString();
+    }
+
+    // a snowflake join, a0 is joined with dimNum chains of chainLength tables
+    private static String buildSnowflakeJoin(int dimNum, int chainLength) {
+        StringBuilder sql = new StringBuilder("select count(*) from t0 a0");
+        for (int i = 1; i <= dimNum; i++) {
+            String previous = "a0.v1 + " + i;
+            for (int j = 0; j < chainLength; j++) {
+                String table = "d" + i + "_" + j;
+                sql.append(" join t0 ").append(table).append(" on ").append(previous).append(" = ").append(table)
+                        .append(".v1");
+                previous = table + ".v2 + " + j;
+            }
+        }
+        return sql.toString();
+    }
+
+    @Test
+    public void testDPhypJoinReorder() throws Exception {
+        connectContext.getSessionVariable().enableDPJoinReorder();
+        connectContext.getSessionVariable().disableGreedyJoinReorder();
+        try {
+            // far beyond cbo_max_reorder_node_use_dp, 2300 pairs
+            String planFragment = getFragmentPlan(buildChainJoin(24));
+            Assert.assertFalse(planFragment.contains("CROSS JOIN"));
+            Assert.assertEquals(23, planFragment.split("join op: INNER JOIN").length - 1);
+        } finally {
+            connectContext.getSessionVariable().enableGreedyJoinReorder();
+        }
+    }
+
+    @Test
+    public void testDPhypStarJoinReorder() throws Exception {
+        connectContext.getSessionVariable().enableDPJoinReorder();
+        connectContext.getSessionVariable().disableGreedyJoinReorder();
+        try {
+            // 10 * 2^9 pairs, within cbo_max_dphyp_join_pairs
+            String planFragment = getFragmentPlan(buildStarJoin(11));
+            Assert.assertFalse(planFragment.contains("CROSS JOIN"));
+            Assert.assertEquals(10, planFragment.split("join op: INNER JOIN").length - 1);
+        } finally {
+            connectContext.getSessionVariable().enableGreedyJoinReorder();
+        }
+
+        // 19 * 2^18 pairs, DPhyp is skipped without building any plan, and the greedy reorder plans it
+        String planFragment = getFragmentPlan(buildStarJoin(20));
+        Assert.assertFalse(planFragment.contains("CROSS JOIN"));
+        Assert.assertEquals(19, planFragment.split("join op: INNER JOIN").length - 1);
+    }
+
+    @Test
+    public void testDPhypJoinReorderSkipped() throws Exception {
+        connectContext.getSessionVariable().enableDPJoinReorder();
+        connectContext.getSessionVariable().disableGreedyJoinReorder();
+        connectContext.getSessionVariable().setCboMaxDPhypJoinPairs(0);
+        try {
+            // DPhyp gives up, the left deep reorder still produces a plan
+            String planFragment = getFragmentPlan(buildChainJoin(16));
+            Assert.assertEquals(15, planFragment.split("join op: INNER JOIN").length - 1);
+        } finally {
+            connectContext.getSessionVariable().setCboMaxDPhypJoinPairs(1000000);
+            connectContext.getSessionVariable().enableGreedyJoinReorder();
+        }
+    }
+
+    @Test
+    public void testDPhypSnowflakeJoinReorder() throws Exception {
+        connectContext.getSessionVariable().enableDPJoinReorder();
+        connectContext.getSessionVariable().disableGreedyJoinReorder();
+        try {
+            // 22 tables, 172060 pairs, within cbo_max_dphyp_join_pairs
+            String planFragment = getFragmentPlan(buildSnowflakeJoin(7, 3));
+            Assert.assertFalse(planFragment.contains("CROSS JOIN"));
+            Assert.assertEquals(21, planFragment.split("join op: INNER JOIN").length - 1);
+        } finally {
+            connectContext.getSessionVariable().enableGreedyJoinReorder();
+        }
+    }
+
+    @Test
+    public void testDPhypLargeStarJoinPlanTime() throws Exception {
+        connectContext.getSessionVariable().enableDPJoinReorder();
+        // the counting of pairs stops at cbo_max_dphyp_join_pairs, instead of walking all the 31 * 2^30 pairs
+        for (int tableNum : new int[] {20, 26, 32}) {
+            long start = System.currentTimeMillis();
+            String planFragment = getFragmentPlan(buildStarJoin(tableNum));
+            long planTime = System.currentTimeMillis() - start;
+            Assert.assertEquals(tableNum - 1, planFragment.split("join op: INNER JOIN").length - 1);
+            Assert.assertTrue(tableNum + " tables planned in " + planTime + "ms", planTime < 10000);
+        }
+    }
 }
@@ -97,4 +97,23 @@ public class PartitionPruneTest extends PlanTestBase {
                 "     partitions=1/4\n" +
                 "     rollup: ptest"));
     }
+
+    @Test
+    public void testDisjunctivePrune() throws Exception {
+        String sql = getFragmentPlan("select * from ptest where d2 < '2020-01-01' or d2 >= '2020-07-01'");
+        assertTrue(sql.contains("partitions=2/4\n"));
+
+        sql = getFragmentPlan("select * from ptest where (d2 >= '2020-02-01' and d2 < '2020-03-01') "
+                + "or d2 in ('2020-05-01', '2020-05-02') or d2 < '2020-01-01'");
+        assertTrue(sql.contains("partitions=3/4\n"));
+
+        // combined with the filters of conjuncts
+        sql = getFragmentPlan("select * from ptest where d2 >= '2020-04-01' "
+                + "and (d2 < '2020-01-01' or d2 >= '2020-07-01')");
+        assertTrue(sql.contains("partitions=1/4\n"));
+
+        // can not prune if any disjunct has no filter on the partition column
+        sql = getFragmentPlan("select * from ptest where d2 < '2020-01-01' or v1 = 1");
+        assertTrue(sql.contains("partitions=4/4\n"));
+    }
 }
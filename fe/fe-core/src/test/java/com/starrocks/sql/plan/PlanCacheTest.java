@@ -0,0 +1,201 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.analysis.AlterTableStmt;
+import com.starrocks.analysis.CreateUserStmt;
+import com.starrocks.analysis.SqlParser;
+import com.starrocks.analysis.SqlScanner;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.analysis.TablePattern;
+import com.starrocks.analysis.UserIdentity;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.common.Config;
+import com.starrocks.common.util.SqlParserUtils;
+import com.starrocks.mysql.privilege.Auth;
+import com.starrocks.mysql.privilege.PrivBitSet;
+import com.starrocks.mysql.privilege.Privilege;
+import com.starrocks.qe.OriginStatement;
+import com.starrocks.sql.StatementPlanner;
+import com.starrocks.sql.optimizer.dump.QueryDumpInfo;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.StringReader;
+
+public class PlanCacheTest extends PlanTestBase {
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        PlanTestBase.beforeClass();
+        String tableProperties = "DUPLICATE KEY(k1) PARTITION BY RANGE(k1) "
+                + "(PARTITION p1 VALUES LESS THAN ('10'), PARTITION p2 VALUES LESS THAN ('20')) "
+                + "DISTRIBUTED BY HASH(k1) BUCKETS 3 PROPERTIES ('replication_num' = '1')";
+        starRocksAssert.withTable("CREATE TABLE cache_add_column (k1 int, v1 int) " + tableProperties);
+        starRocksAssert.withTable("CREATE TABLE cache_add_partition (k1 int, v1 int) " + tableProperties);
+        starRocksAssert.withTable("CREATE TABLE cache_swap1 (k1 int, v1 int) " + tableProperties);
+        starRocksAssert.withTable("CREATE TABLE cache_swap2 (k1 int, v1 int) " + tableProperties);
+    }
+
+    @Before
+    public void setUp() {
+        Config.enable_query_plan_cache = true;
+        PlanCache.getInstance().clear();
+    }
+
+    @After
+    public void after() {
+        Config.enable_query_plan_cache = false;
+        PlanCache.getInstance().clear();
+    }
+
+    private static String plan(String sql) throws Exception {
+        connectContext.setDumpInfo(new QueryDumpInfo(connectContext.getSessionVariable()));
+        SqlScanner input = new SqlScanner(new StringReader(sql), connectContext.getSessionVariable().getSqlMode());
+        StatementBase statementBase = SqlParserUtils.getFirstStmt(new SqlParser(input));
+        statementBase.setOrigStmt(new OriginStatement(sql, 0));
+        connectContext.getDumpInfo().setOriginStmt(sql);
+        return new StatementPlanner().plan(statementBase, connectContext).getExplainString(TExplainLevel.NORMAL);
+    }
+
+    @Test
+    public void testCreateKey() {
+        Assert.assertNull(PlanCache.createKey(new OriginStatement("select now()", 0), connectContext));
+        Assert.assertNull(PlanCache.createKey(new OriginStatement("select @@version", 0), connectContext));
+        Assert.assertNull(PlanCache.createKey(new OriginStatement("select RAND() from t0", 0), connectContext));
+
+        String sql = "select v1 from t0 where v2 = 1";
+        Assert.assertEquals(PlanCache.createKey(new OriginStatement(sql, 0), connectContext),
+                PlanCache.createKey(new OriginStatement(sql, 0), connectContext));
+        Assert.assertNotEquals(PlanCache.createKey(new OriginStatement(sql, 0), connectContext),
+                PlanCache.createKey(new OriginStatement(sql, 1), connectContext));
+        Assert.assertNotEquals(PlanCache.createKey(new OriginStatement(sql, 0), connectContext),
+                PlanCache.createKey(new OriginStatement(sql + " ", 0), connectContext));
+    }
+
+    private static void alterTable(String sql) throws Exception {
+        AlterTableStmt alterTableStmt = (AlterTableStmt) UtFrameUtils.parseAndAnalyzeStmt(sql, connectContext);
+        Catalog.getCurrentCatalog().alterTable(alterTableStmt);
+    }
+
+    @Test
+    public void testCacheHit() throws Exception {
+        String sql = "select v1, sum(v3) from t0 join t1 on v1 = v4 where v2 = 1 group by v1";
+        long hitCount = PlanCache.getInstance().getHitCount();
+        long missCount = PlanCache.getInstance().getMissCount();
+        String plan = plan(sql);
+        Assert.assertEquals(1, PlanCache.getInstance().size());
+        Assert.assertEquals(hitCount, PlanCache.getInstance().getHitCount());
+        Assert.assertEquals(missCount + 1, PlanCache.getInstance().getMissCount());
+
+        Assert.assertEquals(plan, plan(sql));
+        Assert.assertEquals(1, PlanCache.getInstance().size());
+        Assert.assertEquals(hitCount + 1, PlanCache.getInstance().getHitCount());
+        Assert.assertEquals(missCount + 1, PlanCache.getInstance().getMissCount());
+
+        // a different literal is a different query
+        plan("select v1, sum(v3) from t0 join t1 on v1 = v4 where v2 = 2 group by v1");
+        Assert.assertEquals(2, PlanCache.getInstance().size());
+    }
+
+    @Test
+    public void testNotCached() throws Exception {
+        plan("select v1 from t0 where v2 = now()");
+        Assert.assertEquals(0, PlanCache.getInstance().size());
+
+        Config.enable_query_plan_cache = false;
+        plan("select v1 from t0");
+        Assert.assertEquals(0, PlanCache.getInstance().size());
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        plan("select v1 from t0");
+        plan("select v4 from t1");
+        Assert.assertEquals(2, PlanCache.getInstance().size());
+
+        OlapTable t0 = (OlapTable) Catalog.getCurrentCatalog().getDb("default_cluster:test").getTable("t0");
+        PlanCache.getInstance().invalidate(t0.getId());
+        Assert.assertEquals(1, PlanCache.getInstance().size());
+    }
+
+    private static void assertReplannedAfter(String sql, String alterSql) throws Exception {
+        plan(sql);
+        long hitCount = PlanCache.getInstance().getHitCount();
+        plan(sql);
+        Assert.assertEquals(hitCount + 1, PlanCache.getInstance().getHitCount());
+
+        alterTable(alterSql);
+        long missCount = PlanCache.getInstance().getMissCount();
+        plan(sql);
+        Assert.assertEquals(hitCount + 1, PlanCache.getInstance().getHitCount());
+        Assert.assertEquals(missCount + 1, PlanCache.getInstance().getMissCount());
+    }
+
+    @Test
+    public void testReplanAfterAddColumn() throws Exception {
+        assertReplannedAfter("select * from cache_add_column",
+                "ALTER TABLE test.cache_add_column ADD COLUMN v2 int DEFAULT '0'");
+    }
+
+    @Test
+    public void testReplanAfterAddPartition() throws Exception {
+        String sql = "select v1 from cache_add_partition where k1 > 5";
+        assertReplannedAfter(sql, "ALTER TABLE test.cache_add_partition ADD PARTITION p3 VALUES LESS THAN ('30')");
+        Assert.assertTrue(plan(sql).contains("partitions=3/3"));
+    }
+
+    @Test
+    public void testReplanAfterSwap() throws Exception {
+        OlapTable swap2 = (OlapTable) Catalog.getCurrentCatalog().getDb("default_cluster:test").getTable("cache_swap2");
+        assertReplannedAfter("select v1 from cache_swap1", "ALTER TABLE test.cache_swap1 SWAP WITH cache_swap2");
+        Assert.assertEquals(swap2.getId(),
+                Catalog.getCurrentCatalog().getDb("default_cluster:test").getTable("cache_swap1").getId());
+    }
+
+    @Test
+    public void testPrivilegeCheckedOnHit() throws Exception {
+        Auth auth = Catalog.getCurrentCatalog().getAuth();
+        CreateUserStmt createUserStmt = (CreateUserStmt) UtFrameUtils.parseAndAnalyzeStmt(
+                "CREATE USER 'plan_cache_user' IDENTIFIED BY ''", connectContext);
+        auth.createUser(createUserStmt);
+        UserIdentity user = new UserIdentity("plan_cache_user", "%");
+        user.analyze("default_cluster");
+        TablePattern tablePattern = new TablePattern("test", "t0");
+        tablePattern.analyze("default_cluster");
+        auth.grantPrivs(user, tablePattern, PrivBitSet.of(Privilege.SELECT_PRIV), true);
+
+        UserIdentity rootUser = connectContext.getCurrentUserIdentity();
+        String rootQualifiedUser = connectContext.getQualifiedUser();
+        connectContext.setCurrentUserIdentity(user);
+        connectContext.setQualifiedUser(user.getQualifiedUser());
+        try {
+            String sql = "select v1 from t0";
+            plan(sql);
+            long hitCount = PlanCache.getInstance().getHitCount();
+            plan(sql);
+            Assert.assertEquals(hitCount + 1, PlanCache.getInstance().getHitCount());
+
+            auth.revokePrivs(user, tablePattern, PrivBitSet.of(Privilege.SELECT_PRIV), true);
+            try {
+                plan(sql);
+                Assert.fail("the privilege is not checked on a cache hit");
+            } catch (AnalysisException e) {
+                Assert.assertTrue(e.getMessage().contains("SELECT command denied"));
+            }
+            // the plan is still cached, so the check is done before the lookup
+            Assert.assertEquals(1, PlanCache.getInstance().size());
+            Assert.assertEquals(hitCount + 1, PlanCache.getInstance().getHitCount());
+        } finally {
+            connectContext.setCurrentUserIdentity(rootUser);
+            connectContext.setQualifiedUser(rootQualifiedUser);
+        }
+    }
+}
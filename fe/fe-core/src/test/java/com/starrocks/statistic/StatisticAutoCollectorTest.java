@@ -0,0 +1,263 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.statistic;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Database;
+import com.starrocks.common.Config;
+import com.starrocks.statistic.Constants.AnalyzeType;
+import com.starrocks.statistic.Constants.ScheduleStatus;
+import com.starrocks.statistic.Constants.ScheduleType;
+import com.starrocks.statistic.StatisticAutoCollector.SampleNdv;
+import com.starrocks.statistic.StatisticAutoCollector.TableCollectJob;
+import com.starrocks.utframe.StarRocksAssert;
+import com.starrocks.utframe.UtFrameUtils;
+import mockit.Deencapsulation;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class StatisticAutoCollectorTest {
+    private static final String RUNNING_DIR = "fe/mocked/StatisticAutoCollectorTest/" + UUID.randomUUID() + "/";
+
+    private static Database db;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        UtFrameUtils.createMinStarRocksCluster(RUNNING_DIR);
+        StarRocksAssert starRocksAssert = new StarRocksAssert(UtFrameUtils.createDefaultCtx());
+        starRocksAssert.withDatabase("stats_db").useDatabase("stats_db");
+        for (int i = 0; i < 4; i++) {
+            starRocksAssert.withTable("CREATE TABLE t" + i + " (k1 int, v1 int) DUPLICATE KEY(k1) "
+                    + "DISTRIBUTED BY HASH(k1) BUCKETS 1 PROPERTIES ('replication_num' = '1')");
+        }
+        db = Catalog.getCurrentCatalog().getDb("default_cluster:stats_db");
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        File file = new File(RUNNING_DIR);
+        file.delete();
+    }
+
+    private static AnalyzeJob createAnalyzeJob(long id) {
+        AnalyzeJob analyzeJob = new AnalyzeJob();
+        analyzeJob.setId(id);
+        analyzeJob.setDbId(db.getId());
+        analyzeJob.setType(AnalyzeType.FULL);
+        analyzeJob.setScheduleType(ScheduleType.ONCE);
+        analyzeJob.setStatus(ScheduleStatus.PENDING);
+        analyzeJob.setWorkTime(LocalDateTime.MIN);
+        analyzeJob.setReason("");
+        return analyzeJob;
+    }
+
+    private static TableCollectJob createTableJob(AnalyzeJob analyzeJob, String tableName, long changedRows) {
+        TableCollectJob tableJob = new TableCollectJob();
+        tableJob.job = analyzeJob;
+        tableJob.db = db;
+        tableJob.table = db.getTable(tableName);
+        tableJob.columns = Lists.newArrayList("k1", "v1");
+        tableJob.changedRows = changedRows;
+        return tableJob;
+    }
+
+    @Test
+    public void testAdaptiveSampleRows() {
+        // small tables sample the base rows
+        Assert.assertEquals(200000, StatisticAutoCollector.getAdaptiveSampleRows(200000, 10000000, 1000, 1));
+        Assert.assertEquals(200000, StatisticAutoCollector.getAdaptiveSampleRows(200000, 10000000, 1000000, 1));
+        // large tables sample more rows
+        Assert.assertEquals(10000000, StatisticAutoCollector.getAdaptiveSampleRows(200000, 100000000, 10000000000L, 1));
+        Assert.assertEquals(400000, StatisticAutoCollector.getAdaptiveSampleRows(200000, 10000000, 1000, 2));
+        // limited by the max rows, but never less than the base rows
+        Assert.assertEquals(10000000, StatisticAutoCollector.getAdaptiveSampleRows(200000, 10000000, 10000000000L, 8));
+        Assert.assertEquals(200000, StatisticAutoCollector.getAdaptiveSampleRows(200000, 0, 10000000000L, 8));
+    }
+
+    @Test
+    public void testSampleRows() {
+        StatisticAutoCollector collector = new StatisticAutoCollector();
+        Map<Long, Integer> sampleScales = Deencapsulation.getField(collector, "sampleScales");
+        sampleScales.put(db.getTable("t0").getId(), 2);
+        AnalyzeJob analyzeJob = new AnalyzeJob();
+        AnalyzeJob rowsJob = new AnalyzeJob();
+        rowsJob.setProperties(Maps.newHashMap(ImmutableMap.of(AnalyzeJob.PROP_SAMPLE_COLLECT_ROWS_KEY, "1000")));
+
+        // the fixed rows are sampled by default
+        Assert.assertEquals(Config.statistic_sample_collect_rows,
+                collector.getSampleRows(analyzeJob, db.getTable("t0")));
+        Assert.assertEquals(1000, collector.getSampleRows(rowsJob, db.getTable("t0")));
+
+        boolean adaptive = Config.enable_statistic_adaptive_sample_rows;
+        Config.enable_statistic_adaptive_sample_rows = true;
+        try {
+            Assert.assertEquals(Config.statistic_sample_collect_rows * 2,
+                    collector.getSampleRows(analyzeJob, db.getTable("t0")));
+            Assert.assertEquals(Config.statistic_sample_collect_rows,
+                    collector.getSampleRows(analyzeJob, db.getTable("t1")));
+            Assert.assertEquals(1000, collector.getSampleRows(rowsJob, db.getTable("t0")));
+        } finally {
+            Config.enable_statistic_adaptive_sample_rows = adaptive;
+        }
+    }
+
+    @Test
+    public void testNdvStable() {
+        SampleNdv a100 = new SampleNdv(100, 1000);
+        SampleNdv b10 = new SampleNdv(10, 1000);
+        Assert.assertTrue(StatisticAutoCollector.isNdvStable(ImmutableMap.of("a", a100, "b", b10),
+                ImmutableMap.of("a", new SampleNdv(110, 1000), "b", new SampleNdv(9, 1000))));
+        Assert.assertFalse(StatisticAutoCollector.isNdvStable(ImmutableMap.of("a", a100, "b", b10),
+                ImmutableMap.of("a", new SampleNdv(110, 1000), "b", new SampleNdv(20, 1000))));
+        Assert.assertFalse(StatisticAutoCollector.isNdvStable(ImmutableMap.of("a", a100),
+                ImmutableMap.of("a", new SampleNdv(70, 1000))));
+        // the columns not collected again are ignored
+        Assert.assertTrue(StatisticAutoCollector.isNdvStable(ImmutableMap.of("a", a100, "b", b10),
+                ImmutableMap.of("a", new SampleNdv(100, 1000))));
+        Assert.assertTrue(StatisticAutoCollector.isNdvStable(ImmutableMap.of("a", new SampleNdv(0, 0)),
+                ImmutableMap.of("a", new SampleNdv(1, 0))));
+        Assert.assertTrue(StatisticAutoCollector.isNdvStable(ImmutableMap.of("a", new SampleNdv(0, 0)),
+                ImmutableMap.of("a", new SampleNdv(0, 0))));
+    }
+
+    @Test
+    public void testNdvStableWithLoads() {
+        SampleNdv unique = new SampleNdv(1000, 1000);
+        SampleNdv lowCardinality = new SampleNdv(10, 1000);
+        // the rows are doubled by loads, the ndv of a unique key doubles and the low cardinality column stays
+        Assert.assertTrue(StatisticAutoCollector.isNdvStable(
+                ImmutableMap.of("unique", unique, "low", lowCardinality),
+                ImmutableMap.of("unique", new SampleNdv(2000, 2000), "low", new SampleNdv(10, 2000))));
+        // the growth of the ndv is not explained by the rows
+        Assert.assertFalse(StatisticAutoCollector.isNdvStable(ImmutableMap.of("unique", unique),
+                ImmutableMap.of("unique", new SampleNdv(3000, 2000))));
+        // the rows are halved by deleting partitions
+        Assert.assertTrue(StatisticAutoCollector.isNdvStable(
+                ImmutableMap.of("unique", unique, "low", lowCardinality),
+                ImmutableMap.of("unique", new SampleNdv(500, 500), "low", new SampleNdv(10, 500))));
+        Assert.assertFalse(StatisticAutoCollector.isNdvStable(ImmutableMap.of("unique", unique),
+                ImmutableMap.of("unique", new SampleNdv(300, 500))));
+    }
+
+    @Test
+    public void testCollectInOrderOfChangedRows() {
+        List<Long> collectedTables = Collections.synchronizedList(Lists.newArrayList());
+        new MockUp<StatisticExecutor>() {
+            @Mock
+            public void fullCollectStatisticSync(Long dbId, Long tableId, List<String> columnNames) {
+                collectedTables.add(tableId);
+            }
+        };
+
+        int concurrency = Config.statistic_collect_concurrency;
+        Config.statistic_collect_concurrency = 1;
+        try {
+            AnalyzeJob analyzeJob = createAnalyzeJob(1);
+            new StatisticAutoCollector().collectStatistics(Lists.newArrayList(
+                    createTableJob(analyzeJob, "t0", 10),
+                    createTableJob(analyzeJob, "t1", 30),
+                    createTableJob(analyzeJob, "t2", 0),
+                    createTableJob(analyzeJob, "t3", 20)));
+            Assert.assertEquals(Lists.newArrayList(db.getTable("t1").getId(), db.getTable("t3").getId(),
+                    db.getTable("t0").getId(), db.getTable("t2").getId()), collectedTables);
+            Assert.assertEquals(ScheduleStatus.FINISH, analyzeJob.getStatus());
+        } finally {
+            Config.statistic_collect_concurrency = concurrency;
+        }
+    }
+
+    @Test
+    public void testCollectConcurrently() {
+        // each table job waits until all the table jobs are running, except in the first round
+        AtomicBoolean firstRound = new AtomicBoolean(true);
+        CountDownLatch running = new CountDownLatch(4);
+        new MockUp<StatisticExecutor>() {
+            @Mock
+            public void fullCollectStatisticSync(Long dbId, Long tableId, List<String> columnNames)
+                    throws Exception {
+                if (firstRound.get()) {
+                    return;
+                }
+                running.countDown();
+                if (!running.await(60, TimeUnit.SECONDS)) {
+                    throw new Exception("not run concurrently");
+                }
+            }
+        };
+
+        int concurrency = Config.statistic_collect_concurrency;
+        StatisticAutoCollector collector = new StatisticAutoCollector();
+        try {
+            // the pool of the collector grows with the concurrency from one round to the next
+            Config.statistic_collect_concurrency = 1;
+            collector.collectStatistics(Lists.newArrayList(createTableJob(createAnalyzeJob(1), "t0", 10)));
+            Config.statistic_collect_concurrency = 4;
+            firstRound.set(false);
+
+            AnalyzeJob analyzeJob1 = createAnalyzeJob(1);
+            AnalyzeJob analyzeJob2 = createAnalyzeJob(2);
+            collector.collectStatistics(Lists.newArrayList(
+                    createTableJob(analyzeJob1, "t0", 10),
+                    createTableJob(analyzeJob1, "t1", 10),
+                    createTableJob(analyzeJob2, "t2", 10),
+                    createTableJob(analyzeJob2, "t3", 10)));
+            Assert.assertEquals(0, running.getCount());
+            Assert.assertEquals(4, Deencapsulation.<ThreadPoolExecutor>getField(collector, "collectExecutor")
+                    .getMaximumPoolSize());
+            Assert.assertEquals("", analyzeJob1.getReason());
+            Assert.assertEquals("", analyzeJob2.getReason());
+        } finally {
+            Config.statistic_collect_concurrency = concurrency;
+        }
+    }
+
+    @Test
+    public void testCollectFailed() {
+        long failedTableId = db.getTable("t1").getId();
+        new MockUp<StatisticExecutor>() {
+            @Mock
+            public void fullCollectStatisticSync(Long dbId, Long tableId, List<String> columnNames)
+                    throws Exception {
+                if (tableId == failedTableId) {
+                    throw new Exception("collect failed");
+                }
+            }
+        };
+
+        AnalyzeJob onceJob = createAnalyzeJob(1);
+        AnalyzeJob scheduleJob = createAnalyzeJob(2);
+        scheduleJob.setScheduleType(ScheduleType.SCHEDULE);
+        new StatisticAutoCollector().collectStatistics(Lists.newArrayList(
+                createTableJob(onceJob, "t0", 10),
+                createTableJob(onceJob, "t1", 10),
+                createTableJob(scheduleJob, "t1", 10),
+                createTableJob(scheduleJob, "t2", 10)));
+
+        // the failure of a table job is recorded in its analyze job, which is still finished or rescheduled
+        Assert.assertTrue(onceJob.getReason(), onceJob.getReason().contains("t1: collect failed"));
+        Assert.assertEquals(ScheduleStatus.FINISH, onceJob.getStatus());
+        Assert.assertTrue(scheduleJob.getReason(), scheduleJob.getReason().contains("t1: collect failed"));
+        Assert.assertEquals(ScheduleStatus.PENDING, scheduleJob.getStatus());
+        Assert.assertTrue(scheduleJob.getWorkTime().isAfter(LocalDateTime.MIN));
+        Assert.assertSame(onceJob, Catalog.getCurrentAnalyzeMgr().getAllAnalyzeJobList().stream()
+                .filter(j -> j.getId() == 1).findFirst().orElse(null));
+    }
+}
@@ -0,0 +1,101 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.task;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.Config;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AgentTaskDispatcherTest {
+    private static final long SLOW_BACKEND = 1L;
+    private static final long FAST_BACKEND = 2L;
+
+    private ExecutorService executor;
+    private final CountDownLatch slowBackendBlocked = new CountDownLatch(1);
+    private final CountDownLatch releaseSlowBackend = new CountDownLatch(1);
+    private final AtomicInteger maxInflightToSlowBackend = new AtomicInteger(0);
+    private final AtomicInteger inflightToSlowBackend = new AtomicInteger(0);
+    private final List<Integer> slowBackendRpcSizes = new CopyOnWriteArrayList<>();
+    private final List<AgentTask> sentToFastBackend = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        releaseSlowBackend.countDown();
+        executor.shutdownNow();
+    }
+
+    private void send(long backendId, List<AgentTask> tasks) throws Exception {
+        if (backendId == FAST_BACKEND) {
+            sentToFastBackend.addAll(tasks);
+            return;
+        }
+        int inflight = inflightToSlowBackend.incrementAndGet();
+        maxInflightToSlowBackend.accumulateAndGet(inflight, Math::max);
+        slowBackendRpcSizes.add(tasks.size());
+        slowBackendBlocked.countDown();
+        releaseSlowBackend.await();
+        inflightToSlowBackend.decrementAndGet();
+    }
+
+    private static List<AgentTask> createTasks(long backendId, int num) {
+        List<AgentTask> tasks = Lists.newArrayList();
+        for (int i = 0; i < num; i++) {
+            tasks.add(new DropReplicaTask(backendId, i, 0));
+        }
+        return tasks;
+    }
+
+    @Test
+    public void testSlowBackendDoesNotBlockOthers() throws Exception {
+        int oldInflight = Config.agent_task_max_inflight_rpcs_per_backend;
+        Config.agent_task_max_inflight_rpcs_per_backend = 1;
+        try {
+            AgentTaskDispatcher dispatcher = new AgentTaskDispatcher(executor, this::send);
+            dispatcher.dispatch(SLOW_BACKEND, createTasks(SLOW_BACKEND, 1));
+            Assert.assertTrue(slowBackendBlocked.await(10, TimeUnit.SECONDS));
+
+            // queued behind the blocked rpc, and coalesced into one rpc later
+            dispatcher.dispatch(SLOW_BACKEND, createTasks(SLOW_BACKEND, 3));
+            dispatcher.dispatch(SLOW_BACKEND, createTasks(SLOW_BACKEND, 4));
+            Assert.assertEquals(7, dispatcher.getQueuedTaskNum(SLOW_BACKEND));
+
+            dispatcher.dispatch(FAST_BACKEND, createTasks(FAST_BACKEND, 5));
+            long deadline = System.currentTimeMillis() + 10000;
+            while (sentToFastBackend.size() < 5 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(5, sentToFastBackend.size());
+
+            releaseSlowBackend.countDown();
+            deadline = System.currentTimeMillis() + 10000;
+            while (dispatcher.getQueuedTaskNum() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(0, dispatcher.getQueuedTaskNum());
+            Assert.assertEquals(1, maxInflightToSlowBackend.get());
+            deadline = System.currentTimeMillis() + 10000;
+            while (slowBackendRpcSizes.size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(Lists.newArrayList(1, 7), slowBackendRpcSizes);
+        } finally {
+            Config.agent_task_max_inflight_rpcs_per_backend = oldInflight;
+        }
+    }
+}
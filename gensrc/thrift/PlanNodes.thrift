@@ -192,6 +192,9 @@ struct TEsScanRange {
   2: required string index
   3: optional string type
   4: required i32 shard_id
+  // sliced scroll: when slice_max > 1 this range only reads slice `slice_id` of the shard
+  5: optional i32 slice_id
+  6: optional i32 slice_max
 }
 
 // Hdfs scan range